@@ -0,0 +1,63 @@
+package core;
+
+import org.openjdk.jmh.annotations.*;
+import serializer.BenchmarkPayload;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AbstractOperation中key、value转换为byte[]的开销
+ *
+ * @since 2019/5/7
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OperationEncodingBenchmark
+{
+
+	private DefaultStringOpreation<Integer, Integer> intOperation;
+
+	private DefaultStringOpreation<String, BenchmarkPayload> objectOperation;
+
+	private Integer intKey;
+	private String stringKey;
+	private BenchmarkPayload payload;
+
+	@Setup
+	public void setup()
+	{
+		intOperation = new DefaultStringOpreation<>("test", null, Integer.class, Integer.class);
+		objectOperation = new DefaultStringOpreation<>("object", null, String.class, BenchmarkPayload.class);
+		intKey = 123456789;
+		stringKey = "user:123456789";
+		payload = BenchmarkPayload.sample();
+	}
+
+	@Benchmark
+	public byte[] intKeyToBytes()
+	{
+		return intOperation.keyToBytes(intKey);
+	}
+
+	@Benchmark
+	public byte[] stringKeyToBytes()
+	{
+		return objectOperation.keyToBytes(stringKey);
+	}
+
+	@Benchmark
+	public byte[] intValueToBytes()
+	{
+		return intOperation.valueToBytes(intKey);
+	}
+
+	@Benchmark
+	public byte[] objectValueToBytes()
+	{
+		return objectOperation.valueToBytes(payload);
+	}
+}
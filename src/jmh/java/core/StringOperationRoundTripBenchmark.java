@@ -0,0 +1,69 @@
+package core;
+
+import connection.DefaultJedisClientConfiguration;
+import connection.JedisConnectionFactory;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.openjdk.jmh.annotations.*;
+import serializer.GenericJackson2JsonRedisSerializer;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DefaultStringOpreation.get/set 完整的请求路径：
+ * 从连接池获取连接、key/value序列化、发送命令、读取回复、反序列化
+ * 服务端为进程内的{@link RespStubServer}
+ *
+ * @since 2019/5/7
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StringOperationRoundTripBenchmark
+{
+
+	private static final int KEY = 42;
+
+	private RespStubServer server;
+
+	private DefaultStringOpreation<Integer, Integer> operation;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		server = new RespStubServer();
+		int port = server.getPort();
+		JedisConnectionFactory factory = new JedisConnectionFactory(new DefaultJedisClientConfiguration(new GenericObjectPoolConfig())
+		{
+			@Override
+			public int getPort()
+			{
+				return port;
+			}
+		});
+		factory.init();
+		operation = new DefaultStringOpreation<>("test", new RedisTemplate(factory), Integer.class, Integer.class);
+		server.put("test_" + KEY, GenericJackson2JsonRedisSerializer.jsonSerializer.serialize(KEY));
+	}
+
+	@TearDown
+	public void tearDown() throws IOException
+	{
+		server.close();
+	}
+
+	@Benchmark
+	public Integer get()
+	{
+		return operation.get(KEY);
+	}
+
+	@Benchmark
+	public Boolean set()
+	{
+		return operation.set(KEY, KEY);
+	}
+}
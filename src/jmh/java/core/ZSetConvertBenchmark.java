@@ -0,0 +1,49 @@
+package core;
+
+import org.openjdk.jmh.annotations.*;
+import redis.clients.jedis.Tuple;
+import serializer.GenericJackson2JsonRedisSerializer;
+import support.TypedTuple;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DefaultZSetOperation.convertTuple 将range结果反序列化的开销
+ *
+ * @since 2019/5/7
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ZSetConvertBenchmark
+{
+
+	@Param({"10", "1000"})
+	private int size;
+
+	private DefaultZSetOperation<Integer, Integer> zSetOperation;
+
+	private Set<Tuple> tuples;
+
+	@Setup
+	public void setup()
+	{
+		zSetOperation = new DefaultZSetOperation<>("zset_1", null, Integer.class, Integer.class);
+		tuples = new LinkedHashSet<>(size);
+		for(int i = 0; i < size; i++)
+		{
+			tuples.add(new Tuple(GenericJackson2JsonRedisSerializer.jsonSerializer.serialize(i), (double) i));
+		}
+	}
+
+	@Benchmark
+	public Set<TypedTuple<Integer>> convertTuple()
+	{
+		return zSetOperation.convertTuple(tuples);
+	}
+}
@@ -0,0 +1,34 @@
+package serializer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试使用的典型缓存对象
+ *
+ * @since 2019/5/7
+ */
+public class BenchmarkPayload
+{
+	public long id;
+	public String name;
+	public double score;
+	public List<String> tags = new ArrayList<>();
+	public Map<String, Integer> counters = new HashMap<>();
+
+	public static BenchmarkPayload sample()
+	{
+		BenchmarkPayload payload = new BenchmarkPayload();
+		payload.id = 1234567890L;
+		payload.name = "benchmark-payload";
+		payload.score = 98.5;
+		for(int i = 0; i < 8; i++)
+		{
+			payload.tags.add("tag-" + i);
+			payload.counters.put("counter-" + i, i * 100);
+		}
+		return payload;
+	}
+}
@@ -0,0 +1,92 @@
+package serializer;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * value序列化/反序列化的开销
+ *
+ * @since 2019/5/7
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializerBenchmark
+{
+
+	private final GenericJackson2JsonRedisSerializer jsonSerializer = GenericJackson2JsonRedisSerializer.jsonSerializer;
+
+	private final BinarySerializer binarySerializer = new BinarySerializer().register(1, BenchmarkPayload.class);
+
+	private Integer intValue;
+	private BenchmarkPayload payload;
+
+	private byte[] rawInt;
+	private byte[] rawPayload;
+
+	private byte[] binaryInt;
+	private byte[] binaryPayload;
+
+	@Setup
+	public void setup()
+	{
+		intValue = 123456789;
+		payload = BenchmarkPayload.sample();
+		rawInt = jsonSerializer.serialize(intValue);
+		rawPayload = jsonSerializer.serialize(payload);
+		binaryInt = binarySerializer.serialize(intValue);
+		binaryPayload = binarySerializer.serialize(payload);
+	}
+
+	@Benchmark
+	public byte[] jsonSerializeInt()
+	{
+		return jsonSerializer.serialize(intValue);
+	}
+
+	@Benchmark
+	public Object jsonDeserializeInt()
+	{
+		return jsonSerializer.deserialize(rawInt, Integer.class);
+	}
+
+	@Benchmark
+	public byte[] jsonSerializeObject()
+	{
+		return jsonSerializer.serialize(payload);
+	}
+
+	@Benchmark
+	public Object jsonDeserializeObject()
+	{
+		return jsonSerializer.deserialize(rawPayload, BenchmarkPayload.class);
+	}
+
+	@Benchmark
+	public byte[] binarySerializeInt()
+	{
+		return binarySerializer.serialize(intValue);
+	}
+
+	@Benchmark
+	public Object binaryDeserializeInt()
+	{
+		return binarySerializer.deserialize(binaryInt, Integer.class);
+	}
+
+	@Benchmark
+	public byte[] binarySerializeObject()
+	{
+		return binarySerializer.serialize(payload);
+	}
+
+	@Benchmark
+	public Object binaryDeserializeObject()
+	{
+		return binarySerializer.deserialize(binaryPayload, BenchmarkPayload.class);
+	}
+}
@@ -0,0 +1,341 @@
+package connection;
+
+import redis.clients.jedis.exceptions.JedisBusyException;
+import redis.clients.jedis.exceptions.JedisClusterMaxAttemptsException;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisExhaustedPoolException;
+import util.Assert;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * 连接工厂的熔断器
+ *
+ * 1、CLOSED：正常执行，统计窗口内的调用次数达到minimumCalls并且失败率达到failureRateThreshold时进入OPEN
+ * 2、OPEN：直接拒绝所有命令，不再等待连接或者socket超时，openDuration之后进入HALF_OPEN
+ * 3、HALF_OPEN：只放行halfOpenProbes个探测请求，全部成功时回到CLOSED，任何一个失败时回到OPEN
+ *
+ * 只有连接失败、socket超时、连接池耗尽、server繁忙等说明redis不可用的异常才计为失败，
+ * WRONGTYPE等命令错误不影响熔断
+ * 统计使用固定时间窗口，窗口整体通过CAS替换，记录时没有锁
+ *
+ * 每次执行命令之前通过{@link #tryAcquire()}获取{@link Permit}，执行结束之后必须调用且只调用一次
+ * {@link #onSuccess(Permit)}、{@link #onError(Permit, Throwable)}、{@link #release(Permit)}之一
+ * 只有HALF_OPEN期间获取的探测permit才会计入探测结果，CLOSED期间获取、在状态切换之后才结束的调用不影响探测
+ *
+ * @since 2019/5/14
+ */
+public class CircuitBreaker
+{
+
+	public enum State
+	{
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	/**
+	 * 默认计为失败的异常
+	 */
+	public static final Predicate<Throwable> UNAVAILABLE = e -> e instanceof JedisConnectionException
+			|| e instanceof JedisExhaustedPoolException
+			|| e instanceof JedisClusterMaxAttemptsException
+			|| e instanceof JedisBusyException;
+
+	/**
+	 * CLOSED状态下获取的permit，不需要区分
+	 */
+	private static final Permit CLOSED_PERMIT = new Permit(null);
+
+	private final double failureRateThreshold;
+
+	private final int minimumCalls;
+
+	private final long windowMillis;
+
+	private final long openDurationMillis;
+
+	private final int halfOpenProbes;
+
+	private final Predicate<Throwable> failurePredicate;
+
+	private final LongSupplier clock;
+
+	/**
+	 * 当前状态，每次状态切换都替换为新的对象
+	 */
+	private final AtomicReference<Phase> phase = new AtomicReference<>(new Phase(State.CLOSED, 0, 0));
+
+	private final AtomicReference<Window> window;
+
+	private final AtomicLong openCount = new AtomicLong();
+
+	/**
+	 * 默认配置：10秒内至少20次调用且失败率达到50%时熔断，5秒后放行3个探测请求
+	 */
+	public CircuitBreaker()
+	{
+		this(0.5, 20, 10, 5, TimeUnit.SECONDS, 3, UNAVAILABLE);
+	}
+
+	/**
+	 * @param failureRateThreshold 失败率阈值，(0, 1]
+	 * @param minimumCalls         窗口内调用次数达到该值时才计算失败率
+	 * @param window               统计窗口
+	 * @param openDuration         熔断之后等待多久开始探测
+	 * @param unit
+	 * @param halfOpenProbes       探测请求的数量
+	 * @param failurePredicate     哪些异常计为失败
+	 */
+	public CircuitBreaker(double failureRateThreshold, int minimumCalls, long window, long openDuration, TimeUnit unit,
+						  int halfOpenProbes, Predicate<Throwable> failurePredicate)
+	{
+		this(failureRateThreshold, minimumCalls, window, openDuration, unit, halfOpenProbes, failurePredicate, System::currentTimeMillis);
+	}
+
+	/**
+	 * @param clock 返回当前时间的毫秒数
+	 */
+	public CircuitBreaker(double failureRateThreshold, int minimumCalls, long window, long openDuration, TimeUnit unit,
+						  int halfOpenProbes, Predicate<Throwable> failurePredicate, LongSupplier clock)
+	{
+		Assert.isTrue(failureRateThreshold > 0 && failureRateThreshold <= 1, "failure rate threshold must be in (0, 1]");
+		Assert.isTrue(minimumCalls > 0, "minimum calls must be positive");
+		Assert.isTrue(window > 0 && openDuration > 0, "window and open duration must be positive");
+		Assert.isTrue(halfOpenProbes > 0, "half open probes must be positive");
+		Assert.notNull(failurePredicate, "non null failure predicate required");
+		Assert.notNull(clock, "non null clock required");
+		this.failureRateThreshold = failureRateThreshold;
+		this.minimumCalls = minimumCalls;
+		this.windowMillis = unit.toMillis(window);
+		this.openDurationMillis = unit.toMillis(openDuration);
+		this.halfOpenProbes = halfOpenProbes;
+		this.failurePredicate = failurePredicate;
+		this.clock = clock;
+		this.window = new AtomicReference<>(new Window(clock.getAsLong()));
+	}
+
+	/**
+	 * 执行命令之前调用
+	 *
+	 * @return null：熔断中，不应该执行命令
+	 */
+	public Permit tryAcquire()
+	{
+		Phase current = phase.get();
+		if(current.state == State.CLOSED)
+		{
+			return CLOSED_PERMIT;
+		}
+
+		if(current.state == State.OPEN)
+		{
+			if(clock.getAsLong() - current.openedAt < openDurationMillis)
+			{
+				return null;
+			}
+			Phase halfOpen = new Phase(State.HALF_OPEN, current.openedAt, halfOpenProbes);
+			if(!phase.compareAndSet(current, halfOpen))
+			{
+				return tryAcquire();
+			}
+			current = halfOpen;
+		}
+
+		// HALF_OPEN
+		for(; ; )
+		{
+			int permits = current.probePermits.get();
+			if(permits <= 0)
+			{
+				return null;
+			}
+			if(current.probePermits.compareAndSet(permits, permits - 1))
+			{
+				return new Permit(current);
+			}
+		}
+	}
+
+	public void onSuccess(Permit permit)
+	{
+		Phase probePhase = permit.phase;
+		if(probePhase == null)
+		{
+			if(phase.get().state == State.CLOSED)
+			{
+				record(false);
+			}
+			return;
+		}
+
+		if(phase.get() == probePhase && probePhase.probeSuccesses.incrementAndGet() >= halfOpenProbes
+				&& phase.compareAndSet(probePhase, new Phase(State.CLOSED, 0, 0)))
+		{
+			window.set(new Window(clock.getAsLong()));
+		}
+	}
+
+	/**
+	 * @param permit
+	 * @param e
+	 * @return 该异常是否计为失败
+	 */
+	public boolean onError(Permit permit, Throwable e)
+	{
+		if(!failurePredicate.test(e))
+		{
+			// 命令错误说明redis可用，但不能作为探测成功
+			if(permit.phase == null)
+			{
+				onSuccess(permit);
+			}
+			else
+			{
+				release(permit);
+			}
+			return false;
+		}
+
+		Phase probePhase = permit.phase;
+		if(probePhase == null)
+		{
+			if(phase.get().state == State.CLOSED)
+			{
+				record(true);
+			}
+		}
+		else if(phase.get() == probePhase)
+		{
+			open(probePhase);
+		}
+		return true;
+	}
+
+	/**
+	 * 调用没有结果（例如callback抛出Error）时归还permit，不计入统计
+	 *
+	 * @param permit
+	 */
+	public void release(Permit permit)
+	{
+		Phase probePhase = permit.phase;
+		if(probePhase != null && phase.get() == probePhase)
+		{
+			probePhase.probePermits.incrementAndGet();
+		}
+	}
+
+	private void record(boolean failure)
+	{
+		long now = clock.getAsLong();
+		Window current = window.get();
+		if(now - current.start >= windowMillis)
+		{
+			// 只有一个线程能替换窗口，其他线程使用替换之后的窗口；替换之前读到旧窗口的线程计入旧窗口
+			window.compareAndSet(current, new Window(now));
+			current = window.get();
+		}
+
+		long calls = current.calls.incrementAndGet();
+		long failures = failure ? current.failures.incrementAndGet() : current.failures.get();
+		if(failure && calls >= minimumCalls && failures >= calls * failureRateThreshold)
+		{
+			Phase closed = phase.get();
+			if(closed.state == State.CLOSED)
+			{
+				open(closed);
+			}
+		}
+	}
+
+	private void open(Phase from)
+	{
+		if(phase.compareAndSet(from, new Phase(State.OPEN, clock.getAsLong(), 0)))
+		{
+			openCount.incrementAndGet();
+		}
+	}
+
+	public State getState()
+	{
+		return phase.get().state;
+	}
+
+	/**
+	 * @return 累计进入OPEN状态的次数
+	 */
+	public long getOpenCount()
+	{
+		return openCount.get();
+	}
+
+
+	/**
+	 * 一次调用的执行许可
+	 */
+	public static final class Permit
+	{
+		/**
+		 * 探测permit所属的HALF_OPEN状态，CLOSED状态下获取的permit为null
+		 */
+		private final Phase phase;
+
+		private Permit(Phase phase)
+		{
+			this.phase = phase;
+		}
+
+		public boolean isProbe()
+		{
+			return phase != null;
+		}
+	}
+
+
+	private static final class Phase
+	{
+		final State state;
+
+		final long openedAt;
+
+		/**
+		 * HALF_OPEN状态下剩余的探测次数
+		 */
+		final AtomicInteger probePermits;
+
+		/**
+		 * HALF_OPEN状态下成功的探测次数
+		 */
+		final AtomicInteger probeSuccesses = new AtomicInteger();
+
+		Phase(State state, long openedAt, int probePermits)
+		{
+			this.state = state;
+			this.openedAt = openedAt;
+			this.probePermits = new AtomicInteger(probePermits);
+		}
+	}
+
+
+	/**
+	 * 固定时间窗口的统计
+	 */
+	private static final class Window
+	{
+		final long start;
+
+		final AtomicLong calls = new AtomicLong();
+
+		final AtomicLong failures = new AtomicLong();
+
+		Window(long start)
+		{
+			this.start = start;
+		}
+	}
+}
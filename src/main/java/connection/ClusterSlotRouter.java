@@ -0,0 +1,324 @@
+package connection;
+
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisRedirectionException;
+import redis.clients.jedis.util.JedisClusterCRC16;
+import redis.clients.jedis.util.SafeEncoder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiFunction;
+
+/**
+ * 集群模式下多key命令的拆分
+ *
+ * 1、按CRC16 slot对key分组，每个slot执行一次命令
+ * 2、同一个节点上的所有slot在一个pipeline中发送，不同节点并行执行，每个节点只有一次往返
+ * 3、slot与节点的对应关系来自CLUSTER SLOTS，收到MOVED/ASK或节点连接失败时，该slot交给JedisCluster重试（由JedisCluster处理重定向），并在下次使用时刷新对应关系
+ *
+ * @since 2019/5/11
+ */
+final class ClusterSlotRouter
+{
+
+	private static final int SLOT_COUNT = 16384;
+
+	private final JedisCluster cluster;
+
+	private final ExecutorService executor;
+
+	/**
+	 * slot对应的节点，格式为host:port，与{@link JedisCluster#getClusterNodes()}的key一致
+	 */
+	private volatile String[] slotNodes;
+
+	ClusterSlotRouter(JedisCluster cluster, ExecutorService executor)
+	{
+		this.cluster = cluster;
+		this.executor = executor;
+	}
+
+	/**
+	 * 所有key是否在同一个slot中，此时可以直接使用JedisCluster的多key命令
+	 *
+	 * @param keys
+	 * @return
+	 */
+	static boolean isSameSlot(byte[]... keys)
+	{
+		if(keys.length <= 1)
+		{
+			return true;
+		}
+
+		int slot = JedisClusterCRC16.getSlot(keys[0]);
+		for(int i = 1; i < keys.length; i++)
+		{
+			if(JedisClusterCRC16.getSlot(keys[i]) != slot)
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 按照下标选取元素
+	 *
+	 * @param source
+	 * @param indexes
+	 * @return
+	 */
+	static byte[][] select(byte[][] source, int[] indexes)
+	{
+		byte[][] ret = new byte[indexes.length][];
+		for(int i = 0; i < indexes.length; i++)
+		{
+			ret[i] = source[indexes[i]];
+		}
+		return ret;
+	}
+
+	/**
+	 * 按slot拆分执行命令
+	 *
+	 * @param keys            所有的key
+	 * @param pipelineCommand 在节点的pipeline中执行一个slot的命令，参数为该slot的key在keys中的下标
+	 * @param clusterCommand  通过JedisCluster执行一个slot的命令，用于重定向或节点失败时的重试
+	 * @param <T>
+	 * @return 每个slot的结果
+	 */
+	<T> List<SlotResult<T>> execute(byte[][] keys, BiFunction<Pipeline, int[], Response<T>> pipelineCommand, BiFunction<JedisCluster, int[], T> clusterCommand)
+	{
+		Map<String, List<int[]>> nodeSlots = groupByNode(keys);
+		List<CompletableFuture<List<SlotResult<T>>>> futures = new ArrayList<>(nodeSlots.size());
+		List<SlotResult<T>> ret = new ArrayList<>();
+		boolean first = true;
+		for(Map.Entry<String, List<int[]>> entry : nodeSlots.entrySet())
+		{
+			// 第一个节点在调用线程中执行
+			if(first)
+			{
+				first = false;
+				continue;
+			}
+			futures.add(CompletableFuture.supplyAsync(() -> executeOnNode(entry.getKey(), entry.getValue(), pipelineCommand, clusterCommand), executor));
+		}
+
+		Map.Entry<String, List<int[]>> firstNode = nodeSlots.entrySet().iterator().next();
+		ret.addAll(executeOnNode(firstNode.getKey(), firstNode.getValue(), pipelineCommand, clusterCommand));
+		for(CompletableFuture<List<SlotResult<T>>> future : futures)
+		{
+			ret.addAll(future.join());
+		}
+		return ret;
+	}
+
+	private <T> List<SlotResult<T>> executeOnNode(String node, List<int[]> slots, BiFunction<Pipeline, int[], Response<T>> pipelineCommand, BiFunction<JedisCluster, int[], T> clusterCommand)
+	{
+		List<SlotResult<T>> ret = new ArrayList<>(slots.size());
+		JedisPool pool = node != null ? cluster.getClusterNodes().get(node) : null;
+		if(pool == null)
+		{
+			slotNodes = null;
+			for(int[] indexes : slots)
+			{
+				ret.add(new SlotResult<>(indexes, clusterCommand.apply(cluster, indexes)));
+			}
+			return ret;
+		}
+
+		List<Response<T>> responses = new ArrayList<>(slots.size());
+		try(Jedis jedis = pool.getResource())
+		{
+			Pipeline pipeline = jedis.pipelined();
+			for(int[] indexes : slots)
+			{
+				responses.add(pipelineCommand.apply(pipeline, indexes));
+			}
+			pipeline.sync();
+		}
+		catch(JedisConnectionException e)
+		{
+			// 节点不可用，可能发生了故障转移
+			slotNodes = null;
+			for(int[] indexes : slots)
+			{
+				ret.add(new SlotResult<>(indexes, clusterCommand.apply(cluster, indexes)));
+			}
+			return ret;
+		}
+
+		for(int i = 0; i < slots.size(); i++)
+		{
+			int[] indexes = slots.get(i);
+			T result;
+			try
+			{
+				result = responses.get(i).get();
+			}
+			catch(JedisRedirectionException e)
+			{
+				// slot正在迁移或已经迁移到其他节点
+				slotNodes = null;
+				result = clusterCommand.apply(cluster, indexes);
+			}
+			ret.add(new SlotResult<>(indexes, result));
+		}
+		return ret;
+	}
+
+	/**
+	 * @return key：节点，value：该节点上每个slot的key下标
+	 */
+	private Map<String, List<int[]>> groupByNode(byte[][] keys)
+	{
+		return groupByNode(keys, getSlotNodes());
+	}
+
+	/**
+	 * 按slot对key分组，再按slot所在的节点对slot分组，slot和节点都保持key第一次出现的顺序
+	 *
+	 * @param keys
+	 * @param nodes slot对应的节点，为null时所有slot归入null节点（由JedisCluster执行）
+	 * @return key：节点，value：该节点上每个slot的key下标
+	 */
+	static Map<String, List<int[]>> groupByNode(byte[][] keys, String[] nodes)
+	{
+		Map<Integer, List<Integer>> slotIndexes = new LinkedHashMap<>();
+		for(int i = 0; i < keys.length; i++)
+		{
+			slotIndexes.computeIfAbsent(JedisClusterCRC16.getSlot(keys[i]), slot -> new ArrayList<>()).add(i);
+		}
+
+		Map<String, List<int[]>> ret = new LinkedHashMap<>();
+		for(Map.Entry<Integer, List<Integer>> entry : slotIndexes.entrySet())
+		{
+			List<Integer> indexList = entry.getValue();
+			int[] indexes = new int[indexList.size()];
+			for(int i = 0; i < indexes.length; i++)
+			{
+				indexes[i] = indexList.get(i);
+			}
+			String node = nodes != null ? nodes[entry.getKey()] : null;
+			ret.computeIfAbsent(node, n -> new ArrayList<>()).add(indexes);
+		}
+		return ret;
+	}
+
+	/**
+	 * 所有负责slot的master节点，用于SCAN等需要在每个节点上执行的命令
+	 *
+	 * @return 按host:port排序，与{@link JedisCluster#getClusterNodes()}的key一致
+	 */
+	List<String> getMasterNodes()
+	{
+		return masterNodes(getSlotNodes());
+	}
+
+	static List<String> masterNodes(String[] nodes)
+	{
+		if(nodes == null)
+		{
+			return new ArrayList<>(0);
+		}
+
+		TreeSet<String> ret = new TreeSet<>();
+		String prev = null;
+		for(String node : nodes)
+		{
+			// 同一个节点的slot是连续的，只在节点变化时加入
+			if(node != null && !node.equals(prev))
+			{
+				ret.add(node);
+				prev = node;
+			}
+		}
+		return new ArrayList<>(ret);
+	}
+
+	private String[] getSlotNodes()
+	{
+		String[] nodes = slotNodes;
+		if(nodes == null)
+		{
+			nodes = discoverSlotNodes();
+			slotNodes = nodes;
+		}
+		return nodes;
+	}
+
+	/**
+	 * 通过任意一个可用节点的CLUSTER SLOTS获取slot与master节点的对应关系
+	 */
+	private String[] discoverSlotNodes()
+	{
+		for(JedisPool pool : cluster.getClusterNodes().values())
+		{
+			try(Jedis jedis = pool.getResource())
+			{
+				return toSlotNodes(jedis.clusterSlots());
+			}
+			catch(JedisConnectionException e)
+			{
+				// 尝试下一个节点
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 解析CLUSTER SLOTS的结果，每一项为[start, end, [master host, master port, ...], replicas...]
+	 *
+	 * @param clusterSlots
+	 * @return 下标为slot，值为master节点的host:port，没有分配的slot为null
+	 */
+	static String[] toSlotNodes(List<?> clusterSlots)
+	{
+		String[] nodes = new String[SLOT_COUNT];
+		for(Object slotInfo : clusterSlots)
+		{
+			List<?> info = (List<?>) slotInfo;
+			int start = ((Long) info.get(0)).intValue();
+			int end = ((Long) info.get(1)).intValue();
+			List<?> master = (List<?>) info.get(2);
+			String node = SafeEncoder.encode((byte[]) master.get(0)) + ":" + master.get(1);
+			for(int slot = start; slot <= end; slot++)
+			{
+				nodes[slot] = node;
+			}
+		}
+		return nodes;
+	}
+
+
+	/**
+	 * 一个slot的执行结果
+	 */
+	static final class SlotResult<T>
+	{
+		/**
+		 * 该slot的key在原始keys中的下标
+		 */
+		final int[] indexes;
+
+		final T result;
+
+		SlotResult(int[] indexes, T result)
+		{
+			this.indexes = indexes;
+			this.result = result;
+		}
+	}
+}
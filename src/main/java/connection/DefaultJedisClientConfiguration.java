@@ -1,12 +1,16 @@
 package connection;
 
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Protocol;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLParameters;
 import javax.net.ssl.SSLSocketFactory;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * @since 2019/4/29
@@ -23,6 +27,8 @@ public class DefaultJedisClientConfiguration implements JedisClientConfiguration
 	private final Optional<SSLSocketFactory> sslSocketFactory;
 	private final Optional<SSLParameters> sslParameters;
 	private final Optional<HostnameVerifier> hostnameVerifier;
+	private final Set<HostAndPort> clusterNodes;
+	private final int maxRedirects;
 
 
 	public DefaultJedisClientConfiguration(GenericObjectPoolConfig poolConfig)
@@ -30,7 +36,24 @@ public class DefaultJedisClientConfiguration implements JedisClientConfiguration
 		this(false, true, poolConfig, null, Protocol.DEFAULT_TIMEOUT, Protocol.DEFAULT_TIMEOUT, null, null, null);
 	}
 
+	/**
+	 * 集群模式
+	 *
+	 * @param poolConfig   每个节点的连接池配置
+	 * @param clusterNodes 集群的初始节点
+	 * @param maxRedirects MOVED/ASK重定向的最大次数
+	 */
+	public DefaultJedisClientConfiguration(GenericObjectPoolConfig poolConfig, Set<HostAndPort> clusterNodes, int maxRedirects)
+	{
+		this(false, true, poolConfig, null, Protocol.DEFAULT_TIMEOUT, Protocol.DEFAULT_TIMEOUT, null, null, null, clusterNodes, maxRedirects);
+	}
+
 	public DefaultJedisClientConfiguration(boolean usingSsl, boolean usingPool, GenericObjectPoolConfig poolConfig, String clientName, int readTimeout, int connectTimeout, SSLSocketFactory sslSocketFactory, SSLParameters sslParameters, HostnameVerifier hostnameVerifier)
+	{
+		this(usingSsl, usingPool, poolConfig, clientName, readTimeout, connectTimeout, sslSocketFactory, sslParameters, hostnameVerifier, null, 5);
+	}
+
+	public DefaultJedisClientConfiguration(boolean usingSsl, boolean usingPool, GenericObjectPoolConfig poolConfig, String clientName, int readTimeout, int connectTimeout, SSLSocketFactory sslSocketFactory, SSLParameters sslParameters, HostnameVerifier hostnameVerifier, Set<HostAndPort> clusterNodes, int maxRedirects)
 	{
 		this.usingSsl = usingSsl;
 		this.usingPool = usingPool;
@@ -41,6 +64,8 @@ public class DefaultJedisClientConfiguration implements JedisClientConfiguration
 		this.sslSocketFactory = Optional.ofNullable(sslSocketFactory);
 		this.sslParameters = Optional.ofNullable(sslParameters);
 		this.hostnameVerifier = Optional.ofNullable(hostnameVerifier);
+		this.clusterNodes = clusterNodes != null ? Collections.unmodifiableSet(new HashSet<>(clusterNodes)) : Collections.emptySet();
+		this.maxRedirects = maxRedirects;
 	}
 
 	@Override
@@ -98,5 +123,17 @@ public class DefaultJedisClientConfiguration implements JedisClientConfiguration
 		return hostnameVerifier;
 	}
 
+	@Override
+	public Set<HostAndPort> getClusterNodes()
+	{
+		return clusterNodes;
+	}
+
+	@Override
+	public int getMaxRedirects()
+	{
+		return maxRedirects;
+	}
+
 
 }
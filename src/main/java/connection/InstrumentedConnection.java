@@ -0,0 +1,191 @@
+package connection;
+
+import metrics.CommandLatency;
+
+import java.util.List;
+
+/**
+ * 记录每个命令耗时的连接装饰器
+ *
+ * 一个实例可以反复绑定到不同的连接上（例如每个线程复用一个），绑定期间只能在一个线程中使用
+ * 命令的装饰器随实例一起复用，记录耗时不分配内存
+ * pipeline模式下命令只是排队，不记录耗时
+ *
+ * @since 2019/5/14
+ */
+public final class InstrumentedConnection implements RedisConnection<Object>
+{
+
+	private RedisConnection<?> delegate;
+
+	private CommandLatency latency;
+
+	private final InstrumentedKeyCommands keyCommands = new InstrumentedKeyCommands(this);
+
+	private final InstrumentedStringCommands stringCommands = new InstrumentedStringCommands(this);
+
+	private final InstrumentedListCommands listCommands = new InstrumentedListCommands(this);
+
+	private final InstrumentedHashCommands hashCommands = new InstrumentedHashCommands(this);
+
+	private final InstrumentedSetCommands setCommands = new InstrumentedSetCommands(this);
+
+	private final InstrumentedZSetCommands zSetCommands = new InstrumentedZSetCommands(this);
+
+	private final InstrumentedScriptingCommands scriptingCommands = new InstrumentedScriptingCommands(this);
+
+	/**
+	 * 绑定到连接上
+	 *
+	 * @param delegate
+	 * @param latency  命令耗时记录的位置
+	 * @return
+	 */
+	public InstrumentedConnection bind(RedisConnection<?> delegate, CommandLatency latency)
+	{
+		this.delegate = delegate;
+		this.latency = latency;
+		return this;
+	}
+
+	/**
+	 * 解除绑定，不关闭被装饰的连接
+	 */
+	public void unbind()
+	{
+		delegate = null;
+		latency = null;
+		keyCommands.delegate = null;
+		stringCommands.delegate = null;
+		listCommands.delegate = null;
+		hashCommands.delegate = null;
+		setCommands.delegate = null;
+		zSetCommands.delegate = null;
+		scriptingCommands.delegate = null;
+	}
+
+	public boolean isBound()
+	{
+		return delegate != null;
+	}
+
+	void record(String command, long startNanos)
+	{
+		if(!delegate.isPipelined())
+		{
+			latency.record(command, System.nanoTime() - startNanos);
+		}
+	}
+
+	@Override
+	public Object getConnection()
+	{
+		return delegate.getConnection();
+	}
+
+	@Override
+	public RedisKeyCommands keyCommands()
+	{
+		if(keyCommands.delegate == null)
+		{
+			keyCommands.delegate = delegate.keyCommands();
+		}
+		return keyCommands;
+	}
+
+	@Override
+	public RedisStringCommands stringCommands()
+	{
+		if(stringCommands.delegate == null)
+		{
+			stringCommands.delegate = delegate.stringCommands();
+		}
+		return stringCommands;
+	}
+
+	@Override
+	public RedisListCommands listCommands()
+	{
+		if(listCommands.delegate == null)
+		{
+			listCommands.delegate = delegate.listCommands();
+		}
+		return listCommands;
+	}
+
+	@Override
+	public RedisHashCommands hashCommands()
+	{
+		if(hashCommands.delegate == null)
+		{
+			hashCommands.delegate = delegate.hashCommands();
+		}
+		return hashCommands;
+	}
+
+	@Override
+	public RedisSetCommands setCommands()
+	{
+		if(setCommands.delegate == null)
+		{
+			setCommands.delegate = delegate.setCommands();
+		}
+		return setCommands;
+	}
+
+	@Override
+	public RedisZSetCommands zSetCommands()
+	{
+		if(zSetCommands.delegate == null)
+		{
+			zSetCommands.delegate = delegate.zSetCommands();
+		}
+		return zSetCommands;
+	}
+
+	@Override
+	public RedisScriptingCommands scriptingCommands()
+	{
+		if(scriptingCommands.delegate == null)
+		{
+			scriptingCommands.delegate = delegate.scriptingCommands();
+		}
+		return scriptingCommands;
+	}
+
+	@Override
+	public void openPipeline()
+	{
+		delegate.openPipeline();
+	}
+
+	@Override
+	public boolean isPipelined()
+	{
+		return delegate.isPipelined();
+	}
+
+	@Override
+	public List<Object> closePipeline()
+	{
+		return delegate.closePipeline();
+	}
+
+	@Override
+	public int getPipelinedCount()
+	{
+		return delegate.getPipelinedCount();
+	}
+
+	@Override
+	public void close()
+	{
+		delegate.close();
+	}
+
+	@Override
+	public boolean isClosed()
+	{
+		return delegate.isClosed();
+	}
+}
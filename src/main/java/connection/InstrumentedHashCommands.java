@@ -0,0 +1,238 @@
+package connection;
+
+import redis.clients.jedis.ScanResult;
+import support.ScanOptions;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 记录每个hash命令耗时的装饰器，命令名为方法名的大写形式
+ *
+ * @since 2019/5/14
+ */
+final class InstrumentedHashCommands implements RedisHashCommands
+{
+
+	private final InstrumentedConnection connection;
+
+	/**
+	 * 被装饰的命令，随connection绑定和解绑
+	 */
+	RedisHashCommands delegate;
+
+	InstrumentedHashCommands(InstrumentedConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	public Boolean hSet(byte[] key, byte[] field, byte[] value)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hSet(key, field, value);
+		}
+		finally
+		{
+			connection.record("HSET", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean hSetNX(byte[] key, byte[] field, byte[] value)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hSetNX(key, field, value);
+		}
+		finally
+		{
+			connection.record("HSETNX", startNanos);
+		}
+	}
+
+	@Override
+	public void hMSet(byte[] key, Map<byte[], byte[]> hashes)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			delegate.hMSet(key, hashes);
+		}
+		finally
+		{
+			connection.record("HMSET", startNanos);
+		}
+	}
+
+	@Override
+	public byte[] hGet(byte[] key, byte[] field)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hGet(key, field);
+		}
+		finally
+		{
+			connection.record("HGET", startNanos);
+		}
+	}
+
+	@Override
+	public List<byte[]> hMGet(byte[] key, byte[]... fields)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hMGet(key, fields);
+		}
+		finally
+		{
+			connection.record("HMGET", startNanos);
+		}
+	}
+
+	@Override
+	public Long hIncrBy(byte[] key, byte[] field, long delta)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hIncrBy(key, field, delta);
+		}
+		finally
+		{
+			connection.record("HINCRBY", startNanos);
+		}
+	}
+
+	@Override
+	public Double hIncrBy(byte[] key, byte[] field, double delta)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hIncrBy(key, field, delta);
+		}
+		finally
+		{
+			connection.record("HINCRBY", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean hExists(byte[] key, byte[] field)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hExists(key, field);
+		}
+		finally
+		{
+			connection.record("HEXISTS", startNanos);
+		}
+	}
+
+	@Override
+	public Long hDel(byte[] key, byte[]... fields)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hDel(key, fields);
+		}
+		finally
+		{
+			connection.record("HDEL", startNanos);
+		}
+	}
+
+	@Override
+	public Long hLen(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hLen(key);
+		}
+		finally
+		{
+			connection.record("HLEN", startNanos);
+		}
+	}
+
+	@Override
+	public Long hStrLen(byte[] key, byte[] field)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hStrLen(key, field);
+		}
+		finally
+		{
+			connection.record("HSTRLEN", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> hKeys(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hKeys(key);
+		}
+		finally
+		{
+			connection.record("HKEYS", startNanos);
+		}
+	}
+
+	@Override
+	public List<byte[]> hValues(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hValues(key);
+		}
+		finally
+		{
+			connection.record("HVALUES", startNanos);
+		}
+	}
+
+	@Override
+	public Map<byte[], byte[]> hGetAll(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hGetAll(key);
+		}
+		finally
+		{
+			connection.record("HGETALL", startNanos);
+		}
+	}
+
+	@Override
+	public ScanResult<Map.Entry<byte[], byte[]>> hScan(byte[] key, byte[] cursor, ScanOptions options)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.hScan(key, cursor, options);
+		}
+		finally
+		{
+			connection.record("HSCAN", startNanos);
+		}
+	}
+}
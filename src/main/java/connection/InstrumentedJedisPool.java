@@ -0,0 +1,62 @@
+package connection;
+
+import metrics.PoolStatistics;
+import metrics.RedisMetrics;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisExhaustedPoolException;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * 记录获取连接的等待时间和超时次数的JedisPool
+ * 创建、销毁数量直接读取commons-pool2的计数器
+ *
+ * @since 2019/5/14
+ */
+final class InstrumentedJedisPool extends JedisPool implements PoolStatistics
+{
+
+	private final RedisMetrics metrics;
+
+	InstrumentedJedisPool(RedisMetrics metrics, GenericObjectPoolConfig poolConfig, String host, int port,
+						  int connectionTimeout, int soTimeout, String password, int database, String clientName,
+						  boolean ssl, SSLSocketFactory sslSocketFactory, SSLParameters sslParameters, HostnameVerifier hostnameVerifier)
+	{
+		super(poolConfig, host, port, connectionTimeout, soTimeout, password, database, clientName,
+				ssl, sslSocketFactory, sslParameters, hostnameVerifier);
+		this.metrics = metrics;
+	}
+
+	@Override
+	public Jedis getResource()
+	{
+		long start = System.nanoTime();
+		try
+		{
+			Jedis jedis = super.getResource();
+			metrics.recordBorrow(System.nanoTime() - start);
+			return jedis;
+		}
+		catch(JedisExhaustedPoolException e)
+		{
+			metrics.recordBorrowTimeout();
+			throw e;
+		}
+	}
+
+	@Override
+	public long getCreatedCount()
+	{
+		return internalPool.getCreatedCount();
+	}
+
+	@Override
+	public long getDestroyedCount()
+	{
+		return internalPool.getDestroyedCount();
+	}
+}
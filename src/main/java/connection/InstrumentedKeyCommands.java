@@ -0,0 +1,223 @@
+package connection;
+
+import redis.clients.jedis.ScanResult;
+import support.RedisDataType;
+import support.ScanOptions;
+import java.util.Set;
+
+/**
+ * 记录每个key命令耗时的装饰器，命令名为方法名的大写形式
+ *
+ * @since 2019/5/14
+ */
+final class InstrumentedKeyCommands implements RedisKeyCommands
+{
+
+	private final InstrumentedConnection connection;
+
+	/**
+	 * 被装饰的命令，随connection绑定和解绑
+	 */
+	RedisKeyCommands delegate;
+
+	InstrumentedKeyCommands(InstrumentedConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	public Set<byte[]> keys(byte[] pattern)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.keys(pattern);
+		}
+		finally
+		{
+			connection.record("KEYS", startNanos);
+		}
+	}
+
+	@Override
+	public Long exists(byte[]... keys)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.exists(keys);
+		}
+		finally
+		{
+			connection.record("EXISTS", startNanos);
+		}
+	}
+
+	@Override
+	public Long del(byte[]... keys)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.del(keys);
+		}
+		finally
+		{
+			connection.record("DEL", startNanos);
+		}
+	}
+
+	@Override
+	public Long unlink(byte[]... keys)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.unlink(keys);
+		}
+		finally
+		{
+			connection.record("UNLINK", startNanos);
+		}
+	}
+
+	@Override
+	public RedisDataType type(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.type(key);
+		}
+		finally
+		{
+			connection.record("TYPE", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean expire(byte[] key, int seconds)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.expire(key, seconds);
+		}
+		finally
+		{
+			connection.record("EXPIRE", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean expireAt(byte[] key, long timestamp)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.expireAt(key, timestamp);
+		}
+		finally
+		{
+			connection.record("EXPIREAT", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean pExpire(byte[] key, long milliseconds)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.pExpire(key, milliseconds);
+		}
+		finally
+		{
+			connection.record("PEXPIRE", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean pExpireAt(byte[] key, long timestamp)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.pExpireAt(key, timestamp);
+		}
+		finally
+		{
+			connection.record("PEXPIREAT", startNanos);
+		}
+	}
+
+	@Override
+	public Long ttl(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.ttl(key);
+		}
+		finally
+		{
+			connection.record("TTL", startNanos);
+		}
+	}
+
+	@Override
+	public Long pTtl(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.pTtl(key);
+		}
+		finally
+		{
+			connection.record("PTTL", startNanos);
+		}
+	}
+
+	@Override
+	public byte[] randomkey()
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.randomkey();
+		}
+		finally
+		{
+			connection.record("RANDOMKEY", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean persist(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.persist(key);
+		}
+		finally
+		{
+			connection.record("PERSIST", startNanos);
+		}
+	}
+
+	@Override
+	public ScanResult<byte[]> scan(byte[] cursor, ScanOptions options)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.scan(cursor, options);
+		}
+		finally
+		{
+			connection.record("SCAN", startNanos);
+		}
+	}
+}
@@ -0,0 +1,262 @@
+package connection;
+
+import java.util.List;
+
+/**
+ * 记录每个list命令耗时的装饰器，命令名为方法名的大写形式
+ *
+ * @since 2019/5/14
+ */
+final class InstrumentedListCommands implements RedisListCommands
+{
+
+	private final InstrumentedConnection connection;
+
+	/**
+	 * 被装饰的命令，随connection绑定和解绑
+	 */
+	RedisListCommands delegate;
+
+	InstrumentedListCommands(InstrumentedConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	public Long rPush(byte[] key, byte[]... values)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.rPush(key, values);
+		}
+		finally
+		{
+			connection.record("RPUSH", startNanos);
+		}
+	}
+
+	@Override
+	public Long rPushX(byte[] key, byte[] value)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.rPushX(key, value);
+		}
+		finally
+		{
+			connection.record("RPUSHX", startNanos);
+		}
+	}
+
+	@Override
+	public Long lPush(byte[] key, byte[]... values)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.lPush(key, values);
+		}
+		finally
+		{
+			connection.record("LPUSH", startNanos);
+		}
+	}
+
+	@Override
+	public Long lPushX(byte[] key, byte[] value)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.lPushX(key, value);
+		}
+		finally
+		{
+			connection.record("LPUSHX", startNanos);
+		}
+	}
+
+	@Override
+	public byte[] lPop(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.lPop(key);
+		}
+		finally
+		{
+			connection.record("LPOP", startNanos);
+		}
+	}
+
+	@Override
+	public byte[] rPop(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.rPop(key);
+		}
+		finally
+		{
+			connection.record("RPOP", startNanos);
+		}
+	}
+
+	@Override
+	public byte[] rPopLPush(byte[] srcKey, byte[] destKey)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.rPopLPush(srcKey, destKey);
+		}
+		finally
+		{
+			connection.record("RPOPLPUSH", startNanos);
+		}
+	}
+
+	@Override
+	public List<byte[]> bLPop(int timeout, byte[]... keys)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.bLPop(timeout, keys);
+		}
+		finally
+		{
+			connection.record("BLPOP", startNanos);
+		}
+	}
+
+	@Override
+	public List<byte[]> bRPop(int timeout, byte[]... keys)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.bRPop(timeout, keys);
+		}
+		finally
+		{
+			connection.record("BRPOP", startNanos);
+		}
+	}
+
+	@Override
+	public byte[] bRPopLPush(int timeout, byte[] srcKey, byte[] dstKey)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.bRPopLPush(timeout, srcKey, dstKey);
+		}
+		finally
+		{
+			connection.record("BRPOPLPUSH", startNanos);
+		}
+	}
+
+	@Override
+	public byte[] lIndex(byte[] key, long index)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.lIndex(key, index);
+		}
+		finally
+		{
+			connection.record("LINDEX", startNanos);
+		}
+	}
+
+	@Override
+	public Long lInsert(byte[] key, Position where, byte[] pivot, byte[] value)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.lInsert(key, where, pivot, value);
+		}
+		finally
+		{
+			connection.record("LINSERT", startNanos);
+		}
+	}
+
+	@Override
+	public Long lLen(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.lLen(key);
+		}
+		finally
+		{
+			connection.record("LLEN", startNanos);
+		}
+	}
+
+	@Override
+	public List<byte[]> lRange(byte[] key, long start, long end)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.lRange(key, start, end);
+		}
+		finally
+		{
+			connection.record("LRANGE", startNanos);
+		}
+	}
+
+	@Override
+	public Long lRem(byte[] key, long count, byte[] value)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.lRem(key, count, value);
+		}
+		finally
+		{
+			connection.record("LREM", startNanos);
+		}
+	}
+
+	@Override
+	public void lSet(byte[] key, long index, byte[] value)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			delegate.lSet(key, index, value);
+		}
+		finally
+		{
+			connection.record("LSET", startNanos);
+		}
+	}
+
+	@Override
+	public void lTrim(byte[] key, long start, long end)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			delegate.lTrim(key, start, end);
+		}
+		finally
+		{
+			connection.record("LTRIM", startNanos);
+		}
+	}
+}
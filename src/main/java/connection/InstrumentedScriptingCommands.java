@@ -0,0 +1,109 @@
+package connection;
+
+import support.ReturnType;
+import java.util.List;
+
+/**
+ * 记录每个lua脚本命令耗时的装饰器，命令名为方法名的大写形式
+ *
+ * @since 2019/5/14
+ */
+final class InstrumentedScriptingCommands implements RedisScriptingCommands
+{
+
+	private final InstrumentedConnection connection;
+
+	/**
+	 * 被装饰的命令，随connection绑定和解绑
+	 */
+	RedisScriptingCommands delegate;
+
+	InstrumentedScriptingCommands(InstrumentedConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	public <T> T eval(byte[] scripts, ReturnType returnType, int numkeys, byte[]... keysAndArgs)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.eval(scripts, returnType, numkeys, keysAndArgs);
+		}
+		finally
+		{
+			connection.record("EVAL", startNanos);
+		}
+	}
+
+	@Override
+	public <T> T evalSha(String scriptSha, ReturnType returnType, int numkeys, byte[]... keysAndArgs)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.evalSha(scriptSha, returnType, numkeys, keysAndArgs);
+		}
+		finally
+		{
+			connection.record("EVALSHA", startNanos);
+		}
+	}
+
+	@Override
+	public void scriptFlush()
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			delegate.scriptFlush();
+		}
+		finally
+		{
+			connection.record("SCRIPTFLUSH", startNanos);
+		}
+	}
+
+	@Override
+	public void scriptKill()
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			delegate.scriptKill();
+		}
+		finally
+		{
+			connection.record("SCRIPTKILL", startNanos);
+		}
+	}
+
+	@Override
+	public String scriptLoad(byte[] script)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.scriptLoad(script);
+		}
+		finally
+		{
+			connection.record("SCRIPTLOAD", startNanos);
+		}
+	}
+
+	@Override
+	public List<Boolean> scriptExists(String... scriptShas)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.scriptExists(scriptShas);
+		}
+		finally
+		{
+			connection.record("SCRIPTEXISTS", startNanos);
+		}
+	}
+}
@@ -0,0 +1,251 @@
+package connection;
+
+import redis.clients.jedis.ScanResult;
+import support.ScanOptions;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 记录每个set命令耗时的装饰器，命令名为方法名的大写形式
+ *
+ * @since 2019/5/14
+ */
+final class InstrumentedSetCommands implements RedisSetCommands
+{
+
+	private final InstrumentedConnection connection;
+
+	/**
+	 * 被装饰的命令，随connection绑定和解绑
+	 */
+	RedisSetCommands delegate;
+
+	InstrumentedSetCommands(InstrumentedConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	public Long sAdd(byte[] key, byte[]... members)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sAdd(key, members);
+		}
+		finally
+		{
+			connection.record("SADD", startNanos);
+		}
+	}
+
+	@Override
+	public List<byte[]> sMembers(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sMembers(key);
+		}
+		finally
+		{
+			connection.record("SMEMBERS", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean sIsMember(byte[] key, byte[] member)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sIsMember(key, member);
+		}
+		finally
+		{
+			connection.record("SISMEMBER", startNanos);
+		}
+	}
+
+	@Override
+	public Long sCard(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sCard(key);
+		}
+		finally
+		{
+			connection.record("SCARD", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> sUnion(byte[]... keys)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sUnion(keys);
+		}
+		finally
+		{
+			connection.record("SUNION", startNanos);
+		}
+	}
+
+	@Override
+	public Long sUnionStore(byte[] destination, byte[]... keys)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sUnionStore(destination, keys);
+		}
+		finally
+		{
+			connection.record("SUNIONSTORE", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> sInter(byte[]... keys)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sInter(keys);
+		}
+		finally
+		{
+			connection.record("SINTER", startNanos);
+		}
+	}
+
+	@Override
+	public Long sInterStore(byte[] destination, byte[]... keys)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sInterStore(destination, keys);
+		}
+		finally
+		{
+			connection.record("SINTERSTORE", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> sDiff(byte[]... keys)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sDiff(keys);
+		}
+		finally
+		{
+			connection.record("SDIFF", startNanos);
+		}
+	}
+
+	@Override
+	public Long sDiffStore(byte[] destination, byte[]... keys)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sDiffStore(destination, keys);
+		}
+		finally
+		{
+			connection.record("SDIFFSTORE", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean sMove(byte[] source, byte[] destination, byte[] member)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sMove(source, destination, member);
+		}
+		finally
+		{
+			connection.record("SMOVE", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> sPop(byte[] key, long count)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sPop(key, count);
+		}
+		finally
+		{
+			connection.record("SPOP", startNanos);
+		}
+	}
+
+	@Override
+	public byte[] sRandMember(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sRandMember(key);
+		}
+		finally
+		{
+			connection.record("SRANDMEMBER", startNanos);
+		}
+	}
+
+	@Override
+	public List<byte[]> sRandomMember(byte[] key, long count)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sRandomMember(key, count);
+		}
+		finally
+		{
+			connection.record("SRANDOMMEMBER", startNanos);
+		}
+	}
+
+	@Override
+	public Long sRem(byte[] key, byte[]... members)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sRem(key, members);
+		}
+		finally
+		{
+			connection.record("SREM", startNanos);
+		}
+	}
+
+	@Override
+	public ScanResult<byte[]> sScan(byte[] key, byte[] cursor, ScanOptions options)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.sScan(key, cursor, options);
+		}
+		finally
+		{
+			connection.record("SSCAN", startNanos);
+		}
+	}
+}
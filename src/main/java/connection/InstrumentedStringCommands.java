@@ -0,0 +1,292 @@
+package connection;
+
+import support.Expiration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 记录每个string命令耗时的装饰器，命令名为方法名的大写形式
+ *
+ * @since 2019/5/14
+ */
+final class InstrumentedStringCommands implements RedisStringCommands
+{
+
+	private final InstrumentedConnection connection;
+
+	/**
+	 * 被装饰的命令，随connection绑定和解绑
+	 */
+	RedisStringCommands delegate;
+
+	InstrumentedStringCommands(InstrumentedConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	public byte[] get(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.get(key);
+		}
+		finally
+		{
+			connection.record("GET", startNanos);
+		}
+	}
+
+	@Override
+	public byte[] getSet(byte[] key, byte[] value)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.getSet(key, value);
+		}
+		finally
+		{
+			connection.record("GETSET", startNanos);
+		}
+	}
+
+	@Override
+	public List<byte[]> mGet(byte[]... keys)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.mGet(keys);
+		}
+		finally
+		{
+			connection.record("MGET", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean set(byte[] key, byte[] value)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.set(key, value);
+		}
+		finally
+		{
+			connection.record("SET", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean set(byte[] key, byte[] value, Expiration expiration, SetOption option)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.set(key, value, expiration, option);
+		}
+		finally
+		{
+			connection.record("SET", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean setNX(byte[] key, byte[] value)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.setNX(key, value);
+		}
+		finally
+		{
+			connection.record("SETNX", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean setEx(byte[] key, long seconds, byte[] value)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.setEx(key, seconds, value);
+		}
+		finally
+		{
+			connection.record("SETEX", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean pSetEx(byte[] key, long millseconds, byte[] value)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.pSetEx(key, millseconds, value);
+		}
+		finally
+		{
+			connection.record("PSETEX", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean mSet(Map<byte[], byte[]> tuples)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.mSet(tuples);
+		}
+		finally
+		{
+			connection.record("MSET", startNanos);
+		}
+	}
+
+	@Override
+	public Boolean mSetNX(Map<byte[], byte[]> tuples)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.mSetNX(tuples);
+		}
+		finally
+		{
+			connection.record("MSETNX", startNanos);
+		}
+	}
+
+	@Override
+	public Long incr(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.incr(key);
+		}
+		finally
+		{
+			connection.record("INCR", startNanos);
+		}
+	}
+
+	@Override
+	public Long incrBy(byte[] key, long delta)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.incrBy(key, delta);
+		}
+		finally
+		{
+			connection.record("INCRBY", startNanos);
+		}
+	}
+
+	@Override
+	public Double incrByFloat(byte[] key, double delta)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.incrByFloat(key, delta);
+		}
+		finally
+		{
+			connection.record("INCRBYFLOAT", startNanos);
+		}
+	}
+
+	@Override
+	public Long decr(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.decr(key);
+		}
+		finally
+		{
+			connection.record("DECR", startNanos);
+		}
+	}
+
+	@Override
+	public Long decrBy(byte[] key, long delta)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.decrBy(key, delta);
+		}
+		finally
+		{
+			connection.record("DECRBY", startNanos);
+		}
+	}
+
+	@Override
+	public Long append(byte[] key, byte[] value)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.append(key, value);
+		}
+		finally
+		{
+			connection.record("APPEND", startNanos);
+		}
+	}
+
+	@Override
+	public byte[] getRange(byte[] key, long start, long end)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.getRange(key, start, end);
+		}
+		finally
+		{
+			connection.record("GETRANGE", startNanos);
+		}
+	}
+
+	@Override
+	public void setRange(byte[] key, byte[] value, long offset)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			delegate.setRange(key, value, offset);
+		}
+		finally
+		{
+			connection.record("SETRANGE", startNanos);
+		}
+	}
+
+	@Override
+	public Long strLen(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.strLen(key);
+		}
+		finally
+		{
+			connection.record("STRLEN", startNanos);
+		}
+	}
+}
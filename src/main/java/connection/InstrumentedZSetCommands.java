@@ -0,0 +1,674 @@
+package connection;
+
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.Tuple;
+import support.Limit;
+import support.ScanOptions;
+import support.ScoreRange;
+import support.Weights;
+import java.util.Set;
+
+/**
+ * 记录每个sorted set命令耗时的装饰器，命令名为方法名的大写形式
+ *
+ * @since 2019/5/14
+ */
+final class InstrumentedZSetCommands implements RedisZSetCommands
+{
+
+	private final InstrumentedConnection connection;
+
+	/**
+	 * 被装饰的命令，随connection绑定和解绑
+	 */
+	RedisZSetCommands delegate;
+
+	InstrumentedZSetCommands(InstrumentedConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	public Long zAdd(byte[] key, double score, byte[] member)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zAdd(key, score, member);
+		}
+		finally
+		{
+			connection.record("ZADD", startNanos);
+		}
+	}
+
+	@Override
+	public Long zAdd(byte[] key, double score, byte[] member, ZAddOption option)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zAdd(key, score, member, option);
+		}
+		finally
+		{
+			connection.record("ZADD", startNanos);
+		}
+	}
+
+	@Override
+	public Long zAdd(byte[] key, Set<Tuple> tuples)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zAdd(key, tuples);
+		}
+		finally
+		{
+			connection.record("ZADD", startNanos);
+		}
+	}
+
+	@Override
+	public Long zAdd(byte[] key, Set<Tuple> tuples, ZAddOption option)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zAdd(key, tuples, option);
+		}
+		finally
+		{
+			connection.record("ZADD", startNanos);
+		}
+	}
+
+	@Override
+	public Long zRem(byte[] key, byte[]... members)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRem(key, members);
+		}
+		finally
+		{
+			connection.record("ZREM", startNanos);
+		}
+	}
+
+	@Override
+	public Long zRemScoreRangeByScore(byte[] key, double min, double max)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRemScoreRangeByScore(key, min, max);
+		}
+		finally
+		{
+			connection.record("ZREMSCORERANGEBYSCORE", startNanos);
+		}
+	}
+
+	@Override
+	public Long zRemRangeByScore(byte[] key, ScoreRange ScoreRange)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRemRangeByScore(key, ScoreRange);
+		}
+		finally
+		{
+			connection.record("ZREMRANGEBYSCORE", startNanos);
+		}
+	}
+
+	@Override
+	public Long zRemRangeByRank(byte[] key, long start, long end)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRemRangeByRank(key, start, end);
+		}
+		finally
+		{
+			connection.record("ZREMRANGEBYRANK", startNanos);
+		}
+	}
+
+	@Override
+	public Tuple zPopMax(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zPopMax(key);
+		}
+		finally
+		{
+			connection.record("ZPOPMAX", startNanos);
+		}
+	}
+
+	@Override
+	public Tuple zPopMax(byte[] key, long count)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zPopMax(key, count);
+		}
+		finally
+		{
+			connection.record("ZPOPMAX", startNanos);
+		}
+	}
+
+	@Override
+	public Tuple zPopMin(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zPopMin(key);
+		}
+		finally
+		{
+			connection.record("ZPOPMIN", startNanos);
+		}
+	}
+
+	@Override
+	public Tuple zPopMin(byte[] key, long count)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zPopMin(key, count);
+		}
+		finally
+		{
+			connection.record("ZPOPMIN", startNanos);
+		}
+	}
+
+	@Override
+	public Double zScore(byte[] key, byte[] member)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zScore(key, member);
+		}
+		finally
+		{
+			connection.record("ZSCORE", startNanos);
+		}
+	}
+
+	@Override
+	public Double zIncrBy(byte[] key, double increment, byte[] member)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zIncrBy(key, increment, member);
+		}
+		finally
+		{
+			connection.record("ZINCRBY", startNanos);
+		}
+	}
+
+	@Override
+	public Long zCard(byte[] key)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zCard(key);
+		}
+		finally
+		{
+			connection.record("ZCARD", startNanos);
+		}
+	}
+
+	@Override
+	public Long zCount(byte[] key, double min, double max)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zCount(key, min, max);
+		}
+		finally
+		{
+			connection.record("ZCOUNT", startNanos);
+		}
+	}
+
+	@Override
+	public Long zCount(byte[] key, ScoreRange ScoreRange)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zCount(key, ScoreRange);
+		}
+		finally
+		{
+			connection.record("ZCOUNT", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> zRange(byte[] key, long start, long end)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRange(key, start, end);
+		}
+		finally
+		{
+			connection.record("ZRANGE", startNanos);
+		}
+	}
+
+	@Override
+	public Set<Tuple> zRangeWithScores(byte[] key, long start, long end)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRangeWithScores(key, start, end);
+		}
+		finally
+		{
+			connection.record("ZRANGEWITHSCORES", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> zRevRange(byte[] key, long start, long end)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRevRange(key, start, end);
+		}
+		finally
+		{
+			connection.record("ZREVRANGE", startNanos);
+		}
+	}
+
+	@Override
+	public Set<Tuple> zRevRangeWithScores(byte[] key, long start, long end)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRevRangeWithScores(key, start, end);
+		}
+		finally
+		{
+			connection.record("ZREVRANGEWITHSCORES", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> zRangeByScore(byte[] key, double min, double max)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRangeByScore(key, min, max);
+		}
+		finally
+		{
+			connection.record("ZRANGEBYSCORE", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> zRangeByScore(byte[] key, double min, double max, long offset, long count)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRangeByScore(key, min, max, offset, count);
+		}
+		finally
+		{
+			connection.record("ZRANGEBYSCORE", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> zRangeByScore(byte[] key, ScoreRange ScoreRange)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRangeByScore(key, ScoreRange);
+		}
+		finally
+		{
+			connection.record("ZRANGEBYSCORE", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> zRangeByScore(byte[] key, ScoreRange ScoreRange, Limit limit)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRangeByScore(key, ScoreRange, limit);
+		}
+		finally
+		{
+			connection.record("ZRANGEBYSCORE", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> zRevRangeByScore(byte[] key, double min, double max)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRevRangeByScore(key, min, max);
+		}
+		finally
+		{
+			connection.record("ZREVRANGEBYSCORE", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> zRevRangeByScore(byte[] key, double min, double max, long offset, long count)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRevRangeByScore(key, min, max, offset, count);
+		}
+		finally
+		{
+			connection.record("ZREVRANGEBYSCORE", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> zRevRangeByScore(byte[] key, ScoreRange ScoreRange)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRevRangeByScore(key, ScoreRange);
+		}
+		finally
+		{
+			connection.record("ZREVRANGEBYSCORE", startNanos);
+		}
+	}
+
+	@Override
+	public Set<byte[]> zRevRangeByScore(byte[] key, ScoreRange ScoreRange, Limit limit)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRevRangeByScore(key, ScoreRange, limit);
+		}
+		finally
+		{
+			connection.record("ZREVRANGEBYSCORE", startNanos);
+		}
+	}
+
+	@Override
+	public Set<Tuple> zRangeByScoreWithScores(byte[] key, double min, double max)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRangeByScoreWithScores(key, min, max);
+		}
+		finally
+		{
+			connection.record("ZRANGEBYSCOREWITHSCORES", startNanos);
+		}
+	}
+
+	@Override
+	public Set<Tuple> zRangeByScoreWithScores(byte[] key, double min, double max, long offset, long count)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRangeByScoreWithScores(key, min, max, offset, count);
+		}
+		finally
+		{
+			connection.record("ZRANGEBYSCOREWITHSCORES", startNanos);
+		}
+	}
+
+	@Override
+	public Set<Tuple> zRangeByScoreWithScores(byte[] key, ScoreRange ScoreRange)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRangeByScoreWithScores(key, ScoreRange);
+		}
+		finally
+		{
+			connection.record("ZRANGEBYSCOREWITHSCORES", startNanos);
+		}
+	}
+
+	@Override
+	public Set<Tuple> zRangeByScoreWithScores(byte[] key, ScoreRange ScoreRange, Limit limit)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRangeByScoreWithScores(key, ScoreRange, limit);
+		}
+		finally
+		{
+			connection.record("ZRANGEBYSCOREWITHSCORES", startNanos);
+		}
+	}
+
+	@Override
+	public Set<Tuple> zRevRangeByScoreWithScores(byte[] key, double min, double max)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRevRangeByScoreWithScores(key, min, max);
+		}
+		finally
+		{
+			connection.record("ZREVRANGEBYSCOREWITHSCORES", startNanos);
+		}
+	}
+
+	@Override
+	public Set<Tuple> zRevRangeByScoreWithScores(byte[] key, double min, double max, long offset, long count)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRevRangeByScoreWithScores(key, min, max, offset, count);
+		}
+		finally
+		{
+			connection.record("ZREVRANGEBYSCOREWITHSCORES", startNanos);
+		}
+	}
+
+	@Override
+	public Set<Tuple> zRevRangeByScoreWithScores(byte[] key, ScoreRange ScoreRange)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRevRangeByScoreWithScores(key, ScoreRange);
+		}
+		finally
+		{
+			connection.record("ZREVRANGEBYSCOREWITHSCORES", startNanos);
+		}
+	}
+
+	@Override
+	public Set<Tuple> zRevRangeByScoreWithScores(byte[] key, ScoreRange ScoreRange, Limit limit)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRevRangeByScoreWithScores(key, ScoreRange, limit);
+		}
+		finally
+		{
+			connection.record("ZREVRANGEBYSCOREWITHSCORES", startNanos);
+		}
+	}
+
+	@Override
+	public Long zRank(byte[] key, byte[] member)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRank(key, member);
+		}
+		finally
+		{
+			connection.record("ZRANK", startNanos);
+		}
+	}
+
+	@Override
+	public Long zRevRank(byte[] key, byte[] member)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zRevRank(key, member);
+		}
+		finally
+		{
+			connection.record("ZREVRANK", startNanos);
+		}
+	}
+
+	@Override
+	public Long zUnionStore(byte[] destination, byte[]... sets)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zUnionStore(destination, sets);
+		}
+		finally
+		{
+			connection.record("ZUNIONSTORE", startNanos);
+		}
+	}
+
+	@Override
+	public Long zUnionStore(byte[] destKey, Aggregate aggregate, int[] weights, byte[]... sets)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zUnionStore(destKey, aggregate, weights, sets);
+		}
+		finally
+		{
+			connection.record("ZUNIONSTORE", startNanos);
+		}
+	}
+
+	@Override
+	public Long zUnionStore(byte[] destination, Aggregate aggregate, Weights weights, byte[]... sets)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zUnionStore(destination, aggregate, weights, sets);
+		}
+		finally
+		{
+			connection.record("ZUNIONSTORE", startNanos);
+		}
+	}
+
+	@Override
+	public Long zInterStore(byte[] destination, byte[]... sets)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zInterStore(destination, sets);
+		}
+		finally
+		{
+			connection.record("ZINTERSTORE", startNanos);
+		}
+	}
+
+	@Override
+	public Long zInterStore(byte[] destination, Aggregate aggregate, int[] weights, byte[]... sets)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zInterStore(destination, aggregate, weights, sets);
+		}
+		finally
+		{
+			connection.record("ZINTERSTORE", startNanos);
+		}
+	}
+
+	@Override
+	public Long zInterStore(byte[] destination, Aggregate aggregate, Weights weights, byte[]... sets)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zInterStore(destination, aggregate, weights, sets);
+		}
+		finally
+		{
+			connection.record("ZINTERSTORE", startNanos);
+		}
+	}
+
+	@Override
+	public ScanResult<Tuple> zScan(byte[] key, byte[] cursor, ScanOptions options)
+	{
+		long startNanos = System.nanoTime();
+		try
+		{
+			return delegate.zScan(key, cursor, options);
+		}
+		finally
+		{
+			connection.record("ZSCAN", startNanos);
+		}
+	}
+}
@@ -1,12 +1,15 @@
 package connection;
 
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Protocol;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLParameters;
 import javax.net.ssl.SSLSocketFactory;
+import java.util.Collections;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  *
@@ -71,4 +74,35 @@ public interface JedisClientConfiguration
 
 	Optional<HostnameVerifier> getHostnameVerifier();
 
+	/**
+	 * 集群的初始节点，只需要包含部分节点，其他节点会自动发现
+	 * 为空时使用单机模式
+	 *
+	 * @return
+	 */
+	default Set<HostAndPort> getClusterNodes()
+	{
+		return Collections.emptySet();
+	}
+
+	/**
+	 * 是否使用集群模式
+	 *
+	 * @return
+	 */
+	default boolean isUsingCluster()
+	{
+		return !getClusterNodes().isEmpty();
+	}
+
+	/**
+	 * 集群模式下MOVED/ASK重定向的最大次数
+	 *
+	 * @return
+	 */
+	default int getMaxRedirects()
+	{
+		return 5;
+	}
+
 }
@@ -0,0 +1,263 @@
+package connection;
+
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * 基于JedisCluster的集群连接
+ *
+ * JedisCluster自己管理每个节点的连接池并按key的slot路由，因此所有连接共享同一个JedisCluster，
+ * {@link #close()}不会关闭JedisCluster
+ *
+ * JedisCluster不支持pipeline，pipeline模式下命令会立即执行，结果在{@link #closePipeline()}时按顺序返回，
+ * 保证{@link RedisConnection}的pipeline语义不变
+ *
+ * @since 2019/5/10
+ */
+public class JedisClusterConnection implements RedisClusterConnection<JedisCluster>
+{
+
+	private final JedisCluster cluster;
+
+	private final ClusterSlotRouter slotRouter;
+
+	/**
+	 * pipeline模式下已执行命令的结果，非pipeline模式下为null
+	 */
+	private List<Object> pipelinedResults;
+
+	private boolean closed;
+
+	JedisClusterConnection(JedisCluster cluster, ClusterSlotRouter slotRouter)
+	{
+		this.cluster = cluster;
+		this.slotRouter = slotRouter;
+	}
+
+	@Override
+	public JedisCluster getConnection()
+	{
+		return cluster;
+	}
+
+	@Override
+	public RedisKeyCommands keyCommands()
+	{
+		return new JedisClusterKeyCommands(this);
+	}
+
+	@Override
+	public RedisStringCommands stringCommands()
+	{
+		return new JedisClusterStringCommands(this);
+	}
+
+	@Override
+	public RedisListCommands listCommands()
+	{
+		return new JedisClusterListCommands(this);
+	}
+
+	@Override
+	public RedisHashCommands hashCommands()
+	{
+		return new JedisClusterHashCommands(this);
+	}
+
+	@Override
+	public RedisSetCommands setCommands()
+	{
+		return new JedisClusterSetCommands(this);
+	}
+
+	@Override
+	public RedisZSetCommands zSetCommands()
+	{
+		return new JedisClusterZSetCommands(this);
+	}
+
+	@Override
+	public RedisScriptingCommands scriptingCommands()
+	{
+		return new JedisClusterScriptingCommands(this);
+	}
+
+	@Override
+	public List<String> getMasterNodes()
+	{
+		List<String> nodes = slotRouter.getMasterNodes();
+		if(nodes.isEmpty())
+		{
+			// 不能当作没有key的集群，否则SCAN在故障期间会返回"迭代完成、没有key"
+			throw new JedisConnectionException("Could not discover cluster master nodes");
+		}
+		return nodes;
+	}
+
+	@Override
+	public void openPipeline()
+	{
+		if(pipelinedResults == null)
+		{
+			pipelinedResults = new ArrayList<>();
+		}
+	}
+
+	@Override
+	public boolean isPipelined()
+	{
+		return pipelinedResults != null;
+	}
+
+	@Override
+	public List<Object> closePipeline()
+	{
+		if(pipelinedResults == null)
+		{
+			return Collections.emptyList();
+		}
+
+		List<Object> results = pipelinedResults;
+		pipelinedResults = null;
+		return results;
+	}
+
+	@Override
+	public int getPipelinedCount()
+	{
+		return pipelinedResults != null ? pipelinedResults.size() : 0;
+	}
+
+	@Override
+	public void close()
+	{
+		pipelinedResults = null;
+		closed = true;
+	}
+
+	@Override
+	public boolean isClosed()
+	{
+		return closed;
+	}
+
+	/**
+	 * 执行命令，pipeline模式下记录结果并返回null
+	 *
+	 * @param command
+	 * @param <T>
+	 * @return
+	 */
+	<T> T execute(Function<JedisCluster, T> command)
+	{
+		if(pipelinedResults == null)
+		{
+			return command.apply(cluster);
+		}
+
+		try
+		{
+			pipelinedResults.add(command.apply(cluster));
+		}
+		catch(JedisDataException e)
+		{
+			pipelinedResults.add(e);
+		}
+		return null;
+	}
+
+	/**
+	 * 在所有master节点上执行命令，用于keys等不能按slot路由的命令
+	 *
+	 * @param command
+	 * @param <T>
+	 * @return 每个master节点的结果
+	 */
+	<T> List<T> executeOnMasters(Function<Jedis, T> command)
+	{
+		List<T> ret = new ArrayList<>();
+		for(JedisPool pool : cluster.getClusterNodes().values())
+		{
+			try(Jedis jedis = pool.getResource())
+			{
+				if(isMaster(jedis))
+				{
+					ret.add(command.apply(jedis));
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * 在随机的一个master节点上执行命令
+	 * 节点从slot表中选取，不需要每次通过INFO replication确认角色，slot表不可用时才逐个节点检查
+	 *
+	 * @param command
+	 * @param <T>
+	 * @return
+	 */
+	<T> T executeOnRandomMaster(Function<Jedis, T> command)
+	{
+		List<String> masters = slotRouter.getMasterNodes();
+		if(!masters.isEmpty())
+		{
+			return executeOnNode(masters.get(ThreadLocalRandom.current().nextInt(masters.size())), command);
+		}
+
+		List<JedisPool> pools = new ArrayList<>(cluster.getClusterNodes().values());
+		Collections.shuffle(pools, ThreadLocalRandom.current());
+		for(JedisPool pool : pools)
+		{
+			try(Jedis jedis = pool.getResource())
+			{
+				if(isMaster(jedis))
+				{
+					return command.apply(jedis);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 在指定的节点上执行命令
+	 *
+	 * @param node    host:port
+	 * @param command
+	 * @param <T>
+	 * @return
+	 */
+	<T> T executeOnNode(String node, Function<Jedis, T> command)
+	{
+		JedisPool pool = cluster.getClusterNodes().get(node);
+		if(pool == null)
+		{
+			throw new JedisConnectionException("Unknown cluster node: " + node);
+		}
+		try(Jedis jedis = pool.getResource())
+		{
+			return command.apply(jedis);
+		}
+	}
+
+	ClusterSlotRouter getSlotRouter()
+	{
+		return slotRouter;
+	}
+
+	private boolean isMaster(Jedis jedis)
+	{
+		return jedis.info("replication").contains("role:master");
+	}
+}
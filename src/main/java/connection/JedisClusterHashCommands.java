@@ -0,0 +1,147 @@
+package connection;
+
+
+import converter.Converters;
+import redis.clients.jedis.ScanResult;
+import support.ScanOptions;
+import util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * redis集群的hash命令，由JedisCluster按slot路由
+ *
+ * @since 2019/5/10
+ */
+public class JedisClusterHashCommands implements RedisHashCommands
+{
+
+	private final JedisClusterConnection connection;
+
+	public JedisClusterHashCommands(JedisClusterConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	public Boolean hSet(byte[] key, byte[] field, byte[] value)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(field, "Field must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		return connection.execute(cluster -> Converters.longToBoolean().convert(cluster.hset(key, field, value)));
+	}
+
+	@Override
+	public Boolean hSetNX(byte[] key, byte[] field, byte[] value)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(field, "Field must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		return connection.execute(cluster -> Converters.longToBoolean().convert(cluster.hsetnx(key, field, value)));
+	}
+
+	@Override
+	public void hMSet(byte[] key, Map<byte[], byte[]> hashes)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(hashes, "Hashes must not be null!");
+		connection.execute(cluster -> cluster.hmset(key, hashes));
+	}
+
+	@Override
+	public byte[] hGet(byte[] key, byte[] field)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(field, "Field must not be null!");
+		return connection.execute(cluster -> cluster.hget(key, field));
+	}
+
+	@Override
+	public List<byte[]> hMGet(byte[] key, byte[]... fields)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(fields, "Fields must not be null!");
+		return connection.execute(cluster -> cluster.hmget(key, fields));
+	}
+
+	@Override
+	public Long hIncrBy(byte[] key, byte[] field, long delta)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(field, "Field must not be null!");
+		return connection.execute(cluster -> cluster.hincrBy(key, field, delta));
+	}
+
+	@Override
+	public Double hIncrBy(byte[] key, byte[] field, double delta)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(field, "Field must not be null!");
+		return connection.execute(cluster -> cluster.hincrByFloat(key, field, delta));
+	}
+
+	@Override
+	public Boolean hExists(byte[] key, byte[] field)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(field, "Field must not be null!");
+		return connection.execute(cluster -> cluster.hexists(key, field));
+	}
+
+	@Override
+	public Long hDel(byte[] key, byte[]... fields)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(fields, "Fields must not be null!");
+		Assert.noNullElements(fields, "Fields must not contain null elements!");
+		return connection.execute(cluster -> cluster.hdel(key, fields));
+	}
+
+	@Override
+	public Long hLen(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.hlen(key));
+	}
+
+	@Override
+	public Long hStrLen(byte[] key, byte[] field)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(field, "Field must not be null!");
+		return connection.execute(cluster -> cluster.hstrlen(key, field));
+	}
+
+	@Override
+	public Set<byte[]> hKeys(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.hkeys(key));
+	}
+
+	@Override
+	public List<byte[]> hValues(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> new ArrayList<>(cluster.hvals(key)));
+	}
+
+	@Override
+	public Map<byte[], byte[]> hGetAll(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.hgetAll(key));
+	}
+
+	@Override
+	public ScanResult<Map.Entry<byte[], byte[]>> hScan(byte[] key, byte[] cursor, ScanOptions options)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(cursor, "Cursor must not be null!");
+		return connection.execute(cluster -> cluster.hscan(key, cursor, JedisKeyCommands.toScanParams(options)));
+	}
+}
@@ -0,0 +1,202 @@
+package connection;
+
+
+import converter.Converters;
+import connection.ClusterSlotRouter.SlotResult;
+import redis.clients.jedis.BinaryJedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.util.SafeEncoder;
+import support.RedisDataType;
+import support.ScanOptions;
+import util.Assert;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * redis集群的key命令，单key命令由JedisCluster按slot路由
+ * 多key命令在key跨slot时按slot拆分，见{@link ClusterSlotRouter}
+ *
+ * @since 2019/5/10
+ */
+public class JedisClusterKeyCommands implements RedisKeyCommands
+{
+	private final JedisClusterConnection connection;
+
+	public JedisClusterKeyCommands(JedisClusterConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	public Set<byte[]> keys(byte[] pattern)
+	{
+		Assert.notNull(pattern, "Key must not be null!");
+		// keys不能按slot路由，需要在所有master节点上执行
+		return connection.execute(cluster -> {
+			Set<byte[]> ret = new HashSet<>();
+			for(Set<byte[]> keys : connection.executeOnMasters(jedis -> jedis.keys(pattern)))
+			{
+				ret.addAll(keys);
+			}
+			return ret;
+		});
+	}
+
+	@Override
+	public Long exists(byte[]... keys)
+	{
+		Assert.notNull(keys, "Keys must not be null!");
+		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		if(ClusterSlotRouter.isSameSlot(keys))
+		{
+			return connection.execute(cluster -> cluster.exists(keys));
+		}
+		return connection.execute(cluster -> sumBySlot(keys, Pipeline::exists, JedisCluster::exists));
+	}
+
+	@Override
+	public Long del(byte[]... keys)
+	{
+		Assert.notNull(keys, "Keys must not be null!");
+		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		if(ClusterSlotRouter.isSameSlot(keys))
+		{
+			return connection.execute(cluster -> cluster.del(keys));
+		}
+		return connection.execute(cluster -> sumBySlot(keys, Pipeline::del, JedisCluster::del));
+	}
+
+	@Override
+	public Long unlink(byte[]... keys)
+	{
+		Assert.notNull(keys, "Keys must not be null!");
+		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		if(ClusterSlotRouter.isSameSlot(keys))
+		{
+			return connection.execute(cluster -> cluster.unlink(keys));
+		}
+		return connection.execute(cluster -> sumBySlot(keys, Pipeline::unlink, JedisCluster::unlink));
+	}
+
+	/**
+	 * key跨slot时按slot拆分执行，返回每个slot结果的和
+	 */
+	private Long sumBySlot(byte[][] keys, BiFunction<Pipeline, byte[][], Response<Long>> pipelineCommand, BiFunction<JedisCluster, byte[][], Long> clusterCommand)
+	{
+		long ret = 0;
+		for(SlotResult<Long> slotResult : connection.getSlotRouter().execute(keys,
+				(pipeline, indexes) -> pipelineCommand.apply(pipeline, ClusterSlotRouter.select(keys, indexes)),
+				(cluster, indexes) -> clusterCommand.apply(cluster, ClusterSlotRouter.select(keys, indexes))))
+		{
+			ret += slotResult.result != null ? slotResult.result : 0L;
+		}
+		return ret;
+	}
+
+	@Override
+	public RedisDataType type(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> RedisDataType.getRedisDataType(cluster.type(key)));
+	}
+
+	@Override
+	public Boolean expire(byte[] key, int seconds)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> Converters.longToBoolean().convert(cluster.expire(key, seconds)));
+	}
+
+	@Override
+	public Boolean expireAt(byte[] key, long timestamp)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> Converters.longToBoolean().convert(cluster.expireAt(key, timestamp)));
+	}
+
+	@Override
+	public Boolean pExpire(byte[] key, long milliseconds)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> Converters.longToBoolean().convert(cluster.pexpire(key, milliseconds)));
+	}
+
+	@Override
+	public Boolean pExpireAt(byte[] key, long timestamp)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> Converters.longToBoolean().convert(cluster.pexpireAt(key, timestamp)));
+	}
+
+	@Override
+	public Long ttl(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.ttl(key));
+	}
+
+	@Override
+	public Long pTtl(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.pttl(key));
+	}
+
+	@Override
+	public byte[] randomkey()
+	{
+		return connection.execute(cluster -> connection.executeOnRandomMaster(BinaryJedis::randomBinaryKey));
+	}
+
+	/**
+	 * 当过期时间移除成功时，返回 1 。 如果 key 不存在或 key 没有设置过期时间，返回 0 。
+	 * @param key
+	 * @return
+	 */
+	@Override
+	public Boolean persist(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> Converters.longToBoolean().convert(cluster.persist(key)));
+	}
+
+	/**
+	 * 依次在每个master节点上执行SCAN，cursor格式为"节点序号:节点上的cursor"，节点按host:port排序
+	 * 每次只在cursor所在的节点上执行，节点迭代结束时返回下一个节点的起始cursor，即使这一页为空
+	 * 迭代期间集群拓扑发生变化时，可能遗漏或者重复返回key；无法获取master节点或者cursor中的节点已经不存在时抛出异常
+	 */
+	@Override
+	public ScanResult<byte[]> scan(byte[] cursor, ScanOptions options)
+	{
+		Assert.notNull(cursor, "Cursor must not be null!");
+		ScanParams params = JedisKeyCommands.toScanParams(options);
+		String source = SafeEncoder.encode(cursor);
+		int separator = source.indexOf(':');
+		int index = separator < 0 ? 0 : Integer.parseInt(source.substring(0, separator));
+		byte[] nodeCursor = separator < 0 ? cursor : SafeEncoder.encode(source.substring(separator + 1));
+		return connection.execute(cluster -> {
+			List<String> nodes = connection.getMasterNodes();
+			if(index >= nodes.size())
+			{
+				// 迭代期间master节点减少，cursor指向的节点已经不存在
+				throw new JedisDataException("Invalid cluster scan cursor " + source + ", " + nodes.size() + " master nodes");
+			}
+			ScanResult<byte[]> page = connection.executeOnNode(nodes.get(index), jedis -> jedis.scan(nodeCursor, params));
+			if(!page.isCompleteIteration())
+			{
+				return new ScanResult<>(index + ":" + page.getCursor(), page.getResult());
+			}
+			// 不在这里继续扫描下一个节点：ParallelKeyScanner的分片只应该返回所属节点的key
+			String next = index == nodes.size() - 1 ? ScanParams.SCAN_POINTER_START : (index + 1) + ":" + ScanParams.SCAN_POINTER_START;
+			return new ScanResult<>(next, page.getResult());
+		});
+	}
+}
@@ -0,0 +1,151 @@
+package connection;
+
+
+import redis.clients.jedis.ListPosition;
+import util.Assert;
+
+import java.util.List;
+
+/**
+ * redis集群的list命令，单key命令由JedisCluster按slot路由
+ * 多key命令要求所有key在同一个slot中
+ *
+ * @since 2019/5/10
+ */
+public class JedisClusterListCommands implements RedisListCommands
+{
+	private final JedisClusterConnection connection;
+
+	public JedisClusterListCommands(JedisClusterConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	public Long rPush(byte[] key, byte[]... values)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(values, "Values must not be null!");
+		Assert.noNullElements(values, "Values must not contain null elements!");
+		return connection.execute(cluster -> cluster.rpush(key, values));
+	}
+
+	@Override
+	public Long rPushX(byte[] key, byte[] value)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		return connection.execute(cluster -> cluster.rpushx(key, value));
+	}
+
+	@Override
+	public Long lPush(byte[] key, byte[]... values)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(values, "Values must not be null!");
+		Assert.noNullElements(values, "Values must not contain null elements!");
+		return connection.execute(cluster -> cluster.lpush(key, values));
+	}
+
+	@Override
+	public Long lPushX(byte[] key, byte[] value)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		return connection.execute(cluster -> cluster.lpushx(key, value));
+	}
+
+	@Override
+	public byte[] lPop(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.lpop(key));
+	}
+
+	@Override
+	public byte[] rPop(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.rpop(key));
+	}
+
+	@Override
+	public byte[] rPopLPush(byte[] srcKey, byte[] destKey)
+	{
+		Assert.notNull(srcKey, "Source key must not be null!");
+		Assert.notNull(destKey, "Destination key must not be null!");
+		return connection.execute(cluster -> cluster.rpoplpush(srcKey, destKey));
+	}
+
+	@Override
+	public List<byte[]> bLPop(int timeout, byte[]... keys)
+	{
+		return null;
+	}
+
+	@Override
+	public List<byte[]> bRPop(int timeout, byte[]... keys)
+	{
+		return null;
+	}
+
+	@Override
+	public byte[] bRPopLPush(int timeout, byte[] srcKey, byte[] dstKey)
+	{
+		return new byte[0];
+	}
+
+	@Override
+	public byte[] lIndex(byte[] key, long index)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.lindex(key, index));
+	}
+
+	@Override
+	public Long lInsert(byte[] key, Position where, byte[] pivot, byte[] value)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(where, "list positions are mandatory");
+		Assert.notNull(value, "Value must not be null!");
+		ListPosition position = Position.AFTER.equals(where) ? ListPosition.AFTER : ListPosition.BEFORE;
+		return connection.execute(cluster -> cluster.linsert(key, position, pivot, value));
+	}
+
+	@Override
+	public Long lLen(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.llen(key));
+	}
+
+	@Override
+	public List<byte[]> lRange(byte[] key, long start, long end)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.lrange(key, start, end));
+	}
+
+	@Override
+	public Long lRem(byte[] key, long count, byte[] value)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		return connection.execute(cluster -> cluster.lrem(key, count, value));
+	}
+
+	@Override
+	public void lSet(byte[] key, long index, byte[] value)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		connection.execute(cluster -> cluster.lset(key, index, value));
+	}
+
+	@Override
+	public void lTrim(byte[] key, long start, long end)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		connection.execute(cluster -> cluster.ltrim(key, start, end));
+	}
+}
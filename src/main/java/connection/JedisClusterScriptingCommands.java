@@ -0,0 +1,132 @@
+package connection;
+
+
+import converter.Converters;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.util.SafeEncoder;
+import support.ReturnType;
+import util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * redis集群的脚本命令
+ *
+ * eval、evalSha按第一个key的slot路由，没有key时在slot表中随机的一个master节点上执行
+ * SCRIPT子命令在所有master节点上执行，scriptLoad之后每个节点都缓存了该脚本
+ *
+ * @since 2019/5/10
+ */
+public class JedisClusterScriptingCommands implements RedisScriptingCommands
+{
+
+	private final JedisClusterConnection connection;
+
+	public JedisClusterScriptingCommands(JedisClusterConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T eval(byte[] scripts, ReturnType returnType, int numkeys, byte[]... keysAndArgs)
+	{
+		Assert.notNull(scripts, "Script must not be null!");
+		if(numkeys == 0)
+		{
+			return (T) connection.execute(cluster -> Converters.toScriptResult(
+					connection.executeOnRandomMaster(jedis -> jedis.eval(scripts, 0, keysAndArgs)), returnType));
+		}
+		return (T) connection.execute(cluster -> Converters.toScriptResult(cluster.eval(scripts, numkeys, keysAndArgs), returnType));
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T evalSha(String scriptSha, ReturnType returnType, int numkeys, byte[]... keysAndArgs)
+	{
+		Assert.notNull(scriptSha, "Script sha must not be null!");
+		byte[] sha = SafeEncoder.encode(scriptSha);
+		if(numkeys == 0)
+		{
+			return (T) connection.execute(cluster -> Converters.toScriptResult(
+					connection.executeOnRandomMaster(jedis -> jedis.evalsha(sha, 0, keysAndArgs)), returnType));
+		}
+		return (T) connection.execute(cluster -> Converters.toScriptResult(cluster.evalsha(sha, numkeys, keysAndArgs), returnType));
+	}
+
+	@Override
+	public void scriptFlush()
+	{
+		connection.execute(cluster -> connection.executeOnMasters(jedis -> jedis.scriptFlush()));
+	}
+
+	@Override
+	public void scriptKill()
+	{
+		connection.execute(cluster -> connection.executeOnMasters(jedis -> {
+			try
+			{
+				return jedis.scriptKill();
+			}
+			catch(JedisDataException e)
+			{
+				// 没有正在运行脚本的节点返回NOTBUSY
+				if(e.getMessage() != null && e.getMessage().startsWith("NOTBUSY"))
+				{
+					return null;
+				}
+				throw e;
+			}
+		}));
+	}
+
+	@Override
+	public String scriptLoad(byte[] script)
+	{
+		Assert.notNull(script, "Script must not be null!");
+		return connection.execute(cluster -> {
+			String ret = null;
+			for(byte[] sha : connection.executeOnMasters(jedis -> jedis.scriptLoad(script)))
+			{
+				ret = SafeEncoder.encode(sha);
+			}
+			return ret;
+		});
+	}
+
+	/**
+	 * 只有所有master节点都缓存了脚本时才返回true
+	 */
+	@Override
+	public List<Boolean> scriptExists(String... scriptShas)
+	{
+		Assert.notNull(scriptShas, "Script shas must not be null!");
+		Assert.noNullElements(scriptShas, "Script shas must not contain null elements!");
+		byte[][] shas = new byte[scriptShas.length][];
+		for(int i = 0; i < scriptShas.length; i++)
+		{
+			shas[i] = SafeEncoder.encode(scriptShas[i]);
+		}
+
+		return connection.execute(cluster -> {
+			List<Boolean> ret = new ArrayList<>(shas.length);
+			for(int i = 0; i < shas.length; i++)
+			{
+				ret.add(true);
+			}
+			for(List<Long> exists : connection.executeOnMasters(jedis -> jedis.scriptExists(shas)))
+			{
+				for(int i = 0; i < exists.size(); i++)
+				{
+					Long e = exists.get(i);
+					if(e == null || e != 1)
+					{
+						ret.set(i, false);
+					}
+				}
+			}
+			return ret;
+		});
+	}
+}
@@ -0,0 +1,157 @@
+package connection;
+
+
+import converter.Converters;
+import redis.clients.jedis.ScanResult;
+import support.ScanOptions;
+import util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * redis集群的set命令，单key命令由JedisCluster按slot路由
+ * 多key命令要求所有key在同一个slot中
+ *
+ * @since 2019/5/10
+ */
+public class JedisClusterSetCommands implements RedisSetCommands
+{
+
+	private final JedisClusterConnection connection;
+
+	public JedisClusterSetCommands(JedisClusterConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	public Long sAdd(byte[] key, byte[]... members)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(members, "Values must not be null!");
+		Assert.noNullElements(members, "Values must not contain null elements!");
+		return connection.execute(cluster -> cluster.sadd(key, members));
+	}
+
+	@Override
+	public List<byte[]> sMembers(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> new ArrayList<>(cluster.smembers(key)));
+	}
+
+	@Override
+	public Boolean sIsMember(byte[] key, byte[] member)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(member, "Value must not be null!");
+		return connection.execute(cluster -> cluster.sismember(key, member));
+	}
+
+	@Override
+	public Long sCard(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.scard(key));
+	}
+
+	@Override
+	public Set<byte[]> sUnion(byte[]... keys)
+	{
+		Assert.notNull(keys, "Keys must not be null!");
+		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		return connection.execute(cluster -> cluster.sunion(keys));
+	}
+
+	@Override
+	public Long sUnionStore(byte[] destination, byte[]... keys)
+	{
+		Assert.notNull(destination, "Destination key must not be null!");
+		Assert.notNull(keys, "Keys must not be null!");
+		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		return connection.execute(cluster -> cluster.sunionstore(destination, keys));
+	}
+
+	@Override
+	public Set<byte[]> sInter(byte[]... keys)
+	{
+		Assert.notNull(keys, "Keys must not be null!");
+		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		return connection.execute(cluster -> cluster.sinter(keys));
+	}
+
+	@Override
+	public Long sInterStore(byte[] destination, byte[]... keys)
+	{
+		Assert.notNull(destination, "Destination key must not be null!");
+		Assert.notNull(keys, "Keys must not be null!");
+		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		return connection.execute(cluster -> cluster.sinterstore(destination, keys));
+	}
+
+	@Override
+	public Set<byte[]> sDiff(byte[]... keys)
+	{
+		Assert.notNull(keys, "Keys must not be null!");
+		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		return connection.execute(cluster -> cluster.sdiff(keys));
+	}
+
+	@Override
+	public Long sDiffStore(byte[] destination, byte[]... keys)
+	{
+		Assert.notNull(destination, "Destination key must not be null!");
+		Assert.notNull(keys, "Keys must not be null!");
+		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		return connection.execute(cluster -> cluster.sdiffstore(destination, keys));
+	}
+
+	@Override
+	public Boolean sMove(byte[] source, byte[] destination, byte[] member)
+	{
+		Assert.notNull(source, "Source key must not be null!");
+		Assert.notNull(destination, "Destination key must not be null!");
+		Assert.notNull(member, "Value must not be null!");
+		return connection.execute(cluster -> Converters.longToBoolean().convert(cluster.smove(source, destination, member)));
+	}
+
+	@Override
+	public Set<byte[]> sPop(byte[] key, long count)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.spop(key, count));
+	}
+
+	@Override
+	public byte[] sRandMember(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.srandmember(key));
+	}
+
+	@Override
+	public List<byte[]> sRandomMember(byte[] key, long count)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.srandmember(key, (int) count));
+	}
+
+	@Override
+	public Long sRem(byte[] key, byte[]... members)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(members, "Values must not be null!");
+		Assert.noNullElements(members, "Values must not contain null elements!");
+		return connection.execute(cluster -> cluster.srem(key, members));
+	}
+
+	@Override
+	public ScanResult<byte[]> sScan(byte[] key, byte[] cursor, ScanOptions options)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(cursor, "Cursor must not be null!");
+		return connection.execute(cluster -> cluster.sscan(key, cursor, JedisKeyCommands.toScanParams(options)));
+	}
+}
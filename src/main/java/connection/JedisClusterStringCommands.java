@@ -0,0 +1,246 @@
+package connection;
+
+
+import connection.ClusterSlotRouter.SlotResult;
+import converter.Converter;
+import converter.Converters;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import support.Expiration;
+import util.Assert;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * redis集群的string命令，单key命令由JedisCluster按slot路由
+ * 多key命令在key跨slot时按slot拆分，见{@link ClusterSlotRouter}
+ *
+ * @since 2019/5/10
+ */
+public class JedisClusterStringCommands implements RedisStringCommands
+{
+
+	private final JedisClusterConnection connection;
+
+	public JedisClusterStringCommands(JedisClusterConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	public byte[] get(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.get(key));
+	}
+
+	@Override
+	public byte[] getSet(byte[] key, byte[] value)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		return connection.execute(cluster -> cluster.getSet(key, value));
+	}
+
+	@Override
+	public List<byte[]> mGet(byte[]... keys)
+	{
+		Assert.notNull(keys, "Keys must not be null!");
+		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		if(ClusterSlotRouter.isSameSlot(keys))
+		{
+			return connection.execute(cluster -> cluster.mget(keys));
+		}
+		return connection.execute(cluster -> mGetBySlot(keys));
+	}
+
+	@Override
+	public Boolean set(byte[] key, byte[] value)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		return connection.execute(cluster -> Converters.okToBoolean().convert(cluster.set(key, value)));
+	}
+
+	@Override
+	public Boolean set(byte[] key, byte[] value, Expiration expiration, SetOption option)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		Assert.notNull(expiration, "Expiration must not be null!");
+		Assert.notNull(option, "Option must not be null!");
+		return connection.execute(cluster -> Converters.okToBoolean().convert(cluster.set(key, value, JedisStringCommands.getSetParams(expiration, option))));
+	}
+
+	@Override
+	public Boolean setNX(byte[] key, byte[] value)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		return connection.execute(cluster -> Converters.longToBoolean().convert(cluster.setnx(key, value)));
+	}
+
+	@Override
+	public Boolean setEx(byte[] key, long seconds, byte[] value)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		return connection.execute(cluster -> Converters.okToBoolean().convert(cluster.setex(key, (int)seconds, value)));
+	}
+
+	@Override
+	public Boolean pSetEx(byte[] key, long millseconds, byte[] value)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		return connection.execute(cluster -> Converters.okToBoolean().convert(cluster.psetex(key, millseconds, value)));
+	}
+
+	@Override
+	public Boolean mSet(Map<byte[], byte[]> tuples)
+	{
+		Assert.notNull(tuples, "Tuples must not be null!");
+		byte[][] keysAndValues = JedisStringCommands.toByteArrays(tuples);
+		byte[][] keys = keys(keysAndValues);
+		if(ClusterSlotRouter.isSameSlot(keys))
+		{
+			return connection.execute(cluster -> Converters.okToBoolean().convert(cluster.mset(keysAndValues)));
+		}
+		return connection.execute(cluster -> allBySlot(keys, keysAndValues, Pipeline::mset, JedisCluster::mset, Converters.okToBoolean()));
+	}
+
+	@Override
+	public Boolean mSetNX(Map<byte[], byte[]> tuples)
+	{
+		Assert.notNull(tuples, "Tuples must not be null!");
+		byte[][] keysAndValues = JedisStringCommands.toByteArrays(tuples);
+		byte[][] keys = keys(keysAndValues);
+		if(ClusterSlotRouter.isSameSlot(keys))
+		{
+			return connection.execute(cluster -> Converters.longToBoolean().convert(cluster.msetnx(keysAndValues)));
+		}
+		return connection.execute(cluster -> allBySlot(keys, keysAndValues, Pipeline::msetnx, JedisCluster::msetnx, Converters.longToBoolean()));
+	}
+
+	/**
+	 * key跨slot时按slot拆分执行，按照keys的顺序合并结果
+	 */
+	private List<byte[]> mGetBySlot(byte[][] keys)
+	{
+		byte[][] ret = new byte[keys.length][];
+		for(SlotResult<List<byte[]>> slotResult : connection.getSlotRouter().execute(keys,
+				(pipeline, indexes) -> pipeline.mget(ClusterSlotRouter.select(keys, indexes)),
+				(cluster, indexes) -> cluster.mget(ClusterSlotRouter.select(keys, indexes))))
+		{
+			for(int i = 0; i < slotResult.indexes.length; i++)
+			{
+				ret[slotResult.indexes[i]] = slotResult.result.get(i);
+			}
+		}
+		return Arrays.asList(ret);
+	}
+
+	/**
+	 * key跨slot时按slot拆分执行，所有slot都成功时返回true
+	 * 注意：不同slot之间不是原子的，返回false时部分slot可能已经执行成功
+	 */
+	private <T> Boolean allBySlot(byte[][] keys, byte[][] keysAndValues, BiFunction<Pipeline, byte[][], Response<T>> pipelineCommand, BiFunction<JedisCluster, byte[][], T> clusterCommand, Converter<T, Boolean> converter)
+	{
+		boolean ret = true;
+		for(SlotResult<T> slotResult : connection.getSlotRouter().execute(keys,
+				(pipeline, indexes) -> pipelineCommand.apply(pipeline, selectKeysAndValues(keysAndValues, indexes)),
+				(cluster, indexes) -> clusterCommand.apply(cluster, selectKeysAndValues(keysAndValues, indexes))))
+		{
+			ret &= Boolean.TRUE.equals(converter.convert(slotResult.result));
+		}
+		return ret;
+	}
+
+	private byte[][] keys(byte[][] keysAndValues)
+	{
+		byte[][] keys = new byte[keysAndValues.length / 2][];
+		for(int i = 0; i < keys.length; i++)
+		{
+			keys[i] = keysAndValues[i * 2];
+		}
+		return keys;
+	}
+
+	private byte[][] selectKeysAndValues(byte[][] keysAndValues, int[] indexes)
+	{
+		byte[][] ret = new byte[indexes.length * 2][];
+		for(int i = 0; i < indexes.length; i++)
+		{
+			ret[i * 2] = keysAndValues[indexes[i] * 2];
+			ret[i * 2 + 1] = keysAndValues[indexes[i] * 2 + 1];
+		}
+		return ret;
+	}
+
+	@Override
+	public Long incr(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.incr(key));
+	}
+
+	@Override
+	public Long incrBy(byte[] key, long delta)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.incrBy(key, delta));
+	}
+
+	@Override
+	public Double incrByFloat(byte[] key, double delta)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.incrByFloat(key, delta));
+	}
+
+	@Override
+	public Long decr(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.decr(key));
+	}
+
+	@Override
+	public Long decrBy(byte[] key, long delta)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.decrBy(key, delta));
+	}
+
+	@Override
+	public Long append(byte[] key, byte[] value)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		return connection.execute(cluster -> cluster.append(key, value));
+	}
+
+	@Override
+	public byte[] getRange(byte[] key, long start, long end)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.getrange(key, start, end));
+	}
+
+	@Override
+	public void setRange(byte[] key, byte[] value, long offset)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		connection.execute(cluster -> cluster.setrange(key, offset, value));
+	}
+
+	@Override
+	public Long strLen(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.strlen(key));
+	}
+}
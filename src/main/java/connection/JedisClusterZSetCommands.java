@@ -0,0 +1,295 @@
+package connection;
+
+
+import converter.Converters;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.Tuple;
+import redis.clients.jedis.ZParams;
+import support.Limit;
+import support.ScanOptions;
+import support.ScoreRange;
+import support.Weights;
+import util.Assert;
+import java.util.Set;
+
+/**
+ * redis集群的sorted set命令，单key命令由JedisCluster按slot路由
+ * 多key命令要求所有key在同一个slot中
+ *
+ * @since 2019/5/10
+ */
+public class JedisClusterZSetCommands implements RedisZSetCommands
+{
+
+	private final JedisClusterConnection connection;
+
+	public JedisClusterZSetCommands(JedisClusterConnection connection)
+	{
+		this.connection = connection;
+	}
+
+	@Override
+	public Long zAdd(byte[] key, double score, byte[] member)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(member, "Value must not be null!");
+		return connection.execute(cluster -> cluster.zadd(key, score, member));
+	}
+
+
+	@Override
+	public Long zAdd(byte[] key, double score, byte[] member, ZAddOption option)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(member, "Value must not be null!");
+		return connection.execute(cluster -> cluster.zadd(key, score, member, JedisZSetCommands.getZAddParams(option)));
+	}
+
+
+
+	@Override
+	public Long zAdd(byte[] key, Set<Tuple> tuples)
+	{
+
+		// TODO 需要测试一下 tuples size = 0的情况
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(tuples, "Value must not be null!");
+		return connection.execute(cluster -> cluster.zadd(key, JedisZSetCommands.toTupleMap(tuples)));
+	}
+
+
+	@Override
+	public Long zAdd(byte[] key, Set<Tuple> tuples, ZAddOption option)
+	{
+		// TODO 需要测试一下 tuples size = 0的情况
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(tuples, "Value must not be null!");
+		return connection.execute(cluster -> cluster.zadd(key, JedisZSetCommands.toTupleMap(tuples), JedisZSetCommands.getZAddParams(option)));
+	}
+
+	@Override
+	public Double zIncrBy(byte[] key, double increment, byte[] value) {
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(value, "Value must not be null!");
+		return connection.execute(cluster -> cluster.zincrby(key, increment, value));
+	}
+
+	@Override
+	public Long zRem(byte[] key, byte[]... members) {
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(members, "Values must not be null!");
+		Assert.noNullElements(members, "Values must not contain null elements!");
+		return connection.execute(cluster -> cluster.zrem(key, members));
+	}
+
+
+	@Override
+	public Long zRemRangeByScore(byte[] key, ScoreRange ScoreRange)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(ScoreRange, "ScoreRange for ZREMScoreRangeBYSCORE must not be null!");
+		byte[] min = Converters.boundaryToBytes(ScoreRange.getMin(), Converters.NEGATIVE_INFINITY_BYTES);
+		byte[] max = Converters.boundaryToBytes(ScoreRange.getMax(), Converters.POSITIVE_INFINITY_BYTES);
+		return connection.execute(cluster -> cluster.zremrangeByScore(key, min, max));
+	}
+
+	@Override
+	public Long zRemRangeByRank(byte[] key, long start, long end)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.zremrangeByRank(key, start, end));
+	}
+
+	// TODO 未实现  Available since 5.0.0.
+	@Override
+	public Tuple zPopMax(byte[] key, long count)
+	{
+		return null;
+	}
+
+	// TODO 未实现 Available since 5.0.0.
+	@Override
+	public Tuple zPopMin(byte[] key, long count)
+	{
+		return null;
+	}
+
+	@Override
+	public Double zScore(byte[] key, byte[] member)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(member, "Values must not be null!");
+		return connection.execute(cluster -> cluster.zscore(key, member));
+	}
+
+	@Override
+	public Long zCard(byte[] key)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.zcard(key));
+	}
+
+	@Override
+	public Long zCount(byte[] key, ScoreRange ScoreRange)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(ScoreRange, "ScoreRange for ZREMScoreRangeBYSCORE must not be null!");
+		byte[] min = Converters.boundaryToBytes(ScoreRange.getMin(), Converters.NEGATIVE_INFINITY_BYTES);
+		byte[] max = Converters.boundaryToBytes(ScoreRange.getMax(), Converters.POSITIVE_INFINITY_BYTES);
+		return connection.execute(cluster -> cluster.zcount(key, min, max));
+	}
+
+	@Override
+	public Set<byte[]> zRange(byte[] key, long start, long end)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.zrange(key, start, end));
+	}
+
+	@Override
+	public Set<Tuple> zRangeWithScores(byte[] key, long start, long end)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.zrangeWithScores(key, start, end));
+	}
+
+	@Override
+	public Set<byte[]> zRevRange(byte[] key, long start, long end)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.zrevrange(key, start, end));
+	}
+
+	@Override
+	public Set<Tuple> zRevRangeWithScores(byte[] key, long start, long end)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		return connection.execute(cluster -> cluster.zrevrangeWithScores(key, start, end));
+	}
+
+	@Override
+	public Set<byte[]> zRangeByScore(byte[] key, ScoreRange ScoreRange, Limit limit)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(ScoreRange, "ScoreRange for ZREMScoreRangeBYSCORE must not be null!");
+		byte[] min = Converters.boundaryToBytes(ScoreRange.getMin(), Converters.NEGATIVE_INFINITY_BYTES);
+		byte[] max = Converters.boundaryToBytes(ScoreRange.getMax(), Converters.POSITIVE_INFINITY_BYTES);
+		if(limit != null)
+		{
+			return connection.execute(cluster -> cluster.zrangeByScore(key, min, max, limit.getOffset(), limit.getCount()));
+		}
+		return connection.execute(cluster -> cluster.zrangeByScore(key, min, max));
+	}
+
+	@Override
+	public Set<byte[]> zRevRangeByScore(byte[] key, ScoreRange ScoreRange, Limit limit)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(ScoreRange, "ScoreRange for ZREMScoreRangeBYSCORE must not be null!");
+		byte[] min = Converters.boundaryToBytes(ScoreRange.getMin(), Converters.NEGATIVE_INFINITY_BYTES);
+		byte[] max = Converters.boundaryToBytes(ScoreRange.getMax(), Converters.POSITIVE_INFINITY_BYTES);
+		if(limit != null)
+		{
+			return connection.execute(cluster -> cluster.zrevrangeByScore(key, max, min, limit.getOffset(), limit.getCount()));
+		}
+		return connection.execute(cluster -> cluster.zrevrangeByScore(key, max, min));
+	}
+
+	@Override
+	public Set<Tuple> zRangeByScoreWithScores(byte[] key, ScoreRange ScoreRange, Limit limit)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(ScoreRange, "ScoreRange for ZREMScoreRangeBYSCORE must not be null!");
+		byte[] min = Converters.boundaryToBytes(ScoreRange.getMin(), Converters.NEGATIVE_INFINITY_BYTES);
+		byte[] max = Converters.boundaryToBytes(ScoreRange.getMax(), Converters.POSITIVE_INFINITY_BYTES);
+		if(limit != null)
+		{
+			return connection.execute(cluster -> cluster.zrangeByScoreWithScores(key, min, max, limit.getOffset(), limit.getCount()));
+		}
+		return connection.execute(cluster -> cluster.zrangeByScoreWithScores(key, min, max));
+	}
+
+	@Override
+	public Set<Tuple> zRevRangeByScoreWithScores(byte[] key, ScoreRange ScoreRange, Limit limit)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(ScoreRange, "ScoreRange for ZREMScoreRangeBYSCORE must not be null!");
+		byte[] min = Converters.boundaryToBytes(ScoreRange.getMin(), Converters.NEGATIVE_INFINITY_BYTES);
+		byte[] max = Converters.boundaryToBytes(ScoreRange.getMax(), Converters.POSITIVE_INFINITY_BYTES);
+		if(limit != null)
+		{
+			return connection.execute(cluster -> cluster.zrevrangeByScoreWithScores(key, max, min, limit.getOffset(), limit.getCount()));
+		}
+		return connection.execute(cluster -> cluster.zrevrangeByScoreWithScores(key, max, min));
+	}
+
+	@Override
+	public Long zRank(byte[] key, byte[] member)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(member, "Values must not be null!");
+		return connection.execute(cluster -> cluster.zrank(key, member));
+	}
+
+	@Override
+	public Long zRevRank(byte[] key, byte[] member)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(member, "Values must not be null!");
+		return connection.execute(cluster -> cluster.zrevrank(key, member));
+	}
+
+	@Override
+	public Long zUnionStore(byte[] destination, byte[]... sets)
+	{
+		Assert.notNull(destination, "Key must not be null!");
+		Assert.notNull(sets, "Values must not be null!");
+		Assert.noNullElements(sets, "Values must not contain null elements!");
+		return connection.execute(cluster -> cluster.zunionstore(destination, sets));
+	}
+
+	@Override
+	public Long zUnionStore(byte[] destination, Aggregate aggregate, Weights weights, byte[]... sets)
+	{
+		Assert.notNull(destination, "Key must not be null!");
+		Assert.notNull(weights, "Weights must not be null!");
+		Assert.isTrue(weights.size() == sets.length, () -> String
+				.format("The number of weights (%d) must match the number of source sets (%d)!", weights.size(), sets.length));
+		Assert.notNull(sets, "Values must not be null!");
+		Assert.noNullElements(sets, "Values must not contain null elements!");
+		ZParams zparams = new ZParams().weights(weights.toArray())
+				.aggregate(ZParams.Aggregate.valueOf(aggregate.name()));
+		return connection.execute(cluster -> cluster.zunionstore(destination, zparams, sets));
+	}
+
+	@Override
+	public Long zInterStore(byte[] destination, byte[]... sets)
+	{
+		Assert.notNull(destination, "Key must not be null!");
+		Assert.notNull(sets, "Values must not be null!");
+		Assert.noNullElements(sets, "Values must not contain null elements!");
+		return connection.execute(cluster -> cluster.zinterstore(destination, sets));
+	}
+
+	@Override
+	public Long zInterStore(byte[] destination, Aggregate aggregate, Weights weights, byte[]... sets)
+	{
+		Assert.notNull(destination, "Key must not be null!");
+		Assert.notNull(weights, "Weights must not be null!");
+		Assert.isTrue(weights.size() == sets.length, () -> String
+				.format("The number of weights (%d) must match the number of source sets (%d)!", weights.size(), sets.length));
+		Assert.notNull(sets, "Values must not be null!");
+		Assert.noNullElements(sets, "Values must not contain null elements!");
+		ZParams zparams = new ZParams().weights(weights.toArray())
+				.aggregate(ZParams.Aggregate.valueOf(aggregate.name()));
+		return connection.execute(cluster -> cluster.zinterstore(destination, zparams, sets));
+	}
+
+	@Override
+	public ScanResult<Tuple> zScan(byte[] key, byte[] cursor, ScanOptions options)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(cursor, "Cursor must not be null!");
+		return connection.execute(cluster -> cluster.zscan(key, cursor, JedisKeyCommands.toScanParams(options)));
+	}
+}
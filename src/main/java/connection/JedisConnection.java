@@ -1,8 +1,15 @@
 package connection;
 
 
+import converter.Converter;
 import redis.clients.jedis.Jedis;
-import redis.clients.jedis.util.Pool;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * jedis
@@ -28,6 +35,16 @@ public class JedisConnection implements RedisConnection<Jedis>
 	 */
 	private final String clientName;
 
+	/**
+	 * pipeline模式下使用的pipeline，非pipeline模式下为null
+	 */
+	private Pipeline pipeline;
+
+	/**
+	 * pipeline中排队的命令结果
+	 */
+	private final List<JedisResult<?, ?>> pipelinedResults = new ArrayList<>();
+
 	public JedisConnection(Jedis jedis)
 	{
 		this(jedis, 0);
@@ -63,6 +80,8 @@ public class JedisConnection implements RedisConnection<Jedis>
 	@Override
 	public void close()
 	{
+		pipeline = null;
+		pipelinedResults.clear();
 		if(!isClosed())
 		{
 			jedis.close();
@@ -117,4 +136,72 @@ public class JedisConnection implements RedisConnection<Jedis>
 	{
 		return new JedisScriptingCommands(this);
 	}
+
+	@Override
+	public void openPipeline()
+	{
+		if(pipeline == null)
+		{
+			pipeline = jedis.pipelined();
+		}
+	}
+
+	@Override
+	public boolean isPipelined()
+	{
+		return pipeline != null;
+	}
+
+	@Override
+	public List<Object> closePipeline()
+	{
+		if(pipeline == null)
+		{
+			return Collections.emptyList();
+		}
+
+		try
+		{
+			pipeline.sync();
+			List<Object> results = new ArrayList<>(pipelinedResults.size());
+			for(JedisResult<?, ?> result : pipelinedResults)
+			{
+				try
+				{
+					results.add(result.get());
+				}
+				catch(JedisDataException e)
+				{
+					results.add(e);
+				}
+			}
+			return results;
+		}
+		finally
+		{
+			pipeline = null;
+			pipelinedResults.clear();
+		}
+	}
+
+	@Override
+	public int getPipelinedCount()
+	{
+		return pipelinedResults.size();
+	}
+
+	Pipeline getPipeline()
+	{
+		return pipeline;
+	}
+
+	<T> void pipeline(Response<T> response)
+	{
+		pipeline(response, null);
+	}
+
+	<T, R> void pipeline(Response<T> response, Converter<T, R> converter)
+	{
+		pipelinedResults.add(new JedisResult<>(response, converter));
+	}
 }
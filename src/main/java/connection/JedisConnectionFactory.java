@@ -1,10 +1,19 @@
 package connection;
 
+import metrics.PoolStatistics;
+import metrics.RedisMetrics;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.util.Pool;
+import util.Assert;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @since 2019/4/29
@@ -14,8 +23,19 @@ public class JedisConnectionFactory implements RedisConnectionFactory<Jedis, Jed
 
 	private Pool<Jedis> pool;
 
+	private JedisCluster cluster;
+
+	private ClusterSlotRouter slotRouter;
+
 	private final JedisClientConfiguration clientConfiguration;
 
+	private final RedisMetrics metrics = new RedisMetrics();
+
+	/**
+	 * 默认不熔断，需要时通过{@link #setCircuitBreaker(CircuitBreaker)}开启
+	 */
+	private volatile CircuitBreaker circuitBreaker;
+
 
 	public JedisConnectionFactory()
 	{
@@ -30,15 +50,59 @@ public class JedisConnectionFactory implements RedisConnectionFactory<Jedis, Jed
 
 	public void init()
 	{
+		if(clientConfiguration.isUsingCluster())
+		{
+			createCluster();
+			return;
+		}
+
 		if(clientConfiguration.isUsingPool())
 		{
 			createPool();
 		}
 	}
 
+	/**
+	 * JedisCluster内部为每个节点维护一个连接池
+	 * jedis 3.0.1的JedisCluster不支持ssl，同时配置ssl和集群时拒绝初始化，不会降级为明文连接
+	 */
+	private void createCluster()
+	{
+		Assert.isTrue(!clientConfiguration.isUsingSsl(), "ssl is not supported in cluster mode");
+		this.cluster = new JedisCluster(
+				clientConfiguration.getClusterNodes(),
+				clientConfiguration.getConnectionTimeout(),
+				clientConfiguration.getSoTimeout(),
+				clientConfiguration.getMaxRedirects(),
+				clientConfiguration.getPassword(),
+				clientConfiguration.getClientName(),
+				clientConfiguration.getPoolConfig()
+		);
+		this.slotRouter = new ClusterSlotRouter(cluster, createClusterExecutor());
+		metrics.setPoolStatistics(new ClusterPoolStatistics(cluster));
+	}
+
+	/**
+	 * 多key命令按节点并行执行使用的线程池，线程用完时由调用线程执行
+	 */
+	private ExecutorService createClusterExecutor()
+	{
+		int maxThreads = Math.max(clientConfiguration.getPoolConfig().getMaxTotal(), 1);
+		AtomicInteger counter = new AtomicInteger();
+		return new ThreadPoolExecutor(0, maxThreads, 60L, TimeUnit.SECONDS,
+				new SynchronousQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "redis-cluster-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				},
+				new ThreadPoolExecutor.CallerRunsPolicy());
+	}
+
 	private void createPool()
 	{
-		this.pool = new JedisPool(
+		InstrumentedJedisPool pool = new InstrumentedJedisPool(
+				metrics,
 				clientConfiguration.getPoolConfig(),
 				clientConfiguration.getHost(),
 				clientConfiguration.getPort(),
@@ -52,6 +116,8 @@ public class JedisConnectionFactory implements RedisConnectionFactory<Jedis, Jed
 				clientConfiguration.getSslParameters().orElse(null),
 				clientConfiguration.getHostnameVerifier().orElse(null)
 		);
+		this.pool = pool;
+		metrics.setPoolStatistics(pool);
 	}
 
 
@@ -80,6 +146,67 @@ public class JedisConnectionFactory implements RedisConnectionFactory<Jedis, Jed
 		);
 	}
 
+	/**
+	 * 创建一个独立的连接，不从连接池中获取，用于subscribe等会长时间占用连接的命令
+	 * 调用方负责关闭该连接
+	 *
+	 * @return 已经完成认证并选择了database的连接
+	 */
+	public Jedis createSubscriptionConnection()
+	{
+		Jedis jedis = createJedis();
+		try
+		{
+			if(clientConfiguration.getPassword() != null)
+			{
+				jedis.auth(clientConfiguration.getPassword());
+			}
+			if(clientConfiguration.getDatabase() != jedis.getDB())
+			{
+				jedis.select(clientConfiguration.getDatabase());
+			}
+			return jedis;
+		}
+		catch(RuntimeException e)
+		{
+			jedis.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * 连接池和命令执行的指标
+	 *
+	 * @return
+	 */
+	public RedisMetrics getMetrics()
+	{
+		return metrics;
+	}
+
+	/**
+	 * @return 为null时不熔断
+	 */
+	public CircuitBreaker getCircuitBreaker()
+	{
+		return circuitBreaker;
+	}
+
+	/**
+	 * 设置熔断器，为null时关闭熔断，默认为null
+	 *
+	 * @param circuitBreaker
+	 */
+	public void setCircuitBreaker(CircuitBreaker circuitBreaker)
+	{
+		this.circuitBreaker = circuitBreaker;
+	}
+
+	public JedisClientConfiguration getClientConfiguration()
+	{
+		return clientConfiguration;
+	}
+
 	@Override
 	public RedisConnection<Jedis> getConnection()
 	{
@@ -92,7 +219,77 @@ public class JedisConnectionFactory implements RedisConnectionFactory<Jedis, Jed
 	@Override
 	public RedisClusterConnection<JedisCluster> getClusterConnection()
 	{
+		Assert.isTrue(cluster != null, "cluster mode is not enabled or factory is not initialized");
+		return new JedisClusterConnection(cluster, slotRouter);
+	}
+
+	/**
+	 * 是否使用集群模式
+	 *
+	 * @return
+	 */
+	public boolean isUsingCluster()
+	{
+		return clientConfiguration.isUsingCluster();
+	}
+
+
+	/**
+	 * 集群所有节点连接池的汇总
+	 * JedisCluster内部的连接池无法获取创建、销毁数量，也无法记录获取连接的等待时间
+	 */
+	private static final class ClusterPoolStatistics implements PoolStatistics
+	{
+		private final JedisCluster cluster;
 
-		return null;
+		ClusterPoolStatistics(JedisCluster cluster)
+		{
+			this.cluster = cluster;
+		}
+
+		@Override
+		public int getNumActive()
+		{
+			int ret = 0;
+			for(JedisPool pool : cluster.getClusterNodes().values())
+			{
+				ret += pool.getNumActive();
+			}
+			return ret;
+		}
+
+		@Override
+		public int getNumIdle()
+		{
+			int ret = 0;
+			for(JedisPool pool : cluster.getClusterNodes().values())
+			{
+				ret += pool.getNumIdle();
+			}
+			return ret;
+		}
+
+		@Override
+		public int getNumWaiters()
+		{
+			int ret = 0;
+			for(JedisPool pool : cluster.getClusterNodes().values())
+			{
+				ret += pool.getNumWaiters();
+			}
+			return ret;
+		}
+
+		@Override
+		public long getCreatedCount()
+		{
+			return -1L;
+		}
+
+		@Override
+		public long getDestroyedCount()
+		{
+			return -1L;
+		}
 	}
 }
@@ -15,6 +15,10 @@
  */
 package connection;
 
+import redis.clients.jedis.ScanResult;
+import support.ScanOptions;
+import util.Assert;
+
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -113,4 +117,16 @@ public class JedisHashCommands implements RedisHashCommands
 	{
 		return null;
 	}
+
+	@Override
+	public ScanResult<Map.Entry<byte[], byte[]>> hScan(byte[] key, byte[] cursor, ScanOptions options)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(cursor, "Cursor must not be null!");
+		if(connection.isPipelined())
+		{
+			throw new UnsupportedOperationException("HSCAN is not supported in pipeline");
+		}
+		return connection.getConnection().hscan(key, cursor, JedisKeyCommands.toScanParams(options));
+	}
 }
@@ -1,7 +1,11 @@
 package connection;
 
 
+import converter.Converters;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 import support.RedisDataType;
+import support.ScanOptions;
 import util.Assert;
 
 import java.util.Set;
@@ -25,6 +29,11 @@ public class JedisKeyCommands implements RedisKeyCommands
 	public Set<byte[]> keys(byte[] pattern)
 	{
 		Assert.notNull(pattern, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().keys(pattern));
+			return null;
+		}
 		return connection.getConnection().keys(pattern);
 	}
 
@@ -33,6 +42,11 @@ public class JedisKeyCommands implements RedisKeyCommands
 	{
 		Assert.notNull(keys, "Keys must not be null!");
 		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().exists(keys));
+			return null;
+		}
 		return connection.getConnection().exists(keys);
 	}
 
@@ -41,6 +55,11 @@ public class JedisKeyCommands implements RedisKeyCommands
 	{
 		Assert.notNull(keys, "Keys must not be null!");
 		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().del(keys));
+			return null;
+		}
 		return connection.getConnection().del(keys);
 	}
 
@@ -49,6 +68,11 @@ public class JedisKeyCommands implements RedisKeyCommands
 	{
 		Assert.notNull(keys, "Keys must not be null!");
 		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().unlink(keys));
+			return null;
+		}
 		return connection.getConnection().unlink(keys);
 	}
 
@@ -56,6 +80,11 @@ public class JedisKeyCommands implements RedisKeyCommands
 	public RedisDataType type(byte[] key)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().type(key), RedisDataType::getRedisDataType);
+			return null;
+		}
 		return RedisDataType.getRedisDataType(connection.getConnection().type(key));
 	}
 
@@ -63,6 +92,11 @@ public class JedisKeyCommands implements RedisKeyCommands
 	public Boolean expire(byte[] key, int seconds)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().expire(key, seconds), Converters.longToBoolean());
+			return null;
+		}
 		Long ret = connection.getConnection().expire(key, seconds);
 		return ret != null && ret == 1 ? true : false;
 	}
@@ -71,6 +105,11 @@ public class JedisKeyCommands implements RedisKeyCommands
 	public Boolean expireAt(byte[] key, long timestamp)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().expireAt(key, timestamp), Converters.longToBoolean());
+			return null;
+		}
 		Long ret = connection.getConnection().expireAt(key, timestamp);
 		return ret != null && ret == 1 ? true : false;
 	}
@@ -79,6 +118,11 @@ public class JedisKeyCommands implements RedisKeyCommands
 	public Boolean pExpire(byte[] key, long milliseconds)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().pexpire(key, milliseconds), Converters.longToBoolean());
+			return null;
+		}
 		Long ret = connection.getConnection().pexpire(key, milliseconds);
 		return ret != null && ret == 1 ? true : false;
 	}
@@ -87,6 +131,11 @@ public class JedisKeyCommands implements RedisKeyCommands
 	public Boolean pExpireAt(byte[] key, long timestamp)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().pexpireAt(key, timestamp), Converters.longToBoolean());
+			return null;
+		}
 		Long ret = connection.getConnection().pexpireAt(key, timestamp);
 		return ret != null && ret == 1 ? true : false;
 	}
@@ -95,6 +144,11 @@ public class JedisKeyCommands implements RedisKeyCommands
 	public Long ttl(byte[] key)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().ttl(key));
+			return null;
+		}
 		return connection.getConnection().ttl(key);
 	}
 
@@ -102,12 +156,22 @@ public class JedisKeyCommands implements RedisKeyCommands
 	public Long pTtl(byte[] key)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().pttl(key));
+			return null;
+		}
 		return connection.getConnection().pttl(key);
 	}
 
 	@Override
 	public byte[] randomkey()
 	{
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().randomKeyBinary());
+			return null;
+		}
 		return connection.getConnection().randomBinaryKey();
 	}
 
@@ -120,7 +184,42 @@ public class JedisKeyCommands implements RedisKeyCommands
 	public Boolean persist(byte[] key)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().persist(key), Converters.longToBoolean());
+			return null;
+		}
 		Long ret = connection.getConnection().persist(key);
 		return ret != null && ret == 1 ? true : false;
 	}
+
+	@Override
+	public ScanResult<byte[]> scan(byte[] cursor, ScanOptions options)
+	{
+		Assert.notNull(cursor, "Cursor must not be null!");
+		// cursor依赖上一次的结果，不能在pipeline中排队
+		if(connection.isPipelined())
+		{
+			throw new UnsupportedOperationException("SCAN is not supported in pipeline");
+		}
+		return connection.getConnection().scan(cursor, toScanParams(options));
+	}
+
+	static ScanParams toScanParams(ScanOptions options)
+	{
+		ScanParams params = new ScanParams();
+		if(options == null)
+		{
+			return params;
+		}
+		if(options.getPattern() != null)
+		{
+			params.match(options.getPattern());
+		}
+		if(options.getCount() != null)
+		{
+			params.count(options.getCount());
+		}
+		return params;
+	}
 }
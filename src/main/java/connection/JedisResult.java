@@ -0,0 +1,30 @@
+package connection;
+
+import converter.Converter;
+import redis.clients.jedis.Response;
+
+/**
+ * pipeline中排队的一条命令的结果
+ * sync之后通过{@link #get()}获取，并使用converter转换为与非pipeline模式一致的返回类型
+ *
+ * @since 2019/5/6
+ */
+class JedisResult<T, R>
+{
+
+	private final Response<T> response;
+
+	private final Converter<T, R> converter;
+
+	JedisResult(Response<T> response, Converter<T, R> converter)
+	{
+		this.response = response;
+		this.converter = converter;
+	}
+
+	Object get()
+	{
+		T ret = response.get();
+		return converter == null ? ret : converter.convert(ret);
+	}
+}
@@ -16,8 +16,12 @@
 package connection;
 
 
+import converter.Converters;
+import redis.clients.jedis.util.SafeEncoder;
 import support.ReturnType;
+import util.Assert;
 
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -32,38 +36,83 @@ public class JedisScriptingCommands implements RedisScriptingCommands
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public <T> T eval(byte[] scripts, ReturnType returnType, int numkeys, byte[]... keysAndArgs)
 	{
-		return null;
+		Assert.notNull(scripts, "Script must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().eval(scripts, numkeys, keysAndArgs), Converters.scriptResult(returnType));
+			return null;
+		}
+		return (T) Converters.toScriptResult(connection.getConnection().eval(scripts, numkeys, keysAndArgs), returnType);
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public <T> T evalSha(String scriptSha, ReturnType returnType, int numkeys, byte[]... keysAndArgs)
 	{
-		return null;
+		Assert.notNull(scriptSha, "Script sha must not be null!");
+		byte[] sha = SafeEncoder.encode(scriptSha);
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().evalsha(sha, numkeys, keysAndArgs), Converters.scriptResult(returnType));
+			return null;
+		}
+		return (T) Converters.toScriptResult(connection.getConnection().evalsha(sha, numkeys, keysAndArgs), returnType);
 	}
 
 	@Override
 	public void scriptFlush()
 	{
-
+		assertNotPipelined("SCRIPT FLUSH");
+		connection.getConnection().scriptFlush();
 	}
 
 	@Override
 	public void scriptKill()
 	{
-
+		assertNotPipelined("SCRIPT KILL");
+		connection.getConnection().scriptKill();
 	}
 
 	@Override
 	public String scriptLoad(byte[] script)
 	{
-		return null;
+		Assert.notNull(script, "Script must not be null!");
+		assertNotPipelined("SCRIPT LOAD");
+		return SafeEncoder.encode(connection.getConnection().scriptLoad(script));
 	}
 
 	@Override
 	public List<Boolean> scriptExists(String... scriptShas)
 	{
-		return null;
+		Assert.notNull(scriptShas, "Script shas must not be null!");
+		Assert.noNullElements(scriptShas, "Script shas must not contain null elements!");
+		assertNotPipelined("SCRIPT EXISTS");
+		byte[][] shas = new byte[scriptShas.length][];
+		for(int i = 0; i < scriptShas.length; i++)
+		{
+			shas[i] = SafeEncoder.encode(scriptShas[i]);
+		}
+
+		List<Long> exists = connection.getConnection().scriptExists(shas);
+		List<Boolean> ret = new ArrayList<>(exists.size());
+		for(Long e : exists)
+		{
+			ret.add(e != null && e == 1);
+		}
+		return ret;
+	}
+
+	/**
+	 * jedis的pipeline不支持SCRIPT子命令
+	 */
+	private void assertNotPipelined(String command)
+	{
+		if(connection.isPipelined())
+		{
+			throw new UnsupportedOperationException(command + " is not supported in pipeline");
+		}
 	}
 }
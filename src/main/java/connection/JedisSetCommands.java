@@ -15,6 +15,10 @@
  */
 package connection;
 
+import redis.clients.jedis.ScanResult;
+import support.ScanOptions;
+import util.Assert;
+
 import java.util.List;
 import java.util.Set;
 
@@ -118,4 +122,16 @@ public class JedisSetCommands implements RedisSetCommands
 	{
 		return null;
 	}
+
+	@Override
+	public ScanResult<byte[]> sScan(byte[] key, byte[] cursor, ScanOptions options)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(cursor, "Cursor must not be null!");
+		if(connection.isPipelined())
+		{
+			throw new UnsupportedOperationException("SSCAN is not supported in pipeline");
+		}
+		return connection.getConnection().sscan(key, cursor, JedisKeyCommands.toScanParams(options));
+	}
 }
@@ -16,6 +16,7 @@
 package connection;
 
 
+import converter.Converters;
 import redis.clients.jedis.params.SetParams;
 import support.Expiration;
 import util.Assert;
@@ -38,6 +39,11 @@ public class JedisStringCommands implements RedisStringCommands
 	public byte[] get(byte[] key)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().get(key));
+			return null;
+		}
 		return connection.getConnection().get(key);
 	}
 
@@ -46,6 +52,11 @@ public class JedisStringCommands implements RedisStringCommands
 	{
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(value, "Value must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().getSet(key, value));
+			return null;
+		}
 		return connection.getConnection().getSet(key, value);
 	}
 
@@ -54,6 +65,11 @@ public class JedisStringCommands implements RedisStringCommands
 	{
 		Assert.notNull(keys, "Keys must not be null!");
 		Assert.noNullElements(keys, "Keys must not contain null elements!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().mget(keys));
+			return null;
+		}
 		return connection.getConnection().mget(keys);
 	}
 
@@ -62,6 +78,11 @@ public class JedisStringCommands implements RedisStringCommands
 	{
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(value, "Value must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().set(key, value), Converters.okToBoolean());
+			return null;
+		}
 		String ret = connection.getConnection().set(key, value);
 		return "OK".equals(ret) ? true : false;
 	}
@@ -73,11 +94,16 @@ public class JedisStringCommands implements RedisStringCommands
 		Assert.notNull(value, "Value must not be null!");
 		Assert.notNull(expiration, "Expiration must not be null!");
 		Assert.notNull(option, "Option must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().set(key, value, getSetParams(expiration, option)), Converters.okToBoolean());
+			return null;
+		}
 		String ret = connection.getConnection().set(key, value, getSetParams(expiration, option));
 		return "OK".equals(ret) ? true : false;
 	}
 
-	private SetParams getSetParams(Expiration expiration, SetOption option)
+	static SetParams getSetParams(Expiration expiration, SetOption option)
 	{
 		SetParams setParams = SetParams.setParams();
 		if(expiration.isPersistent() == false)
@@ -110,6 +136,11 @@ public class JedisStringCommands implements RedisStringCommands
 	{
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(value, "Value must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().setnx(key, value), Converters.longToBoolean());
+			return null;
+		}
 		Long ret = connection.getConnection().setnx(key, value);
 		return ret != null || ret == 1  ? true : false;
 	}
@@ -119,6 +150,11 @@ public class JedisStringCommands implements RedisStringCommands
 	{
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(value, "Value must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().setex(key, (int)seconds, value), Converters.okToBoolean());
+			return null;
+		}
 		String ret = connection.getConnection().setex(key, (int)seconds, value);
 		return "OK".equals(ret) ? true : false;
 	}
@@ -128,6 +164,11 @@ public class JedisStringCommands implements RedisStringCommands
 	{
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(value, "Value must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().psetex(key, millseconds, value), Converters.okToBoolean());
+			return null;
+		}
 		String ret = connection.getConnection().psetex(key, millseconds, value);
 		return "OK".equals(ret) ? true : false;
 	}
@@ -136,6 +177,11 @@ public class JedisStringCommands implements RedisStringCommands
 	public Boolean mSet(Map<byte[], byte[]> tuples)
 	{
 		Assert.notNull(tuples, "Tuples must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().mset(toByteArrays(tuples)), Converters.okToBoolean());
+			return null;
+		}
 		String ret = connection.getConnection().mset(toByteArrays(tuples));
 		return "OK".equals(ret) ? true : false;
 	}
@@ -144,11 +190,16 @@ public class JedisStringCommands implements RedisStringCommands
 	public Boolean mSetNX(Map<byte[], byte[]> tuples)
 	{
 		Assert.notNull(tuples, "Tuples must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().msetnx(toByteArrays(tuples)), Converters.longToBoolean());
+			return null;
+		}
 		Long ret =  connection.getConnection().msetnx(toByteArrays(tuples));
 		return ret != null || ret == 1  ? true : false;
 	}
 
-	private byte[][] toByteArrays(Map<byte[], byte[]> tuples)
+	static byte[][] toByteArrays(Map<byte[], byte[]> tuples)
 	{
 		byte[][] result = new byte[tuples.size() * 2][];
 		int index = 0;
@@ -164,6 +215,11 @@ public class JedisStringCommands implements RedisStringCommands
 	public Long incr(byte[] key)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().incr(key));
+			return null;
+		}
 		return connection.getConnection().incr(key);
 	}
 
@@ -171,6 +227,11 @@ public class JedisStringCommands implements RedisStringCommands
 	public Long incrBy(byte[] key, long delta)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().incrBy(key, delta));
+			return null;
+		}
 		return connection.getConnection().incrBy(key, delta);
 	}
 
@@ -178,6 +239,11 @@ public class JedisStringCommands implements RedisStringCommands
 	public Double incrByFloat(byte[] key, double delta)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().incrByFloat(key, delta));
+			return null;
+		}
 		return connection.getConnection().incrByFloat(key, delta);
 	}
 
@@ -185,6 +251,11 @@ public class JedisStringCommands implements RedisStringCommands
 	public Long decr(byte[] key)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().decr(key));
+			return null;
+		}
 		return connection.getConnection().decr(key);
 	}
 
@@ -192,6 +263,11 @@ public class JedisStringCommands implements RedisStringCommands
 	public Long decrBy(byte[] key, long delta)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().decrBy(key, delta));
+			return null;
+		}
 		return connection.getConnection().decrBy(key, delta);
 	}
 
@@ -200,6 +276,11 @@ public class JedisStringCommands implements RedisStringCommands
 	{
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(value, "Value must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().append(key, value));
+			return null;
+		}
 		return connection.getConnection().append(key, value);
 	}
 
@@ -207,6 +288,11 @@ public class JedisStringCommands implements RedisStringCommands
 	public byte[] getRange(byte[] key, long start, long end)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().getrange(key, start, end));
+			return null;
+		}
 		return connection.getConnection().getrange(key, start, end);
 	}
 
@@ -214,6 +300,11 @@ public class JedisStringCommands implements RedisStringCommands
 	public void setRange(byte[] key, byte[] value, long offset)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().setrange(key, offset, value));
+			return;
+		}
 		connection.getConnection().setrange(key, offset, value);
 	}
 
@@ -221,6 +312,11 @@ public class JedisStringCommands implements RedisStringCommands
 	public Long strLen(byte[] key)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().strlen(key));
+			return null;
+		}
 		return connection.getConnection().strlen(key);
 	}
 }
@@ -17,10 +17,12 @@ package connection;
 
 
 import converter.Converters;
+import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.Tuple;
 import redis.clients.jedis.ZParams;
 import redis.clients.jedis.params.ZAddParams;
 import support.Limit;
+import support.ScanOptions;
 import support.ScoreRange;
 import support.Weights;
 import util.Assert;
@@ -46,6 +48,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 	{
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(member, "Value must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zadd(key, score, member));
+			return null;
+		}
 		return connection.getConnection().zadd(key, score, member);
 	}
 
@@ -55,6 +62,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 	{
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(member, "Value must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zadd(key, score, member, getZAddParams(option)));
+			return null;
+		}
 		return connection.getConnection().zadd(key, score, member, getZAddParams(option));
 	}
 
@@ -67,6 +79,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 		// TODO 需要测试一下 tuples size = 0的情况
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(tuples, "Value must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zadd(key, toTupleMap(tuples)));
+			return null;
+		}
 		return connection.getConnection().zadd(key, toTupleMap(tuples));
 	}
 
@@ -77,10 +94,15 @@ public class JedisZSetCommands implements RedisZSetCommands
 		// TODO 需要测试一下 tuples size = 0的情况
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(tuples, "Value must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zadd(key, toTupleMap(tuples), getZAddParams(option)));
+			return null;
+		}
 		return connection.getConnection().zadd(key, toTupleMap(tuples), getZAddParams(option));
 	}
 
-	private ZAddParams getZAddParams(ZAddOption option)
+	static ZAddParams getZAddParams(ZAddOption option)
 	{
 		ZAddParams zAddParams = ZAddParams.zAddParams();
 		if(option == ZAddOption.ADD_IF_ABSENT)
@@ -101,7 +123,7 @@ public class JedisZSetCommands implements RedisZSetCommands
 	}
 
 
-	private Map<byte[], Double> toTupleMap(Set<Tuple> tuples)
+	static Map<byte[], Double> toTupleMap(Set<Tuple> tuples)
 	{
 		Map<byte[], Double> args = new LinkedHashMap<>(tuples.size(), 1);
 		for(Tuple tuple : tuples)
@@ -117,6 +139,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 	public Double zIncrBy(byte[] key, double increment, byte[] value) {
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(value, "Value must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zincrby(key, increment, value));
+			return null;
+		}
 		return connection.getConnection().zincrby(key, increment, value);
 	}
 
@@ -125,6 +152,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(members, "Values must not be null!");
 		Assert.noNullElements(members, "Values must not contain null elements!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zrem(key, members));
+			return null;
+		}
 		return connection.getConnection().zrem(key, members);
 	}
 
@@ -136,6 +168,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 		Assert.notNull(ScoreRange, "ScoreRange for ZREMScoreRangeBYSCORE must not be null!");
 		byte[] min = Converters.boundaryToBytes(ScoreRange.getMin(), Converters.NEGATIVE_INFINITY_BYTES);
 		byte[] max = Converters.boundaryToBytes(ScoreRange.getMax(), Converters.POSITIVE_INFINITY_BYTES);
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zremrangeByScore(key, min, max));
+			return null;
+		}
 		return connection.getConnection().zremrangeByScore(key, min, max);
 	}
 
@@ -143,6 +180,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 	public Long zRemRangeByRank(byte[] key, long start, long end)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zremrangeByRank(key, start, end));
+			return null;
+		}
 		return connection.getConnection().zremrangeByRank(key, start, end);
 	}
 
@@ -165,6 +207,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 	{
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(member, "Values must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zscore(key, member));
+			return null;
+		}
 		return connection.getConnection().zscore(key, member);
 	}
 
@@ -172,6 +219,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 	public Long zCard(byte[] key)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zcard(key));
+			return null;
+		}
 		return connection.getConnection().zcard(key);
 	}
 
@@ -182,6 +234,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 		Assert.notNull(ScoreRange, "ScoreRange for ZREMScoreRangeBYSCORE must not be null!");
 		byte[] min = Converters.boundaryToBytes(ScoreRange.getMin(), Converters.NEGATIVE_INFINITY_BYTES);
 		byte[] max = Converters.boundaryToBytes(ScoreRange.getMax(), Converters.POSITIVE_INFINITY_BYTES);
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zcount(key, min, max));
+			return null;
+		}
 		return connection.getConnection().zcount(key, min, max);
 	}
 
@@ -189,6 +246,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 	public Set<byte[]> zRange(byte[] key, long start, long end)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zrange(key, start, end));
+			return null;
+		}
 		return connection.getConnection().zrange(key, start, end);
 	}
 
@@ -196,6 +258,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 	public Set<Tuple> zRangeWithScores(byte[] key, long start, long end)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zrangeWithScores(key, start, end));
+			return null;
+		}
 		return connection.getConnection().zrangeWithScores(key, start, end);
 	}
 
@@ -203,6 +270,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 	public Set<byte[]> zRevRange(byte[] key, long start, long end)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zrevrange(key, start, end));
+			return null;
+		}
 		return connection.getConnection().zrevrange(key, start, end);
 	}
 
@@ -210,6 +282,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 	public Set<Tuple> zRevRangeWithScores(byte[] key, long start, long end)
 	{
 		Assert.notNull(key, "Key must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zrevrangeWithScores(key, start, end));
+			return null;
+		}
 		return connection.getConnection().zrevrangeWithScores(key, start, end);
 	}
 
@@ -222,8 +299,18 @@ public class JedisZSetCommands implements RedisZSetCommands
 		byte[] max = Converters.boundaryToBytes(ScoreRange.getMax(), Converters.POSITIVE_INFINITY_BYTES);
 		if(limit != null)
 		{
+			if(connection.isPipelined())
+			{
+				connection.pipeline(connection.getPipeline().zrangeByScore(key, min, max, limit.getOffset(), limit.getCount()));
+				return null;
+			}
 			return connection.getConnection().zrangeByScore(key, min, max, limit.getOffset(), limit.getCount());
 		}
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zrangeByScore(key, min, max));
+			return null;
+		}
 		return connection.getConnection().zrangeByScore(key, min, max);
 	}
 
@@ -236,8 +323,18 @@ public class JedisZSetCommands implements RedisZSetCommands
 		byte[] max = Converters.boundaryToBytes(ScoreRange.getMax(), Converters.POSITIVE_INFINITY_BYTES);
 		if(limit != null)
 		{
+			if(connection.isPipelined())
+			{
+				connection.pipeline(connection.getPipeline().zrevrangeByScore(key, max, min, limit.getOffset(), limit.getCount()));
+				return null;
+			}
 			return connection.getConnection().zrevrangeByScore(key, max, min, limit.getOffset(), limit.getCount());
 		}
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zrevrangeByScore(key, max, min));
+			return null;
+		}
 		return connection.getConnection().zrevrangeByScore(key, max, min);
 	}
 
@@ -250,8 +347,18 @@ public class JedisZSetCommands implements RedisZSetCommands
 		byte[] max = Converters.boundaryToBytes(ScoreRange.getMax(), Converters.POSITIVE_INFINITY_BYTES);
 		if(limit != null)
 		{
+			if(connection.isPipelined())
+			{
+				connection.pipeline(connection.getPipeline().zrangeByScoreWithScores(key, min, max, limit.getOffset(), limit.getCount()));
+				return null;
+			}
 			return connection.getConnection().zrangeByScoreWithScores(key, min, max, limit.getOffset(), limit.getCount());
 		}
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zrangeByScoreWithScores(key, min, max));
+			return null;
+		}
 		return connection.getConnection().zrangeByScoreWithScores(key, min, max);
 	}
 
@@ -264,8 +371,18 @@ public class JedisZSetCommands implements RedisZSetCommands
 		byte[] max = Converters.boundaryToBytes(ScoreRange.getMax(), Converters.POSITIVE_INFINITY_BYTES);
 		if(limit != null)
 		{
+			if(connection.isPipelined())
+			{
+				connection.pipeline(connection.getPipeline().zrevrangeByScoreWithScores(key, max, min, limit.getOffset(), limit.getCount()));
+				return null;
+			}
 			return connection.getConnection().zrevrangeByScoreWithScores(key, max, min, limit.getOffset(), limit.getCount());
 		}
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zrevrangeByScoreWithScores(key, max, min));
+			return null;
+		}
 		return connection.getConnection().zrevrangeByScoreWithScores(key, max, min);
 	}
 
@@ -274,6 +391,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 	{
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(member, "Values must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zrank(key, member));
+			return null;
+		}
 		return connection.getConnection().zrank(key, member);
 	}
 
@@ -282,6 +404,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 	{
 		Assert.notNull(key, "Key must not be null!");
 		Assert.notNull(member, "Values must not be null!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zrevrank(key, member));
+			return null;
+		}
 		return connection.getConnection().zrevrank(key, member);
 	}
 
@@ -291,6 +418,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 		Assert.notNull(destination, "Key must not be null!");
 		Assert.notNull(sets, "Values must not be null!");
 		Assert.noNullElements(sets, "Values must not contain null elements!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zunionstore(destination, sets));
+			return null;
+		}
 		return connection.getConnection().zunionstore(destination, sets);
 	}
 
@@ -305,6 +437,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 		Assert.noNullElements(sets, "Values must not contain null elements!");
 		ZParams zparams = new ZParams().weights(weights.toArray())
 				.aggregate(ZParams.Aggregate.valueOf(aggregate.name()));
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zunionstore(destination, zparams, sets));
+			return null;
+		}
 		return connection.getConnection().zunionstore(destination, zparams, sets);
 	}
 
@@ -314,6 +451,11 @@ public class JedisZSetCommands implements RedisZSetCommands
 		Assert.notNull(destination, "Key must not be null!");
 		Assert.notNull(sets, "Values must not be null!");
 		Assert.noNullElements(sets, "Values must not contain null elements!");
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zinterstore(destination, sets));
+			return null;
+		}
 		return connection.getConnection().zinterstore(destination, sets);
 	}
 
@@ -328,6 +470,23 @@ public class JedisZSetCommands implements RedisZSetCommands
 		Assert.noNullElements(sets, "Values must not contain null elements!");
 		ZParams zparams = new ZParams().weights(weights.toArray())
 				.aggregate(ZParams.Aggregate.valueOf(aggregate.name()));
+		if(connection.isPipelined())
+		{
+			connection.pipeline(connection.getPipeline().zinterstore(destination, zparams, sets));
+			return null;
+		}
 		return connection.getConnection().zinterstore(destination, zparams, sets);
 	}
+
+	@Override
+	public ScanResult<Tuple> zScan(byte[] key, byte[] cursor, ScanOptions options)
+	{
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(cursor, "Cursor must not be null!");
+		if(connection.isPipelined())
+		{
+			throw new UnsupportedOperationException("ZSCAN is not supported in pipeline");
+		}
+		return connection.getConnection().zscan(key, cursor, JedisKeyCommands.toScanParams(options));
+	}
 }
@@ -1,8 +1,20 @@
 package connection;
 
+import java.util.List;
+
 /**
  * @since 2019/4/29
  */
 public interface RedisClusterConnection<T> extends RedisConnection<T>
 {
+
+	/**
+	 * 所有负责slot的master节点
+	 * 节点的序号与SCAN的cursor中的节点序号一致
+	 *
+	 * @return 按host:port排序
+	 * @throws redis.clients.jedis.exceptions.JedisConnectionException 无法从任何节点获取slot分布
+	 * @see RedisKeyCommands#scan(byte[], support.ScanOptions)
+	 */
+	List<String> getMasterNodes();
 }
@@ -1,5 +1,7 @@
 package connection;
 
+import java.util.List;
+
 /**
  * 连接redis server， 提供redis的相关命令
  *
@@ -25,6 +27,34 @@ public interface RedisConnection<T>
 
 	RedisScriptingCommands scriptingCommands();
 
+	/**
+	 * 开启pipeline模式
+	 * 开启之后的命令不会立即发送到redis server并等待返回，而是在pipeline中排队，命令的返回值均为null
+	 * 直到调用{@link #closePipeline()}时一次性获取所有命令的结果
+	 */
+	void openPipeline();
+
+	/**
+	 * 是否处于pipeline模式
+	 *
+	 * @return
+	 */
+	boolean isPipelined();
+
+	/**
+	 * 关闭pipeline模式，同步pipeline中的所有命令
+	 *
+	 * @return 按照命令排队的顺序返回所有命令的结果，执行失败的命令在对应位置返回异常对象
+	 */
+	List<Object> closePipeline();
+
+	/**
+	 * pipeline中已经排队的命令数量，即下一条命令的结果在{@link #closePipeline()}返回值中的下标
+	 *
+	 * @return 非pipeline模式下为0
+	 */
+	int getPipelinedCount();
+
 	/**
 	 * 关闭连接
 	 * closes(or quits) the connection
@@ -1,5 +1,8 @@
 package connection;
 
+import redis.clients.jedis.ScanResult;
+import support.ScanOptions;
+
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -133,4 +136,15 @@ public interface RedisHashCommands
 	 * @return
 	 */
 	Map<byte[], byte[]> hGetAll(byte[] key);
+
+
+	/**
+	 * 增量迭代hash中的field和value
+	 *
+	 * @param key
+	 * @param cursor  第一次为"0"
+	 * @param options MATCH（匹配field）、COUNT
+	 * @return 返回的cursor为"0"时迭代结束
+	 */
+	ScanResult<Map.Entry<byte[], byte[]>> hScan(byte[] key, byte[] cursor, ScanOptions options);
 }
@@ -1,6 +1,8 @@
 package connection;
 
+import redis.clients.jedis.ScanResult;
 import support.RedisDataType;
+import support.ScanOptions;
 
 import java.util.Set;
 
@@ -21,6 +23,7 @@ public interface RedisKeyCommands
 	 *
 	 * @param pattern
 	 * @return
+	 * @see #scan(byte[], ScanOptions)
 	 */
 	Set<byte[]> keys(byte[] pattern);
 
@@ -126,4 +129,16 @@ public interface RedisKeyCommands
 	 * @return
 	 */
 	Boolean persist(byte[] key);
+
+	/**
+	 * 增量迭代当前数据库的key，不会像KEYS一样长时间阻塞服务器
+	 * 迭代期间一直存在的key一定会被返回，期间新增或者删除的key可能返回也可能不返回，同一个key可能被返回多次
+	 *
+	 * 集群模式下依次迭代每个master节点，cursor由节点序号和节点上的cursor组成
+	 *
+	 * @param cursor  第一次为"0"
+	 * @param options MATCH、COUNT
+	 * @return 返回的cursor为"0"时迭代结束
+	 */
+	ScanResult<byte[]> scan(byte[] cursor, ScanOptions options);
 }
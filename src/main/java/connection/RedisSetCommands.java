@@ -1,5 +1,8 @@
 package connection;
 
+import redis.clients.jedis.ScanResult;
+import support.ScanOptions;
+
 import java.util.List;
 import java.util.Set;
 
@@ -168,4 +171,15 @@ public interface RedisSetCommands
 	 * @return
 	 */
 	Long sRem(byte[] key, byte[]... members);
+
+
+	/**
+	 * 增量迭代set中的member
+	 *
+	 * @param key
+	 * @param cursor  第一次为"0"
+	 * @param options MATCH、COUNT
+	 * @return 返回的cursor为"0"时迭代结束
+	 */
+	ScanResult<byte[]> sScan(byte[] key, byte[] cursor, ScanOptions options);
 }
@@ -1,7 +1,9 @@
 package connection;
 
+import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.Tuple;
 import support.Limit;
+import support.ScanOptions;
 import support.ScoreRange;
 import support.Weights;
 import java.util.Set;
@@ -572,4 +574,15 @@ public interface RedisZSetCommands
 	 * @return
 	 */
 	Long zInterStore(byte[] destination, Aggregate aggregate, Weights weights, byte[]... sets);
+
+
+	/**
+	 * 增量迭代sorted set中的member和score，不保证按score排序
+	 *
+	 * @param key
+	 * @param cursor  第一次为"0"
+	 * @param options MATCH（匹配member）、COUNT
+	 * @return 返回的cursor为"0"时迭代结束
+	 */
+	ScanResult<Tuple> zScan(byte[] key, byte[] cursor, ScanOptions options);
 }
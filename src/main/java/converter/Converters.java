@@ -1,9 +1,11 @@
 package converter;
 
 import redis.clients.jedis.util.SafeEncoder;
+import support.ReturnType;
 import support.ScoreRange.Boundary;
 
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * @since 2019/4/28
@@ -12,6 +14,10 @@ public abstract class Converters
 {
 
 	private static final Converter<String, byte[]> STRING_TO_BYTES;
+	// "OK" -> true
+	private static final Converter<String, Boolean> OK_TO_BOOLEAN;
+	// 1 -> true
+	private static final Converter<Long, Boolean> LONG_TO_BOOLEAN;
 	// +inf
 	public static final byte[] POSITIVE_INFINITY_BYTES;
 	// -inf
@@ -20,19 +26,270 @@ public abstract class Converters
 	static
 	{
 		STRING_TO_BYTES = source -> source == null ? null : SafeEncoder.encode(source);
+		OK_TO_BOOLEAN = "OK"::equals;
+		LONG_TO_BOOLEAN = source -> source != null && source == 1;
 		POSITIVE_INFINITY_BYTES = toBytes("+inf");
 		NEGATIVE_INFINITY_BYTES = toBytes("-inf");
 	}
 
 
+	/**
+	 * 状态回复"OK"转换为true，其余为false
+	 * @return
+	 */
+	public static Converter<String, Boolean> okToBoolean()
+	{
+		return OK_TO_BOOLEAN;
+	}
+
+	/**
+	 * 整数回复1转换为true，其余为false
+	 * @return
+	 */
+	public static Converter<Long, Boolean> longToBoolean()
+	{
+		return LONG_TO_BOOLEAN;
+	}
+
+
+	/**
+	 * 脚本返回值的转换，用于pipeline
+	 * @param returnType
+	 * @return
+	 * @see #toScriptResult(Object, ReturnType)
+	 */
+	public static Converter<Object, Object> scriptResult(ReturnType returnType)
+	{
+		return source -> toScriptResult(source, returnType);
+	}
+
+	/**
+	 * 将脚本的原始返回值转换为returnType对应的java类型
+	 * BOOLEAN：nil为false，1为true；INTEGER：Long；MULTI：List；STATUS、VALUE：byte[]；STRING：按UTF-8解码的String
+	 *
+	 * @param source jedis返回的Long、byte[]或者List
+	 * @param returnType
+	 * @return
+	 */
+	public static Object toScriptResult(Object source, ReturnType returnType)
+	{
+		if(returnType == ReturnType.BOOLEAN)
+		{
+			return source instanceof Long ? (Long) source == 1 : source != null;
+		}
+		if(returnType == ReturnType.STRING && source instanceof byte[])
+		{
+			return new String((byte[]) source, StandardCharsets.UTF_8);
+		}
+		return source;
+	}
+
 	public static byte[] toBytes(Integer source)
 	{
-		return String.valueOf(source).getBytes();
+		return toBytes(source.longValue());
 	}
 
 	public static byte[] toBytes(Long source)
 	{
-		return String.valueOf(source).getBytes();
+		return toBytes(source.longValue());
+	}
+
+	/**
+	 * 直接写入ASCII数字，不经过String
+	 * @param source
+	 * @return
+	 */
+	public static byte[] toBytes(long source)
+	{
+		byte[] ret = new byte[digitLength(source)];
+		writeDigits(source, ret, ret.length);
+		return ret;
+	}
+
+	/**
+	 * 十进制表示的长度，包括负号
+	 * @param value
+	 * @return
+	 */
+	public static int digitLength(long value)
+	{
+		if(value == Long.MIN_VALUE)
+		{
+			return 20;
+		}
+
+		int length = 1;
+		long abs = value;
+		if(value < 0)
+		{
+			length++;
+			abs = -value;
+		}
+		while(abs >= 10)
+		{
+			abs /= 10;
+			length++;
+		}
+		return length;
+	}
+
+	/**
+	 * 将value的十进制ASCII表示写入dest中，结束位置（不包含）为end
+	 * dest中[end - digitLength(value), end)的空间需要足够
+	 *
+	 * @param value
+	 * @param dest
+	 * @param end
+	 */
+	public static void writeDigits(long value, byte[] dest, int end)
+	{
+		if(value == Long.MIN_VALUE)
+		{
+			byte[] min = toBytes(String.valueOf(Long.MIN_VALUE));
+			System.arraycopy(min, 0, dest, end - min.length, min.length);
+			return;
+		}
+
+		int pos = end;
+		long abs = value < 0 ? -value : value;
+		do
+		{
+			dest[--pos] = (byte) ('0' + abs % 10);
+			abs /= 10;
+		}
+		while(abs != 0);
+
+		if(value < 0)
+		{
+			dest[--pos] = '-';
+		}
+	}
+
+	/**
+	 * 解析ASCII数字，不经过String
+	 *
+	 * @param source
+	 * @return
+	 * @throws NumberFormatException source不是合法的long
+	 */
+	public static long parseLong(byte[] source)
+	{
+		if(source == null || source.length == 0)
+		{
+			throw new NumberFormatException("empty number");
+		}
+
+		boolean negative = source[0] == '-';
+		int start = negative ? 1 : 0;
+		if(start == source.length || source.length - start > 19)
+		{
+			// 19位以上可能溢出，交给Long.parseLong处理
+			return Long.parseLong(SafeEncoder.encode(source));
+		}
+
+		long ret = 0;
+		for(int i = start; i < source.length; i++)
+		{
+			int digit = source[i] - '0';
+			if(digit < 0 || digit > 9)
+			{
+				throw new NumberFormatException("invalid number: " + SafeEncoder.encode(source));
+			}
+			ret = ret * 10 + digit;
+		}
+		if(ret < 0)
+		{
+			// 19位数字超过Long.MAX_VALUE，仅Long.MIN_VALUE是合法的
+			return Long.parseLong(SafeEncoder.encode(source));
+		}
+		return negative ? -ret : ret;
+	}
+
+	/**
+	 * source的UTF-8编码长度
+	 * @param source
+	 * @return
+	 */
+	public static int utf8Length(String source)
+	{
+		int length = source.length();
+		int ret = length;
+		for(int i = 0; i < length; i++)
+		{
+			char c = source.charAt(i);
+			if(c >= 0x80)
+			{
+				if(c < 0x800)
+				{
+					ret++;
+				}
+				else if(Character.isSurrogate(c))
+				{
+					if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(source.charAt(i + 1)))
+					{
+						// 代理对：2个char编码为4个字节
+						ret += 2;
+						i++;
+					}
+					// 不成对的代理字符编码为1个字节的'?'
+				}
+				else
+				{
+					ret += 2;
+				}
+			}
+		}
+		return ret;
+	}
+
+	/**
+	 * 将source的UTF-8编码写入dest的offset处，dest的剩余空间需要不小于{@link #utf8Length(String)}
+	 * 不成对的代理字符写为'?'，与String.getBytes(UTF_8)一致
+	 *
+	 * @param source
+	 * @param dest
+	 * @param offset
+	 * @return 写入之后的位置
+	 */
+	public static int writeUtf8(String source, byte[] dest, int offset)
+	{
+		int pos = offset;
+		int length = source.length();
+		for(int i = 0; i < length; i++)
+		{
+			char c = source.charAt(i);
+			if(c < 0x80)
+			{
+				dest[pos++] = (byte) c;
+			}
+			else if(c < 0x800)
+			{
+				dest[pos++] = (byte) (0xC0 | (c >> 6));
+				dest[pos++] = (byte) (0x80 | (c & 0x3F));
+			}
+			else if(Character.isSurrogate(c))
+			{
+				if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(source.charAt(i + 1)))
+				{
+					int codePoint = Character.toCodePoint(c, source.charAt(++i));
+					dest[pos++] = (byte) (0xF0 | (codePoint >> 18));
+					dest[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+					dest[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+					dest[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+				}
+				else
+				{
+					dest[pos++] = '?';
+				}
+			}
+			else
+			{
+				dest[pos++] = (byte) (0xE0 | (c >> 12));
+				dest[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				dest[pos++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+		return pos;
 	}
 
 	public static byte[] toBytes(Double source)
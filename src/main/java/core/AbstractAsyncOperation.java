@@ -0,0 +1,94 @@
+package core;
+
+import util.Assert;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 异步operation的基类
+ * 将同步operation的调用提交到executor中执行，连接仍然从JedisConnectionFactory的连接池中获取
+ *
+ * @since 2019/5/8
+ */
+public abstract class AbstractAsyncOperation<K, O extends KeyOperation<K>> implements AsyncKeyOperation<K>
+{
+
+	protected final O operation;
+
+	protected final Executor executor;
+
+	protected AbstractAsyncOperation(O operation, Executor executor)
+	{
+		Assert.notNull(operation, "non null operation required");
+		Assert.notNull(executor, "non null executor required");
+		this.operation = operation;
+		this.executor = executor;
+	}
+
+	protected <T> CompletableFuture<T> async(Supplier<T> supplier)
+	{
+		return CompletableFuture.supplyAsync(supplier, executor);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> exists(K key)
+	{
+		return async(() -> operation.exists(key));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> del(K key)
+	{
+		return async(() -> operation.del(key));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> expire(K key, int seconds)
+	{
+		return async(() -> operation.expire(key, seconds));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> expireAt(K key, long timestamp)
+	{
+		return async(() -> operation.expireAt(key, timestamp));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> pExpire(K key, long milliseconds)
+	{
+		return async(() -> operation.pExpire(key, milliseconds));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> pExpireAt(K key, long timestamp)
+	{
+		return async(() -> operation.pExpireAt(key, timestamp));
+	}
+
+	@Override
+	public CompletableFuture<Long> ttl(K key)
+	{
+		return async(() -> operation.ttl(key));
+	}
+
+	@Override
+	public CompletableFuture<Long> pTtl(K key)
+	{
+		return async(() -> operation.pTtl(key));
+	}
+
+	@Override
+	public CompletableFuture<String> randomkey()
+	{
+		return async(operation::randomkey);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> persist(K key)
+	{
+		return async(() -> operation.persist(key));
+	}
+}
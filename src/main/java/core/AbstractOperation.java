@@ -1,11 +1,20 @@
 package core;
 
+import converter.Converter;
+import converter.Converters;
+import serializer.CompressingSerializer;
 import serializer.GenericJackson2JsonRedisSerializer;
 import serializer.Serializer;
 import serializer.StringSerializer;
+import support.RedisScript;
+import support.ScanOptions;
 import util.Assert;
 
+import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 
 /**
@@ -31,6 +40,23 @@ public abstract class AbstractOperation<K, V> implements KeyOperation<K>
 
 	protected final Class<V> valueClass;
 
+	private KeyLayout<K> keyLayout = KeyLayout.plain();
+
+	/**
+	 * pipeline中返回value的命令结果的反序列化
+	 */
+	private final Converter<byte[], V> valueConverter = this::deserializeValue;
+
+	/**
+	 * 默认组成方式下"prefix_"的UTF-8编码，使用其他组成方式时为null
+	 */
+	private byte[] rawKeyPrefix;
+
+	/**
+	 * 合并同一个key并发的读取，为null时不合并
+	 */
+	private volatile SingleFlight<V> singleFlight;
+
 	protected AbstractOperation(String keyPrefix, RedisTemplate redisTemplate, Class<K> keyClass, Class<V> valueClass)
 	{
 		Assert.notNull(keyPrefix, "non null key prefix required");
@@ -38,6 +64,7 @@ public abstract class AbstractOperation<K, V> implements KeyOperation<K>
 		this.redisTemplate = redisTemplate;
 		this.keyClass = keyClass;
 		this.valueClass = valueClass;
+		this.rawKeyPrefix = StringSerializer.UTF_8.serialize(keyPrefix + "_");
 	}
 
 
@@ -49,22 +76,178 @@ public abstract class AbstractOperation<K, V> implements KeyOperation<K>
 	 */
 	<T> T execute(RedisCallback<T> callback, T defaultValue)
 	{
-		return redisTemplate.execute(callback, defaultValue);
+		return redisTemplate.execute(callback, defaultValue, keyPrefix, valueConverter);
+	}
+
+	/**
+	 * 与{@link #execute(RedisCallback, Object)}相同，但是pipeline中的结果不使用valueSerializer反序列化
+	 * 用于返回key、value片段等不是完整value的命令
+	 */
+	<T> T executeRaw(RedisCallback<T> callback, T defaultValue)
+	{
+		return redisTemplate.execute(callback, defaultValue, keyPrefix);
+	}
+
+	/**
+	 * 执行失败时抛出异常，用于迭代
+	 */
+	<T> T executeOrThrow(RedisCallback<T> callback)
+	{
+		return redisTemplate.executeOrThrow(callback, keyPrefix);
+	}
+
+	/**
+	 * 执行lua脚本，命令耗时记录在该operation的前缀下
+	 */
+	<T> T execute(RedisScript<T> script, List<byte[]> keys, List<byte[]> args, T defaultValue)
+	{
+		return redisTemplate.execute(script, keys, args, defaultValue, keyPrefix);
 	}
 
 	protected String makeKey(K key)
 	{
 		Assert.notNull(key, "non null key required");
-		return keyPrefix + "_" + key;
+		return keyLayout.makeKey(keyPrefix, key);
+	}
+
+	/**
+	 * 设置key的组成方式，需要在使用operation之前设置
+	 * 修改组成方式之后，已经写入redis的key无法再通过该operation访问
+	 *
+	 * @param keyLayout
+	 * @see KeyLayout
+	 */
+	public void setKeyLayout(KeyLayout<K> keyLayout)
+	{
+		Assert.notNull(keyLayout, "non null key layout required");
+		this.keyLayout = keyLayout;
+		this.rawKeyPrefix = null;
+	}
+
+	/**
+	 * 设置value的序列化方式，默认为json，需要在使用operation之前设置
+	 * 修改序列化方式之后，已经写入redis的value无法再通过该operation读取
+	 *
+	 * @param valueSerializer
+	 * @see serializer.BinarySerializer
+	 */
+	public void setValueSerializer(Serializer<? super V> valueSerializer)
+	{
+		Assert.notNull(valueSerializer, "non null value serializer required");
+		this.valueSerializer = valueSerializer;
+	}
+
+	/**
+	 * 对达到threshold字节的value进行压缩，需要在{@link #setValueSerializer(Serializer)}之后设置
+	 * 开启之前写入的未压缩value仍然可以读取
+	 * append、getRange等直接操作字节的命令不适用于压缩后的value
+	 *
+	 * @param threshold
+	 * @see CompressingSerializer
+	 */
+	@SuppressWarnings("unchecked")
+	public void enableCompression(int threshold)
+	{
+		Assert.isTrue(!(valueSerializer instanceof CompressingSerializer), "compression already enabled");
+		this.valueSerializer = new CompressingSerializer<>(valueSerializer, threshold);
+	}
+
+	/**
+	 * 开启读取合并：同一个key并发的读取只执行一次，其他线程等待并共享反序列化之后的结果
+	 * 热点key过期时大量线程同时读取，开启之后redis只会收到一次请求
+	 * 共享的结果是同一个对象，调用方不应该修改返回的value
+	 */
+	public void enableSingleFlight()
+	{
+		if(singleFlight == null)
+		{
+			singleFlight = new SingleFlight<>();
+		}
+	}
+
+	/**
+	 * 开启读取合并时，同一个rawKey并发的reader只执行一次
+	 * pipeline中的读取不合并
+	 *
+	 * @param rawKey
+	 * @param reader
+	 * @return
+	 */
+	protected V readShared(byte[] rawKey, Supplier<V> reader)
+	{
+		SingleFlight<V> flight = singleFlight;
+		if(flight == null || redisTemplate.isPipelined())
+		{
+			return reader.get();
+		}
+		return flight.execute(rawKey, reader);
+	}
+
+	/**
+	 * 匹配该operation所有key的glob pattern
+	 *
+	 * @return
+	 */
+	String keyPattern()
+	{
+		return keyLayout.keyPattern(keyPrefix);
 	}
 
 	@SuppressWarnings("unchecked")
 	protected byte[] keyToBytes(K key)
 	{
 		Assert.notNull(key, "non null key required");
+		byte[] prefix = rawKeyPrefix;
+		if(prefix != null)
+		{
+			return encodeKey(prefix, key);
+		}
 		return keySerializer.serialize(makeKey(key));
 	}
 
+	/**
+	 * 默认组成方式下直接编码key，结果与keySerializer.serialize(makeKey(key))相同
+	 * 前缀只编码一次，结果数组按实际长度分配，Integer、Long类型的key直接写入ASCII数字
+	 */
+	private byte[] encodeKey(byte[] prefix, K key)
+	{
+		if(key instanceof Integer || key instanceof Long)
+		{
+			return encodeLongKey(prefix, ((Number) key).longValue());
+		}
+
+		String source = key instanceof String ? (String) key : String.valueOf(key);
+		byte[] ret = new byte[prefix.length + Converters.utf8Length(source)];
+		System.arraycopy(prefix, 0, ret, 0, prefix.length);
+		Converters.writeUtf8(source, ret, prefix.length);
+		return ret;
+	}
+
+	private byte[] encodeLongKey(byte[] prefix, long key)
+	{
+		int digits = Converters.digitLength(key);
+		byte[] ret = new byte[prefix.length + digits];
+		System.arraycopy(prefix, 0, ret, 0, prefix.length);
+		Converters.writeDigits(key, ret, ret.length);
+		return ret;
+	}
+
+	/**
+	 * long类型的key，默认组成方式下不需要装箱
+	 * @param key
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	protected byte[] longKeyToBytes(long key)
+	{
+		byte[] prefix = rawKeyPrefix;
+		if(prefix != null)
+		{
+			return encodeLongKey(prefix, key);
+		}
+		return keySerializer.serialize(keyLayout.makeKey(keyPrefix, (K) Long.valueOf(key)));
+	}
+
 	@SuppressWarnings("unchecked")
 	protected byte[] valueToBytes(V value)
 	{
@@ -82,12 +265,32 @@ public abstract class AbstractOperation<K, V> implements KeyOperation<K>
 		return (V) valueSerializer.deserialize(value, valueClass);
 	}
 
+	/**
+	 * 从流中反序列化value，json序列化时使用流式解析
+	 *
+	 * @param in
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	protected V deserializeValue(InputStream in)
+	{
+		return (V) valueSerializer.deserialize(in, valueClass);
+	}
+
 
 	protected String deserializeValueToString(byte[] value)
 	{
 		return (String) stringValueSerializer.deserialize(value);
 	}
 
+	/**
+	 * key在当前进程中被删除或者修改过期时间之后调用，子类可以在这里清理本地缓存
+	 * @param key
+	 */
+	protected void afterKeyModified(K key)
+	{
+	}
+
 
 	@Override
 	public Boolean exists(K key)
@@ -100,35 +303,45 @@ public abstract class AbstractOperation<K, V> implements KeyOperation<K>
 	public Boolean del(K key)
 	{
 		byte[] rawKey = keyToBytes(key);
-		return execute(conn -> conn.keyCommands().del(rawKey) == 1, false);
+		Boolean ret = execute(conn -> conn.keyCommands().del(rawKey) == 1, false);
+		afterKeyModified(key);
+		return ret;
 	}
 
 	@Override
 	public Boolean expire(K key, int seconds)
 	{
 		byte[] rawKey = keyToBytes(key);
-		return execute(conn -> conn.keyCommands().expire(rawKey, seconds), false);
+		Boolean ret = execute(conn -> conn.keyCommands().expire(rawKey, seconds), false);
+		afterKeyModified(key);
+		return ret;
 	}
 
 	@Override
 	public Boolean expireAt(K key, long timestamp)
 	{
 		byte[] rawKey = keyToBytes(key);
-		return execute(conn -> conn.keyCommands().expireAt(rawKey, timestamp), false);
+		Boolean ret = execute(conn -> conn.keyCommands().expireAt(rawKey, timestamp), false);
+		afterKeyModified(key);
+		return ret;
 	}
 
 	@Override
 	public Boolean pExpire(K key, long milliseconds)
 	{
 		byte[] rawKey = keyToBytes(key);
-		return execute(conn -> conn.keyCommands().pExpire(rawKey, milliseconds), false);
+		Boolean ret = execute(conn -> conn.keyCommands().pExpire(rawKey, milliseconds), false);
+		afterKeyModified(key);
+		return ret;
 	}
 
 	@Override
 	public Boolean pExpireAt(K key, long timestamp)
 	{
 		byte[] rawKey = keyToBytes(key);
-		return execute(conn -> conn.keyCommands().pExpireAt(rawKey, timestamp), false);
+		Boolean ret = execute(conn -> conn.keyCommands().pExpireAt(rawKey, timestamp), false);
+		afterKeyModified(key);
+		return ret;
 	}
 
 	@Override
@@ -148,7 +361,7 @@ public abstract class AbstractOperation<K, V> implements KeyOperation<K>
 	@Override
 	public String randomkey()
 	{
-		byte[] ret = execute(conn -> conn.keyCommands().randomkey(), EMPTY_ARRAY);
+		byte[] ret = executeRaw(conn -> conn.keyCommands().randomkey(), EMPTY_ARRAY);
 		if(ret != EMPTY_ARRAY)
 		{
 			return deserializeValueToString(ret).substring(keyPrefix.length());
@@ -165,7 +378,49 @@ public abstract class AbstractOperation<K, V> implements KeyOperation<K>
 	public Boolean persist(K key)
 	{
 		byte[] rawKey = keyToBytes(key);
-		return execute(conn -> conn.keyCommands().persist(rawKey), false);
+		Boolean ret = execute(conn -> conn.keyCommands().persist(rawKey), false);
+		afterKeyModified(key);
+		return ret;
+	}
+
+	@Override
+	public Stream<String> scan(int count)
+	{
+		Assert.isTrue(count > 0, "count must be positive");
+		ScanOptions options = ScanOptions.scanOptions().match(keyPattern()).count(count);
+		return new ScanIterator<byte[], String>(cursor -> executeOrThrow(conn -> conn.keyCommands().scan(cursor, options)),
+				this::deserializeKey).stream();
+	}
+
+	/**
+	 * 并行SCAN该operation的所有key，集群模式下每个master节点一个cursor
+	 *
+	 * @param count         每次SCAN的COUNT
+	 * @param shardsPerNode 每个节点上并行的cursor数量，必须是2的幂
+	 * @param queueCapacity 结果队列最多缓存的页数，消费者跟不上时扫描暂停
+	 * @param pool          执行分片的线程池，分片中是阻塞的网络IO，应该使用专用的线程池而不是ForkJoinPool.commonPool()
+	 * @return 使用完之后需要关闭
+	 * @see ParallelKeyScanner
+	 */
+	public ParallelKeyScanner parallelScan(int count, int shardsPerNode, int queueCapacity, ForkJoinPool pool)
+	{
+		return new ParallelKeyScanner(this, count, shardsPerNode, queueCapacity, pool);
+	}
+
+	/**
+	 * scan返回的key，由{@link KeyLayout#parseKey(String, String)}去掉前缀，不属于该operation的key原样返回
+	 */
+	String deserializeKey(byte[] rawKey)
+	{
+		String redisKey = (String) keySerializer.deserialize(rawKey);
+		String key = keyLayout.parseKey(keyPrefix, redisKey);
+		return key != null ? key : redisKey;
+	}
+
+	@Override
+	public List<Object> executePipelined(RedisCallback<?> callback)
+	{
+		return redisTemplate.executePipelined(callback);
 	}
 
 
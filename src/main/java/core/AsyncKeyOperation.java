@@ -0,0 +1,63 @@
+package core;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link KeyOperation}的异步版本
+ * 所有命令在有界的线程池中执行，返回的CompletableFuture在命令执行完成后完成
+ *
+ * @since 2019/5/8
+ */
+public interface AsyncKeyOperation<K>
+{
+
+	/**
+	 * @see KeyOperation#exists(Object)
+	 */
+	CompletableFuture<Boolean> exists(K key);
+
+	/**
+	 * @see KeyOperation#del(Object)
+	 */
+	CompletableFuture<Boolean> del(K key);
+
+	/**
+	 * @see KeyOperation#expire(Object, int)
+	 */
+	CompletableFuture<Boolean> expire(K key, int seconds);
+
+	/**
+	 * @see KeyOperation#expireAt(Object, long)
+	 */
+	CompletableFuture<Boolean> expireAt(K key, long timestamp);
+
+	/**
+	 * @see KeyOperation#pExpire(Object, long)
+	 */
+	CompletableFuture<Boolean> pExpire(K key, long milliseconds);
+
+	/**
+	 * @see KeyOperation#pExpireAt(Object, long)
+	 */
+	CompletableFuture<Boolean> pExpireAt(K key, long timestamp);
+
+	/**
+	 * @see KeyOperation#ttl(Object)
+	 */
+	CompletableFuture<Long> ttl(K key);
+
+	/**
+	 * @see KeyOperation#pTtl(Object)
+	 */
+	CompletableFuture<Long> pTtl(K key);
+
+	/**
+	 * @see KeyOperation#randomkey()
+	 */
+	CompletableFuture<String> randomkey();
+
+	/**
+	 * @see KeyOperation#persist(Object)
+	 */
+	CompletableFuture<Boolean> persist(K key);
+}
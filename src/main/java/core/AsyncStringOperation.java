@@ -0,0 +1,135 @@
+package core;
+
+import connection.RedisStringCommands.SetOption;
+import support.Expiration;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link StringOperation}的异步版本
+ * 互不依赖的查询可以同时发出，而不是在请求线程中逐个等待
+ *
+ * @since 2019/5/8
+ */
+public interface AsyncStringOperation<K, V> extends AsyncKeyOperation<K>
+{
+
+	/**
+	 * @see StringOperation#get(Object)
+	 */
+	CompletableFuture<V> get(K key);
+
+	/**
+	 * @see StringOperation#getSet(Object, Object)
+	 */
+	CompletableFuture<V> getSet(K key, V value);
+
+	/**
+	 * @see StringOperation#mGet(Collection)
+	 */
+	CompletableFuture<List<V>> mGet(Collection<K> keys);
+
+	/**
+	 * @see StringOperation#set(Object, Object)
+	 */
+	CompletableFuture<Boolean> set(K key, V value);
+
+	/**
+	 * @see StringOperation#set(Object, Object, long, TimeUnit)
+	 */
+	CompletableFuture<Boolean> set(K key, V value, long timeout, TimeUnit unit);
+
+	/**
+	 * @see StringOperation#set(Object, Object, Expiration, SetOption)
+	 */
+	CompletableFuture<Boolean> set(K key, V value, Expiration expiration, SetOption option);
+
+	/**
+	 * @see StringOperation#setIfAbsent(Object, Object)
+	 */
+	CompletableFuture<Boolean> setIfAbsent(K key, V value);
+
+	/**
+	 * @see StringOperation#setIfAbsent(Object, Object, long, TimeUnit)
+	 */
+	CompletableFuture<Boolean> setIfAbsent(K key, V value, long timeout, TimeUnit unit);
+
+	/**
+	 * @see StringOperation#setIfPresent(Object, Object)
+	 */
+	CompletableFuture<Boolean> setIfPresent(K key, V value);
+
+	/**
+	 * @see StringOperation#setIfPresent(Object, Object, long, TimeUnit)
+	 */
+	CompletableFuture<Boolean> setIfPresent(K key, V value, long timeout, TimeUnit unit);
+
+	/**
+	 * @see StringOperation#setExpire(Object, long, Object)
+	 */
+	CompletableFuture<Boolean> setExpire(K key, long seconds, V value);
+
+	/**
+	 * @see StringOperation#pSetExpire(Object, long, Object)
+	 */
+	CompletableFuture<Boolean> pSetExpire(K key, long millseconds, V value);
+
+	/**
+	 * @see StringOperation#mSet(Map)
+	 */
+	CompletableFuture<Boolean> mSet(Map<? extends K, ? extends V> tuples);
+
+	/**
+	 * @see StringOperation#mSetIfAbsent(Map)
+	 */
+	CompletableFuture<Boolean> mSetIfAbsent(Map<? extends K, ? extends V> tuples);
+
+	/**
+	 * @see StringOperation#incr(Object)
+	 */
+	CompletableFuture<Long> incr(K key);
+
+	/**
+	 * @see StringOperation#incrBy(Object, long)
+	 */
+	CompletableFuture<Long> incrBy(K key, long delta);
+
+	/**
+	 * @see StringOperation#incrBy(Object, double)
+	 */
+	CompletableFuture<Double> incrBy(K key, double delta);
+
+	/**
+	 * @see StringOperation#decr(Object)
+	 */
+	CompletableFuture<Long> decr(K key);
+
+	/**
+	 * @see StringOperation#decrBy(Object, long)
+	 */
+	CompletableFuture<Long> decrBy(K key, long delta);
+
+	/**
+	 * @see StringOperation#append(Object, Object)
+	 */
+	CompletableFuture<Long> append(K key, V value);
+
+	/**
+	 * @see StringOperation#getRange(Object, long, long)
+	 */
+	CompletableFuture<String> getRange(K key, long start, long end);
+
+	/**
+	 * @see StringOperation#setRange(Object, Object, long)
+	 */
+	CompletableFuture<Void> setRange(K key, V value, long offset);
+
+	/**
+	 * @see StringOperation#strLen(Object)
+	 */
+	CompletableFuture<Long> strLen(K key);
+}
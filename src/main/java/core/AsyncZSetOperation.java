@@ -0,0 +1,148 @@
+package core;
+
+import support.ScoreRange;
+import support.TypedTuple;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link ZSetOperation}的异步版本
+ *
+ * @since 2019/5/8
+ */
+public interface AsyncZSetOperation<K, V> extends AsyncKeyOperation<K>
+{
+
+	/**
+	 * @see ZSetOperation#zAdd(Object, double, Object)
+	 */
+	CompletableFuture<Boolean> zAdd(K key, double score, V member);
+
+	/**
+	 * @see ZSetOperation#zAdd(Object, Map)
+	 */
+	CompletableFuture<Long> zAdd(K key, Map<V, Double> tuples);
+
+	/**
+	 * @see ZSetOperation#remove(Object, Object)
+	 */
+	CompletableFuture<Boolean> remove(K key, V member);
+
+	/**
+	 * @see ZSetOperation#remove(Object, Collection)
+	 */
+	CompletableFuture<Long> remove(K key, Collection<V> members);
+
+	/**
+	 * @see ZSetOperation#zRemRangeByScore(Object, double, double)
+	 */
+	CompletableFuture<Long> zRemRangeByScore(K key, double min, double max);
+
+	/**
+	 * @see ZSetOperation#zRemRangeByScore(Object, ScoreRange)
+	 */
+	CompletableFuture<Long> zRemRangeByScore(K key, ScoreRange scoreRange);
+
+	/**
+	 * @see ZSetOperation#zRemRangeByRank(Object, long, long)
+	 */
+	CompletableFuture<Long> zRemRangeByRank(K key, long start, long end);
+
+	/**
+	 * @see ZSetOperation#zScore(Object, Object)
+	 */
+	CompletableFuture<Double> zScore(K key, V member);
+
+	/**
+	 * @see ZSetOperation#zIncrBy(Object, double, Object)
+	 */
+	CompletableFuture<Double> zIncrBy(K key, double increment, V member);
+
+	/**
+	 * @see ZSetOperation#zCard(Object)
+	 */
+	CompletableFuture<Long> zCard(K key);
+
+	/**
+	 * @see ZSetOperation#zCount(Object, double, double)
+	 */
+	CompletableFuture<Long> zCount(K key, double min, double max);
+
+	/**
+	 * @see ZSetOperation#zCount(Object, ScoreRange)
+	 */
+	CompletableFuture<Long> zCount(K key, ScoreRange scoreRange);
+
+	/**
+	 * @see ZSetOperation#zRange(Object, long, long)
+	 */
+	CompletableFuture<Set<V>> zRange(K key, long start, long end);
+
+	/**
+	 * @see ZSetOperation#zRevRange(Object, long, long)
+	 */
+	CompletableFuture<Set<V>> zRevRange(K key, long start, long end);
+
+	/**
+	 * @see ZSetOperation#zRangeByScore(Object, double, double)
+	 */
+	CompletableFuture<Set<V>> zRangeByScore(K key, double min, double max);
+
+	/**
+	 * @see ZSetOperation#zRangeByScore(Object, double, double, long, long)
+	 */
+	CompletableFuture<Set<V>> zRangeByScore(K key, double min, double max, long offset, long count);
+
+	/**
+	 * @see ZSetOperation#zRevRangeByScore(Object, double, double)
+	 */
+	CompletableFuture<Set<V>> zRevRangeByScore(K key, double min, double max);
+
+	/**
+	 * @see ZSetOperation#zRevRangeByScore(Object, double, double, long, long)
+	 */
+	CompletableFuture<Set<V>> zRevRangeByScore(K key, double min, double max, long offset, long count);
+
+	/**
+	 * @see ZSetOperation#zRangeWithScores(Object, long, long)
+	 */
+	CompletableFuture<Set<TypedTuple<V>>> zRangeWithScores(K key, long start, long end);
+
+	/**
+	 * @see ZSetOperation#zRangeByScoreWithScores(Object, double, double)
+	 */
+	CompletableFuture<Set<TypedTuple<V>>> zRangeByScoreWithScores(K key, double min, double max);
+
+	/**
+	 * @see ZSetOperation#zRangeByScoreWithScores(Object, double, double, long, long)
+	 */
+	CompletableFuture<Set<TypedTuple<V>>> zRangeByScoreWithScores(K key, double min, double max, long offset, long count);
+
+	/**
+	 * @see ZSetOperation#zRevRangeWithScores(Object, long, long)
+	 */
+	CompletableFuture<Set<TypedTuple<V>>> zRevRangeWithScores(K key, long start, long end);
+
+	/**
+	 * @see ZSetOperation#zRevRangeByScoreWithScores(Object, double, double)
+	 */
+	CompletableFuture<Set<TypedTuple<V>>> zRevRangeByScoreWithScores(K key, double min, double max);
+
+	/**
+	 * @see ZSetOperation#zRevRangeByScoreWithScores(Object, double, double, long, long)
+	 */
+	CompletableFuture<Set<TypedTuple<V>>> zRevRangeByScoreWithScores(K key, double min, double max, long offset, long count);
+
+	/**
+	 * @see ZSetOperation#zRank(Object, Object)
+	 */
+	CompletableFuture<Long> zRank(K key, V member);
+
+	/**
+	 * @see ZSetOperation#zRevRank(Object, Object)
+	 */
+	CompletableFuture<Long> zRevRank(K key, V member);
+}
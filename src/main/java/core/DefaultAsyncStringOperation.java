@@ -0,0 +1,161 @@
+package core;
+
+import connection.RedisStringCommands.SetOption;
+import support.Expiration;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @since 2019/5/8
+ */
+public class DefaultAsyncStringOperation<K, V> extends AbstractAsyncOperation<K, StringOperation<K, V>> implements AsyncStringOperation<K, V>
+{
+
+	public DefaultAsyncStringOperation(StringOperation<K, V> operation, Executor executor)
+	{
+		super(operation, executor);
+	}
+
+	@Override
+	public CompletableFuture<V> get(K key)
+	{
+		return async(() -> operation.get(key));
+	}
+
+	@Override
+	public CompletableFuture<V> getSet(K key, V value)
+	{
+		return async(() -> operation.getSet(key, value));
+	}
+
+	@Override
+	public CompletableFuture<List<V>> mGet(Collection<K> keys)
+	{
+		return async(() -> operation.mGet(keys));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> set(K key, V value)
+	{
+		return async(() -> operation.set(key, value));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> set(K key, V value, long timeout, TimeUnit unit)
+	{
+		return async(() -> operation.set(key, value, timeout, unit));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> set(K key, V value, Expiration expiration, SetOption option)
+	{
+		return async(() -> operation.set(key, value, expiration, option));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> setIfAbsent(K key, V value)
+	{
+		return async(() -> operation.setIfAbsent(key, value));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> setIfAbsent(K key, V value, long timeout, TimeUnit unit)
+	{
+		return async(() -> operation.setIfAbsent(key, value, timeout, unit));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> setIfPresent(K key, V value)
+	{
+		return async(() -> operation.setIfPresent(key, value));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> setIfPresent(K key, V value, long timeout, TimeUnit unit)
+	{
+		return async(() -> operation.setIfPresent(key, value, timeout, unit));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> setExpire(K key, long seconds, V value)
+	{
+		return async(() -> operation.setExpire(key, seconds, value));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> pSetExpire(K key, long millseconds, V value)
+	{
+		return async(() -> operation.pSetExpire(key, millseconds, value));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> mSet(Map<? extends K, ? extends V> tuples)
+	{
+		return async(() -> operation.mSet(tuples));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> mSetIfAbsent(Map<? extends K, ? extends V> tuples)
+	{
+		return async(() -> operation.mSetIfAbsent(tuples));
+	}
+
+	@Override
+	public CompletableFuture<Long> incr(K key)
+	{
+		return async(() -> operation.incr(key));
+	}
+
+	@Override
+	public CompletableFuture<Long> incrBy(K key, long delta)
+	{
+		return async(() -> operation.incrBy(key, delta));
+	}
+
+	@Override
+	public CompletableFuture<Double> incrBy(K key, double delta)
+	{
+		return async(() -> operation.incrBy(key, delta));
+	}
+
+	@Override
+	public CompletableFuture<Long> decr(K key)
+	{
+		return async(() -> operation.decr(key));
+	}
+
+	@Override
+	public CompletableFuture<Long> decrBy(K key, long delta)
+	{
+		return async(() -> operation.decrBy(key, delta));
+	}
+
+	@Override
+	public CompletableFuture<Long> append(K key, V value)
+	{
+		return async(() -> operation.append(key, value));
+	}
+
+	@Override
+	public CompletableFuture<String> getRange(K key, long start, long end)
+	{
+		return async(() -> operation.getRange(key, start, end));
+	}
+
+	@Override
+	public CompletableFuture<Void> setRange(K key, V value, long offset)
+	{
+		return CompletableFuture.runAsync(() -> operation.setRange(key, value, offset), executor);
+	}
+
+	@Override
+	public CompletableFuture<Long> strLen(K key)
+	{
+		return async(() -> operation.strLen(key));
+	}
+}
@@ -0,0 +1,178 @@
+package core;
+
+import support.ScoreRange;
+import support.TypedTuple;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * @since 2019/5/8
+ */
+public class DefaultAsyncZSetOperation<K, V> extends AbstractAsyncOperation<K, ZSetOperation<K, V>> implements AsyncZSetOperation<K, V>
+{
+
+	public DefaultAsyncZSetOperation(ZSetOperation<K, V> operation, Executor executor)
+	{
+		super(operation, executor);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> zAdd(K key, double score, V member)
+	{
+		return async(() -> operation.zAdd(key, score, member));
+	}
+
+	@Override
+	public CompletableFuture<Long> zAdd(K key, Map<V, Double> tuples)
+	{
+		return async(() -> operation.zAdd(key, tuples));
+	}
+
+	@Override
+	public CompletableFuture<Boolean> remove(K key, V member)
+	{
+		return async(() -> operation.remove(key, member));
+	}
+
+	@Override
+	public CompletableFuture<Long> remove(K key, Collection<V> members)
+	{
+		return async(() -> operation.remove(key, members));
+	}
+
+	@Override
+	public CompletableFuture<Long> zRemRangeByScore(K key, double min, double max)
+	{
+		return async(() -> operation.zRemRangeByScore(key, min, max));
+	}
+
+	@Override
+	public CompletableFuture<Long> zRemRangeByScore(K key, ScoreRange scoreRange)
+	{
+		return async(() -> operation.zRemRangeByScore(key, scoreRange));
+	}
+
+	@Override
+	public CompletableFuture<Long> zRemRangeByRank(K key, long start, long end)
+	{
+		return async(() -> operation.zRemRangeByRank(key, start, end));
+	}
+
+	@Override
+	public CompletableFuture<Double> zScore(K key, V member)
+	{
+		return async(() -> operation.zScore(key, member));
+	}
+
+	@Override
+	public CompletableFuture<Double> zIncrBy(K key, double increment, V member)
+	{
+		return async(() -> operation.zIncrBy(key, increment, member));
+	}
+
+	@Override
+	public CompletableFuture<Long> zCard(K key)
+	{
+		return async(() -> operation.zCard(key));
+	}
+
+	@Override
+	public CompletableFuture<Long> zCount(K key, double min, double max)
+	{
+		return async(() -> operation.zCount(key, min, max));
+	}
+
+	@Override
+	public CompletableFuture<Long> zCount(K key, ScoreRange scoreRange)
+	{
+		return async(() -> operation.zCount(key, scoreRange));
+	}
+
+	@Override
+	public CompletableFuture<Set<V>> zRange(K key, long start, long end)
+	{
+		return async(() -> operation.zRange(key, start, end));
+	}
+
+	@Override
+	public CompletableFuture<Set<V>> zRevRange(K key, long start, long end)
+	{
+		return async(() -> operation.zRevRange(key, start, end));
+	}
+
+	@Override
+	public CompletableFuture<Set<V>> zRangeByScore(K key, double min, double max)
+	{
+		return async(() -> operation.zRangeByScore(key, min, max));
+	}
+
+	@Override
+	public CompletableFuture<Set<V>> zRangeByScore(K key, double min, double max, long offset, long count)
+	{
+		return async(() -> operation.zRangeByScore(key, min, max, offset, count));
+	}
+
+	@Override
+	public CompletableFuture<Set<V>> zRevRangeByScore(K key, double min, double max)
+	{
+		return async(() -> operation.zRevRangeByScore(key, min, max));
+	}
+
+	@Override
+	public CompletableFuture<Set<V>> zRevRangeByScore(K key, double min, double max, long offset, long count)
+	{
+		return async(() -> operation.zRevRangeByScore(key, min, max, offset, count));
+	}
+
+	@Override
+	public CompletableFuture<Set<TypedTuple<V>>> zRangeWithScores(K key, long start, long end)
+	{
+		return async(() -> operation.zRangeWithScores(key, start, end));
+	}
+
+	@Override
+	public CompletableFuture<Set<TypedTuple<V>>> zRangeByScoreWithScores(K key, double min, double max)
+	{
+		return async(() -> operation.zRangeByScoreWithScores(key, min, max));
+	}
+
+	@Override
+	public CompletableFuture<Set<TypedTuple<V>>> zRangeByScoreWithScores(K key, double min, double max, long offset, long count)
+	{
+		return async(() -> operation.zRangeByScoreWithScores(key, min, max, offset, count));
+	}
+
+	@Override
+	public CompletableFuture<Set<TypedTuple<V>>> zRevRangeWithScores(K key, long start, long end)
+	{
+		return async(() -> operation.zRevRangeWithScores(key, start, end));
+	}
+
+	@Override
+	public CompletableFuture<Set<TypedTuple<V>>> zRevRangeByScoreWithScores(K key, double min, double max)
+	{
+		return async(() -> operation.zRevRangeByScoreWithScores(key, min, max));
+	}
+
+	@Override
+	public CompletableFuture<Set<TypedTuple<V>>> zRevRangeByScoreWithScores(K key, double min, double max, long offset, long count)
+	{
+		return async(() -> operation.zRevRangeByScoreWithScores(key, min, max, offset, count));
+	}
+
+	@Override
+	public CompletableFuture<Long> zRank(K key, V member)
+	{
+		return async(() -> operation.zRank(key, member));
+	}
+
+	@Override
+	public CompletableFuture<Long> zRevRank(K key, V member)
+	{
+		return async(() -> operation.zRevRank(key, member));
+	}
+}
@@ -3,9 +3,19 @@ package core;
 
 import connection.RedisConnection;
 import connection.RedisStringCommands.SetOption;
+import exception.SerializationException;
 import support.Expiration;
+import support.RedisScript;
+import util.Assert;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * @since 2019/4/29.
@@ -13,16 +23,409 @@ import java.util.concurrent.TimeUnit;
 public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implements StringOperation<K, V>
 {
 
+	private volatile AsyncStringOperation<K, V> asyncOperation;
+
+	/**
+	 * 本地缓存，为null时不使用
+	 */
+	private volatile NearCache<V> nearCache;
+
+	/**
+	 * 分块读取时每次GETRANGE的字节数
+	 */
+	private int streamChunkSize = 64 * 1024;
+
+	/**
+	 * 合并并发的get，为null时不合并
+	 */
+	private volatile GetCoalescer getCoalescer;
+
+	/**
+	 * getOrLoad中加载锁的key后缀
+	 */
+	private static final byte[] LOAD_LOCK_SUFFIX = {':', 'l', 'o', 'a', 'd', 'i', 'n', 'g'};
+
+	/**
+	 * KEYS[1]: 锁的key, ARGV[1]: 加锁时写入的token
+	 * 只删除自己持有的锁，锁过期之后被其他调用方获取时不会误删
+	 */
+	private static final RedisScript<Long> RELEASE_LOAD_LOCK = RedisScript.of(
+			"if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end " +
+			"return 0", Long.class);
+
+	/**
+	 * 加载锁的过期时间，应该大于loader的执行时间
+	 */
+	private long loadLockTimeoutMillis = 3000L;
+
+	/**
+	 * 提前刷新的系数，越大越早刷新，0时不提前刷新
+	 */
+	private double earlyRefreshBeta = 1.0;
+
+	/**
+	 * loader耗时的滑动平均，毫秒，用于计算提前刷新的概率，0表示还没有加载过
+	 */
+	private volatile double loadMillis;
+
 	protected DefaultStringOpreation(String keyPrefix, RedisTemplate redisTemplate, Class<K> keyClass, Class<V> valueClass)
 	{
 		super(keyPrefix, redisTemplate, keyClass, valueClass);
 	}
 
+	/**
+	 * 开启本地缓存（near cache），get/mGet优先从本地缓存中读取
+	 * 当前进程中的写操作（set/del/expire等）会同步更新或清理本地缓存
+	 *
+	 * @param maxSize 最多缓存的key数量
+	 * @param maxTtl  本地缓存的最长存活时间
+	 * @param unit
+	 */
+	public void enableNearCache(int maxSize, long maxTtl, TimeUnit unit)
+	{
+		this.nearCache = new NearCache<>(maxSize, maxTtl, unit);
+	}
+
+	public NearCache<V> getNearCache()
+	{
+		return nearCache;
+	}
+
+	/**
+	 * 开启get合并：并发的get在window内或者达到maxBatchSize个key时合并为一次MGET
+	 * 每次get最多增加window的延迟，适用于大量线程同时读取不同key的场景
+	 * 开启本地缓存时get由本地缓存处理，不合并
+	 *
+	 * @param maxBatchSize 每次MGET最多的key数量
+	 * @param window       等待其他get的最长时间
+	 * @param unit
+	 */
+	public void enableGetCoalescing(int maxBatchSize, long window, TimeUnit unit)
+	{
+		Assert.isTrue(maxBatchSize > 0, "max batch size must be positive");
+		Assert.isTrue(window >= 0, "window must not be negative");
+		this.getCoalescer = new GetCoalescer(this, maxBatchSize, unit.toNanos(window));
+	}
+
+	/**
+	 * 设置getOrLoad中加载锁的过期时间，默认3秒
+	 * 持有锁的节点超过该时间没有写入时，其他调用方会自己执行loader
+	 *
+	 * @param timeout
+	 * @param unit
+	 */
+	public void setLoadLockTimeout(long timeout, TimeUnit unit)
+	{
+		Assert.isTrue(timeout > 0, "load lock timeout must be positive");
+		this.loadLockTimeoutMillis = unit.toMillis(timeout);
+	}
+
+	/**
+	 * 设置getOrLoad提前刷新的系数，默认1.0
+	 * 剩余过期时间小于 loader耗时 * beta * -ln(random) 时提前刷新，0表示不提前刷新
+	 *
+	 * @param beta
+	 */
+	public void setEarlyRefreshBeta(double beta)
+	{
+		Assert.isTrue(beta >= 0, "beta must not be negative");
+		this.earlyRefreshBeta = beta;
+	}
+
+	/**
+	 * 设置get(K, OutputStream)等分块读取时每个块的字节数，默认64KB
+	 *
+	 * @param streamChunkSize
+	 */
+	public void setStreamChunkSize(int streamChunkSize)
+	{
+		Assert.isTrue(streamChunkSize > 0, "chunk size must be positive");
+		this.streamChunkSize = streamChunkSize;
+	}
+
 	@Override
 	public V get(K key)
 	{
+		NearCache<V> cache = nearCache;
+		if(cache != null && !redisTemplate.isPipelined())
+		{
+			String cacheKey = makeKey(key);
+			V value = cache.get(cacheKey);
+			if(value != null)
+			{
+				return value;
+			}
+			byte[] rawKey = keyToBytes(key);
+			return readShared(rawKey, () -> loadIntoNearCache(cache, cacheKey, rawKey));
+		}
+
 		byte[] rawKey = keyToBytes(key);
-		return deserializeValue(execute(connection -> connection.stringCommands().get(rawKey), EMPTY_ARRAY));
+		return readShared(rawKey, () -> {
+			GetCoalescer coalescer = getCoalescer;
+			if(coalescer != null && !redisTemplate.isPipelined())
+			{
+				return deserializeValue(coalescer.get(rawKey));
+			}
+			return deserializeValue(execute(connection -> connection.stringCommands().get(rawKey), EMPTY_ARRAY));
+		});
+	}
+
+	@Override
+	public long get(K key, OutputStream out) throws IOException
+	{
+		Assert.notNull(out, "non null output stream required");
+		RangeInputStream in = openStream(key);
+		return in.length() > 0 ? in.writeTo(out) : -1L;
+	}
+
+	@Override
+	public long get(K key, ByteBuffer buffer) throws IOException
+	{
+		Assert.notNull(buffer, "non null buffer required");
+		RangeInputStream in = openStream(key);
+		long length = in.length();
+		if(length == 0)
+		{
+			return -1L;
+		}
+		in.readInto(buffer);
+		return length;
+	}
+
+	@Override
+	public V getStreaming(K key)
+	{
+		RangeInputStream in = openStream(key);
+		try
+		{
+			if(in.length() == 0)
+			{
+				return null;
+			}
+		}
+		catch(IOException e)
+		{
+			throw new SerializationException("Could not read value: " + e.getMessage(), e);
+		}
+		return deserializeValue(in);
+	}
+
+	@Override
+	public V getOrLoad(K key, Function<K, V> loader, Expiration ttl)
+	{
+		Assert.notNull(loader, "non null loader required");
+		Assert.notNull(ttl, "non null ttl required");
+		Assert.isTrue(!redisTemplate.isPipelined(), "getOrLoad is not supported in pipeline");
+		byte[] rawKey = keyToBytes(key);
+		byte[] lockKey = loadLockKey(rawKey);
+
+		List<Object> ret = redisTemplate.executePipelined(conn -> {
+			conn.stringCommands().get(rawKey);
+			conn.keyCommands().pTtl(rawKey);
+			return null;
+		});
+		if(ret.size() != 2)
+		{
+			// redis不可用时直接加载，不等待锁
+			return load(key, loader, ttl);
+		}
+		if(ret.get(0) instanceof byte[])
+		{
+			V value = deserializeValue((byte[]) ret.get(0));
+			long pTtl = ret.get(1) instanceof Long ? (Long) ret.get(1) : -1L;
+			// 没有拿到锁说明其他节点正在刷新，返回旧值
+			byte[] token;
+			if(shouldRefreshEarly(pTtl) && (token = tryLoadLock(lockKey)) != null)
+			{
+				V loaded = loadWithLock(key, null, lockKey, token, loader, ttl);
+				return loaded != null ? loaded : value;
+			}
+			return value;
+		}
+
+		byte[] token = tryLoadLock(lockKey);
+		if(token != null)
+		{
+			return loadWithLock(key, rawKey, lockKey, token, loader, ttl);
+		}
+		return awaitLoad(key, rawKey, lockKey, loader, ttl);
+	}
+
+	/**
+	 * 其他调用方正在加载，等待加载结果
+	 * 锁被提前释放（loader失败或者返回null）时重新竞争锁，等待超过锁的过期时间时自己加载
+	 */
+	private V awaitLoad(K key, byte[] rawKey, byte[] lockKey, Function<K, V> loader, Expiration ttl)
+	{
+		long deadline = System.currentTimeMillis() + loadLockTimeoutMillis;
+		long sleepMillis = 5L;
+		while(System.currentTimeMillis() < deadline)
+		{
+			try
+			{
+				Thread.sleep(sleepMillis);
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				break;
+			}
+			sleepMillis = Math.min(sleepMillis * 2, 100L);
+
+			byte[] rawValue = execute(conn -> conn.stringCommands().get(rawKey), null);
+			if(rawValue != null)
+			{
+				return deserializeValue(rawValue);
+			}
+			boolean locked = execute(conn -> conn.keyCommands().exists(lockKey) == 1, true);
+			byte[] token;
+			if(!locked && (token = tryLoadLock(lockKey)) != null)
+			{
+				return loadWithLock(key, rawKey, lockKey, token, loader, ttl);
+			}
+		}
+		return load(key, loader, ttl);
+	}
+
+	private boolean shouldRefreshEarly(long pTtl)
+	{
+		double delta = loadMillis;
+		if(pTtl <= 0 || delta <= 0 || earlyRefreshBeta <= 0)
+		{
+			return false;
+		}
+		return delta * earlyRefreshBeta * -Math.log(ThreadLocalRandom.current().nextDouble()) >= pTtl;
+	}
+
+	/**
+	 * @param lockKey
+	 * @return 加锁成功时返回写入锁的随机token，释放锁时使用，失败时返回null
+	 */
+	private byte[] tryLoadLock(byte[] lockKey)
+	{
+		Expiration timeout = Expiration.millseconds(loadLockTimeoutMillis);
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		byte[] token = (Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong())).getBytes(StandardCharsets.US_ASCII);
+		boolean locked = execute(conn -> conn.stringCommands().set(lockKey, token, timeout, SetOption.SET_IF_ABSENT), false);
+		return locked ? token : null;
+	}
+
+	/**
+	 * @param rawKey 不为null时先重新读取一次，其他调用方可能在我们读取之后、加锁之前刚刚加载完成
+	 */
+	private V loadWithLock(K key, byte[] rawKey, byte[] lockKey, byte[] token, Function<K, V> loader, Expiration ttl)
+	{
+		try
+		{
+			if(rawKey != null)
+			{
+				byte[] rawValue = execute(conn -> conn.stringCommands().get(rawKey), null);
+				if(rawValue != null)
+				{
+					return deserializeValue(rawValue);
+				}
+			}
+			return load(key, loader, ttl);
+		}
+		finally
+		{
+			execute(RELEASE_LOAD_LOCK, Collections.singletonList(lockKey), Collections.singletonList(token), 0L);
+		}
+	}
+
+	private V load(K key, Function<K, V> loader, Expiration ttl)
+	{
+		long start = System.nanoTime();
+		V value = loader.apply(key);
+		double millis = (System.nanoTime() - start) / 1e6;
+		double prev = loadMillis;
+		loadMillis = prev > 0 ? prev * 0.8 + millis * 0.2 : millis;
+
+		if(value != null)
+		{
+			set(key, value, ttl, SetOption.NONE);
+		}
+		return value;
+	}
+
+	private static byte[] loadLockKey(byte[] rawKey)
+	{
+		byte[] ret = Arrays.copyOf(rawKey, rawKey.length + LOAD_LOCK_SUFFIX.length);
+		System.arraycopy(LOAD_LOCK_SUFFIX, 0, ret, rawKey.length, LOAD_LOCK_SUFFIX.length);
+		return ret;
+	}
+
+	private RangeInputStream openStream(K key)
+	{
+		Assert.isTrue(!redisTemplate.isPipelined(), "streaming read is not supported in pipeline");
+		return new RangeInputStream(redisTemplate, keyToBytes(key), streamChunkSize);
+	}
+
+	/**
+	 * 在一次往返中同时获取value和剩余的过期时间，本地缓存的过期时间与redis保持一致
+	 */
+	private V loadIntoNearCache(NearCache<V> cache, String cacheKey, byte[] rawKey)
+	{
+		long stamp = cache.getInvalidationStamp(cacheKey);
+		List<Object> ret = redisTemplate.executePipelined(conn -> {
+			conn.stringCommands().get(rawKey);
+			conn.keyCommands().pTtl(rawKey);
+			return null;
+		});
+		if(ret.size() != 2 || !(ret.get(0) instanceof byte[]))
+		{
+			return null;
+		}
+
+		V value = deserializeValue((byte[]) ret.get(0));
+		putNearCache(cache, cacheKey, value, ret.get(1), stamp);
+		return value;
+	}
+
+	private void putNearCache(NearCache<V> cache, String cacheKey, V value, Object pTtl, long stamp)
+	{
+		long ttl = pTtl instanceof Long ? (Long) pTtl : -1L;
+		// -2：key在两条命令之间被删除
+		if(ttl != -2L)
+		{
+			cache.putIfNotInvalidated(cacheKey, value, ttl, stamp);
+		}
+	}
+
+	/**
+	 * 写操作之后更新本地缓存，写入失败时清理本地缓存
+	 */
+	private void writeNearCache(K key, V value, Boolean success, long ttlMillis)
+	{
+		NearCache<V> cache = nearCache;
+		if(cache == null)
+		{
+			return;
+		}
+
+		if(Boolean.TRUE.equals(success))
+		{
+			cache.put(makeKey(key), value, ttlMillis);
+		}
+		else
+		{
+			cache.invalidate(makeKey(key));
+		}
+	}
+
+	private void invalidateNearCache(K key)
+	{
+		NearCache<V> cache = nearCache;
+		if(cache != null)
+		{
+			cache.invalidate(makeKey(key));
+		}
+	}
+
+	@Override
+	protected void afterKeyModified(K key)
+	{
+		invalidateNearCache(key);
 	}
 
 	@Override
@@ -39,6 +442,12 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 			return Collections.emptyList();
 		}
 
+		NearCache<V> cache = nearCache;
+		if(cache != null && !redisTemplate.isPipelined())
+		{
+			return mGetWithNearCache(cache, keys);
+		}
+
 		byte[][] rawKeys = new byte[keys.size()][];
 		int counter = 0;
 		for(K hashKey : keys)
@@ -54,12 +463,74 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 		return ret;
 	}
 
+	/**
+	 * 先从本地缓存中读取，未命中的key通过一次pipeline获取value和剩余的过期时间
+	 */
+	private List<V> mGetWithNearCache(NearCache<V> cache, Collection<K> keys)
+	{
+		List<V> ret = new ArrayList<>(keys.size());
+		List<Integer> missIndexes = new ArrayList<>();
+		List<String> missCacheKeys = new ArrayList<>();
+		List<byte[]> missRawKeys = new ArrayList<>();
+		for(K key : keys)
+		{
+			String cacheKey = makeKey(key);
+			V value = cache.get(cacheKey);
+			if(value == null)
+			{
+				missIndexes.add(ret.size());
+				missCacheKeys.add(cacheKey);
+				missRawKeys.add(keyToBytes(key));
+			}
+			ret.add(value);
+		}
+
+		if(missIndexes.isEmpty())
+		{
+			return ret;
+		}
+
+		byte[][] rawKeys = missRawKeys.toArray(new byte[missRawKeys.size()][]);
+		long[] stamps = new long[rawKeys.length];
+		for(int i = 0; i < stamps.length; i++)
+		{
+			stamps[i] = cache.getInvalidationStamp(missCacheKeys.get(i));
+		}
+		List<Object> results = redisTemplate.executePipelined(conn -> {
+			conn.stringCommands().mGet(rawKeys);
+			for(byte[] rawKey : rawKeys)
+			{
+				conn.keyCommands().pTtl(rawKey);
+			}
+			return null;
+		});
+		if(results.size() != rawKeys.length + 1 || !(results.get(0) instanceof List))
+		{
+			return ret;
+		}
+
+		List<?> rawValues = (List<?>) results.get(0);
+		for(int i = 0; i < rawValues.size(); i++)
+		{
+			Object rawValue = rawValues.get(i);
+			if(rawValue instanceof byte[])
+			{
+				V value = deserializeValue((byte[]) rawValue);
+				ret.set(missIndexes.get(i), value);
+				putNearCache(cache, missCacheKeys.get(i), value, results.get(i + 1), stamps[i]);
+			}
+		}
+		return ret;
+	}
+
 	@Override
 	public Boolean set(K key, V value)
 	{
 		byte[] rawKey = keyToBytes(key);
 		byte[] rawValue = valueToBytes(value);
-		return execute(connection -> connection.stringCommands().set(rawKey, rawValue), false);
+		Boolean ret = execute(connection -> connection.stringCommands().set(rawKey, rawValue), false);
+		writeNearCache(key, value, ret, -1L);
+		return ret;
 	}
 
 	@Override
@@ -68,7 +539,9 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 		byte[] rawKey = keyToBytes(key);
 		byte[] rawValue = valueToBytes(value);
 		Expiration expiration = Expiration.of(timeout, unit);
-		return execute(conn -> conn.stringCommands().set(rawKey, rawValue, expiration, SetOption.NONE), false);
+		Boolean ret = execute(conn -> conn.stringCommands().set(rawKey, rawValue, expiration, SetOption.NONE), false);
+		writeNearCache(key, value, ret, expiration.getExpirationTimeInMilliseconds());
+		return ret;
 	}
 
 	@Override
@@ -76,7 +549,9 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 	{
 		byte[] rawKey = keyToBytes(key);
 		byte[] rawValue = valueToBytes(value);
-		return execute(conn -> conn.stringCommands().set(rawKey, rawValue, expiration, option), false);
+		Boolean ret = execute(conn -> conn.stringCommands().set(rawKey, rawValue, expiration, option), false);
+		writeNearCache(key, value, ret, expiration.getExpirationTimeInMilliseconds());
+		return ret;
 	}
 
 	@Override
@@ -84,7 +559,9 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 	{
 		byte[] rawKey = keyToBytes(key);
 		byte[] rawValue = valueToBytes(value);
-		return execute(conn -> conn.stringCommands().setNX(rawKey, rawValue), false);
+		Boolean ret = execute(conn -> conn.stringCommands().setNX(rawKey, rawValue), false);
+		writeNearCache(key, value, ret, -1L);
+		return ret;
 	}
 
 	@Override
@@ -93,7 +570,9 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 		byte[] rawKey = keyToBytes(key);
 		byte[] rawValue = valueToBytes(value);
 		Expiration expiration = Expiration.of(timeout, unit);
-		return execute(conn -> conn.stringCommands().set(rawKey, rawValue, expiration, SetOption.SET_IF_ABSENT), false);
+		Boolean ret = execute(conn -> conn.stringCommands().set(rawKey, rawValue, expiration, SetOption.SET_IF_ABSENT), false);
+		writeNearCache(key, value, ret, expiration.getExpirationTimeInMilliseconds());
+		return ret;
 	}
 
 	@Override
@@ -101,7 +580,9 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 	{
 		byte[] rawKey = keyToBytes(key);
 		byte[] rawValue = valueToBytes(value);
-		return execute(conn -> conn.stringCommands().set(rawKey, rawValue, Expiration.persistent(), SetOption.SET_IF_PRESENT), false);
+		Boolean ret = execute(conn -> conn.stringCommands().set(rawKey, rawValue, Expiration.persistent(), SetOption.SET_IF_PRESENT), false);
+		writeNearCache(key, value, ret, -1L);
+		return ret;
 	}
 
 	@Override
@@ -110,7 +591,9 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 		byte[] rawKey = keyToBytes(key);
 		byte[] rawValue = valueToBytes(value);
 		Expiration expiration = Expiration.of(timeout, unit);
-		return execute(conn -> conn.stringCommands().set(rawKey, rawValue, expiration, SetOption.SET_IF_PRESENT), false);
+		Boolean ret = execute(conn -> conn.stringCommands().set(rawKey, rawValue, expiration, SetOption.SET_IF_PRESENT), false);
+		writeNearCache(key, value, ret, expiration.getExpirationTimeInMilliseconds());
+		return ret;
 	}
 
 	@Override
@@ -118,7 +601,9 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 	{
 		byte[] rawKey = keyToBytes(key);
 		byte[] rawValue = valueToBytes(value);
-		return execute(conn -> conn.stringCommands().setEx(rawKey, seconds, rawValue), false);
+		Boolean ret = execute(conn -> conn.stringCommands().setEx(rawKey, seconds, rawValue), false);
+		writeNearCache(key, value, ret, TimeUnit.SECONDS.toMillis(seconds));
+		return ret;
 	}
 
 	@Override
@@ -127,7 +612,9 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 
 		byte[] rawKey = keyToBytes(key);
 		byte[] rawValue = valueToBytes(value);
-		return execute(conn -> conn.stringCommands().pSetEx(rawKey, millseconds, rawValue), false);
+		Boolean ret = execute(conn -> conn.stringCommands().pSetEx(rawKey, millseconds, rawValue), false);
+		writeNearCache(key, value, ret, millseconds);
+		return ret;
 	}
 
 	@Override
@@ -144,7 +631,12 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 			byte[] rawValue = valueToBytes(entry.getValue());
 			rawMap.put(rawKey, rawValue);
 		}
-		return execute(conn -> conn.stringCommands().mSet(rawMap), false);
+		Boolean ret = execute(conn -> conn.stringCommands().mSet(rawMap), false);
+		for(Map.Entry<? extends K, ? extends V> entry : tuples.entrySet())
+		{
+			writeNearCache(entry.getKey(), entry.getValue(), ret, -1L);
+		}
+		return ret;
 	}
 
 	@Override
@@ -161,42 +653,57 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 			byte[] rawValue = valueToBytes(entry.getValue());
 			rawMap.put(rawKey, rawValue);
 		}
-		return execute(conn -> conn.stringCommands().mSetNX(rawMap), false);
+		Boolean ret = execute(conn -> conn.stringCommands().mSetNX(rawMap), false);
+		for(Map.Entry<? extends K, ? extends V> entry : tuples.entrySet())
+		{
+			writeNearCache(entry.getKey(), entry.getValue(), ret, -1L);
+		}
+		return ret;
 	}
 
 	@Override
 	public Long incr(K key)
 	{
 		byte[] rawKey = keyToBytes(key);
-		return execute(conn -> conn.stringCommands().incr(rawKey), 0L);
+		Long ret = execute(conn -> conn.stringCommands().incr(rawKey), 0L);
+		invalidateNearCache(key);
+		return ret;
 	}
 
 	@Override
 	public Long incrBy(K key, long delta)
 	{
 		byte[] rawKey = keyToBytes(key);
-		return execute(conn -> conn.stringCommands().incrBy(rawKey, delta), 0L);
+		Long ret = execute(conn -> conn.stringCommands().incrBy(rawKey, delta), 0L);
+		invalidateNearCache(key);
+		return ret;
 	}
 
 	@Override
 	public Double incrBy(K key, double delta)
 	{
 		byte[] rawKey = keyToBytes(key);
-		return execute(conn -> conn.stringCommands().incrByFloat(rawKey, delta), 0D);
+		Double ret = execute(conn -> conn.stringCommands().incrByFloat(rawKey, delta), 0D);
+		invalidateNearCache(key);
+		return ret;
 	}
 
 	@Override
 	public Long decr(K key)
 	{
 		byte[] rawKey = keyToBytes(key);
-		return execute(conn -> conn.stringCommands().decr(rawKey), 0L);
+		Long ret = execute(conn -> conn.stringCommands().decr(rawKey), 0L);
+		invalidateNearCache(key);
+		return ret;
 	}
 
 	@Override
 	public Long decrBy(K key, long delta)
 	{
 		byte[] rawKey = keyToBytes(key);
-		return execute(conn -> conn.stringCommands().decrBy(rawKey, delta), 0L);
+		Long ret = execute(conn -> conn.stringCommands().decrBy(rawKey, delta), 0L);
+		invalidateNearCache(key);
+		return ret;
 	}
 
 	/**
@@ -211,14 +718,16 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 	{
 		byte[] rawKey = keyToBytes(key);
 		byte[] rawValue = valueToBytes(value);
-		return execute(conn -> conn.stringCommands().append(rawKey, rawValue), -1L);
+		Long ret = execute(conn -> conn.stringCommands().append(rawKey, rawValue), -1L);
+		invalidateNearCache(key);
+		return ret;
 	}
 
 	@Override
 	public String getRange(K key, long start, long end)
 	{
 		byte[] rawKey = keyToBytes(key);
-		byte[] ret = execute(conn -> conn.stringCommands().getRange(rawKey, start, end), EMPTY_ARRAY);
+		byte[] ret = executeRaw(conn -> conn.stringCommands().getRange(rawKey, start, end), EMPTY_ARRAY);
 		return deserializeValueToString(ret);
 	}
 
@@ -237,6 +746,7 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 			        }
 		        }
 				, null);
+		invalidateNearCache(key);
 	}
 
 	@Override
@@ -245,4 +755,14 @@ public class DefaultStringOpreation<K, V> extends AbstractOperation<K, V> implem
 		byte[] rawKey = keyToBytes(key);
 		return execute(conn -> conn.stringCommands().strLen(rawKey), -1L);
 	}
+
+	@Override
+	public AsyncStringOperation<K, V> async()
+	{
+		if(asyncOperation == null)
+		{
+			asyncOperation = new DefaultAsyncStringOperation<>(this, redisTemplate.getAsyncExecutor());
+		}
+		return asyncOperation;
+	}
 }
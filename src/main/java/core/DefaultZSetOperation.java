@@ -1,11 +1,17 @@
 package core;
 
+import converter.Converters;
 import redis.clients.jedis.Tuple;
 import support.DefaultTypedTuple;
+import support.Limit;
+import support.ScanOptions;
 import support.ScoreRange;
 import support.TypedTuple;
+import util.Assert;
 
 import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * @since 2019/4/30
@@ -15,6 +21,8 @@ public class DefaultZSetOperation<K, V> extends AbstractOperation<K, V> implemen
 
 	protected Set<Tuple> EMPTY_TUPLE_SET = new HashSet<>(0);
 
+	private volatile AsyncZSetOperation<K, V> asyncOperation;
+
 	public DefaultZSetOperation(String keyPrefix, RedisTemplate redisTemplate, Class<K> keyClass, Class<V> valueClass)
 	{
 		super(keyPrefix, redisTemplate, keyClass, valueClass);
@@ -226,7 +234,7 @@ public class DefaultZSetOperation<K, V> extends AbstractOperation<K, V> implemen
 	}
 
 
-	private Set<TypedTuple<V>> convertTuple(Set<Tuple> source)
+	Set<TypedTuple<V>> convertTuple(Set<Tuple> source)
 	{
 		Set<TypedTuple<V>> ret = new LinkedHashSet<>(source.size());
 		for(Tuple tuple : source)
@@ -259,4 +267,151 @@ public class DefaultZSetOperation<K, V> extends AbstractOperation<K, V> implemen
 		byte[] rawValue = valueToBytes(member);
 		return execute(conn -> conn.zSetCommands().zRevRank(rawKey, rawValue),  -2L) + 1;
 	}
+
+	@Override
+	public Long addAndTrim(K key, double score, V member, long maxSize)
+	{
+		Assert.isTrue(maxSize > 0, "max size must be positive");
+		byte[] rawKey = keyToBytes(key);
+		byte[] rawValue = valueToBytes(member);
+		return execute(ZSetScripts.ADD_AND_TRIM, Collections.singletonList(rawKey),
+				Arrays.asList(ZSetScripts.scoreToBytes(score), rawValue, Converters.toBytes(maxSize)), -1L);
+	}
+
+	@Override
+	public Long incrementAndGetRank(K key, double increment, V member)
+	{
+		byte[] rawKey = keyToBytes(key);
+		byte[] rawValue = valueToBytes(member);
+		return execute(ZSetScripts.INCREMENT_AND_GET_RANK, Collections.singletonList(rawKey),
+				Arrays.asList(ZSetScripts.scoreToBytes(increment), rawValue), -1L);
+	}
+
+	@Override
+	public Stream<TypedTuple<V>> zScan(K key, int count)
+	{
+		Assert.isTrue(count > 0, "count must be positive");
+		byte[] rawKey = keyToBytes(key);
+		ScanOptions options = ScanOptions.scanOptions().count(count);
+		return new ScanIterator<Tuple, TypedTuple<V>>(cursor -> executeOrThrow(conn -> conn.zSetCommands().zScan(rawKey, cursor, options)),
+				tuple -> new DefaultTypedTuple<>(deserializeValue(tuple.getBinaryElement()), tuple.getScore())).stream();
+	}
+
+	@Override
+	public Stream<V> zRangeStream(K key, long start, long end, int pageSize)
+	{
+		Assert.isTrue(pageSize > 0, "page size must be positive");
+		Assert.isTrue(!redisTemplate.isPipelined(), "range stream is not supported in pipeline");
+		byte[] rawKey = keyToBytes(key);
+		long first = start;
+		long last = end;
+		// 负数下标相对于末尾，先换算为正数下标，之后的每一页都是固定的排名窗口
+		if(start < 0 || end < 0)
+		{
+			long card = executeOrThrow(conn -> conn.zSetCommands().zCard(rawKey));
+			first = start < 0 ? Math.max(card + start, 0) : start;
+			last = end < 0 ? card + end : end;
+		}
+
+		long lastRank = last;
+		long[] next = {first};
+		return new PageIterator<byte[], V>(() -> {
+			long from = next[0];
+			if(from > lastRank)
+			{
+				return Collections.emptySet();
+			}
+			long to = Math.min(from + pageSize - 1, lastRank);
+			next[0] = to + 1;
+			return executeOrThrow(conn -> conn.zSetCommands().zRange(rawKey, from, to));
+		}, pageSize, this::deserializeValue).stream();
+	}
+
+	@Override
+	public Stream<V> zRangeByScoreStream(K key, double min, double max, int pageSize)
+	{
+		return zRangeByScoreWithScoresStream(key, min, max, pageSize).map(TypedTuple::getValue);
+	}
+
+	@Override
+	public Stream<TypedTuple<V>> zRangeByScoreWithScoresStream(K key, double min, double max, int pageSize)
+	{
+		Assert.isTrue(pageSize > 0, "page size must be positive");
+		Assert.isTrue(!redisTemplate.isPipelined(), "range stream is not supported in pipeline");
+		return new PageIterator<Tuple, TypedTuple<V>>(new ScorePageLoader(keyToBytes(key), min, max, pageSize), pageSize,
+				tuple -> new DefaultTypedTuple<>(deserializeValue(tuple.getBinaryElement()), tuple.getScore())).stream();
+	}
+
+	/**
+	 * 按score分页：下一页从上一页最后的score开始，跳过该score上已经返回的元素
+	 * 每一页只需要定位到起始score，不像LIMIT offset那样越往后越慢，只有大量元素的score相同时才退化为offset
+	 */
+	private final class ScorePageLoader implements Supplier<Set<Tuple>>
+	{
+		private final byte[] rawKey;
+
+		private final byte[] rawMax;
+
+		private final int pageSize;
+
+		private byte[] rawMin;
+
+		private double lastScore;
+
+		/**
+		 * 已经返回的score等于lastScore的元素数量
+		 */
+		private long ties;
+
+		ScorePageLoader(byte[] rawKey, double min, double max, int pageSize)
+		{
+			this.rawKey = rawKey;
+			this.rawMin = ZSetScripts.scoreToBytes(min);
+			this.rawMax = ZSetScripts.scoreToBytes(max);
+			this.pageSize = pageSize;
+		}
+
+		@Override
+		public Set<Tuple> get()
+		{
+			ScoreRange range = ScoreRange.builder().gte(rawMin).lte(rawMax);
+			Limit limit = Limit.builder().offset((int) Math.min(ties, Integer.MAX_VALUE)).count(pageSize);
+			Set<Tuple> ret = executeOrThrow(conn -> conn.zSetCommands().zRangeByScoreWithScores(rawKey, range, limit));
+			if(ret.isEmpty())
+			{
+				return ret;
+			}
+
+			for(Tuple tuple : ret)
+			{
+				if(ties > 0 && tuple.getScore() == lastScore)
+				{
+					ties++;
+				}
+				else
+				{
+					lastScore = tuple.getScore();
+					ties = 1;
+				}
+			}
+			rawMin = ZSetScripts.scoreToBytes(lastScore);
+			return ret;
+		}
+	}
+
+	@Override
+	public ZSetBulkLoader<K, V> bulkLoader()
+	{
+		return new ZSetBulkLoader<>(this);
+	}
+
+	@Override
+	public AsyncZSetOperation<K, V> async()
+	{
+		if(asyncOperation == null)
+		{
+			asyncOperation = new DefaultAsyncZSetOperation<>(this, redisTemplate.getAsyncExecutor());
+		}
+		return asyncOperation;
+	}
 }
@@ -0,0 +1,67 @@
+package core;
+
+import exception.RedisUnavailableException;
+
+/**
+ * RedisTemplate执行命令失败时的处理方式
+ *
+ * @since 2019/5/14
+ */
+public interface FailurePolicy
+{
+
+	/**
+	 * 返回defaultValue，调用方无法区分失败与key不存在（默认）
+	 */
+	FailurePolicy RETURN_DEFAULT = new FailurePolicy()
+	{
+		@Override
+		public <T> T onFailure(Exception e, T defaultValue)
+		{
+			return defaultValue;
+		}
+
+		@Override
+		public <T> T onRejected(T defaultValue)
+		{
+			return defaultValue;
+		}
+	};
+
+	/**
+	 * 抛出异常，熔断时抛出{@link RedisUnavailableException}
+	 */
+	FailurePolicy THROW = new FailurePolicy()
+	{
+		@Override
+		public <T> T onFailure(Exception e, T defaultValue)
+		{
+			throw e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e);
+		}
+
+		@Override
+		public <T> T onRejected(T defaultValue)
+		{
+			throw new RedisUnavailableException("circuit breaker is open");
+		}
+	};
+
+	/**
+	 * 命令执行抛出异常时调用，可以在这里记录日志
+	 *
+	 * @param e
+	 * @param defaultValue
+	 * @param <T>
+	 * @return 作为execute的返回值
+	 */
+	<T> T onFailure(Exception e, T defaultValue);
+
+	/**
+	 * 熔断器打开、命令没有执行时调用
+	 *
+	 * @param defaultValue
+	 * @param <T>
+	 * @return 作为execute的返回值
+	 */
+	<T> T onRejected(T defaultValue);
+}
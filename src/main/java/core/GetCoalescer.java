@@ -0,0 +1,151 @@
+package core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 将并发的单key GET合并为一次MGET
+ *
+ * 没有后台线程：第一个到达的调用方成为该批次的leader，等待window或者批次满之后执行MGET，
+ * 其他调用方只把key加入批次，然后等待同一个结果
+ * 每个批次只占用一个连接，在高并发下减少连接池的竞争和网络往返
+ *
+ * @since 2019/5/15
+ */
+final class GetCoalescer
+{
+
+	private final AbstractOperation<?, ?> operation;
+
+	private final int maxBatchSize;
+
+	private final long windowNanos;
+
+	private final Object lock = new Object();
+
+	/**
+	 * 正在收集key的批次，为null时下一个调用方创建新的批次
+	 */
+	private Batch current;
+
+	GetCoalescer(AbstractOperation<?, ?> operation, int maxBatchSize, long windowNanos)
+	{
+		this.operation = operation;
+		this.maxBatchSize = maxBatchSize;
+		this.windowNanos = windowNanos;
+	}
+
+	/**
+	 * @param rawKey
+	 * @return key不存在或者执行失败时返回null
+	 */
+	byte[] get(byte[] rawKey)
+	{
+		Batch batch;
+		int index;
+		boolean leader = false;
+		boolean filled = false;
+		synchronized(lock)
+		{
+			batch = current;
+			if(batch == null)
+			{
+				batch = new Batch(maxBatchSize, Thread.currentThread());
+				current = batch;
+				leader = true;
+			}
+			index = batch.size;
+			batch.keys[batch.size++] = rawKey;
+			if(batch.size == maxBatchSize)
+			{
+				current = null;
+				batch.full = true;
+				filled = true;
+			}
+		}
+
+		if(leader)
+		{
+			awaitBatch(batch);
+			flush(batch);
+		}
+		else if(filled)
+		{
+			LockSupport.unpark(batch.leader);
+		}
+
+		List<byte[]> values;
+		try
+		{
+			values = batch.result.join();
+		}
+		catch(CompletionException e)
+		{
+			Throwable cause = e.getCause();
+			throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+		}
+		return values != null ? values.get(index) : null;
+	}
+
+	private void awaitBatch(Batch batch)
+	{
+		long deadline = System.nanoTime() + windowNanos;
+		long remaining;
+		while(!batch.full && (remaining = deadline - System.nanoTime()) > 0)
+		{
+			if(Thread.currentThread().isInterrupted())
+			{
+				return;
+			}
+			LockSupport.parkNanos(this, remaining);
+		}
+	}
+
+	private void flush(Batch batch)
+	{
+		byte[][] keys;
+		synchronized(lock)
+		{
+			if(current == batch)
+			{
+				current = null;
+			}
+			keys = batch.size == batch.keys.length ? batch.keys : Arrays.copyOf(batch.keys, batch.size);
+		}
+
+		try
+		{
+			batch.result.complete(operation.execute(conn -> conn.stringCommands().mGet(keys), null));
+		}
+		catch(Throwable e)
+		{
+			batch.result.completeExceptionally(e);
+		}
+	}
+
+
+	private static final class Batch
+	{
+		final byte[][] keys;
+
+		final Thread leader;
+
+		final CompletableFuture<List<byte[]>> result = new CompletableFuture<>();
+
+		/**
+		 * 只在持有lock时修改
+		 */
+		int size;
+
+		volatile boolean full;
+
+		Batch(int maxBatchSize, Thread leader)
+		{
+			this.keys = new byte[maxBatchSize][];
+			this.leader = leader;
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package core;
+
+import util.Assert;
+
+import java.util.function.Function;
+
+/**
+ * operation中key的组成方式
+ *
+ * 集群模式下只有{}（hash tag）中的部分参与slot计算，hash tag相同的key在同一个slot中，
+ * 多key命令、zUnionStore/zInterStore以及lua脚本可以直接在一个节点上执行
+ *
+ * @since 2019/5/11
+ */
+public interface KeyLayout<K>
+{
+
+	/**
+	 * 生成redis中的key
+	 *
+	 * @param keyPrefix operation的key前缀
+	 * @param key
+	 * @return
+	 */
+	String makeKey(String keyPrefix, K key);
+
+	/**
+	 * 匹配该operation所有key的glob pattern，用于订阅、scan等
+	 *
+	 * @param keyPrefix
+	 * @return
+	 */
+	String keyPattern(String keyPrefix);
+
+	/**
+	 * {@link #makeKey(String, Object)}的逆过程，从redis中的key取出调用方的key，用于scan等返回key的命令
+	 * 默认无法解析，自定义的组成方式需要解析时覆盖该方法
+	 *
+	 * @param keyPrefix
+	 * @param redisKey  redis中完整的key
+	 * @return 调用方key的字符串形式，不是该组成方式生成的key时返回null
+	 */
+	default String parseKey(String keyPrefix, String redisKey)
+	{
+		return null;
+	}
+
+	/**
+	 * 默认的组成方式：prefix_key
+	 *
+	 * @param <K>
+	 * @return
+	 */
+	static <K> KeyLayout<K> plain()
+	{
+		return new KeyLayout<K>()
+		{
+			@Override
+			public String makeKey(String keyPrefix, K key)
+			{
+				return keyPrefix + "_" + key;
+			}
+
+			@Override
+			public String keyPattern(String keyPrefix)
+			{
+				return keyPrefix + "_*";
+			}
+
+			@Override
+			public String parseKey(String keyPrefix, String redisKey)
+			{
+				String prefix = keyPrefix + "_";
+				return redisKey.startsWith(prefix) ? redisKey.substring(prefix.length()) : null;
+			}
+		};
+	}
+
+	/**
+	 * 前缀作为hash tag：{prefix}_key
+	 * 该operation的所有key在同一个slot中，只适用于数据量较小的operation，否则会形成热点节点
+	 *
+	 * @param <K>
+	 * @return
+	 */
+	static <K> KeyLayout<K> prefixHashTag()
+	{
+		return new KeyLayout<K>()
+		{
+			@Override
+			public String makeKey(String keyPrefix, K key)
+			{
+				return "{" + keyPrefix + "}_" + key;
+			}
+
+			@Override
+			public String keyPattern(String keyPrefix)
+			{
+				return "{" + keyPrefix + "}_*";
+			}
+
+			@Override
+			public String parseKey(String keyPrefix, String redisKey)
+			{
+				String prefix = "{" + keyPrefix + "}_";
+				return redisKey.startsWith(prefix) ? redisKey.substring(prefix.length()) : null;
+			}
+		};
+	}
+
+	/**
+	 * 从key中提取hash tag（例如租户id）：prefix_{tag}_key
+	 * tag相同的key在同一个slot中
+	 *
+	 * @param tagExtractor 从key中提取tag，返回值不能为null
+	 * @param <K>
+	 * @return
+	 */
+	static <K> KeyLayout<K> hashTag(Function<? super K, ?> tagExtractor)
+	{
+		Assert.notNull(tagExtractor, "non null tag extractor required");
+		return new KeyLayout<K>()
+		{
+			@Override
+			public String makeKey(String keyPrefix, K key)
+			{
+				Object tag = tagExtractor.apply(key);
+				Assert.notNull(tag, "non null hash tag required");
+				return keyPrefix + "_{" + tag + "}_" + key;
+			}
+
+			@Override
+			public String keyPattern(String keyPrefix)
+			{
+				return keyPrefix + "_{*";
+			}
+
+			@Override
+			public String parseKey(String keyPrefix, String redisKey)
+			{
+				String prefix = keyPrefix + "_{";
+				if(!redisKey.startsWith(prefix))
+				{
+					return null;
+				}
+				// 与redis一样，hash tag到第一个}为止
+				int end = redisKey.indexOf('}', prefix.length());
+				return end >= 0 && redisKey.startsWith("_", end + 1) ? redisKey.substring(end + 2) : null;
+			}
+		};
+	}
+}
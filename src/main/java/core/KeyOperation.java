@@ -1,5 +1,8 @@
 package core;
 
+import java.util.List;
+import java.util.stream.Stream;
+
 /**
  *
  * @since 2019/4/29
@@ -86,4 +89,26 @@ public interface KeyOperation<K>
 	 */
 	Boolean persist(K key);
 
+	/**
+	 * 以pipeline模式执行callback
+	 * callback中通过当前operation执行的命令不会立即返回结果，而是在同一个pipeline中排队，最后一次性同步
+	 * 例如批量预热缓存时，可以将上千次往返合并为一次
+	 *
+	 * @param callback
+	 * @return 按照命令的顺序返回所有命令的结果，通过当前operation执行的返回value的命令使用valueSerializer反序列化，
+	 * 返回key的命令、callback中直接在connection上执行的命令返回原始结果；执行失败或者反序列化失败的命令在对应位置返回异常对象
+	 */
+	List<Object> executePipelined(RedisCallback<?> callback);
+
+	/**
+	 * 通过SCAN惰性迭代该operation的所有key，代替会阻塞服务器的KEYS
+	 * 迭代期间一直存在的key一定会被返回，同一个key可能被返回多次
+	 * 某一页执行失败时迭代抛出异常，不使用FailurePolicy
+	 * 不能在pipeline中使用
+	 *
+	 * @param count 每次SCAN的COUNT
+	 * @return 调用方的key（{@link KeyLayout#parseKey(String, String)}），例如redis中的prefix_key返回key
+	 */
+	Stream<String> scan(int count);
+
 }
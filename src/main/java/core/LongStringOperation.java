@@ -0,0 +1,159 @@
+package core;
+
+import connection.RedisStringCommands.SetOption;
+import converter.Converters;
+import support.Expiration;
+import util.Assert;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * key和value都是long的string操作，用于计数器等场景
+ *
+ * key和value直接编码为ASCII数字，不装箱也不经过json，存储格式与incr以及
+ * DefaultStringOpreation&lt;Integer, Integer&gt;/&lt;Long, Long&gt;相同，可以互相读写
+ *
+ * 基本类型的返回值无法表示null，key不存在或者执行失败时返回调用方给定的defaultValue
+ *
+ * @since 2019/5/12
+ */
+public class LongStringOperation extends AbstractOperation<Long, Long>
+{
+
+	public LongStringOperation(String keyPrefix, RedisTemplate redisTemplate)
+	{
+		super(keyPrefix, redisTemplate, Long.class, Long.class);
+	}
+
+	/**
+	 * @param key
+	 * @param defaultValue key不存在时的返回值
+	 * @return
+	 */
+	public long get(long key, long defaultValue)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		byte[] ret = execute(conn -> conn.stringCommands().get(rawKey), null);
+		return ret != null ? Converters.parseLong(ret) : defaultValue;
+	}
+
+	/**
+	 * 根据keys中的顺序，返回相应的值
+	 *
+	 * @param keys
+	 * @param defaultValue 不存在的key对应的返回值
+	 * @return
+	 */
+	public long[] mGet(long[] keys, long defaultValue)
+	{
+		if(keys.length == 0)
+		{
+			return new long[0];
+		}
+
+		byte[][] rawKeys = new byte[keys.length][];
+		for(int i = 0; i < keys.length; i++)
+		{
+			rawKeys[i] = longKeyToBytes(keys[i]);
+		}
+
+		List<byte[]> values = execute(conn -> conn.stringCommands().mGet(rawKeys), null);
+		long[] ret = new long[keys.length];
+		for(int i = 0; i < keys.length; i++)
+		{
+			byte[] value = values != null ? values.get(i) : null;
+			ret[i] = value != null ? Converters.parseLong(value) : defaultValue;
+		}
+		return ret;
+	}
+
+	public boolean set(long key, long value)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		byte[] rawValue = Converters.toBytes(value);
+		return execute(conn -> conn.stringCommands().set(rawKey, rawValue), false);
+	}
+
+	public boolean set(long key, long value, long timeout, TimeUnit unit)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		byte[] rawValue = Converters.toBytes(value);
+		Expiration expiration = Expiration.of(timeout, unit);
+		return execute(conn -> conn.stringCommands().set(rawKey, rawValue, expiration, SetOption.NONE), false);
+	}
+
+	public boolean setIfAbsent(long key, long value)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		byte[] rawValue = Converters.toBytes(value);
+		return execute(conn -> conn.stringCommands().setNX(rawKey, rawValue), false);
+	}
+
+	public boolean setIfAbsent(long key, long value, long timeout, TimeUnit unit)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		byte[] rawValue = Converters.toBytes(value);
+		Expiration expiration = Expiration.of(timeout, unit);
+		return execute(conn -> conn.stringCommands().set(rawKey, rawValue, expiration, SetOption.SET_IF_ABSENT), false);
+	}
+
+	/**
+	 * keys[i]的值设置为values[i]
+	 *
+	 * @param keys
+	 * @param values
+	 * @return
+	 */
+	public boolean mSet(long[] keys, long[] values)
+	{
+		Assert.isTrue(keys.length == values.length, "keys and values must have the same length");
+		if(keys.length == 0)
+		{
+			return false;
+		}
+
+		Map<byte[], byte[]> rawMap = new HashMap<>(keys.length * 4 / 3 + 1);
+		for(int i = 0; i < keys.length; i++)
+		{
+			rawMap.put(longKeyToBytes(keys[i]), Converters.toBytes(values[i]));
+		}
+		return execute(conn -> conn.stringCommands().mSet(rawMap), false);
+	}
+
+	/**
+	 * @param key
+	 * @return 自增之后的值，执行失败时返回0
+	 */
+	public long incr(long key)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return execute(conn -> conn.stringCommands().incr(rawKey), 0L);
+	}
+
+	public long incrBy(long key, long delta)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return execute(conn -> conn.stringCommands().incrBy(rawKey, delta), 0L);
+	}
+
+	public long decr(long key)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return execute(conn -> conn.stringCommands().decr(rawKey), 0L);
+	}
+
+	public long decrBy(long key, long delta)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return execute(conn -> conn.stringCommands().decrBy(rawKey, delta), 0L);
+	}
+
+	@Override
+	protected Long deserializeValue(byte[] value)
+	{
+		return value != null && value.length > 0 ? Converters.parseLong(value) : null;
+	}
+}
@@ -0,0 +1,303 @@
+package core;
+
+import converter.Converters;
+import redis.clients.jedis.Tuple;
+import support.LongTuples;
+import support.ScoreRange;
+import util.Assert;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * key和member都是long的sorted set操作，用于排行榜等场景
+ *
+ * key和member直接编码为ASCII数字，不装箱也不经过json，存储格式与DefaultZSetOperation&lt;Integer, Integer&gt;相同
+ * 范围查询返回基本类型数组
+ *
+ * @since 2019/5/12
+ */
+public class LongZSetOperation extends AbstractOperation<Long, Long>
+{
+
+	private static final long[] EMPTY_MEMBERS = new long[0];
+
+	public LongZSetOperation(String keyPrefix, RedisTemplate redisTemplate)
+	{
+		super(keyPrefix, redisTemplate, Long.class, Long.class);
+	}
+
+	public boolean zAdd(long key, double score, long member)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		byte[] rawMember = Converters.toBytes(member);
+		return execute(conn -> conn.zSetCommands().zAdd(rawKey, score, rawMember) == 1, false);
+	}
+
+	/**
+	 * members[i]的score为scores[i]
+	 *
+	 * @param key
+	 * @param members
+	 * @param scores
+	 * @return 新增的member数量，执行失败时返回-1
+	 */
+	public long zAdd(long key, long[] members, double[] scores)
+	{
+		Assert.isTrue(members.length == scores.length, "members and scores must have the same length");
+		if(members.length == 0)
+		{
+			return -1L;
+		}
+
+		byte[] rawKey = longKeyToBytes(key);
+		Set<Tuple> rawTuples = new LinkedHashSet<>(members.length * 4 / 3 + 1);
+		for(int i = 0; i < members.length; i++)
+		{
+			rawTuples.add(new Tuple(Converters.toBytes(members[i]), scores[i]));
+		}
+		return execute(conn -> conn.zSetCommands().zAdd(rawKey, rawTuples), -1L);
+	}
+
+	public boolean remove(long key, long member)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		byte[] rawMember = Converters.toBytes(member);
+		return execute(conn -> conn.zSetCommands().zRem(rawKey, rawMember) == 1, false);
+	}
+
+	public long remove(long key, long[] members)
+	{
+		if(members.length == 0)
+		{
+			return -1L;
+		}
+
+		byte[] rawKey = longKeyToBytes(key);
+		byte[][] rawMembers = new byte[members.length][];
+		for(int i = 0; i < members.length; i++)
+		{
+			rawMembers[i] = Converters.toBytes(members[i]);
+		}
+		return execute(conn -> conn.zSetCommands().zRem(rawKey, rawMembers), -1L);
+	}
+
+	public long zRemRangeByScore(long key, double min, double max)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return execute(conn -> conn.zSetCommands().zRemRangeByScore(rawKey, ScoreRange.builder().gte(min).lte(max)), -1L);
+	}
+
+	public long zRemRangeByRank(long key, long start, long end)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return execute(conn -> conn.zSetCommands().zRemRangeByRank(rawKey, start, end), -1L);
+	}
+
+	/**
+	 * @param key
+	 * @param member
+	 * @return member不存在时返回Double.NaN
+	 */
+	public double zScore(long key, long member)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		byte[] rawMember = Converters.toBytes(member);
+		return execute(conn -> conn.zSetCommands().zScore(rawKey, rawMember), Double.NaN);
+	}
+
+	public double zIncrBy(long key, double increment, long member)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		byte[] rawMember = Converters.toBytes(member);
+		return execute(conn -> conn.zSetCommands().zIncrBy(rawKey, increment, rawMember), Double.MAX_VALUE);
+	}
+
+	public long zCard(long key)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return execute(conn -> conn.zSetCommands().zCard(rawKey), -1L);
+	}
+
+	public long zCount(long key, double min, double max)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return execute(conn -> conn.zSetCommands().zCount(rawKey, min, max), -1L);
+	}
+
+	/**
+	 * base-1，与DefaultZSetOperation一致
+	 *
+	 * @param key
+	 * @param member
+	 * @return member不存在时返回-1
+	 */
+	public long zRank(long key, long member)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		byte[] rawMember = Converters.toBytes(member);
+		return execute(conn -> conn.zSetCommands().zRank(rawKey, rawMember), -2L) + 1;
+	}
+
+	/**
+	 * base-1，与DefaultZSetOperation一致
+	 *
+	 * @param key
+	 * @param member
+	 * @return member不存在时返回-1
+	 */
+	public long zRevRank(long key, long member)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		byte[] rawMember = Converters.toBytes(member);
+		return execute(conn -> conn.zSetCommands().zRevRank(rawKey, rawMember), -2L) + 1;
+	}
+
+	/**
+	 * 添加member，之后只保留score最高的maxSize个member，一次往返原子执行
+	 *
+	 * @param key
+	 * @param score
+	 * @param member
+	 * @param maxSize
+	 * @return member按score从高到低的排名，base-1，member被裁剪掉时返回-1
+	 * @see ZSetOperation#addAndTrim(Object, double, Object, long)
+	 */
+	public long addAndTrim(long key, double score, long member, long maxSize)
+	{
+		Assert.isTrue(maxSize > 0, "max size must be positive");
+		byte[] rawKey = longKeyToBytes(key);
+		return execute(ZSetScripts.ADD_AND_TRIM, Collections.singletonList(rawKey),
+				Arrays.asList(ZSetScripts.scoreToBytes(score), Converters.toBytes(member), Converters.toBytes(maxSize)), -1L);
+	}
+
+	/**
+	 * 对member的score加increment，一次往返原子执行
+	 *
+	 * @param key
+	 * @param increment
+	 * @param member
+	 * @return member按score从高到低的排名，base-1
+	 * @see ZSetOperation#incrementAndGetRank(Object, double, Object)
+	 */
+	public long incrementAndGetRank(long key, double increment, long member)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return execute(ZSetScripts.INCREMENT_AND_GET_RANK, Collections.singletonList(rawKey),
+				Arrays.asList(ZSetScripts.scoreToBytes(increment), Converters.toBytes(member)), -1L);
+	}
+
+	public long[] zRange(long key, long start, long end)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return toMembers(execute(conn -> conn.zSetCommands().zRange(rawKey, start, end), EMPRT_SET));
+	}
+
+	public long[] zRevRange(long key, long start, long end)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return toMembers(execute(conn -> conn.zSetCommands().zRevRange(rawKey, start, end), EMPRT_SET));
+	}
+
+	public long[] zRangeByScore(long key, double min, double max)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return toMembers(execute(conn -> conn.zSetCommands().zRangeByScore(rawKey, min, max), EMPRT_SET));
+	}
+
+	public long[] zRangeByScore(long key, double min, double max, long offset, long count)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return toMembers(execute(conn -> conn.zSetCommands().zRangeByScore(rawKey, min, max, offset, count), EMPRT_SET));
+	}
+
+	public long[] zRevRangeByScore(long key, double min, double max)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return toMembers(execute(conn -> conn.zSetCommands().zRevRangeByScore(rawKey, min, max), EMPRT_SET));
+	}
+
+	public long[] zRevRangeByScore(long key, double min, double max, long offset, long count)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return toMembers(execute(conn -> conn.zSetCommands().zRevRangeByScore(rawKey, min, max, offset, count), EMPRT_SET));
+	}
+
+	public LongTuples zRangeWithScores(long key, long start, long end)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return toTuples(execute(conn -> conn.zSetCommands().zRangeWithScores(rawKey, start, end), null));
+	}
+
+	public LongTuples zRevRangeWithScores(long key, long start, long end)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return toTuples(execute(conn -> conn.zSetCommands().zRevRangeWithScores(rawKey, start, end), null));
+	}
+
+	public LongTuples zRangeByScoreWithScores(long key, double min, double max)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return toTuples(execute(conn -> conn.zSetCommands().zRangeByScoreWithScores(rawKey, min, max), null));
+	}
+
+	public LongTuples zRangeByScoreWithScores(long key, double min, double max, long offset, long count)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return toTuples(execute(conn -> conn.zSetCommands().zRangeByScoreWithScores(rawKey, min, max, offset, count), null));
+	}
+
+	public LongTuples zRevRangeByScoreWithScores(long key, double min, double max)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return toTuples(execute(conn -> conn.zSetCommands().zRevRangeByScoreWithScores(rawKey, min, max), null));
+	}
+
+	public LongTuples zRevRangeByScoreWithScores(long key, double min, double max, long offset, long count)
+	{
+		byte[] rawKey = longKeyToBytes(key);
+		return toTuples(execute(conn -> conn.zSetCommands().zRevRangeByScoreWithScores(rawKey, min, max, offset, count), null));
+	}
+
+	private long[] toMembers(Set<byte[]> source)
+	{
+		if(source.isEmpty())
+		{
+			return EMPTY_MEMBERS;
+		}
+
+		long[] ret = new long[source.size()];
+		int index = 0;
+		for(byte[] member : source)
+		{
+			ret[index++] = Converters.parseLong(member);
+		}
+		return ret;
+	}
+
+	private LongTuples toTuples(Set<Tuple> source)
+	{
+		if(source == null || source.isEmpty())
+		{
+			return LongTuples.EMPTY;
+		}
+
+		long[] members = new long[source.size()];
+		double[] scores = new double[source.size()];
+		int index = 0;
+		for(Tuple tuple : source)
+		{
+			members[index] = Converters.parseLong(tuple.getBinaryElement());
+			scores[index++] = tuple.getScore();
+		}
+		return new LongTuples(members, scores);
+	}
+
+	@Override
+	protected Long deserializeValue(byte[] value)
+	{
+		return value != null && value.length > 0 ? Converters.parseLong(value) : null;
+	}
+}
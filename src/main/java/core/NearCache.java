@@ -0,0 +1,236 @@
+package core;
+
+import util.Assert;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进程内的一级缓存（near cache），保存反序列化之后的value
+ * key为{@link AbstractOperation#makeKey(Object)}生成的带前缀的key
+ *
+ * 1、每个entry的过期时间与写入redis时的过期时间一致，但不会超过maxTtl
+ * 2、超过maxSize时按写入顺序淘汰
+ * 3、读操作不加锁
+ * 4、失效版本按key分段记录，一个key的失效或者写入只会丢弃同一段中正在进行的加载，不影响其他key
+ *
+ * 注意：缓存的value对象会被所有调用方共享，调用方不应该修改返回的对象
+ *
+ * @since 2019/5/9
+ */
+public class NearCache<V>
+{
+
+	private final int maxSize;
+
+	private final long maxTtlNanos;
+
+	private final ConcurrentHashMap<String, Entry<V>> entries;
+
+	/**
+	 * 按写入顺序排列的entry，用于淘汰
+	 * 每次写入都会追加一个节点，map中的每个entry在队列中都有对应的节点，因此map的大小不会超过队列长度
+	 */
+	private final ConcurrentLinkedQueue<Entry<V>> writeOrder = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger writeOrderSize = new AtomicInteger();
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	/**
+	 * 每一段key的失效次数，用于判断从redis读取期间该key是否发生过失效
+	 * 不为每个key单独保存版本，避免为已经删除的key保留记录；不同的key落在同一段时只会多一次miss
+	 */
+	private final AtomicLongArray invalidationStamps;
+
+	private final int stampMask;
+
+	/**
+	 * @param maxSize 最多缓存的key数量
+	 * @param maxTtl  entry的最长存活时间，写入时不知道过期时间或者key永不过期时使用该值
+	 * @param unit
+	 */
+	public NearCache(int maxSize, long maxTtl, TimeUnit unit)
+	{
+		Assert.isTrue(maxSize > 0, "maxSize must be greater than 0");
+		Assert.isTrue(maxTtl > 0, "maxTtl must be greater than 0");
+		Assert.notNull(unit, "non null unit required");
+		this.maxSize = maxSize;
+		this.maxTtlNanos = unit.toNanos(maxTtl);
+		this.entries = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+		// 2的幂，不少于maxSize的2倍，最多64K段
+		int stripes = Integer.highestOneBit(Math.min(maxSize, 1 << 15) * 2 - 1) << 1;
+		this.invalidationStamps = new AtomicLongArray(stripes);
+		this.stampMask = stripes - 1;
+	}
+
+	/**
+	 * @param key
+	 * @return 不存在或已过期时返回null
+	 */
+	public V get(String key)
+	{
+		Entry<V> entry = entries.get(key);
+		if(entry == null)
+		{
+			missCount.increment();
+			return null;
+		}
+
+		if(entry.isExpired(System.nanoTime()))
+		{
+			entries.remove(key, entry);
+			missCount.increment();
+			return null;
+		}
+		hitCount.increment();
+		return entry.value;
+	}
+
+	/**
+	 * 写入本进程刚写到redis的value
+	 * 同时推进该key的失效版本，写入之前已经开始的加载可能读到的是旧value，不能再覆盖这次写入
+	 *
+	 * @param key
+	 * @param value       为null时等同于invalidate
+	 * @param ttlMillis   剩余的过期时间，小于等于0表示未知或永不过期
+	 */
+	public void put(String key, V value, long ttlMillis)
+	{
+		if(value == null)
+		{
+			invalidate(key);
+			return;
+		}
+
+		invalidationStamps.incrementAndGet(stripe(key));
+		doPut(key, value, ttlMillis);
+	}
+
+	/**
+	 * 写入从redis中读取到的value
+	 * 如果读取期间发生过失效（例如收到了其他进程的修改通知），读到的value可能已经过时，此时不写入
+	 *
+	 * @param key
+	 * @param value
+	 * @param ttlMillis
+	 * @param stamp     读取redis之前{@link #getInvalidationStamp(String)}的返回值
+	 */
+	public void putIfNotInvalidated(String key, V value, long ttlMillis, long stamp)
+	{
+		int stripe = stripe(key);
+		if(value == null || invalidationStamps.get(stripe) != stamp)
+		{
+			return;
+		}
+
+		Entry<V> entry = doPut(key, value, ttlMillis);
+		// 写入与检查之间发生的失效可能在写入之前就已经执行了remove
+		if(invalidationStamps.get(stripe) != stamp)
+		{
+			entries.remove(key, entry);
+		}
+	}
+
+	private Entry<V> doPut(String key, V value, long ttlMillis)
+	{
+		long ttlNanos = ttlMillis > 0 ? Math.min(TimeUnit.MILLISECONDS.toNanos(ttlMillis), maxTtlNanos) : maxTtlNanos;
+		Entry<V> entry = new Entry<>(key, value, System.nanoTime() + ttlNanos);
+		entries.put(key, entry);
+		writeOrder.offer(entry);
+		if(writeOrderSize.incrementAndGet() > maxSize)
+		{
+			evict();
+		}
+		return entry;
+	}
+
+	public void invalidate(String key)
+	{
+		invalidationStamps.incrementAndGet(stripe(key));
+		entries.remove(key);
+	}
+
+	/**
+	 * 清空缓存，所有正在进行的加载都不会写入
+	 */
+	public void clear()
+	{
+		for(int i = 0; i < invalidationStamps.length(); i++)
+		{
+			invalidationStamps.incrementAndGet(i);
+		}
+		entries.clear();
+	}
+
+	/**
+	 * @param key
+	 * @return 该key当前的失效版本，从redis读取之前获取
+	 */
+	public long getInvalidationStamp(String key)
+	{
+		return invalidationStamps.get(stripe(key));
+	}
+
+	private int stripe(String key)
+	{
+		int h = key.hashCode();
+		return (h ^ (h >>> 16)) & stampMask;
+	}
+
+	public int size()
+	{
+		return entries.size();
+	}
+
+	public long getHitCount()
+	{
+		return hitCount.sum();
+	}
+
+	public long getMissCount()
+	{
+		return missCount.sum();
+	}
+
+	private void evict()
+	{
+		while(writeOrderSize.get() > maxSize)
+		{
+			Entry<V> eldest = writeOrder.poll();
+			if(eldest == null)
+			{
+				return;
+			}
+			writeOrderSize.decrementAndGet();
+			// 节点对应的entry可能已经被覆盖或删除，此时不影响map中的新entry
+			entries.remove(eldest.key, eldest);
+		}
+	}
+
+
+	private static final class Entry<V>
+	{
+		private final String key;
+		private final V value;
+		private final long expireAtNanos;
+
+		Entry(String key, V value, long expireAtNanos)
+		{
+			this.key = key;
+			this.value = value;
+			this.expireAtNanos = expireAtNanos;
+		}
+
+		boolean isExpired(long now)
+		{
+			return now - expireAtNanos >= 0;
+		}
+	}
+}
@@ -0,0 +1,270 @@
+package core;
+
+import connection.JedisConnectionFactory;
+import metrics.RedisMetrics;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPubSub;
+import util.Assert;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于keyspace notification的本地缓存失效监听
+ *
+ * 使用一个独立的连接订阅__keyspace@db__:<operation的key pattern>，其他进程修改、删除、过期了某个key时，
+ * 从对应前缀的{@link NearCache}中移除该key
+ *
+ * 1、redis需要开启notify-keyspace-events（至少包含K、g、$、x、e），
+ *    可以通过{@link #setConfigureKeyspaceEvents(boolean)}在启动时自动开启
+ * 2、连接断开期间无法收到通知，重新订阅成功后会清空所有注册的本地缓存
+ *    每次断开或订阅失败都会记录在{@link RedisMetrics#recordSubscriptionFailure()}中，最近一次的异常可以通过{@link #getLastError()}获取
+ * 3、当前进程自己的写操作也会收到通知，只会多一次cache miss
+ *
+ * @since 2019/5/10
+ */
+public class NearCacheInvalidationListener implements Closeable
+{
+
+	/**
+	 * 本地缓存依赖的事件：K keyspace事件，g del/expire等通用命令，$ string命令，x 过期，e 淘汰
+	 */
+	private static final String REQUIRED_KEYSPACE_EVENTS = "Kg$xe";
+
+	private static final String NOTIFY_KEYSPACE_EVENTS = "notify-keyspace-events";
+
+	private static final long RECONNECT_INTERVAL_MILLIS = 1000L;
+
+	private final JedisConnectionFactory connectionFactory;
+
+	/**
+	 * key：订阅的pattern，value：对应前缀的本地缓存
+	 */
+	private final Map<String, NearCache<?>> caches = new ConcurrentHashMap<>();
+
+	private final String channelPrefix;
+
+	private boolean configureKeyspaceEvents;
+
+	private volatile boolean running;
+
+	private volatile boolean subscribed;
+
+	private volatile Jedis jedis;
+
+	private volatile InvalidationPubSub pubSub;
+
+	private volatile Exception lastError;
+
+	private Thread thread;
+
+	public NearCacheInvalidationListener(JedisConnectionFactory connectionFactory)
+	{
+		Assert.notNull(connectionFactory, "non null connection factory required");
+		// 集群模式下keyspace notification只在key所在的节点上发布
+		Assert.isTrue(!connectionFactory.isUsingCluster(), "cluster mode is not supported");
+		this.connectionFactory = connectionFactory;
+		this.channelPrefix = "__keyspace@" + connectionFactory.getClientConfiguration().getDatabase() + "__:";
+	}
+
+	/**
+	 * 注册一个开启了本地缓存的operation，需要在{@link #start()}之前调用
+	 *
+	 * @param operation
+	 */
+	public void register(DefaultStringOpreation<?, ?> operation)
+	{
+		Assert.notNull(operation, "non null operation required");
+		Assert.notNull(operation.getNearCache(), "near cache of operation is not enabled");
+		register(operation.keyPattern(), operation.getNearCache());
+	}
+
+	/**
+	 * @param keyPattern 匹配operation所有key的glob pattern，例如prefix_*
+	 * @param cache
+	 */
+	public void register(String keyPattern, NearCache<?> cache)
+	{
+		Assert.notNull(keyPattern, "non null key pattern required");
+		Assert.notNull(cache, "non null cache required");
+		Assert.isTrue(!running, "listener is already started");
+		caches.put(channelPrefix + keyPattern, cache);
+	}
+
+	/**
+	 * 启动时是否通过CONFIG SET开启所需的keyspace事件，默认为false
+	 * 托管的redis服务通常禁用了CONFIG命令，此时需要在服务端配置
+	 *
+	 * @param configureKeyspaceEvents
+	 */
+	public void setConfigureKeyspaceEvents(boolean configureKeyspaceEvents)
+	{
+		this.configureKeyspaceEvents = configureKeyspaceEvents;
+	}
+
+	/**
+	 * 启动订阅线程
+	 */
+	public synchronized void start()
+	{
+		Assert.isTrue(!caches.isEmpty(), "no near cache registered");
+		if(running)
+		{
+			return;
+		}
+
+		running = true;
+		thread = new Thread(this::run, "redis-near-cache-invalidation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * 是否已经成功订阅，未订阅期间本地缓存可能是过时的
+	 *
+	 * @return
+	 */
+	public boolean isSubscribed()
+	{
+		return subscribed;
+	}
+
+	/**
+	 * @return 最近一次订阅失败或者连接断开的异常，没有发生过时为null
+	 */
+	public Exception getLastError()
+	{
+		return lastError;
+	}
+
+	@Override
+	public synchronized void close()
+	{
+		if(!running)
+		{
+			return;
+		}
+
+		running = false;
+		InvalidationPubSub current = pubSub;
+		if(current != null && current.isSubscribed())
+		{
+			current.punsubscribe();
+		}
+		Jedis connection = jedis;
+		if(connection != null)
+		{
+			connection.close();
+		}
+		thread.interrupt();
+	}
+
+	private void run()
+	{
+		while(running)
+		{
+			try(Jedis connection = connectionFactory.createSubscriptionConnection())
+			{
+				jedis = connection;
+				if(configureKeyspaceEvents)
+				{
+					configureKeyspaceEvents(connection);
+				}
+				pubSub = new InvalidationPubSub();
+				// 阻塞直到取消订阅或连接断开
+				connection.psubscribe(pubSub, caches.keySet().toArray(new String[0]));
+			}
+			catch(Exception e)
+			{
+				// close()主动关闭连接时的异常不计入
+				if(running)
+				{
+					lastError = e;
+					connectionFactory.getMetrics().recordSubscriptionFailure();
+				}
+			}
+			finally
+			{
+				subscribed = false;
+				jedis = null;
+			}
+
+			if(running)
+			{
+				// 断开期间可能错过了通知
+				clearAll();
+				sleepBeforeReconnect();
+			}
+		}
+		clearAll();
+	}
+
+	private void configureKeyspaceEvents(Jedis connection)
+	{
+		List<String> config = connection.configGet(NOTIFY_KEYSPACE_EVENTS);
+		String current = config.size() > 1 ? config.get(1) : "";
+		StringBuilder events = new StringBuilder(current);
+		boolean all = current.indexOf('A') >= 0;
+		for(char event : REQUIRED_KEYSPACE_EVENTS.toCharArray())
+		{
+			// A包含了g、$、x、e等所有类型的事件
+			if(current.indexOf(event) < 0 && !(all && event != 'K'))
+			{
+				events.append(event);
+			}
+		}
+		if(events.length() != current.length())
+		{
+			connection.configSet(NOTIFY_KEYSPACE_EVENTS, events.toString());
+		}
+	}
+
+	private void sleepBeforeReconnect()
+	{
+		try
+		{
+			TimeUnit.MILLISECONDS.sleep(RECONNECT_INTERVAL_MILLIS);
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void clearAll()
+	{
+		for(NearCache<?> cache : caches.values())
+		{
+			cache.clear();
+		}
+	}
+
+
+	private class InvalidationPubSub extends JedisPubSub
+	{
+
+		@Override
+		public void onPMessage(String pattern, String channel, String message)
+		{
+			NearCache<?> cache = caches.get(pattern);
+			if(cache != null && channel.startsWith(channelPrefix))
+			{
+				cache.invalidate(channel.substring(channelPrefix.length()));
+			}
+		}
+
+		@Override
+		public void onPSubscribe(String pattern, int subscribedChannels)
+		{
+			if(subscribedChannels == caches.size())
+			{
+				// 订阅完成之前读取的value可能已经过时
+				clearAll();
+				subscribed = true;
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package core;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 分页读取的惰性迭代器，内存中只保留当前一页，元素在next时才反序列化
+ *
+ * pageLoader自己记录读取的位置，返回的元素少于pageSize表示已经读完
+ * 某一页执行失败时抛出异常，不使用{@link FailurePolicy}，避免迭代悄悄提前结束
+ *
+ * @param <R> 命令返回的元素
+ * @param <T> 转换之后的元素
+ * @since 2019/5/15
+ */
+final class PageIterator<R, T> implements Iterator<T>
+{
+
+	private final Supplier<? extends Collection<R>> pageLoader;
+
+	private final int pageSize;
+
+	private final Function<R, T> converter;
+
+	private boolean finished;
+
+	private Iterator<R> page = Collections.emptyIterator();
+
+	PageIterator(Supplier<? extends Collection<R>> pageLoader, int pageSize, Function<R, T> converter)
+	{
+		this.pageLoader = pageLoader;
+		this.pageSize = pageSize;
+		this.converter = converter;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		while(!page.hasNext())
+		{
+			if(finished)
+			{
+				return false;
+			}
+			Collection<R> ret = pageLoader.get();
+			page = ret.iterator();
+			finished = ret.size() < pageSize;
+		}
+		return true;
+	}
+
+	@Override
+	public T next()
+	{
+		if(!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+		return converter.apply(page.next());
+	}
+
+	Stream<T> stream()
+	{
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false);
+	}
+}
@@ -0,0 +1,270 @@
+package core;
+
+import redis.clients.jedis.ScanResult;
+import support.ScanOptions;
+import util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 并行SCAN一个operation的所有key
+ *
+ * 1、集群模式下每个master节点一个独立的cursor
+ * 2、每个节点上再按cursor的低位拆分为shardsPerNode个分片：SCAN按照cursor反转二进制递增的顺序迭代，
+ *    低k位相同的cursor是迭代顺序中连续的一段，从cursor=分片号开始，返回的cursor低k位变化时该分片结束
+ * 3、所有分片在ForkJoinPool中执行，每一页的结果放入有界队列，消费者跟不上时扫描线程阻塞，不会无限占用内存
+ *
+ * 与单个SCAN一样，迭代期间一直存在的key一定会被返回，同一个key可能被返回多次，
+ * 分片的边界处一次SCAN可能越过分片，此时会有少量重复的key
+ * 使用完之后应该调用{@link #close()}，提前关闭时正在执行的分片在当前页之后停止
+ * 任何一页执行失败时停止所有分片，迭代时抛出该异常，不会悄悄遗漏一部分key
+ *
+ * @since 2019/5/15
+ */
+public final class ParallelKeyScanner implements Iterator<String>, AutoCloseable
+{
+
+	/**
+	 * 一个分片结束的标记
+	 */
+	private static final List<String> SHARD_DONE = new ArrayList<>(0);
+
+	private final AbstractOperation<?, ?> operation;
+
+	private final ScanOptions options;
+
+	private final BlockingQueue<List<String>> queue;
+
+	private final int shardCount;
+
+	private int finishedShards;
+
+	private Iterator<String> page = Collections.emptyIterator();
+
+	private volatile boolean closed;
+
+	private volatile RuntimeException failure;
+
+	/**
+	 * @param operation
+	 * @param count         每次SCAN的COUNT
+	 * @param shardsPerNode 每个节点上的分片数量，必须是2的幂
+	 * @param queueCapacity 队列中最多缓存的页数
+	 * @param pool          执行分片的线程池
+	 */
+	ParallelKeyScanner(AbstractOperation<?, ?> operation, int count, int shardsPerNode, int queueCapacity, ForkJoinPool pool)
+	{
+		Assert.isTrue(count > 0, "count must be positive");
+		Assert.isTrue(shardsPerNode > 0 && shardsPerNode <= 1024 && (shardsPerNode & (shardsPerNode - 1)) == 0,
+				"shards per node must be a power of two and not greater than 1024");
+		Assert.isTrue(queueCapacity > 0, "queue capacity must be positive");
+		Assert.notNull(pool, "non null pool required");
+		this.operation = operation;
+		this.options = ScanOptions.scanOptions().match(operation.keyPattern()).count(count);
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+		// 集群模式下cursor的格式为"节点序号:节点上的cursor"
+		List<String> nodePrefixes = new ArrayList<>();
+		int nodes = operation.redisTemplate.getClusterMasterNodes().size();
+		// 非集群模式，集群模式下无法获取master节点时getClusterMasterNodes已经抛出异常
+		if(nodes == 0)
+		{
+			nodePrefixes.add("");
+		}
+		for(int i = 0; i < nodes; i++)
+		{
+			nodePrefixes.add(i + ":");
+		}
+
+		this.shardCount = nodePrefixes.size() * shardsPerNode;
+		for(String nodePrefix : nodePrefixes)
+		{
+			for(int shard = 0; shard < shardsPerNode; shard++)
+			{
+				long pattern = shard;
+				long mask = shardsPerNode - 1;
+				pool.execute(() -> scanShard(nodePrefix, pattern, mask));
+			}
+		}
+	}
+
+	private void scanShard(String nodePrefix, long pattern, long mask)
+	{
+		try
+		{
+			String cursor = nodePrefix + pattern;
+			while(!closed)
+			{
+				byte[] rawCursor = cursor.getBytes(StandardCharsets.US_ASCII);
+				ScanResult<byte[]> ret = operation.executeOrThrow(conn -> conn.keyCommands().scan(rawCursor, options));
+
+				List<String> keys = new ArrayList<>(ret.getResult().size());
+				for(byte[] rawKey : ret.getResult())
+				{
+					keys.add(operation.deserializeKey(rawKey));
+				}
+				if(!keys.isEmpty())
+				{
+					put(keys);
+				}
+
+				cursor = ret.getCursor();
+				if(ret.isCompleteIteration() || !inShard(cursor, nodePrefix, pattern, mask))
+				{
+					return;
+				}
+			}
+		}
+		catch(RuntimeException e)
+		{
+			failure = e;
+			closed = true;
+			// 其他分片看到closed之后不再入队，清空队列保证结束标记一定能放入，唤醒阻塞在take上的消费者
+			queue.clear();
+			queue.offer(SHARD_DONE);
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		finally
+		{
+			try
+			{
+				put(SHARD_DONE);
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * 返回的cursor是否仍然属于该分片：在同一个节点上并且低位与分片号相同
+	 */
+	private static boolean inShard(String cursor, String nodePrefix, long pattern, long mask)
+	{
+		if(!cursor.startsWith(nodePrefix))
+		{
+			return false;
+		}
+		long value = Long.parseUnsignedLong(cursor.substring(nodePrefix.length()));
+		return value != 0 && (value & mask) == pattern;
+	}
+
+	/**
+	 * 队列满时阻塞，阻塞期间ForkJoinPool可以补充线程
+	 */
+	private void put(List<String> keys) throws InterruptedException
+	{
+		ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker()
+		{
+			private boolean done;
+
+			@Override
+			public boolean block() throws InterruptedException
+			{
+				if(!done)
+				{
+					done = queue.offer(keys, 100, TimeUnit.MILLISECONDS) || closed;
+				}
+				return done;
+			}
+
+			@Override
+			public boolean isReleasable()
+			{
+				return done || (done = closed || queue.offer(keys));
+			}
+		});
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		while(!page.hasNext())
+		{
+			throwIfFailed();
+			if(finishedShards == shardCount || closed)
+			{
+				return false;
+			}
+
+			List<String> next;
+			try
+			{
+				// 定时唤醒，重新检查failure和closed
+				next = queue.poll(100, TimeUnit.MILLISECONDS);
+				if(next == null)
+				{
+					continue;
+				}
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				close();
+				return false;
+			}
+			if(next == SHARD_DONE)
+			{
+				finishedShards++;
+			}
+			page = next.iterator();
+		}
+		return true;
+	}
+
+	private void throwIfFailed()
+	{
+		RuntimeException e = failure;
+		if(e != null)
+		{
+			close();
+			throw e;
+		}
+	}
+
+	@Override
+	public String next()
+	{
+		if(!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+		return page.next();
+	}
+
+	/**
+	 * @return 关闭stream时同时关闭scanner
+	 */
+	public Stream<String> stream()
+	{
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.NONNULL), false)
+				.onClose(this::close);
+	}
+
+	/**
+	 * 停止所有分片，正在等待队列的扫描线程立即返回
+	 */
+	@Override
+	public void close()
+	{
+		closed = true;
+		queue.clear();
+	}
+}
@@ -0,0 +1,191 @@
+package core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * 通过GETRANGE分块读取一个string value，内存中最多只保留一个块
+ *
+ * 第一次读取时在一次往返中执行STRLEN和第一个块的GETRANGE，之后每个块一次往返
+ * 分块读取不是原子的，读取过程中value变短或者被删除时抛出IOException
+ * 只比较长度，value被替换为等长的新value时无法发现，读到的是新旧value拼接的结果
+ *
+ * @since 2019/5/13
+ */
+class RangeInputStream extends InputStream
+{
+
+	private final RedisTemplate redisTemplate;
+
+	private final byte[] rawKey;
+
+	private final int chunkSize;
+
+	/**
+	 * value的总长度，-1表示还没有读取
+	 */
+	private long length = -1L;
+
+	/**
+	 * 下一个块在value中的起始位置
+	 */
+	private long nextOffset;
+
+	private byte[] chunk;
+
+	private int chunkPos;
+
+	RangeInputStream(RedisTemplate redisTemplate, byte[] rawKey, int chunkSize)
+	{
+		this.redisTemplate = redisTemplate;
+		this.rawKey = rawKey;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * value的总字节数，key不存在时为0
+	 *
+	 * @return
+	 * @throws IOException
+	 */
+	long length() throws IOException
+	{
+		if(length < 0)
+		{
+			open();
+		}
+		return length;
+	}
+
+	private void open() throws IOException
+	{
+		long end = chunkSize - 1;
+		List<Object> ret = redisTemplate.executePipelined(conn -> {
+			conn.stringCommands().strLen(rawKey);
+			conn.stringCommands().getRange(rawKey, 0, end);
+			return null;
+		});
+		if(ret.size() != 2 || !(ret.get(0) instanceof Long) || !(ret.get(1) instanceof byte[]))
+		{
+			throw new IOException("could not read value length");
+		}
+
+		length = (Long) ret.get(0);
+		chunk = (byte[]) ret.get(1);
+		chunkPos = 0;
+		nextOffset = chunk.length;
+		// 两条命令之间value可能被修改
+		if(chunk.length != Math.min(length, chunkSize))
+		{
+			throw new IOException("value modified during read");
+		}
+	}
+
+	/**
+	 * @return 当前块是否还有数据
+	 */
+	private boolean fill() throws IOException
+	{
+		if(length < 0)
+		{
+			open();
+		}
+		if(chunkPos < chunk.length)
+		{
+			return true;
+		}
+		if(nextOffset >= length)
+		{
+			return false;
+		}
+
+		long start = nextOffset;
+		long end = Math.min(start + chunkSize, length) - 1;
+		byte[] ret = redisTemplate.execute(conn -> conn.stringCommands().getRange(rawKey, start, end), null);
+		if(ret == null)
+		{
+			throw new IOException("could not read range [" + start + ", " + end + "]");
+		}
+		if(ret.length != end - start + 1)
+		{
+			throw new IOException("value modified during read");
+		}
+		chunk = ret;
+		chunkPos = 0;
+		nextOffset = end + 1;
+		return true;
+	}
+
+	@Override
+	public int read() throws IOException
+	{
+		return fill() ? chunk[chunkPos++] & 0xFF : -1;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException
+	{
+		if(len == 0)
+		{
+			return 0;
+		}
+		if(!fill())
+		{
+			return -1;
+		}
+
+		int n = Math.min(len, chunk.length - chunkPos);
+		System.arraycopy(chunk, chunkPos, b, off, n);
+		chunkPos += n;
+		return n;
+	}
+
+	@Override
+	public int available() throws IOException
+	{
+		return chunk != null ? chunk.length - chunkPos : 0;
+	}
+
+	/**
+	 * 将剩余的数据全部写入out，块直接写出不再复制
+	 *
+	 * @param out
+	 * @return 写入的字节数
+	 * @throws IOException
+	 */
+	long writeTo(OutputStream out) throws IOException
+	{
+		long ret = 0;
+		while(fill())
+		{
+			int n = chunk.length - chunkPos;
+			out.write(chunk, chunkPos, n);
+			chunkPos += n;
+			ret += n;
+		}
+		return ret;
+	}
+
+	/**
+	 * 读取数据直到buffer写满或者value读完
+	 *
+	 * @param buffer
+	 * @return 写入的字节数
+	 * @throws IOException
+	 */
+	long readInto(ByteBuffer buffer) throws IOException
+	{
+		long ret = 0;
+		while(buffer.hasRemaining() && fill())
+		{
+			int n = Math.min(buffer.remaining(), chunk.length - chunkPos);
+			buffer.put(chunk, chunkPos, n);
+			chunkPos += n;
+			ret += n;
+		}
+		return ret;
+	}
+}
@@ -1,8 +1,28 @@
 package core;
 
 
+import connection.CircuitBreaker;
+import connection.JedisClientConfiguration;
+import connection.InstrumentedConnection;
 import connection.JedisConnectionFactory;
+import connection.RedisClusterConnection;
 import connection.RedisConnection;
+import connection.RedisScriptingCommands;
+import converter.Converter;
+import metrics.RedisMetrics;
+import redis.clients.jedis.Tuple;
+import redis.clients.jedis.exceptions.JedisDataException;
+import support.DefaultTypedTuple;
+import support.RedisScript;
+import util.Assert;
+
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -10,36 +30,550 @@ import connection.RedisConnection;
  */
 public class RedisTemplate
 {
+	/**
+	 * 异步operation线程池的队列长度
+	 */
+	private static final int ASYNC_QUEUE_CAPACITY = 1024;
+
 	private final JedisConnectionFactory connectionFactory;
 
+	private volatile ExecutorService asyncExecutor;
+
+	/**
+	 * 当前线程正在执行的pipeline
+	 * executePipelined的callback中，所有execute都在该pipeline的连接上排队
+	 */
+	private final ThreadLocal<Pipelined> pipelined = new ThreadLocal<>();
+
+	private final RedisMetrics metrics;
+
+	private volatile FailurePolicy failurePolicy = FailurePolicy.RETURN_DEFAULT;
+
+	/**
+	 * 开启命令耗时记录时，当前线程复用的连接装饰器
+	 */
+	private final ThreadLocal<InstrumentedConnection> instrumentedConnection = ThreadLocal.withInitial(InstrumentedConnection::new);
+
 	public RedisTemplate(JedisConnectionFactory connectionFactory)
 	{
 		this.connectionFactory = connectionFactory;
+		this.metrics = connectionFactory.getMetrics();
+	}
+
+	/**
+	 * 连接池和命令执行的指标
+	 *
+	 * @return
+	 * @see RedisMetrics#snapshot()
+	 */
+	public RedisMetrics getMetrics()
+	{
+		return metrics;
 	}
 
 	public <T> T execute(RedisCallback<T> action, T defaultValue)
 	{
-		RedisConnection connection = null;
+		return execute(action, defaultValue, null);
+	}
+
+	/**
+	 * @param action
+	 * @param defaultValue
+	 * @param keyPrefix    开启命令耗时记录时，callback中的命令记录在该前缀下，为null时记录在""下
+	 * @param <T>
+	 * @return
+	 * @see RedisMetrics#setCommandLatencyEnabled(boolean)
+	 */
+	public <T> T execute(RedisCallback<T> action, T defaultValue, String keyPrefix)
+	{
+		return execute(action, defaultValue, keyPrefix, null, failurePolicy);
+	}
+
+	/**
+	 * 在executePipelined的callback中执行时，action排队的命令的结果使用valueConverter转换，
+	 * 只应该用于返回value的命令，返回key、value片段以及脚本结果的命令使用{@link #execute(RedisCallback, Object, String)}
+	 *
+	 * @param action
+	 * @param defaultValue
+	 * @param keyPrefix
+	 * @param valueConverter 用于转换pipeline中byte[]类型的结果（包括List、Set中的byte[]元素）
+	 * @param <T>
+	 * @return
+	 */
+	public <T> T execute(RedisCallback<T> action, T defaultValue, String keyPrefix, Converter<byte[], ?> valueConverter)
+	{
+		return execute(action, defaultValue, keyPrefix, valueConverter, failurePolicy);
+	}
+
+	/**
+	 * 执行失败或者熔断时总是抛出异常，不使用设置的FailurePolicy
+	 * 用于SCAN等迭代，失败时返回默认值会让迭代悄悄提前结束
+	 *
+	 * @param action
+	 * @param keyPrefix
+	 * @param <T>
+	 * @return
+	 */
+	public <T> T executeOrThrow(RedisCallback<T> action, String keyPrefix)
+	{
+		return execute(action, null, keyPrefix, null, FailurePolicy.THROW);
+	}
+
+	private <T> T execute(RedisCallback<T> action, T defaultValue, String keyPrefix, Converter<byte[], ?> valueConverter, FailurePolicy failurePolicy)
+	{
+		Pipelined current = pipelined.get();
+		if(current != null)
+		{
+			return executeInPipeline(current, action, defaultValue, valueConverter, failurePolicy);
+		}
+
+		CircuitBreaker circuitBreaker = connectionFactory.getCircuitBreaker();
+		CircuitBreaker.Permit permit = null;
+		if(circuitBreaker != null && (permit = circuitBreaker.tryAcquire()) == null)
+		{
+			metrics.recordRejected();
+			return failurePolicy.onRejected(defaultValue);
+		}
+
+		RedisConnection<?> connection = null;
+		InstrumentedConnection instrumented = null;
+		long start = System.nanoTime();
+		boolean success = false;
+		Exception error = null;
 		try
 		{
-			connection = connectionFactory.getConnection();
-			T ret = action.exec(connection);
+			connection = fetchConnection();
+			if(metrics.isCommandLatencyEnabled())
+			{
+				instrumented = instrument(connection, keyPrefix);
+			}
+			T ret = action.exec(instrumented != null ? instrumented : connection);
+			success = true;
 			return ret != null ? ret : defaultValue;
 		}
 		catch(Exception e)
 		{
-			// TODO 记录日志
-			return defaultValue;
+			error = e;
+			return onFailure(e, defaultValue, failurePolicy);
 		}
 		finally
 		{
+			settle(circuitBreaker, permit, success, error);
+			if(instrumented != null)
+			{
+				instrumented.unbind();
+			}
 			if(connection != null)
 			{
 				connection.close();
 			}
+			metrics.recordExecute(System.nanoTime() - start, success);
+		}
+
+	}
+
+	public <T> T execute(RedisScript<T> script, List<byte[]> keys, List<byte[]> args, T defaultValue)
+	{
+		return execute(script, keys, args, defaultValue, null);
+	}
+
+	/**
+	 * 执行lua脚本，先使用EVALSHA，服务器没有缓存该脚本（NOSCRIPT）时改用EVAL，EVAL之后服务器会缓存该脚本
+	 * pipeline中无法根据结果重试，直接使用EVAL
+	 *
+	 * @param script
+	 * @param keys         脚本中的KEYS，集群模式下必须在同一个slot
+	 * @param args         脚本中的ARGV
+	 * @param defaultValue
+	 * @param keyPrefix    开启命令耗时记录时，脚本记录在该前缀下
+	 * @param <T>
+	 * @return
+	 */
+	public <T> T execute(RedisScript<T> script, List<byte[]> keys, List<byte[]> args, T defaultValue, String keyPrefix)
+	{
+		Assert.notNull(script, "non null script required");
+		Assert.notNull(keys, "non null keys required");
+		Assert.notNull(args, "non null args required");
+		int numKeys = keys.size();
+		byte[][] keysAndArgs = new byte[numKeys + args.size()][];
+		for(int i = 0; i < numKeys; i++)
+		{
+			keysAndArgs[i] = keys.get(i);
+		}
+		for(int i = 0; i < args.size(); i++)
+		{
+			keysAndArgs[numKeys + i] = args.get(i);
+		}
+		return execute(conn -> eval(conn, script, numKeys, keysAndArgs), defaultValue, keyPrefix);
+	}
+
+	private static <T> T eval(RedisConnection<?> connection, RedisScript<T> script, int numKeys, byte[][] keysAndArgs)
+	{
+		RedisScriptingCommands commands = connection.scriptingCommands();
+		if(connection.isPipelined())
+		{
+			return commands.eval(script.getScriptBytes(), script.getReturnType(), numKeys, keysAndArgs);
+		}
+
+		Object ret;
+		try
+		{
+			ret = commands.evalSha(script.getSha1(), script.getReturnType(), numKeys, keysAndArgs);
+		}
+		catch(JedisDataException e)
+		{
+			if(e.getMessage() == null || !e.getMessage().startsWith("NOSCRIPT"))
+			{
+				throw e;
+			}
+			ret = commands.eval(script.getScriptBytes(), script.getReturnType(), numKeys, keysAndArgs);
 		}
+		return script.convertResult(ret);
+	}
 
+	private <T> T onFailure(Exception e, T defaultValue, FailurePolicy failurePolicy)
+	{
+		metrics.recordFailure(e);
+		return failurePolicy.onFailure(e, defaultValue);
 	}
 
+	/**
+	 * 每个permit在finally中结算一次，callback抛出Error时归还permit，避免HALF_OPEN的探测permit泄漏
+	 */
+	private static void settle(CircuitBreaker circuitBreaker, CircuitBreaker.Permit permit, boolean success, Exception error)
+	{
+		if(permit == null)
+		{
+			return;
+		}
+		if(success)
+		{
+			circuitBreaker.onSuccess(permit);
+		}
+		else if(error != null)
+		{
+			circuitBreaker.onError(permit, error);
+		}
+		else
+		{
+			circuitBreaker.release(permit);
+		}
+	}
 
+	/**
+	 * 设置命令执行失败以及熔断时的处理方式，默认返回defaultValue
+	 *
+	 * @param failurePolicy
+	 */
+	public void setFailurePolicy(FailurePolicy failurePolicy)
+	{
+		Assert.notNull(failurePolicy, "non null failure policy required");
+		this.failurePolicy = failurePolicy;
+	}
+
+	/**
+	 * 每个线程复用一个装饰器，callback中嵌套execute时才创建新的装饰器
+	 */
+	private InstrumentedConnection instrument(RedisConnection<?> connection, String keyPrefix)
+	{
+		InstrumentedConnection instrumented = instrumentedConnection.get();
+		if(instrumented.isBound())
+		{
+			instrumented = new InstrumentedConnection();
+		}
+		return instrumented.bind(connection, metrics.getCommandLatency().forPrefix(keyPrefix));
+	}
+
+	/**
+	 * @return 集群模式下所有的master节点（无法获取时抛出异常），非集群模式下为空
+	 * @see RedisClusterConnection#getMasterNodes()
+	 */
+	List<String> getClusterMasterNodes()
+	{
+		if(!connectionFactory.isUsingCluster())
+		{
+			return Collections.emptyList();
+		}
+		RedisClusterConnection<?> connection = connectionFactory.getClusterConnection();
+		try
+		{
+			return connection.getMasterNodes();
+		}
+		finally
+		{
+			connection.close();
+		}
+	}
+
+	/**
+	 * 集群模式下使用集群连接，命令按key的slot路由到对应节点
+	 */
+	private RedisConnection<?> fetchConnection()
+	{
+		return connectionFactory.isUsingCluster() ? connectionFactory.getClusterConnection() : connectionFactory.getConnection();
+	}
+
+	/**
+	 * pipeline模式下命令只是排队，真正的结果在executePipelined的返回值中
+	 * 排队时的异常（例如pipeline中不支持的命令）与普通执行一样记录并交给failurePolicy
+	 */
+	private <T> T executeInPipeline(Pipelined current, RedisCallback<T> action, T defaultValue, Converter<byte[], ?> valueConverter, FailurePolicy failurePolicy)
+	{
+		int start = current.connection.getPipelinedCount();
+		try
+		{
+			T ret = action.exec(current.connection);
+			return ret != null ? ret : defaultValue;
+		}
+		catch(Exception e)
+		{
+			current.failure = e;
+			return onFailure(e, defaultValue, failurePolicy);
+		}
+		finally
+		{
+			if(valueConverter != null)
+			{
+				current.setValueConverter(start, current.connection.getPipelinedCount(), valueConverter);
+			}
+		}
+	}
+
+	/**
+	 * 以pipeline模式执行callback，只使用一个连接，所有命令在最后一次性同步
+	 *
+	 * callback执行期间，当前线程中通过{@link #execute(RedisCallback, Object)}执行的命令（例如operation的方法）
+	 * 也会在同一个pipeline中排队，这些命令的直接返回值为defaultValue，真正的结果在本方法的返回值中
+	 * 通过{@link #execute(RedisCallback, Object, String, Converter)}排队的命令的结果使用其valueConverter转换，其他命令返回原始结果
+	 *
+	 * @param action
+	 * @return 按照命令的顺序返回所有命令的结果，执行失败或者转换失败的命令在对应位置返回异常对象
+	 */
+	public List<Object> executePipelined(RedisCallback<?> action)
+	{
+		CircuitBreaker circuitBreaker = connectionFactory.getCircuitBreaker();
+		CircuitBreaker.Permit permit = null;
+		if(circuitBreaker != null && (permit = circuitBreaker.tryAcquire()) == null)
+		{
+			metrics.recordRejected();
+			return failurePolicy.onRejected(Collections.emptyList());
+		}
+
+		Pipelined previous = pipelined.get();
+		Pipelined current = null;
+		RedisConnection<?> connection = null;
+		boolean success = false;
+		Exception error = null;
+		try
+		{
+			connection = fetchConnection();
+			connection.openPipeline();
+			current = new Pipelined(connection);
+			pipelined.set(current);
+			action.exec(connection);
+			List<Object> results = connection.closePipeline();
+			success = true;
+			return current.convert(results);
+		}
+		catch(Exception e)
+		{
+			error = e;
+			// callback中排队失败、由failurePolicy重新抛出的异常已经记录过
+			if(current != null && e == current.failure)
+			{
+				return failurePolicy.onFailure(e, Collections.emptyList());
+			}
+			return onFailure(e, Collections.emptyList(), failurePolicy);
+		}
+		finally
+		{
+			settle(circuitBreaker, permit, success, error);
+			if(previous != null)
+			{
+				pipelined.set(previous);
+			}
+			else
+			{
+				pipelined.remove();
+			}
+			if(connection != null)
+			{
+				connection.close();
+			}
+		}
+	}
+
+	/**
+	 * 当前线程是否正在executePipelined的callback中
+	 * @return
+	 */
+	public boolean isPipelined()
+	{
+		return pipelined.get() != null;
+	}
+
+	/**
+	 * 异步operation使用的有界线程池
+	 * 线程数与连接池的maxTotal一致，每个线程都能拿到连接而不会在连接池上等待
+	 * 队列满时阻塞调用线程直到队列有空位，对调用方形成背压，任务总是在线程池中执行
+	 *
+	 * @return
+	 */
+	public ExecutorService getAsyncExecutor()
+	{
+		ExecutorService executor = asyncExecutor;
+		if(executor == null)
+		{
+			synchronized(this)
+			{
+				executor = asyncExecutor;
+				if(executor == null)
+				{
+					executor = createAsyncExecutor();
+					asyncExecutor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	private ExecutorService createAsyncExecutor()
+	{
+		JedisClientConfiguration clientConfiguration = connectionFactory.getClientConfiguration();
+		int threads = clientConfiguration.isUsingPool() ? clientConfiguration.getPoolConfig().getMaxTotal() : -1;
+		if(threads <= 0)
+		{
+			threads = Runtime.getRuntime().availableProcessors();
+		}
+
+		AtomicInteger counter = new AtomicInteger();
+		return new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(ASYNC_QUEUE_CAPACITY),
+				runnable -> {
+					Thread thread = new Thread(runnable, "redis-async-" + counter.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				},
+				RedisTemplate::enqueueBlocking);
+	}
+
+	/**
+	 * 异步线程池队列满时的处理
+	 * 不能由调用线程执行（CallerRunsPolicy）：在executePipelined的callback中调用时，任务会进入pipeline排队，future得到的是默认值
+	 */
+	private static void enqueueBlocking(Runnable task, ThreadPoolExecutor executor)
+	{
+		if(executor.isShutdown())
+		{
+			throw new RejectedExecutionException("async executor has been shut down");
+		}
+		try
+		{
+			executor.getQueue().put(task);
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("interrupted while waiting for the async queue", e);
+		}
+	}
+
+	private static Object convertPipelineResult(Object result, Converter<byte[], ?> valueConverter)
+	{
+		if(result instanceof byte[])
+		{
+			return valueConverter.convert((byte[]) result);
+		}
+
+		if(result instanceof List)
+		{
+			List<?> source = (List<?>) result;
+			List<Object> ret = new ArrayList<>(source.size());
+			for(Object element : source)
+			{
+				ret.add(convertPipelineResult(element, valueConverter));
+			}
+			return ret;
+		}
+
+		if(result instanceof Set)
+		{
+			Set<?> source = (Set<?>) result;
+			Set<Object> ret = new LinkedHashSet<>(source.size());
+			for(Object element : source)
+			{
+				ret.add(convertPipelineResult(element, valueConverter));
+			}
+			return ret;
+		}
+
+		if(result instanceof Tuple)
+		{
+			Tuple tuple = (Tuple) result;
+			return new DefaultTypedTuple<>(valueConverter.convert(tuple.getBinaryElement()), tuple.getScore());
+		}
+		return result;
+	}
+
+
+	/**
+	 * 一次executePipelined的连接，以及需要转换结果的命令
+	 */
+	private static final class Pipelined
+	{
+		final RedisConnection<?> connection;
+
+		/**
+		 * key：命令结果的下标
+		 */
+		private final Map<Integer, Converter<byte[], ?>> valueConverters = new HashMap<>();
+
+		/**
+		 * callback中最近一次排队失败的异常，已经记录在metrics中
+		 */
+		Exception failure;
+
+		Pipelined(RedisConnection<?> connection)
+		{
+			this.connection = connection;
+		}
+
+		void setValueConverter(int start, int end, Converter<byte[], ?> valueConverter)
+		{
+			for(int i = start; i < end; i++)
+			{
+				valueConverters.put(i, valueConverter);
+			}
+		}
+
+		/**
+		 * 转换失败时只影响对应的命令，在该位置返回异常对象
+		 */
+		List<Object> convert(List<Object> results)
+		{
+			if(valueConverters.isEmpty())
+			{
+				return results;
+			}
+
+			List<Object> ret = new ArrayList<>(results);
+			for(Map.Entry<Integer, Converter<byte[], ?>> entry : valueConverters.entrySet())
+			{
+				int index = entry.getKey();
+				if(index >= ret.size() || ret.get(index) instanceof Exception)
+				{
+					continue;
+				}
+				try
+				{
+					ret.set(index, convertPipelineResult(ret.get(index), entry.getValue()));
+				}
+				catch(RuntimeException e)
+				{
+					ret.set(index, e);
+				}
+			}
+			return ret;
+		}
+	}
 }
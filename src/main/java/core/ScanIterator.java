@@ -0,0 +1,85 @@
+package core;
+
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 基于SCAN系列命令cursor的惰性迭代器，内存中只保留当前一页
+ *
+ * 只有在当前页遍历完时才请求下一页，调用方停止迭代之后不会再发送命令
+ * 每一页单独获取和归还连接，迭代期间不占用连接
+ * 某一页执行失败时抛出异常，不使用{@link FailurePolicy}，避免迭代悄悄提前结束
+ *
+ * @param <R> 命令返回的元素
+ * @param <T> 转换之后的元素
+ * @since 2019/5/15
+ */
+final class ScanIterator<R, T> implements Iterator<T>
+{
+
+	/**
+	 * 参数为cursor，执行失败时抛出异常
+	 */
+	private final Function<byte[], ScanResult<R>> pageLoader;
+
+	private final Function<R, T> converter;
+
+	private byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+
+	private boolean finished;
+
+	private Iterator<R> page = Collections.emptyIterator();
+
+	ScanIterator(Function<byte[], ScanResult<R>> pageLoader, Function<R, T> converter)
+	{
+		this.pageLoader = pageLoader;
+		this.converter = converter;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		// MATCH在服务器端过滤，可能连续返回空页
+		while(!page.hasNext())
+		{
+			if(finished)
+			{
+				return false;
+			}
+			fetch();
+		}
+		return true;
+	}
+
+	private void fetch()
+	{
+		ScanResult<R> ret = pageLoader.apply(cursor);
+		page = ret.getResult().iterator();
+		cursor = ret.getCursorAsBytes();
+		finished = ret.isCompleteIteration();
+	}
+
+	@Override
+	public T next()
+	{
+		if(!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+		return converter.apply(page.next());
+	}
+
+	Stream<T> stream()
+	{
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false);
+	}
+}
@@ -0,0 +1,67 @@
+package core;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 同一个key同时只有一个正在执行的读取，其他并发的读取等待并共享它的结果
+ *
+ * 只合并正在执行的请求，结果不做缓存，请求完成之后的读取会重新执行
+ *
+ * @since 2019/5/15
+ */
+final class SingleFlight<T>
+{
+
+	/**
+	 * 以raw key的内容作为map的key
+	 */
+	private final ConcurrentHashMap<ByteBuffer, CompletableFuture<T>> calls = new ConcurrentHashMap<>();
+
+	/**
+	 * @param rawKey
+	 * @param loader 实际的读取，同一个key同时只会有一个线程执行
+	 * @return
+	 */
+	T execute(byte[] rawKey, Supplier<T> loader)
+	{
+		ByteBuffer key = ByteBuffer.wrap(rawKey);
+		CompletableFuture<T> call = calls.get(key);
+		if(call == null)
+		{
+			CompletableFuture<T> created = new CompletableFuture<>();
+			call = calls.putIfAbsent(key, created);
+			if(call == null)
+			{
+				try
+				{
+					T ret = loader.get();
+					created.complete(ret);
+					return ret;
+				}
+				catch(Throwable e)
+				{
+					created.completeExceptionally(e);
+					throw e;
+				}
+				finally
+				{
+					calls.remove(key, created);
+				}
+			}
+		}
+
+		try
+		{
+			return call.join();
+		}
+		catch(CompletionException e)
+		{
+			Throwable cause = e.getCause();
+			throw cause instanceof RuntimeException ? (RuntimeException) cause : e;
+		}
+	}
+}
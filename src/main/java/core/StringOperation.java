@@ -4,10 +4,14 @@ import com.sun.org.apache.xpath.internal.operations.Bool;
 import connection.RedisStringCommands.SetOption;
 import support.Expiration;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * @since 2019/4/29
@@ -23,6 +27,55 @@ public interface StringOperation<K, V> extends KeyOperation<K>
 	 */
 	V get(K key);
 
+	/**
+	 * 通过GETRANGE分块读取value并写入out，内存中最多保留一个块，适用于较大的value
+	 * 分块读取不是原子的，只通过长度检测并发修改：读取过程中value变短或者被删除时抛出IOException，
+	 * 但被替换为等长的新value时不会被发现，写入out的可能是新旧value拼接的结果，需要一致性时使用{@link #get(Object)}
+	 *
+	 * @param key
+	 * @param out 调用方负责关闭
+	 * @return value的字节数，如果key不存在 则返回-1
+	 * @throws IOException
+	 */
+	long get(K key, OutputStream out) throws IOException;
+
+	/**
+	 * 分块读取value写入buffer，buffer剩余空间不足时只读取value的前buffer.remaining()个字节
+	 * 与{@link #get(Object, OutputStream)}一样不是原子的，等长的并发修改可能读到新旧value拼接的结果
+	 *
+	 * @param key
+	 * @param buffer
+	 * @return value的总字节数（可能大于写入的字节数），如果key不存在 则返回-1
+	 * @throws IOException
+	 */
+	long get(K key, ByteBuffer buffer) throws IOException;
+
+	/**
+	 * 分块读取并流式反序列化value，json序列化时不需要在内存中保留完整的value
+	 * 不使用本地缓存，与{@link #get(Object, OutputStream)}一样不是原子的，
+	 * 等长的并发修改可能读到新旧value拼接的结果（通常表现为反序列化失败，但不保证）
+	 *
+	 * @param key
+	 * @return 如果key不存在 则返回null
+	 * @throws exception.SerializationException 读取或者解析失败
+	 */
+	V getStreaming(K key);
+
+	/**
+	 * cache-aside读取：key存在时直接返回，不存在时调用loader加载并以ttl写入
+	 *
+	 * 1、通过SET NX的锁保证多个节点中只有一个执行loader，其他调用方等待加载结果，
+	 *    等待超过锁的过期时间时自己执行loader
+	 * 2、剩余过期时间较短时按概率提前刷新（XFetch），越接近过期刷新的概率越高，
+	 *    提前刷新时其他调用方仍然返回旧值
+	 *
+	 * @param key
+	 * @param loader 返回null时不写入redis
+	 * @param ttl    写入的过期时间
+	 * @return loader返回null时返回null
+	 */
+	V getOrLoad(K key, Function<K, V> loader, Expiration ttl);
+
 
 	/**
 	 * 设置指定key的值，返回该ke的旧值（注意：该操作为原子操作）
@@ -242,4 +295,11 @@ public interface StringOperation<K, V> extends KeyOperation<K>
 	 */
 	Long strLen(K key);
 
+
+	/**
+	 * 获取异步版本的operation，命令在有界线程池中执行
+	 * @return
+	 */
+	AsyncStringOperation<K, V> async();
+
 }
@@ -0,0 +1,145 @@
+package core;
+
+import redis.clients.jedis.Tuple;
+import support.TypedTuple;
+import util.Assert;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * 向一个sorted set批量写入大量member
+ *
+ * member按chunkSize分块，每块一条ZADD，避免一条巨大的命令长时间阻塞服务器
+ * 每次pipeline最多发送maxInFlight条ZADD，同步之后再读取下一批，内存中最多保留chunkSize * maxInFlight个member
+ *
+ * 非原子操作：某一批失败时停止写入，之前的批次已经写入
+ *
+ * @since 2019/5/15
+ */
+public final class ZSetBulkLoader<K, V>
+{
+
+	private final AbstractOperation<K, V> operation;
+
+	private int chunkSize = 1000;
+
+	private int maxInFlight = 8;
+
+	private LongConsumer progressListener;
+
+	ZSetBulkLoader(AbstractOperation<K, V> operation)
+	{
+		this.operation = operation;
+	}
+
+	/**
+	 * @param chunkSize 每条ZADD的member数量，默认1000
+	 * @return
+	 */
+	public ZSetBulkLoader<K, V> chunkSize(int chunkSize)
+	{
+		Assert.isTrue(chunkSize > 0, "chunk size must be positive");
+		this.chunkSize = chunkSize;
+		return this;
+	}
+
+	/**
+	 * @param maxInFlight 每次pipeline同步之前最多发送的ZADD数量，默认8
+	 * @return
+	 */
+	public ZSetBulkLoader<K, V> maxInFlight(int maxInFlight)
+	{
+		Assert.isTrue(maxInFlight > 0, "max in flight must be positive");
+		this.maxInFlight = maxInFlight;
+		return this;
+	}
+
+	/**
+	 * @param progressListener 每批写入成功之后调用，参数为已经写入的member数量
+	 * @return
+	 */
+	public ZSetBulkLoader<K, V> onProgress(LongConsumer progressListener)
+	{
+		this.progressListener = progressListener;
+		return this;
+	}
+
+	public long load(K key, Stream<? extends TypedTuple<V>> tuples)
+	{
+		Assert.notNull(tuples, "non null tuples required");
+		return load(key, tuples.iterator());
+	}
+
+	/**
+	 * @param key
+	 * @param tuples member和score，同一个member出现多次时以最后一次的score为准
+	 * @return 新增的member数量（已存在的member只更新score，不计入），执行失败时返回-1
+	 */
+	public long load(K key, Iterator<? extends TypedTuple<V>> tuples)
+	{
+		Assert.notNull(tuples, "non null tuples required");
+		Assert.isTrue(!operation.redisTemplate.isPipelined(), "bulk load is not supported in pipeline");
+		byte[] rawKey = operation.keyToBytes(key);
+		List<Set<Tuple>> batch = new ArrayList<>(maxInFlight);
+		long added = 0;
+		long loaded = 0;
+		while(tuples.hasNext())
+		{
+			batch.clear();
+			int members = 0;
+			while(batch.size() < maxInFlight && tuples.hasNext())
+			{
+				Set<Tuple> chunk = nextChunk(tuples);
+				members += chunk.size();
+				batch.add(chunk);
+			}
+
+			List<Object> ret = operation.redisTemplate.executePipelined(conn -> {
+				for(Set<Tuple> chunk : batch)
+				{
+					conn.zSetCommands().zAdd(rawKey, chunk);
+				}
+				return null;
+			});
+			if(ret.size() != batch.size())
+			{
+				return -1L;
+			}
+			for(Object count : ret)
+			{
+				// WRONGTYPE等错误在pipeline结果中是异常对象
+				if(!(count instanceof Long))
+				{
+					return -1L;
+				}
+				added += (Long) count;
+			}
+
+			loaded += members;
+			if(progressListener != null)
+			{
+				progressListener.accept(loaded);
+			}
+		}
+		return added;
+	}
+
+	private Set<Tuple> nextChunk(Iterator<? extends TypedTuple<V>> tuples)
+	{
+		// 保持输入的顺序，ZADD从左到右处理，同一个member的最后一个score生效；Tuple.equals比较member和score，HashSet会打乱顺序
+		Set<Tuple> ret = new LinkedHashSet<>((int) (chunkSize / 0.75f) + 1);
+		while(ret.size() < chunkSize && tuples.hasNext())
+		{
+			TypedTuple<V> tuple = tuples.next();
+			Assert.notNull(tuple.getScore(), "non null score required");
+			ret.add(new Tuple(operation.valueToBytes(tuple.getValue()), tuple.getScore()));
+		}
+		return ret;
+	}
+}
@@ -10,6 +10,7 @@ import support.TypedTuple;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * @since 2019/4/29
@@ -284,4 +285,92 @@ public interface ZSetOperation<K, V> extends KeyOperation<K>
 	 */
 	Long zRevRank(K key, V member);
 
+	/**
+	 * 添加member，之后只保留score最高的maxSize个member，返回member的排名（排行榜按score从高到低）
+	 * 在一次往返中原子执行ZADD、ZREMRANGEBYRANK、ZREVRANK
+	 *
+	 * @param key
+	 * @param score
+	 * @param member
+	 * @param maxSize 保留的member数量
+	 * @return base-1，与zRevRank一致，member被裁剪掉时返回-1
+	 */
+	Long addAndTrim(K key, double score, V member, long maxSize);
+
+	/**
+	 * 对member的score加increment，返回member的排名（排行榜按score从高到低）
+	 * 在一次往返中原子执行ZINCRBY、ZREVRANK，member不存在时以increment作为score添加
+	 *
+	 * @param key
+	 * @param increment
+	 * @param member
+	 * @return base-1，与zRevRank一致
+	 */
+	Long incrementAndGetRank(K key, double increment, V member);
+
+	/**
+	 * 通过ZSCAN惰性迭代sorted set中的member和score，不按score排序
+	 * 迭代期间一直存在的member一定会被返回，同一个member可能被返回多次
+	 * 不能在pipeline中使用
+	 *
+	 * @param key
+	 * @param count 每次ZSCAN的COUNT
+	 * @return
+	 */
+	Stream<TypedTuple<V>> zScan(K key, int count);
+
+	/**
+	 * 按排名窗口分页惰性迭代[start, end]范围的元素，元素按score从低到高的顺序返回
+	 * 内存中只保留一页，适合遍历很大的范围；start或end为负数时先执行一次ZCARD换算
+	 * 分页读取不是原子的，迭代期间sorted set被修改时元素可能重复或者遗漏
+	 * 某一页执行失败时迭代抛出异常，不使用FailurePolicy
+	 * 不能在pipeline中使用
+	 *
+	 * @param key
+	 * @param start    inclusive
+	 * @param end      inclusive
+	 * @param pageSize 每次ZRANGE读取的元素数量
+	 * @return
+	 */
+	Stream<V> zRangeStream(K key, long start, long end, int pageSize);
+
+	/**
+	 * 分页惰性迭代分数区间[min, max]的元素，元素按score从低到高的顺序返回
+	 * 下一页从上一页最后的score开始读取，每一页的开销不随迭代位置增加
+	 * 某一页执行失败时迭代抛出异常，不使用FailurePolicy
+	 * 不能在pipeline中使用
+	 *
+	 * @param key
+	 * @param min
+	 * @param max
+	 * @param pageSize 每次ZRANGEBYSCORE读取的元素数量
+	 * @return
+	 */
+	Stream<V> zRangeByScoreStream(K key, double min, double max, int pageSize);
+
+	/**
+	 * 同{@link #zRangeByScoreStream(Object, double, double, int)}，同时返回score
+	 *
+	 * @param key
+	 * @param min
+	 * @param max
+	 * @param pageSize
+	 * @return
+	 */
+	Stream<TypedTuple<V>> zRangeByScoreWithScoresStream(K key, double min, double max, int pageSize);
+
+	/**
+	 * 分块pipeline写入大量member，用于加载排行榜等场景
+	 *
+	 * @return 每次调用返回新的loader
+	 * @see ZSetBulkLoader
+	 */
+	ZSetBulkLoader<K, V> bulkLoader();
+
+	/**
+	 * 获取异步版本的operation，命令在有界线程池中执行
+	 * @return
+	 */
+	AsyncZSetOperation<K, V> async();
+
 }
@@ -0,0 +1,57 @@
+package core;
+
+import converter.Converters;
+import support.RedisScript;
+
+/**
+ * sorted set的复合操作脚本，多个命令在一次往返中原子执行
+ * 返回的排名与zRevRank一致：按score从高到低，base-1，member不存在时为-1
+ *
+ * @since 2019/5/15
+ */
+final class ZSetScripts
+{
+
+	/**
+	 * KEYS[1]: key, ARGV[1]: score, ARGV[2]: member, ARGV[3]: maxSize
+	 * 添加之后只保留score最高的maxSize个member
+	 */
+	static final RedisScript<Long> ADD_AND_TRIM = RedisScript.of(
+			"redis.call('zadd', KEYS[1], ARGV[1], ARGV[2]) " +
+			"local size = redis.call('zcard', KEYS[1]) " +
+			"local max = tonumber(ARGV[3]) " +
+			"if size > max then redis.call('zremrangebyrank', KEYS[1], 0, size - max - 1) end " +
+			"local rank = redis.call('zrevrank', KEYS[1], ARGV[2]) " +
+			"if rank then return rank + 1 end " +
+			"return -1", Long.class);
+
+	/**
+	 * KEYS[1]: key, ARGV[1]: increment, ARGV[2]: member
+	 */
+	static final RedisScript<Long> INCREMENT_AND_GET_RANK = RedisScript.of(
+			"redis.call('zincrby', KEYS[1], ARGV[1], ARGV[2]) " +
+			"return redis.call('zrevrank', KEYS[1], ARGV[2]) + 1", Long.class);
+
+	private ZSetScripts()
+	{
+	}
+
+	/**
+	 * score作为脚本参数，无穷大编码为redis可以识别的+inf、-inf
+	 *
+	 * @param score
+	 * @return
+	 */
+	static byte[] scoreToBytes(double score)
+	{
+		if(score == Double.POSITIVE_INFINITY)
+		{
+			return Converters.POSITIVE_INFINITY_BYTES;
+		}
+		if(score == Double.NEGATIVE_INFINITY)
+		{
+			return Converters.NEGATIVE_INFINITY_BYTES;
+		}
+		return Converters.toBytes(score);
+	}
+}
@@ -0,0 +1,15 @@
+package exception;
+
+/**
+ * 熔断器打开时，命令没有发送到redis
+ *
+ * @since 2019/5/14
+ */
+public class RedisUnavailableException extends RuntimeException
+{
+	private static final long serialVersionUID = 1L;
+
+	public RedisUnavailableException(String msg) {
+		super(msg);
+	}
+}
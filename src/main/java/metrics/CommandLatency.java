@@ -0,0 +1,49 @@
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 一个key前缀下每个命令的耗时
+ *
+ * 每个命令的直方图在第一次记录时创建，之后的记录只有一次ConcurrentHashMap查找，不分配内存
+ *
+ * @since 2019/5/14
+ */
+public final class CommandLatency
+{
+
+	private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+	/**
+	 * @param command 命令名，应当使用常量，避免每次生成新的字符串
+	 * @param nanos
+	 */
+	public void record(String command, long nanos)
+	{
+		LatencyHistogram histogram = histograms.get(command);
+		if(histogram == null)
+		{
+			histogram = histograms.computeIfAbsent(command, c -> new LatencyHistogram());
+		}
+		histogram.record(nanos);
+	}
+
+	/**
+	 * @return key：命令名，按字母排序
+	 */
+	public Map<String, HistogramSnapshot> snapshot()
+	{
+		Map<String, HistogramSnapshot> ret = new TreeMap<>();
+		histograms.forEach((command, histogram) -> ret.put(command, histogram.snapshot()));
+		return ret;
+	}
+
+	public Map<String, HistogramSnapshot> snapshotAndReset()
+	{
+		Map<String, HistogramSnapshot> ret = new TreeMap<>();
+		histograms.forEach((command, histogram) -> ret.put(command, histogram.snapshotAndReset()));
+		return ret;
+	}
+}
@@ -0,0 +1,58 @@
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按operation的key前缀分组的命令耗时
+ *
+ * @since 2019/5/14
+ */
+public final class CommandLatencyRegistry
+{
+
+	/**
+	 * 不是通过operation执行的命令使用的分组
+	 */
+	public static final String NO_PREFIX = "";
+
+	private final ConcurrentHashMap<String, CommandLatency> prefixes = new ConcurrentHashMap<>();
+
+	/**
+	 * @param keyPrefix 为null时使用{@link #NO_PREFIX}
+	 * @return
+	 */
+	public CommandLatency forPrefix(String keyPrefix)
+	{
+		String prefix = keyPrefix != null ? keyPrefix : NO_PREFIX;
+		CommandLatency latency = prefixes.get(prefix);
+		if(latency == null)
+		{
+			latency = prefixes.computeIfAbsent(prefix, p -> new CommandLatency());
+		}
+		return latency;
+	}
+
+	/**
+	 * @return key：key前缀，value：每个命令的耗时
+	 */
+	public Map<String, Map<String, HistogramSnapshot>> snapshot()
+	{
+		Map<String, Map<String, HistogramSnapshot>> ret = new TreeMap<>();
+		prefixes.forEach((prefix, latency) -> ret.put(prefix, latency.snapshot()));
+		return ret;
+	}
+
+	/**
+	 * 获取快照并清零所有直方图
+	 *
+	 * @return
+	 */
+	public Map<String, Map<String, HistogramSnapshot>> snapshotAndReset()
+	{
+		Map<String, Map<String, HistogramSnapshot>> ret = new TreeMap<>();
+		prefixes.forEach((prefix, latency) -> ret.put(prefix, latency.snapshotAndReset()));
+		return ret;
+	}
+}
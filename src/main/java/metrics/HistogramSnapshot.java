@@ -0,0 +1,109 @@
+package metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link LatencyHistogram}在某一时刻的只读快照，单位为纳秒
+ *
+ * @since 2019/5/14
+ */
+public final class HistogramSnapshot
+{
+
+	public static final HistogramSnapshot EMPTY = new HistogramSnapshot(new long[LatencyHistogram.BUCKET_COUNT], 0L, 0L);
+
+	private final long[] counts;
+
+	private final long count;
+
+	private final long sum;
+
+	private final long max;
+
+	HistogramSnapshot(long[] counts, long sum, long max)
+	{
+		this.counts = counts;
+		this.sum = sum;
+		this.max = max;
+		long total = 0;
+		for(long c : counts)
+		{
+			total += c;
+		}
+		this.count = total;
+	}
+
+	public long getCount()
+	{
+		return count;
+	}
+
+	public long getMax()
+	{
+		return max;
+	}
+
+	public double getMean()
+	{
+		return count == 0 ? 0.0 : (double) sum / count;
+	}
+
+	/**
+	 * 百分位数对应的值，返回所在桶的上界（不超过max），与HdrHistogram的highestEquivalentValue一致
+	 *
+	 * @param percentile 0-100
+	 * @return 没有记录时返回0
+	 */
+	public long getValueAtPercentile(double percentile)
+	{
+		if(count == 0)
+		{
+			return 0L;
+		}
+
+		double p = Math.min(Math.max(percentile, 0.0), 100.0);
+		long target = Math.max((long) Math.ceil(p / 100.0 * count), 1L);
+		long seen = 0;
+		for(int i = 0; i < counts.length; i++)
+		{
+			seen += counts[i];
+			if(seen >= target)
+			{
+				return Math.min(LatencyHistogram.bucketUpperBound(i), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * 合并两个快照，用于汇总多个直方图
+	 *
+	 * @param other
+	 * @return
+	 */
+	public HistogramSnapshot merge(HistogramSnapshot other)
+	{
+		long[] merged = new long[counts.length];
+		for(int i = 0; i < merged.length; i++)
+		{
+			merged[i] = counts[i] + other.counts[i];
+		}
+		return new HistogramSnapshot(merged, sum + other.sum, Math.max(max, other.max));
+	}
+
+	@Override
+	public String toString()
+	{
+		return "count=" + count
+				+ ", mean=" + toMicros((long) getMean())
+				+ "us, p50=" + toMicros(getValueAtPercentile(50))
+				+ "us, p99=" + toMicros(getValueAtPercentile(99))
+				+ "us, p999=" + toMicros(getValueAtPercentile(99.9))
+				+ "us, max=" + toMicros(max) + "us";
+	}
+
+	private static long toMicros(long nanos)
+	{
+		return TimeUnit.NANOSECONDS.toMicros(nanos);
+	}
+}
@@ -0,0 +1,113 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁的延迟直方图，单位为纳秒
+ *
+ * 采用与HdrHistogram相同的对数-线性分桶：每个2的幂区间再等分为16个子区间，相对误差不超过1/16
+ * 超过2^36纳秒（约68秒）的值都记录在最后一个桶中
+ * 桶的数量固定，记录时不分配内存
+ *
+ * @since 2019/5/14
+ */
+public final class LatencyHistogram
+{
+
+	private static final int SUB_BUCKET_BITS = 4;
+
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	private static final int MAX_EXPONENT = 36;
+
+	static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+
+	private final AtomicLong sum = new AtomicLong();
+
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * @param nanos 小于0时按0记录
+	 */
+	public void record(long nanos)
+	{
+		long value = Math.max(nanos, 0L);
+		buckets.incrementAndGet(bucketIndex(value));
+		sum.addAndGet(value);
+		long current;
+		while(value > (current = max.get()) && !max.compareAndSet(current, value))
+		{
+			// 重试
+		}
+	}
+
+	public HistogramSnapshot snapshot()
+	{
+		long[] counts = new long[BUCKET_COUNT];
+		for(int i = 0; i < BUCKET_COUNT; i++)
+		{
+			counts[i] = buckets.get(i);
+		}
+		return new HistogramSnapshot(counts, sum.get(), max.get());
+	}
+
+	/**
+	 * 获取快照并清零，用于按周期导出
+	 * 与record并发时，每个记录只会出现在一次快照中
+	 *
+	 * @return
+	 */
+	public HistogramSnapshot snapshotAndReset()
+	{
+		long[] counts = new long[BUCKET_COUNT];
+		for(int i = 0; i < BUCKET_COUNT; i++)
+		{
+			counts[i] = buckets.getAndSet(i, 0L);
+		}
+		return new HistogramSnapshot(counts, sum.getAndSet(0L), max.getAndSet(0L));
+	}
+
+	static int bucketIndex(long value)
+	{
+		if(value < SUB_BUCKET_COUNT)
+		{
+			return (int) value;
+		}
+
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if(exponent >= MAX_EXPONENT)
+		{
+			return BUCKET_COUNT - 1;
+		}
+		int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+		return SUB_BUCKET_COUNT + (exponent - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT + sub;
+	}
+
+	/**
+	 * @param index
+	 * @return 桶中的最小值
+	 */
+	static long bucketLowerBound(int index)
+	{
+		if(index < SUB_BUCKET_COUNT)
+		{
+			return index;
+		}
+
+		int exponent = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT + SUB_BUCKET_BITS;
+		int sub = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+		return (1L << exponent) + ((long) sub << (exponent - SUB_BUCKET_BITS));
+	}
+
+	/**
+	 * @param index
+	 * @return 桶中的最大值
+	 */
+	static long bucketUpperBound(int index)
+	{
+		return index == BUCKET_COUNT - 1 ? Long.MAX_VALUE : bucketLowerBound(index + 1) - 1;
+	}
+}
@@ -0,0 +1,111 @@
+package metrics;
+
+import java.util.Map;
+
+/**
+ * {@link RedisMetrics}的快照，可以直接导出到监控系统
+ *
+ * @since 2019/5/14
+ */
+public final class MetricsSnapshot
+{
+
+	private final long timestamp;
+
+	private final PoolSnapshot pool;
+
+	private final HistogramSnapshot execute;
+
+	private final long executeErrorCount;
+
+	private final Map<String, Long> failureCounts;
+
+	private final long rejectedCount;
+
+	private final long subscriptionFailureCount;
+
+	private final Map<String, Map<String, HistogramSnapshot>> commands;
+
+	MetricsSnapshot(long timestamp, PoolSnapshot pool, HistogramSnapshot execute, long executeErrorCount,
+					Map<String, Long> failureCounts, long rejectedCount, long subscriptionFailureCount,
+					Map<String, Map<String, HistogramSnapshot>> commands)
+	{
+		this.failureCounts = failureCounts;
+		this.rejectedCount = rejectedCount;
+		this.subscriptionFailureCount = subscriptionFailureCount;
+		this.commands = commands;
+		this.timestamp = timestamp;
+		this.pool = pool;
+		this.execute = execute;
+		this.executeErrorCount = executeErrorCount;
+	}
+
+	public long getTimestamp()
+	{
+		return timestamp;
+	}
+
+	/**
+	 * @return 连接池指标，不使用连接池时为null
+	 */
+	public PoolSnapshot getPool()
+	{
+		return pool;
+	}
+
+	/**
+	 * @return RedisTemplate.execute的耗时，包括获取连接的时间
+	 */
+	public HistogramSnapshot getExecute()
+	{
+		return execute;
+	}
+
+	/**
+	 * @return RedisTemplate.execute中抛出异常的数量
+	 */
+	public long getExecuteErrorCount()
+	{
+		return executeErrorCount;
+	}
+
+	/**
+	 * @return key：异常类名，value：累计次数
+	 */
+	public Map<String, Long> getFailureCounts()
+	{
+		return failureCounts;
+	}
+
+	/**
+	 * @return 熔断期间没有执行的命令数量
+	 */
+	public long getRejectedCount()
+	{
+		return rejectedCount;
+	}
+
+	/**
+	 * @return 订阅连接断开或者订阅失败的次数，持续增长说明本地缓存收不到失效通知
+	 */
+	public long getSubscriptionFailureCount()
+	{
+		return subscriptionFailureCount;
+	}
+
+	/**
+	 * @return key：operation的key前缀，value：每个命令的耗时，未开启命令耗时记录时为空
+	 * @see RedisMetrics#setCommandLatencyEnabled(boolean)
+	 */
+	public Map<String, Map<String, HistogramSnapshot>> getCommands()
+	{
+		return commands;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "pool={" + pool + "}, execute={" + execute + "}, executeErrors=" + executeErrorCount
+				+ ", failures=" + failureCounts + ", rejected=" + rejectedCount + ", subscriptionFailures=" + subscriptionFailureCount + ", commands=" + commands;
+	}
+}
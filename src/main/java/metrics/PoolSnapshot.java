@@ -0,0 +1,129 @@
+package metrics;
+
+/**
+ * 连接池指标的快照
+ *
+ * 计数器都是累计值，速率通过两次快照计算，例如{@link #getCreatedPerSecond(PoolSnapshot)}
+ *
+ * @since 2019/5/14
+ */
+public final class PoolSnapshot
+{
+
+	private final long timestamp;
+
+	private final int numActive;
+
+	private final int numIdle;
+
+	private final int numWaiters;
+
+	private final long createdCount;
+
+	private final long destroyedCount;
+
+	private final long borrowTimeoutCount;
+
+	private final HistogramSnapshot borrowWait;
+
+	PoolSnapshot(long timestamp, PoolStatistics statistics, long borrowTimeoutCount, HistogramSnapshot borrowWait)
+	{
+		this.timestamp = timestamp;
+		this.numActive = statistics.getNumActive();
+		this.numIdle = statistics.getNumIdle();
+		this.numWaiters = statistics.getNumWaiters();
+		this.createdCount = statistics.getCreatedCount();
+		this.destroyedCount = statistics.getDestroyedCount();
+		this.borrowTimeoutCount = borrowTimeoutCount;
+		this.borrowWait = borrowWait;
+	}
+
+	/**
+	 * @return 快照时间，毫秒
+	 */
+	public long getTimestamp()
+	{
+		return timestamp;
+	}
+
+	public int getNumActive()
+	{
+		return numActive;
+	}
+
+	public int getNumIdle()
+	{
+		return numIdle;
+	}
+
+	public int getNumWaiters()
+	{
+		return numWaiters;
+	}
+
+	public long getCreatedCount()
+	{
+		return createdCount;
+	}
+
+	public long getDestroyedCount()
+	{
+		return destroyedCount;
+	}
+
+	/**
+	 * @return 等待连接超时（连接池耗尽）的次数
+	 */
+	public long getBorrowTimeoutCount()
+	{
+		return borrowTimeoutCount;
+	}
+
+	/**
+	 * @return 获取连接的等待时间
+	 */
+	public HistogramSnapshot getBorrowWait()
+	{
+		return borrowWait;
+	}
+
+	/**
+	 * @param previous 更早的快照
+	 * @return 两次快照之间每秒创建的连接数，无法获取时返回-1
+	 */
+	public double getCreatedPerSecond(PoolSnapshot previous)
+	{
+		return rate(createdCount, previous.createdCount, previous);
+	}
+
+	/**
+	 * @param previous 更早的快照
+	 * @return 两次快照之间每秒销毁的连接数，无法获取时返回-1
+	 */
+	public double getDestroyedPerSecond(PoolSnapshot previous)
+	{
+		return rate(destroyedCount, previous.destroyedCount, previous);
+	}
+
+	private double rate(long current, long before, PoolSnapshot previous)
+	{
+		long elapsed = timestamp - previous.timestamp;
+		if(current < 0 || before < 0 || elapsed <= 0)
+		{
+			return -1.0;
+		}
+		return (current - before) * 1000.0 / elapsed;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "active=" + numActive
+				+ ", idle=" + numIdle
+				+ ", waiters=" + numWaiters
+				+ ", created=" + createdCount
+				+ ", destroyed=" + destroyedCount
+				+ ", borrowTimeouts=" + borrowTimeoutCount
+				+ ", borrowWait={" + borrowWait + "}";
+	}
+}
@@ -0,0 +1,29 @@
+package metrics;
+
+/**
+ * 连接池的实时状态
+ *
+ * @since 2019/5/14
+ */
+public interface PoolStatistics
+{
+
+	int getNumActive();
+
+	int getNumIdle();
+
+	/**
+	 * @return 正在等待连接的线程数
+	 */
+	int getNumWaiters();
+
+	/**
+	 * @return 累计创建的连接数，无法获取时返回-1
+	 */
+	long getCreatedCount();
+
+	/**
+	 * @return 累计销毁的连接数，无法获取时返回-1
+	 */
+	long getDestroyedCount();
+}
@@ -0,0 +1,130 @@
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个连接工厂的运行指标：连接池状态、获取连接的等待时间、命令执行耗时
+ * 所有记录方法都是无锁的，不分配内存
+ *
+ * @since 2019/5/14
+ */
+public class RedisMetrics
+{
+
+	private final LatencyHistogram borrowWait = new LatencyHistogram();
+
+	private final LongAdder borrowTimeouts = new LongAdder();
+
+	private final LatencyHistogram execute = new LatencyHistogram();
+
+	private final LongAdder executeErrors = new LongAdder();
+
+	/**
+	 * key：异常类名
+	 */
+	private final ConcurrentHashMap<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+	private final LongAdder rejected = new LongAdder();
+
+	private final LongAdder subscriptionFailures = new LongAdder();
+
+	private final CommandLatencyRegistry commandLatency = new CommandLatencyRegistry();
+
+	private volatile boolean commandLatencyEnabled;
+
+	private volatile PoolStatistics poolStatistics;
+
+	public void setPoolStatistics(PoolStatistics poolStatistics)
+	{
+		this.poolStatistics = poolStatistics;
+	}
+
+	/**
+	 * 开启之后按operation的key前缀和命令名记录每个命令的耗时，默认关闭
+	 *
+	 * @param commandLatencyEnabled
+	 */
+	public void setCommandLatencyEnabled(boolean commandLatencyEnabled)
+	{
+		this.commandLatencyEnabled = commandLatencyEnabled;
+	}
+
+	public boolean isCommandLatencyEnabled()
+	{
+		return commandLatencyEnabled;
+	}
+
+	public CommandLatencyRegistry getCommandLatency()
+	{
+		return commandLatency;
+	}
+
+	public void recordBorrow(long nanos)
+	{
+		borrowWait.record(nanos);
+	}
+
+	public void recordBorrowTimeout()
+	{
+		borrowTimeouts.increment();
+	}
+
+	/**
+	 * @param nanos
+	 * @param success 为false时表示命令抛出了异常
+	 */
+	public void recordExecute(long nanos, boolean success)
+	{
+		execute.record(nanos);
+		if(!success)
+		{
+			executeErrors.increment();
+		}
+	}
+
+	/**
+	 * 按异常类型记录失败次数
+	 *
+	 * @param e
+	 */
+	public void recordFailure(Throwable e)
+	{
+		String type = e.getClass().getName();
+		LongAdder counter = failures.get(type);
+		if(counter == null)
+		{
+			counter = failures.computeIfAbsent(type, t -> new LongAdder());
+		}
+		counter.increment();
+	}
+
+	/**
+	 * 熔断器拒绝执行的次数
+	 */
+	public void recordRejected()
+	{
+		rejected.increment();
+	}
+
+	/**
+	 * 订阅连接（例如本地缓存的失效通知）断开或者订阅失败的次数
+	 */
+	public void recordSubscriptionFailure()
+	{
+		subscriptionFailures.increment();
+	}
+
+	public MetricsSnapshot snapshot()
+	{
+		long now = System.currentTimeMillis();
+		PoolStatistics statistics = poolStatistics;
+		PoolSnapshot pool = statistics != null ? new PoolSnapshot(now, statistics, borrowTimeouts.sum(), borrowWait.snapshot()) : null;
+		Map<String, Long> failureCounts = new TreeMap<>();
+		failures.forEach((type, counter) -> failureCounts.put(type, counter.sum()));
+		return new MetricsSnapshot(now, pool, execute.snapshot(), executeErrors.sum(), failureCounts, rejected.sum(),
+				subscriptionFailures.sum(), commandLatency.snapshot());
+	}
+}
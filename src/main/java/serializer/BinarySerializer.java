@@ -0,0 +1,927 @@
+package serializer;
+
+import converter.Converters;
+import exception.SerializationException;
+import support.NullValue;
+import util.Assert;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 紧凑的二进制序列化
+ *
+ * 1、每个值以一个类型标记开头，整数使用zigzag变长编码，字符串为长度+UTF-8
+ * 2、自定义类型需要通过{@link #register(int, Class)}注册一个id，序列化结果中只写入id而不是类名
+ * 3、对象按字段写入，不写字段名，字段按类的继承层次、同一个类中按字段名排序；基本类型字段不写类型标记
+ * 4、{@link #TYPED_COLLECTIONS}中的集合写入具体类型，读取时还原为同一个类；其他List、Set、Map读取为ArrayList、LinkedHashSet、LinkedHashMap，
+ *    注册时会检查字段的声明类型，拒绝读取时无法还原的集合类型（例如Stack）
+ *
+ * 字段的增删会改变序列化格式，修改已注册的类之后需要使用新的id注册，或者清理redis中已有的数据
+ * 所有的类需要在使用之前注册，序列化和反序列化两端的注册必须一致
+ *
+ * @since 2019/5/13
+ */
+public class BinarySerializer implements Serializer<Object>
+{
+
+	// 类型标记，都在0x00-0x3F之间
+	private static final byte NULL = 0x00;
+	private static final byte TRUE = 0x01;
+	private static final byte FALSE = 0x02;
+	private static final byte BYTE = 0x03;
+	private static final byte SHORT = 0x04;
+	private static final byte INT = 0x05;
+	private static final byte LONG = 0x06;
+	private static final byte FLOAT = 0x07;
+	private static final byte DOUBLE = 0x08;
+	private static final byte CHAR = 0x09;
+	private static final byte STRING = 0x0A;
+	private static final byte BYTES = 0x0B;
+	private static final byte LIST = 0x0C;
+	private static final byte SET = 0x0D;
+	private static final byte MAP = 0x0E;
+	private static final byte OBJECT = 0x0F;
+	private static final byte ENUM = 0x10;
+	private static final byte DATE = 0x11;
+	private static final byte NULL_VALUE = 0x12;
+	private static final byte TYPED_COLLECTION = 0x13;
+
+	/**
+	 * 保留具体类型的集合，数组下标作为类型id写入序列化结果，只能在末尾追加
+	 * 有序集合只支持自然顺序，comparator不会被序列化
+	 */
+	private static final Class<?>[] TYPED_COLLECTIONS = {
+			LinkedList.class, ArrayDeque.class, TreeSet.class, ConcurrentSkipListSet.class, CopyOnWriteArrayList.class,
+			TreeMap.class, ConcurrentHashMap.class, ConcurrentSkipListMap.class
+	};
+
+	private static final Map<Class<?>, Integer> TYPED_COLLECTION_IDS = new HashMap<>();
+
+	/**
+	 * 读取集合时可能创建的类型
+	 */
+	private static final List<Class<?>> READABLE_COLLECTIONS = new ArrayList<>();
+
+	static
+	{
+		for(int i = 0; i < TYPED_COLLECTIONS.length; i++)
+		{
+			TYPED_COLLECTION_IDS.put(TYPED_COLLECTIONS[i], i);
+		}
+		READABLE_COLLECTIONS.add(ArrayList.class);
+		READABLE_COLLECTIONS.add(LinkedHashSet.class);
+		READABLE_COLLECTIONS.add(LinkedHashMap.class);
+		READABLE_COLLECTIONS.addAll(Arrays.asList(TYPED_COLLECTIONS));
+	}
+
+	/**
+	 * 超过该大小的缓冲区不会被线程保留
+	 */
+	private static final int MAX_CACHED_BUFFER = 64 * 1024;
+
+	private static final ThreadLocal<Output> OUTPUT = ThreadLocal.withInitial(Output::new);
+
+	private final Map<Class<?>, ClassInfo> classes = new ConcurrentHashMap<>();
+
+	private final Map<Integer, ClassInfo> ids = new ConcurrentHashMap<>();
+
+	/**
+	 * 注册自定义类型，普通类需要有无参构造函数（可以是private的）
+	 *
+	 * @param id   非负整数，同一个serializer中不能重复
+	 * @param type 普通类或者枚举
+	 * @return
+	 */
+	public BinarySerializer register(int id, Class<?> type)
+	{
+		Assert.isTrue(id >= 0, "class id must not be negative");
+		Assert.notNull(type, "non null class required");
+		Assert.isTrue(!ids.containsKey(id), "class id already registered: " + id);
+		Assert.isTrue(!classes.containsKey(type), "class already registered: " + type.getName());
+
+		ClassInfo info = new ClassInfo(id, type);
+		ids.put(id, info);
+		classes.put(type, info);
+		return this;
+	}
+
+	@Override
+	public byte[] serialize(Object source)
+	{
+		if(source == null)
+		{
+			return GenericJackson2JsonRedisSerializer.EMPTY_ARRAY;
+		}
+
+		Output out = OUTPUT.get();
+		out.pos = 0;
+		try
+		{
+			writeValue(out, source);
+			return Arrays.copyOf(out.buf, out.pos);
+		}
+		catch(SerializationException e)
+		{
+			throw e;
+		}
+		catch(Exception e)
+		{
+			throw new SerializationException("Could not write binary: " + e.getMessage(), e);
+		}
+		finally
+		{
+			if(out.buf.length > MAX_CACHED_BUFFER)
+			{
+				OUTPUT.remove();
+			}
+		}
+	}
+
+	@Override
+	public Object deserialize(byte[] source)
+	{
+		return deserialize(source, Object.class);
+	}
+
+	@Override
+	public <V> Object deserialize(byte[] source, Class<V> type)
+	{
+		Assert.notNull(type, "Deserialization type must not be null! Please provide Object.class for untyped values.");
+		if(source == null || source.length == 0)
+		{
+			return null;
+		}
+
+		Input in = new Input(source);
+		Object ret;
+		try
+		{
+			ret = readValue(in);
+		}
+		catch(SerializationException e)
+		{
+			throw e;
+		}
+		catch(Exception e)
+		{
+			throw new SerializationException("Could not read binary: " + e.getMessage(), e);
+		}
+
+		if(in.pos != source.length)
+		{
+			throw new SerializationException("Could not read binary: " + (source.length - in.pos) + " trailing bytes");
+		}
+		if(ret != null && ret != NullValue.INSTANCE && !type.isInstance(ret))
+		{
+			throw new SerializationException("Could not read binary: expected " + type.getName() + " but was " + ret.getClass().getName());
+		}
+		return ret;
+	}
+
+	private void writeValue(Output out, Object value) throws IllegalAccessException
+	{
+		if(value == null)
+		{
+			out.writeByte(NULL);
+			return;
+		}
+
+		Class<?> type = value.getClass();
+		if(type == String.class)
+		{
+			out.writeByte(STRING);
+			out.writeString((String) value);
+		}
+		else if(type == Integer.class)
+		{
+			out.writeByte(INT);
+			out.writeVarLong(zigzag((Integer) value));
+		}
+		else if(type == Long.class)
+		{
+			out.writeByte(LONG);
+			out.writeVarLong(zigzag((Long) value));
+		}
+		else if(type == Double.class)
+		{
+			out.writeByte(DOUBLE);
+			out.writeLong(Double.doubleToRawLongBits((Double) value));
+		}
+		else if(type == Boolean.class)
+		{
+			out.writeByte((Boolean) value ? TRUE : FALSE);
+		}
+		else if(type == Float.class)
+		{
+			out.writeByte(FLOAT);
+			out.writeInt(Float.floatToRawIntBits((Float) value));
+		}
+		else if(type == Short.class)
+		{
+			out.writeByte(SHORT);
+			out.writeVarLong(zigzag((Short) value));
+		}
+		else if(type == Byte.class)
+		{
+			out.writeByte(BYTE);
+			out.writeByte((Byte) value);
+		}
+		else if(type == Character.class)
+		{
+			out.writeByte(CHAR);
+			out.writeVarLong((Character) value);
+		}
+		else if(type == byte[].class)
+		{
+			byte[] bytes = (byte[]) value;
+			out.writeByte(BYTES);
+			out.writeVarLong(bytes.length);
+			out.writeBytes(bytes);
+		}
+		else if(type == Date.class)
+		{
+			out.writeByte(DATE);
+			out.writeVarLong(zigzag(((Date) value).getTime()));
+		}
+		else if(value == NullValue.INSTANCE)
+		{
+			out.writeByte(NULL_VALUE);
+		}
+		else
+		{
+			writeComplex(out, value, type);
+		}
+	}
+
+	private void writeComplex(Output out, Object value, Class<?> type) throws IllegalAccessException
+	{
+		if(value instanceof Enum)
+		{
+			type = ((Enum<?>) value).getDeclaringClass();
+		}
+
+		ClassInfo info = classes.get(type);
+		if(info != null)
+		{
+			if(info.enumConstants != null)
+			{
+				out.writeByte(ENUM);
+				out.writeVarLong(info.id);
+				out.writeVarLong(((Enum<?>) value).ordinal());
+				return;
+			}
+
+			out.writeByte(OBJECT);
+			out.writeVarLong(info.id);
+			for(FieldCodec field : info.fields)
+			{
+				field.write(this, out, value);
+			}
+		}
+		else if(TYPED_COLLECTION_IDS.containsKey(type))
+		{
+			writeTypedCollection(out, value, type);
+		}
+		else if(value instanceof List)
+		{
+			out.writeByte(LIST);
+			writeElements(out, (List<?>) value);
+		}
+		else if(value instanceof Set)
+		{
+			out.writeByte(SET);
+			writeElements(out, (Set<?>) value);
+		}
+		else if(value instanceof Map)
+		{
+			out.writeByte(MAP);
+			writeEntries(out, (Map<?, ?>) value);
+		}
+		else
+		{
+			throw new SerializationException("Could not write binary: class not registered: " + type.getName());
+		}
+	}
+
+	private void writeTypedCollection(Output out, Object value, Class<?> type) throws IllegalAccessException
+	{
+		if((value instanceof SortedSet && ((SortedSet<?>) value).comparator() != null)
+				|| (value instanceof SortedMap && ((SortedMap<?, ?>) value).comparator() != null))
+		{
+			throw new SerializationException("Could not write binary: comparator of " + type.getName() + " can not be serialized");
+		}
+
+		out.writeByte(TYPED_COLLECTION);
+		out.writeVarLong(TYPED_COLLECTION_IDS.get(type));
+		if(value instanceof Map)
+		{
+			writeEntries(out, (Map<?, ?>) value);
+		}
+		else
+		{
+			writeElements(out, (Collection<?>) value);
+		}
+	}
+
+	private void writeElements(Output out, Collection<?> values) throws IllegalAccessException
+	{
+		out.writeVarLong(values.size());
+		for(Object element : values)
+		{
+			writeValue(out, element);
+		}
+	}
+
+	private void writeEntries(Output out, Map<?, ?> map) throws IllegalAccessException
+	{
+		out.writeVarLong(map.size());
+		for(Map.Entry<?, ?> entry : map.entrySet())
+		{
+			writeValue(out, entry.getKey());
+			writeValue(out, entry.getValue());
+		}
+	}
+
+	/**
+	 * @param value
+	 * @return 读取时创建的类型
+	 */
+	private Class<?> readType(Object value)
+	{
+		Class<?> type = value.getClass();
+		if(classes.containsKey(type) || TYPED_COLLECTION_IDS.containsKey(type))
+		{
+			return type;
+		}
+		if(value instanceof List)
+		{
+			return ArrayList.class;
+		}
+		if(value instanceof Set)
+		{
+			return LinkedHashSet.class;
+		}
+		if(value instanceof Map)
+		{
+			return LinkedHashMap.class;
+		}
+		return type;
+	}
+
+	private Object readValue(Input in) throws ReflectiveOperationException
+	{
+		byte tag = in.readByte();
+		switch(tag)
+		{
+			case NULL:
+				return null;
+			case TRUE:
+				return Boolean.TRUE;
+			case FALSE:
+				return Boolean.FALSE;
+			case BYTE:
+				return in.readByte();
+			case SHORT:
+				return (short) unzigzag(in.readVarLong());
+			case INT:
+				return (int) unzigzag(in.readVarLong());
+			case LONG:
+				return unzigzag(in.readVarLong());
+			case FLOAT:
+				return Float.intBitsToFloat(in.readInt());
+			case DOUBLE:
+				return Double.longBitsToDouble(in.readLong());
+			case CHAR:
+				return (char) in.readVarLong();
+			case STRING:
+				return in.readString();
+			case BYTES:
+				return in.readBytes(in.readLength());
+			case LIST:
+			{
+				int size = in.readLength();
+				return readElements(in, new ArrayList<>(size), size);
+			}
+			case SET:
+			{
+				int size = in.readLength();
+				return readElements(in, new LinkedHashSet<>(size * 4 / 3 + 1), size);
+			}
+			case MAP:
+			{
+				int size = in.readLength();
+				return readEntries(in, new LinkedHashMap<>(size * 4 / 3 + 1), size);
+			}
+			case TYPED_COLLECTION:
+				return readTypedCollection(in);
+			case OBJECT:
+			{
+				ClassInfo info = getClassInfo(in);
+				if(info.constructor == null)
+				{
+					throw new SerializationException("Could not read binary: " + info.type.getName() + " is not a plain class");
+				}
+				Object ret = info.constructor.newInstance();
+				for(FieldCodec field : info.fields)
+				{
+					field.read(this, in, ret);
+				}
+				return ret;
+			}
+			case ENUM:
+			{
+				ClassInfo info = getClassInfo(in);
+				int ordinal = (int) in.readVarLong();
+				if(info.enumConstants == null || ordinal >= info.enumConstants.length)
+				{
+					throw new SerializationException("Could not read binary: unknown constant " + ordinal + " of " + info.type.getName());
+				}
+				return info.enumConstants[ordinal];
+			}
+			case DATE:
+				return new Date(unzigzag(in.readVarLong()));
+			case NULL_VALUE:
+				return NullValue.INSTANCE;
+			default:
+				throw new SerializationException("Could not read binary: unknown tag " + tag);
+		}
+	}
+
+	private Collection<Object> readElements(Input in, Collection<Object> ret, int size) throws ReflectiveOperationException
+	{
+		for(int i = 0; i < size; i++)
+		{
+			ret.add(readValue(in));
+		}
+		return ret;
+	}
+
+	private Map<Object, Object> readEntries(Input in, Map<Object, Object> ret, int size) throws ReflectiveOperationException
+	{
+		for(int i = 0; i < size; i++)
+		{
+			Object key = readValue(in);
+			ret.put(key, readValue(in));
+		}
+		return ret;
+	}
+
+	private Object readTypedCollection(Input in) throws ReflectiveOperationException
+	{
+		long id = in.readVarLong();
+		if(id < 0 || id >= TYPED_COLLECTIONS.length)
+		{
+			throw new SerializationException("Could not read binary: unknown collection type " + id);
+		}
+		Class<?> type = TYPED_COLLECTIONS[(int) id];
+		int size = in.readLength();
+		if(type == LinkedList.class)
+		{
+			return readElements(in, new LinkedList<>(), size);
+		}
+		if(type == ArrayDeque.class)
+		{
+			return readElements(in, new ArrayDeque<>(size), size);
+		}
+		if(type == TreeSet.class)
+		{
+			return readElements(in, new TreeSet<>(), size);
+		}
+		if(type == ConcurrentSkipListSet.class)
+		{
+			return readElements(in, new ConcurrentSkipListSet<>(), size);
+		}
+		if(type == CopyOnWriteArrayList.class)
+		{
+			// 逐个add每次都会复制数组
+			return new CopyOnWriteArrayList<>(readElements(in, new ArrayList<>(size), size));
+		}
+		if(type == TreeMap.class)
+		{
+			return readEntries(in, new TreeMap<>(), size);
+		}
+		if(type == ConcurrentHashMap.class)
+		{
+			return readEntries(in, new ConcurrentHashMap<>(size * 4 / 3 + 1), size);
+		}
+		return readEntries(in, new ConcurrentSkipListMap<>(), size);
+	}
+
+	private ClassInfo getClassInfo(Input in)
+	{
+		int id = (int) in.readVarLong();
+		ClassInfo info = ids.get(id);
+		if(info == null)
+		{
+			throw new SerializationException("Could not read binary: class id not registered: " + id);
+		}
+		return info;
+	}
+
+	private static long zigzag(long value)
+	{
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unzigzag(long value)
+	{
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+
+	/**
+	 * 注册的类型
+	 */
+	private static final class ClassInfo
+	{
+		final int id;
+
+		final Class<?> type;
+
+		final Object[] enumConstants;
+
+		final Constructor<?> constructor;
+
+		final FieldCodec[] fields;
+
+		ClassInfo(int id, Class<?> type)
+		{
+			this.id = id;
+			this.type = type;
+			if(type.isEnum())
+			{
+				this.enumConstants = type.getEnumConstants();
+				this.constructor = null;
+				this.fields = new FieldCodec[0];
+				return;
+			}
+
+			this.enumConstants = null;
+			try
+			{
+				this.constructor = type.getDeclaredConstructor();
+				this.constructor.setAccessible(true);
+			}
+			catch(NoSuchMethodException e)
+			{
+				throw new IllegalArgumentException(type.getName() + " has no default constructor", e);
+			}
+
+			List<Class<?>> hierarchy = new ArrayList<>();
+			for(Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass())
+			{
+				hierarchy.add(0, current);
+			}
+
+			List<FieldCodec> codecs = new ArrayList<>();
+			for(Class<?> current : hierarchy)
+			{
+				Field[] declared = current.getDeclaredFields();
+				Arrays.sort(declared, Comparator.comparing(Field::getName));
+				for(Field field : declared)
+				{
+					int modifiers = field.getModifiers();
+					if(Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic())
+					{
+						continue;
+					}
+					checkCollectionField(field);
+					field.setAccessible(true);
+					codecs.add(new FieldCodec(field));
+				}
+			}
+			this.fields = codecs.toArray(new FieldCodec[0]);
+		}
+
+		/**
+		 * 集合类型的字段必须能够接受读取时创建的某一种集合，否则写入的数据无法读回
+		 */
+		private static void checkCollectionField(Field field)
+		{
+			Class<?> fieldType = field.getType();
+			if(!Collection.class.isAssignableFrom(fieldType) && !Map.class.isAssignableFrom(fieldType))
+			{
+				return;
+			}
+			for(Class<?> readable : READABLE_COLLECTIONS)
+			{
+				if(fieldType.isAssignableFrom(readable))
+				{
+					return;
+				}
+			}
+			throw new IllegalArgumentException("unsupported collection type " + fieldType.getName() + " of field "
+					+ field.getDeclaringClass().getName() + "." + field.getName());
+		}
+	}
+
+
+	/**
+	 * 字段的读写，基本类型字段直接读写，不装箱也不写类型标记
+	 */
+	private static final class FieldCodec
+	{
+		private static final int OBJECT_FIELD = 0;
+		private static final int INT_FIELD = 1;
+		private static final int LONG_FIELD = 2;
+		private static final int DOUBLE_FIELD = 3;
+		private static final int BOOLEAN_FIELD = 4;
+		private static final int FLOAT_FIELD = 5;
+		private static final int SHORT_FIELD = 6;
+		private static final int BYTE_FIELD = 7;
+		private static final int CHAR_FIELD = 8;
+
+		final Field field;
+
+		final int kind;
+
+		FieldCodec(Field field)
+		{
+			this.field = field;
+			Class<?> type = field.getType();
+			if(type == int.class)
+			{
+				kind = INT_FIELD;
+			}
+			else if(type == long.class)
+			{
+				kind = LONG_FIELD;
+			}
+			else if(type == double.class)
+			{
+				kind = DOUBLE_FIELD;
+			}
+			else if(type == boolean.class)
+			{
+				kind = BOOLEAN_FIELD;
+			}
+			else if(type == float.class)
+			{
+				kind = FLOAT_FIELD;
+			}
+			else if(type == short.class)
+			{
+				kind = SHORT_FIELD;
+			}
+			else if(type == byte.class)
+			{
+				kind = BYTE_FIELD;
+			}
+			else if(type == char.class)
+			{
+				kind = CHAR_FIELD;
+			}
+			else
+			{
+				kind = OBJECT_FIELD;
+			}
+		}
+
+		void write(BinarySerializer serializer, Output out, Object target) throws IllegalAccessException
+		{
+			switch(kind)
+			{
+				case INT_FIELD:
+					out.writeVarLong(zigzag(field.getInt(target)));
+					break;
+				case LONG_FIELD:
+					out.writeVarLong(zigzag(field.getLong(target)));
+					break;
+				case DOUBLE_FIELD:
+					out.writeLong(Double.doubleToRawLongBits(field.getDouble(target)));
+					break;
+				case BOOLEAN_FIELD:
+					out.writeByte(field.getBoolean(target) ? TRUE : FALSE);
+					break;
+				case FLOAT_FIELD:
+					out.writeInt(Float.floatToRawIntBits(field.getFloat(target)));
+					break;
+				case SHORT_FIELD:
+					out.writeVarLong(zigzag(field.getShort(target)));
+					break;
+				case BYTE_FIELD:
+					out.writeByte(field.getByte(target));
+					break;
+				case CHAR_FIELD:
+					out.writeVarLong(field.getChar(target));
+					break;
+				default:
+					Object value = field.get(target);
+					// List、Set、Map可能被读取为其他类型，在写入时检查，避免写入之后无法读回
+					if((value instanceof Collection || value instanceof Map) && !field.getType().isAssignableFrom(serializer.readType(value)))
+					{
+						throw new SerializationException("Could not write binary: " + value.getClass().getName()
+								+ " would be read as " + serializer.readType(value).getName() + " which can not be assigned to field "
+								+ field.getDeclaringClass().getName() + "." + field.getName());
+					}
+					serializer.writeValue(out, value);
+			}
+		}
+
+		void read(BinarySerializer serializer, Input in, Object target) throws ReflectiveOperationException
+		{
+			switch(kind)
+			{
+				case INT_FIELD:
+					field.setInt(target, (int) unzigzag(in.readVarLong()));
+					break;
+				case LONG_FIELD:
+					field.setLong(target, unzigzag(in.readVarLong()));
+					break;
+				case DOUBLE_FIELD:
+					field.setDouble(target, Double.longBitsToDouble(in.readLong()));
+					break;
+				case BOOLEAN_FIELD:
+					field.setBoolean(target, in.readByte() == TRUE);
+					break;
+				case FLOAT_FIELD:
+					field.setFloat(target, Float.intBitsToFloat(in.readInt()));
+					break;
+				case SHORT_FIELD:
+					field.setShort(target, (short) unzigzag(in.readVarLong()));
+					break;
+				case BYTE_FIELD:
+					field.setByte(target, in.readByte());
+					break;
+				case CHAR_FIELD:
+					field.setChar(target, (char) in.readVarLong());
+					break;
+				default:
+					field.set(target, serializer.readValue(in));
+			}
+		}
+	}
+
+
+	/**
+	 * 可扩容的写缓冲区，每个线程复用一个
+	 */
+	private static final class Output
+	{
+		byte[] buf = new byte[256];
+
+		int pos;
+
+		private void ensure(int size)
+		{
+			if(pos + size > buf.length)
+			{
+				buf = Arrays.copyOf(buf, Math.max(buf.length << 1, pos + size));
+			}
+		}
+
+		void writeByte(byte value)
+		{
+			ensure(1);
+			buf[pos++] = value;
+		}
+
+		void writeBytes(byte[] value)
+		{
+			ensure(value.length);
+			System.arraycopy(value, 0, buf, pos, value.length);
+			pos += value.length;
+		}
+
+		void writeVarLong(long value)
+		{
+			ensure(10);
+			while((value & ~0x7FL) != 0)
+			{
+				buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			buf[pos++] = (byte) value;
+		}
+
+		void writeInt(int value)
+		{
+			ensure(4);
+			buf[pos++] = (byte) (value >>> 24);
+			buf[pos++] = (byte) (value >>> 16);
+			buf[pos++] = (byte) (value >>> 8);
+			buf[pos++] = (byte) value;
+		}
+
+		void writeLong(long value)
+		{
+			ensure(8);
+			for(int shift = 56; shift >= 0; shift -= 8)
+			{
+				buf[pos++] = (byte) (value >>> shift);
+			}
+		}
+
+		void writeString(String value)
+		{
+			int length = Converters.utf8Length(value);
+			writeVarLong(length);
+			ensure(length);
+			pos = Converters.writeUtf8(value, buf, pos);
+		}
+	}
+
+
+	private static final class Input
+	{
+		final byte[] buf;
+
+		int pos;
+
+		Input(byte[] buf)
+		{
+			this.buf = buf;
+		}
+
+		byte readByte()
+		{
+			if(pos >= buf.length)
+			{
+				throw new SerializationException("Could not read binary: unexpected end of input");
+			}
+			return buf[pos++];
+		}
+
+		long readVarLong()
+		{
+			long ret = 0;
+			for(int shift = 0; shift < 64; shift += 7)
+			{
+				byte b = readByte();
+				ret |= (long) (b & 0x7F) << shift;
+				if((b & 0x80) == 0)
+				{
+					return ret;
+				}
+			}
+			throw new SerializationException("Could not read binary: malformed varint");
+		}
+
+		/**
+		 * 读取长度，并检查剩余的字节数，避免损坏的数据导致分配过大的数组
+		 */
+		int readLength()
+		{
+			long length = readVarLong();
+			if(length < 0 || length > buf.length - pos)
+			{
+				throw new SerializationException("Could not read binary: invalid length " + length);
+			}
+			return (int) length;
+		}
+
+		int readInt()
+		{
+			return (readByte() & 0xFF) << 24 | (readByte() & 0xFF) << 16 | (readByte() & 0xFF) << 8 | (readByte() & 0xFF);
+		}
+
+		long readLong()
+		{
+			long ret = 0;
+			for(int i = 0; i < 8; i++)
+			{
+				ret = (ret << 8) | (readByte() & 0xFF);
+			}
+			return ret;
+		}
+
+		byte[] readBytes(int length)
+		{
+			byte[] ret = Arrays.copyOfRange(buf, pos, pos + length);
+			pos += length;
+			return ret;
+		}
+
+		String readString()
+		{
+			int length = readLength();
+			String ret = new String(buf, pos, length, StandardCharsets.UTF_8);
+			pos += length;
+			return ret;
+		}
+	}
+}
@@ -0,0 +1,208 @@
+package serializer;
+
+import exception.SerializationException;
+import util.Assert;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 对较大的序列化结果进行压缩
+ *
+ * 压缩后的格式为：0xC1 + 4字节原始长度 + deflate数据
+ * 0xC1在UTF-8中不会出现，json、{@link BinarySerializer}以及字符串的序列化结果都不会以它开头，
+ * 因此压缩和未压缩的数据可以共存，开启压缩之前写入的value仍然可以读取
+ *
+ * 小于阈值或者压缩之后没有变小的数据原样保存，不增加小value的开销
+ *
+ * @since 2019/5/13
+ */
+public class CompressingSerializer<T> implements Serializer<T>
+{
+
+	static final byte COMPRESSED = (byte) 0xC1;
+
+	private static final int HEADER_LENGTH = 5;
+
+	/**
+	 * deflate的最大压缩比约为1032:1，超过时认为长度已经损坏，避免分配过大的数组
+	 */
+	private static final int MAX_RATIO = 1032;
+
+	private final Serializer<T> delegate;
+
+	private final int threshold;
+
+	private final ThreadLocal<Deflater> deflaters;
+
+	private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+
+	public CompressingSerializer(Serializer<T> delegate, int threshold)
+	{
+		this(delegate, threshold, Deflater.BEST_SPEED);
+	}
+
+	/**
+	 * @param delegate  实际的序列化方式
+	 * @param threshold 序列化结果达到该字节数时才压缩
+	 * @param level     deflate的压缩级别，0-9
+	 */
+	public CompressingSerializer(Serializer<T> delegate, int threshold, int level)
+	{
+		Assert.notNull(delegate, "non null delegate serializer required");
+		Assert.isTrue(threshold > HEADER_LENGTH, "threshold must be greater than " + HEADER_LENGTH);
+		Assert.isTrue(level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION, "invalid compression level: " + level);
+		this.delegate = delegate;
+		this.threshold = threshold;
+		this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level, true));
+	}
+
+	@Override
+	public byte[] serialize(T t)
+	{
+		byte[] raw = delegate.serialize(t);
+		if(raw == null || raw.length < threshold)
+		{
+			return raw;
+		}
+		return compress(raw);
+	}
+
+	@Override
+	public T deserialize(byte[] bytes)
+	{
+		return delegate.deserialize(decompress(bytes));
+	}
+
+	@Override
+	public <V> T deserialize(byte[] bytes, Class<V> type)
+	{
+		return delegate.deserialize(decompress(bytes), type);
+	}
+
+	/**
+	 * 压缩的数据通过InflaterInputStream边解压边交给delegate解析
+	 */
+	@Override
+	public <V> T deserialize(InputStream in, Class<V> type)
+	{
+		PushbackInputStream source = new PushbackInputStream(in, 1);
+		try
+		{
+			int first = source.read();
+			if(first != (COMPRESSED & 0xFF))
+			{
+				if(first != -1)
+				{
+					source.unread(first);
+				}
+				return delegate.deserialize(source, type);
+			}
+
+			// 跳过原始长度
+			new DataInputStream(source).readInt();
+			Inflater inflater = new Inflater(true);
+			try
+			{
+				return delegate.deserialize(new InflaterInputStream(source, inflater), type);
+			}
+			finally
+			{
+				inflater.end();
+			}
+		}
+		catch(IOException e)
+		{
+			throw new SerializationException("Could not decompress: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * 数据是否是压缩格式
+	 *
+	 * @param bytes
+	 * @return
+	 */
+	public static boolean isCompressed(byte[] bytes)
+	{
+		return bytes != null && bytes.length >= HEADER_LENGTH && bytes[0] == COMPRESSED;
+	}
+
+	private byte[] compress(byte[] raw)
+	{
+		Deflater deflater = deflaters.get();
+		// 压缩结果超过原始长度时没有意义，直接返回原始数据
+		byte[] ret = new byte[raw.length];
+		ret[0] = COMPRESSED;
+		ret[1] = (byte) (raw.length >>> 24);
+		ret[2] = (byte) (raw.length >>> 16);
+		ret[3] = (byte) (raw.length >>> 8);
+		ret[4] = (byte) raw.length;
+		try
+		{
+			deflater.setInput(raw);
+			deflater.finish();
+			int length = HEADER_LENGTH;
+			while(!deflater.finished() && length < ret.length)
+			{
+				length += deflater.deflate(ret, length, ret.length - length);
+			}
+			return deflater.finished() ? Arrays.copyOf(ret, length) : raw;
+		}
+		finally
+		{
+			deflater.reset();
+		}
+	}
+
+	private byte[] decompress(byte[] bytes)
+	{
+		if(!isCompressed(bytes))
+		{
+			return bytes;
+		}
+
+		int length = (bytes[1] & 0xFF) << 24 | (bytes[2] & 0xFF) << 16 | (bytes[3] & 0xFF) << 8 | (bytes[4] & 0xFF);
+		if(length < 0 || (long) length > (long) (bytes.length - HEADER_LENGTH) * MAX_RATIO)
+		{
+			throw new SerializationException("Could not decompress: invalid length " + length);
+		}
+
+		Inflater inflater = inflaters.get();
+		byte[] ret = new byte[length];
+		try
+		{
+			inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+			int offset = 0;
+			while(offset < length)
+			{
+				int n = inflater.inflate(ret, offset, length - offset);
+				if(n == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary()))
+				{
+					break;
+				}
+				offset += n;
+			}
+			if(offset != length)
+			{
+				throw new SerializationException("Could not decompress: expected " + length + " bytes but was " + offset);
+			}
+			return ret;
+		}
+		catch(DataFormatException e)
+		{
+			throw new SerializationException("Could not decompress: " + e.getMessage(), e);
+		}
+		finally
+		{
+			inflater.reset();
+		}
+	}
+}
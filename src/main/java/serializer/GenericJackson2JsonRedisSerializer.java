@@ -19,6 +19,7 @@ package serializer;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonTypeInfo.As;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectMapper.DefaultTyping;
@@ -33,6 +34,7 @@ import util.Assert;
 
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * @author Christoph Strobl
@@ -145,6 +147,35 @@ public class GenericJackson2JsonRedisSerializer implements Serializer<Object>
 		}
 	}
 
+	/**
+	 * 使用jackson的流式解析，不需要完整的json字节
+	 *
+	 * @param in   must not be {@literal null}.
+	 * @param type must not be {@literal null}.
+	 * @return {@literal null} for empty stream.
+	 * @throws SerializationException
+	 */
+	@Override
+	public <T> T deserialize(InputStream in, Class<T> type) throws SerializationException
+	{
+		Assert.notNull(in, "InputStream must not be null!");
+		Assert.notNull(type,
+				"Deserialization type must not be null! Pleaes provide Object.class to make use of Jackson2 default typing.");
+
+		try(JsonParser parser = mapper.getFactory().createParser(in))
+		{
+			if(parser.nextToken() == null)
+			{
+				return null;
+			}
+			return mapper.readValue(parser, type);
+		}
+		catch(Exception ex)
+		{
+			throw new SerializationException("Could not read JSON: " + ex.getMessage(), ex);
+		}
+	}
+
 
 	private class NullValueSerializer extends StdSerializer<NullValue>
 	{
@@ -1,5 +1,11 @@
 package serializer;
 
+import exception.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
  * @since 2019/4/29
  */
@@ -11,4 +17,32 @@ public interface Serializer<T>
 	T deserialize(byte[] bytes);
 
 	<V> T deserialize(byte[] bytes, Class<V> type);
+
+	/**
+	 * 从流中反序列化，默认读取全部字节之后调用{@link #deserialize(byte[], Class)}
+	 * 支持流式解析的实现可以覆盖该方法，不在内存中保留完整的字节
+	 *
+	 * @param in   调用方负责关闭
+	 * @param type
+	 * @param <V>
+	 * @return 流为空时返回null
+	 */
+	default <V> T deserialize(InputStream in, Class<V> type)
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buf = new byte[8192];
+		try
+		{
+			int n;
+			while((n = in.read(buf)) != -1)
+			{
+				out.write(buf, 0, n);
+			}
+		}
+		catch(IOException e)
+		{
+			throw new SerializationException("Could not read stream: " + e.getMessage(), e);
+		}
+		return deserialize(out.toByteArray(), type);
+	}
 }
@@ -15,7 +15,7 @@ public class StringSerializer implements Serializer<String>
 	@Override
 	public byte[] serialize(String s)
 	{
-		return s == null ? null : s.getBytes();
+		return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
 	}
 
 	@Override
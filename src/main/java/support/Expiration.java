@@ -108,6 +108,15 @@ public final class Expiration
 		return expirationTime;
 	}
 
+	/**
+	 * 过期时长转换为millseconds
+	 * @return 永久时返回-1
+	 */
+	public long getExpirationTimeInMilliseconds()
+	{
+		return isPersistent() ? -1 : unit.toMillis(expirationTime);
+	}
+
 	public TimeUnit getUnit()
 	{
 		return unit;
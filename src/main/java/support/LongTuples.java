@@ -0,0 +1,52 @@
+package support;
+
+/**
+ * sorted set中member为long的查询结果，member和score分别保存在基本类型数组中
+ * 按照查询的顺序，members[i]的score为scores[i]
+ *
+ * @since 2019/5/12
+ */
+public final class LongTuples
+{
+
+	public static final LongTuples EMPTY = new LongTuples(new long[0], new double[0]);
+
+	private final long[] members;
+
+	private final double[] scores;
+
+	public LongTuples(long[] members, double[] scores)
+	{
+		if(members.length != scores.length)
+		{
+			throw new IllegalArgumentException("members and scores must have the same length");
+		}
+		this.members = members;
+		this.scores = scores;
+	}
+
+	public int size()
+	{
+		return members.length;
+	}
+
+	public long getMember(int index)
+	{
+		return members[index];
+	}
+
+	public double getScore(int index)
+	{
+		return scores[index];
+	}
+
+	public long[] getMembers()
+	{
+		return members;
+	}
+
+	public double[] getScores()
+	{
+		return scores;
+	}
+}
@@ -0,0 +1,106 @@
+package support;
+
+import util.Assert;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * lua脚本，SHA1在本地计算，执行时优先使用EVALSHA，不需要每次发送脚本内容
+ * 脚本不可变，应该作为常量复用
+ *
+ * @param <T> 脚本返回值的类型，Long、Boolean、List、String、byte[]，为null时忽略返回值
+ * @since 2019/5/15
+ * @see core.RedisTemplate#execute(RedisScript, List, List, Object)
+ */
+public final class RedisScript<T>
+{
+
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final String script;
+
+	private final byte[] scriptBytes;
+
+	private final String sha1;
+
+	private final Class<T> resultType;
+
+	private final ReturnType returnType;
+
+	public RedisScript(String script, Class<T> resultType)
+	{
+		Assert.notNull(script, "non null script required");
+		this.script = script;
+		this.scriptBytes = script.getBytes(StandardCharsets.UTF_8);
+		this.sha1 = sha1Hex(scriptBytes);
+		this.resultType = resultType;
+		this.returnType = ReturnType.fromJavaType(resultType);
+	}
+
+	public static <T> RedisScript<T> of(String script, Class<T> resultType)
+	{
+		return new RedisScript<>(script, resultType);
+	}
+
+	/**
+	 * 将按ReturnType转换之后的返回值转换为resultType
+	 * String类型对应{@link ReturnType#STRING}，在连接层已经按UTF-8解码，pipeline中的结果也同样解码
+	 *
+	 * @param result
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public T convertResult(Object result)
+	{
+		return (T) result;
+	}
+
+	private static String sha1Hex(byte[] source)
+	{
+		byte[] digest;
+		try
+		{
+			digest = MessageDigest.getInstance("SHA-1").digest(source);
+		}
+		catch(NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException("SHA-1 not supported", e);
+		}
+
+		char[] ret = new char[digest.length * 2];
+		for(int i = 0; i < digest.length; i++)
+		{
+			ret[i * 2] = HEX[(digest[i] >> 4) & 0x0F];
+			ret[i * 2 + 1] = HEX[digest[i] & 0x0F];
+		}
+		return new String(ret);
+	}
+
+	public String getScript()
+	{
+		return script;
+	}
+
+	public byte[] getScriptBytes()
+	{
+		return scriptBytes;
+	}
+
+	public String getSha1()
+	{
+		return sha1;
+	}
+
+	public Class<T> getResultType()
+	{
+		return resultType;
+	}
+
+	public ReturnType getReturnType()
+	{
+		return returnType;
+	}
+}
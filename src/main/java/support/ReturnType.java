@@ -35,6 +35,11 @@ public enum ReturnType
 	 * Return as byte[]
 	 */
 	VALUE,
+	/**
+	 * Redis bulk reply decoded as UTF-8
+	 * Return as String
+	 */
+	STRING,
 	;
 
 	/**
@@ -64,6 +69,11 @@ public enum ReturnType
 			return ReturnType.INTEGER;
 		}
 
+		if(javaType == String.class)
+		{
+			return ReturnType.STRING;
+		}
+
 		return ReturnType.VALUE;
 	}
 }
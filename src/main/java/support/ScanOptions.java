@@ -0,0 +1,58 @@
+package support;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SCAN、HSCAN、SSCAN、ZSCAN的参数
+ * MATCH：只返回匹配glob pattern的元素，过滤在服务器端每次迭代之后进行，可能返回空的一页
+ * COUNT：每次迭代大约检查的元素数量，默认为10，只是提示，服务器可能返回更多或者更少的元素
+ *
+ * @since 2019/5/15
+ */
+public class ScanOptions
+{
+
+	private byte[] pattern;
+
+	private Integer count;
+
+
+	public static ScanOptions scanOptions()
+	{
+		return new ScanOptions();
+	}
+
+
+	public ScanOptions match(String pattern)
+	{
+		return match(pattern == null ? null : pattern.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public ScanOptions match(byte[] pattern)
+	{
+		this.pattern = pattern;
+		return this;
+	}
+
+	public ScanOptions count(int count)
+	{
+		this.count = count;
+		return this;
+	}
+
+	/**
+	 * @return 为null时不使用MATCH
+	 */
+	public byte[] getPattern()
+	{
+		return pattern;
+	}
+
+	/**
+	 * @return 为null时使用服务器默认的COUNT
+	 */
+	public Integer getCount()
+	{
+		return count;
+	}
+}
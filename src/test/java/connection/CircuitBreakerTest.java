@@ -0,0 +1,174 @@
+package connection;
+
+import org.junit.Test;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * CircuitBreaker的状态切换，使用手动推进的时钟
+ *
+ * @since 2019/5/15
+ */
+public class CircuitBreakerTest
+{
+
+	private static final JedisConnectionException UNAVAILABLE = new JedisConnectionException("timeout");
+
+	private static final JedisDataException WRONGTYPE = new JedisDataException("WRONGTYPE");
+
+	private final AtomicLong now = new AtomicLong(1000);
+
+	/**
+	 * 10ms窗口内至少4次调用且失败率达到50%时熔断，100ms后放行2个探测请求
+	 */
+	private CircuitBreaker breaker()
+	{
+		return new CircuitBreaker(0.5, 4, 10, 100, TimeUnit.MILLISECONDS, 2, CircuitBreaker.UNAVAILABLE, now::get);
+	}
+
+	private void fail(CircuitBreaker breaker, int times)
+	{
+		for(int i = 0; i < times; i++)
+		{
+			breaker.onError(breaker.tryAcquire(), UNAVAILABLE);
+		}
+	}
+
+	private CircuitBreaker opened()
+	{
+		CircuitBreaker breaker = breaker();
+		fail(breaker, 4);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		return breaker;
+	}
+
+	@Test
+	public void opensWhenFailureRateReached()
+	{
+		CircuitBreaker breaker = breaker();
+		breaker.onSuccess(breaker.tryAcquire());
+		breaker.onSuccess(breaker.tryAcquire());
+		fail(breaker, 1);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		fail(breaker, 1);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertNull(breaker.tryAcquire());
+		assertEquals(1, breaker.getOpenCount());
+	}
+
+	@Test
+	public void commandErrorsAreNotFailures()
+	{
+		CircuitBreaker breaker = breaker();
+		for(int i = 0; i < 10; i++)
+		{
+			assertFalse(breaker.onError(breaker.tryAcquire(), WRONGTYPE));
+		}
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	public void countsDoNotLeakIntoNextWindow()
+	{
+		CircuitBreaker breaker = breaker();
+		fail(breaker, 3);
+		now.addAndGet(10);
+		fail(breaker, 1);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		fail(breaker, 3);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+	}
+
+	@Test
+	public void closesAfterAllProbesSucceed()
+	{
+		CircuitBreaker breaker = opened();
+		now.addAndGet(100);
+		CircuitBreaker.Permit first = breaker.tryAcquire();
+		CircuitBreaker.Permit second = breaker.tryAcquire();
+		assertTrue(first.isProbe() && second.isProbe());
+		assertNull(breaker.tryAcquire());
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+		breaker.onSuccess(first);
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		breaker.onSuccess(second);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	public void reopensWhenProbeFails()
+	{
+		CircuitBreaker breaker = opened();
+		now.addAndGet(100);
+		CircuitBreaker.Permit probe = breaker.tryAcquire();
+		breaker.onSuccess(breaker.tryAcquire());
+		breaker.onError(probe, UNAVAILABLE);
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertNull(breaker.tryAcquire());
+		assertEquals(2, breaker.getOpenCount());
+	}
+
+	@Test
+	public void commandErrorReleasesProbeWithoutSuccess()
+	{
+		CircuitBreaker breaker = opened();
+		now.addAndGet(100);
+		CircuitBreaker.Permit first = breaker.tryAcquire();
+		CircuitBreaker.Permit second = breaker.tryAcquire();
+		assertFalse(breaker.onError(first, WRONGTYPE));
+		breaker.onSuccess(second);
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+		// 归还的permit可以被下一个探测使用
+		CircuitBreaker.Permit third = breaker.tryAcquire();
+		assertNotNull(third);
+		breaker.onSuccess(third);
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+	}
+
+	@Test
+	public void releasedProbesDoNotLeak()
+	{
+		CircuitBreaker breaker = opened();
+		now.addAndGet(100);
+		for(int i = 0; i < 10; i++)
+		{
+			breaker.release(breaker.tryAcquire());
+		}
+		assertNotNull(breaker.tryAcquire());
+	}
+
+	@Test
+	public void callsAdmittedWhileClosedDoNotCountAsProbes()
+	{
+		CircuitBreaker breaker = breaker();
+		CircuitBreaker.Permit slow = breaker.tryAcquire();
+		assertFalse(slow.isProbe());
+		fail(breaker, 4);
+		now.addAndGet(100);
+		CircuitBreaker.Permit probe = breaker.tryAcquire();
+		breaker.onSuccess(slow);
+		breaker.onSuccess(probe);
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+	}
+
+	@Test
+	public void probeResultsOfOldHalfOpenAreIgnored()
+	{
+		CircuitBreaker breaker = opened();
+		now.addAndGet(100);
+		CircuitBreaker.Permit stale = breaker.tryAcquire();
+		breaker.onError(breaker.tryAcquire(), UNAVAILABLE);
+		now.addAndGet(100);
+		CircuitBreaker.Permit probe = breaker.tryAcquire();
+		breaker.onSuccess(stale);
+		breaker.onSuccess(probe);
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+	}
+}
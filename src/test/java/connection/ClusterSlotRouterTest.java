@@ -0,0 +1,137 @@
+package connection;
+
+import org.junit.Test;
+import redis.clients.jedis.util.JedisClusterCRC16;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * ClusterSlotRouter中不依赖集群的部分：CLUSTER SLOTS的解析以及按slot、节点分组
+ *
+ * @since 2019/5/15
+ */
+public class ClusterSlotRouterTest
+{
+
+	private static final String NODE_A = "127.0.0.1:7000";
+
+	private static final String NODE_B = "127.0.0.1:7001";
+
+	private static byte[] bytes(String source)
+	{
+		return source.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static List<Object> slotRange(long start, long end, String host, long port)
+	{
+		List<Object> master = Arrays.asList(bytes(host), port, bytes("id"));
+		List<Object> replica = Arrays.asList(bytes(host), port + 100, bytes("replica"));
+		return Arrays.asList(start, end, master, replica);
+	}
+
+	/**
+	 * slot 0-8191在A上，8192-16383在B上
+	 */
+	private static String[] twoNodes()
+	{
+		return ClusterSlotRouter.toSlotNodes(Arrays.asList(
+				slotRange(8192, 16383, "127.0.0.1", 7001),
+				slotRange(0, 8191, "127.0.0.1", 7000)));
+	}
+
+	private static String nodeOf(String key)
+	{
+		return JedisClusterCRC16.getSlot(key) < 8192 ? NODE_A : NODE_B;
+	}
+
+	@Test
+	public void parsesMastersAndIgnoresReplicas()
+	{
+		String[] nodes = ClusterSlotRouter.toSlotNodes(Collections.singletonList(slotRange(100, 200, "10.0.0.1", 6379)));
+		assertEquals(16384, nodes.length);
+		assertNull(nodes[99]);
+		assertEquals("10.0.0.1:6379", nodes[100]);
+		assertEquals("10.0.0.1:6379", nodes[200]);
+		assertNull(nodes[201]);
+	}
+
+	@Test
+	public void masterNodesAreSortedAndDistinct()
+	{
+		assertEquals(Arrays.asList(NODE_A, NODE_B), ClusterSlotRouter.masterNodes(twoNodes()));
+		assertTrue(ClusterSlotRouter.masterNodes(null).isEmpty());
+	}
+
+	@Test
+	public void keysWithSameHashTagShareOneSlot()
+	{
+		byte[][] keys = {bytes("{user}a"), bytes("{user}b"), bytes("{user}c")};
+		assertTrue(ClusterSlotRouter.isSameSlot(keys));
+
+		Map<String, List<int[]>> groups = ClusterSlotRouter.groupByNode(keys, twoNodes());
+		assertEquals(1, groups.size());
+		List<int[]> slots = groups.get(nodeOf("{user}a"));
+		assertEquals(1, slots.size());
+		assertArrayEquals(new int[]{0, 1, 2}, slots.get(0));
+	}
+
+	@Test
+	public void groupsSlotsByNodeInKeyOrder()
+	{
+		String[] keys = {"k1", "k2", "k3", "k4", "k5", "k6", "k7", "k8", "{k1}x"};
+		byte[][] rawKeys = new byte[keys.length][];
+		for(int i = 0; i < keys.length; i++)
+		{
+			rawKeys[i] = bytes(keys[i]);
+		}
+		assertFalse(ClusterSlotRouter.isSameSlot(rawKeys));
+
+		Map<String, List<int[]>> groups = ClusterSlotRouter.groupByNode(rawKeys, twoNodes());
+		int total = 0;
+		for(Map.Entry<String, List<int[]>> entry : groups.entrySet())
+		{
+			int previousFirst = -1;
+			for(int[] indexes : entry.getValue())
+			{
+				int slot = JedisClusterCRC16.getSlot(keys[indexes[0]]);
+				for(int index : indexes)
+				{
+					assertEquals(slot, JedisClusterCRC16.getSlot(keys[index]));
+					assertEquals(entry.getKey(), nodeOf(keys[index]));
+				}
+				// slot按第一个key出现的顺序排列
+				assertTrue(indexes[0] > previousFirst);
+				previousFirst = indexes[0];
+				total += indexes.length;
+			}
+		}
+		assertEquals(keys.length, total);
+		// k1与{k1}x在同一个slot
+		List<int[]> k1Node = groups.get(nodeOf("k1"));
+		assertArrayEquals(new int[]{0, 8}, k1Node.get(0));
+	}
+
+	@Test
+	public void unknownSlotTableGroupsEverythingUnderNull()
+	{
+		byte[][] keys = {bytes("a"), bytes("b")};
+		Map<String, List<int[]>> groups = ClusterSlotRouter.groupByNode(keys, null);
+		assertEquals(Collections.singleton(null), groups.keySet());
+		assertEquals(2, groups.get(null).size());
+	}
+
+	@Test
+	public void selectPicksIndexes()
+	{
+		byte[][] source = {bytes("a"), bytes("b"), bytes("c")};
+		byte[][] selected = ClusterSlotRouter.select(source, new int[]{2, 0});
+		assertSame(source[2], selected[0]);
+		assertSame(source[0], selected[1]);
+	}
+}
@@ -0,0 +1,65 @@
+package connection;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import support.ScanOptions;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * 集群不可用时SCAN必须失败，不能返回"迭代完成、没有key"
+ *
+ * @since 2019/5/15
+ */
+public class JedisClusterKeyCommandsTest
+{
+
+	private JedisCluster cluster;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		int closedPort;
+		try(ServerSocket socket = new ServerSocket(0))
+		{
+			closedPort = socket.getLocalPort();
+		}
+		cluster = new JedisCluster(Collections.singleton(new HostAndPort("127.0.0.1", closedPort)), 200);
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	@After
+	public void tearDown()
+	{
+		cluster.close();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void scanFailsWhenMasterNodesAreUnknown()
+	{
+		JedisClusterConnection connection = new JedisClusterConnection(cluster, new ClusterSlotRouter(cluster, executor));
+		try
+		{
+			connection.keyCommands().scan("0".getBytes(StandardCharsets.US_ASCII), ScanOptions.scanOptions().count(10));
+			fail("scan must not report an empty completed iteration");
+		}
+		catch(JedisConnectionException e)
+		{
+			assertTrue(connection.getSlotRouter().getMasterNodes().isEmpty());
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package connection;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.Test;
+import redis.clients.jedis.HostAndPort;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 2019/5/15
+ */
+public class JedisConnectionFactoryTest
+{
+
+	@Test
+	public void sslClusterIsRejected()
+	{
+		JedisClientConfiguration configuration = new DefaultJedisClientConfiguration(true, true, new GenericObjectPoolConfig(), null, 200, 200,
+				null, null, null, Collections.singleton(new HostAndPort("127.0.0.1", 7000)), 5);
+		assertTrue(configuration.isUsingCluster());
+		try
+		{
+			new JedisConnectionFactory(configuration).init();
+			fail("cluster mode must not silently drop ssl");
+		}
+		catch(IllegalArgumentException e)
+		{
+			assertTrue(e.getMessage(), e.getMessage().contains("ssl"));
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package core;
+
+import connection.DefaultJedisClientConfiguration;
+import connection.JedisConnectionFactory;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.Test;
+import serializer.StringSerializer;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * keyToBytes在三种key组成方式下与keySerializer.serialize(makeKey(key))的结果相同，并且可以由deserializeKey还原
+ *
+ * @since 2019/5/15
+ */
+public class AbstractOperationTest
+{
+
+	private static final List<Long> LONG_KEYS = Arrays.asList(0L, 7L, -7L, 10L, 99L, -100L, 1234567890123L,
+			(long) Integer.MIN_VALUE, (long) Integer.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1, Long.MAX_VALUE);
+
+	private static final List<String> STRING_KEYS = Arrays.asList("", "42", "a_b", "{tag}", "中文键", "naïve", "emoji😀",
+			// 不成对的surrogate按照String.getBytes的方式编码为?
+			"bad\uD800", "\uDC00bad");
+
+	private static final RedisTemplate REDIS_TEMPLATE = new RedisTemplate(new JedisConnectionFactory(new DefaultJedisClientConfiguration(new GenericObjectPoolConfig())));
+
+	@Test
+	public void plainLongKeys()
+	{
+		assertLongKeys(null);
+	}
+
+	@Test
+	public void prefixHashTagLongKeys()
+	{
+		assertLongKeys(KeyLayout.prefixHashTag());
+	}
+
+	@Test
+	public void hashTagLongKeys()
+	{
+		assertLongKeys(KeyLayout.hashTag(key -> key % 16));
+	}
+
+	@Test
+	public void plainStringKeys()
+	{
+		assertStringKeys(null);
+	}
+
+	@Test
+	public void prefixHashTagStringKeys()
+	{
+		assertStringKeys(KeyLayout.prefixHashTag());
+	}
+
+	@Test
+	public void hashTagStringKeys()
+	{
+		assertStringKeys(KeyLayout.hashTag(String::length));
+	}
+
+	@Test
+	public void integerKeys()
+	{
+		DefaultStringOpreation<Integer, Integer> operation = new DefaultStringOpreation<>("用户", REDIS_TEMPLATE, Integer.class, Integer.class);
+		for(int key : new int[]{0, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE})
+		{
+			assertEncoded(operation, key);
+			assertEquals(String.valueOf(key), operation.deserializeKey(operation.keyToBytes(key)));
+		}
+	}
+
+	@Test
+	public void otherKeyTypesUseToString()
+	{
+		DefaultStringOpreation<Object, Integer> operation = new DefaultStringOpreation<>("obj", REDIS_TEMPLATE, Object.class, Integer.class);
+		for(Object key : new Object[]{1.5d, 'x', Boolean.TRUE, (short) -3, new StringBuilder("键")})
+		{
+			assertEncoded(operation, key);
+		}
+	}
+
+	/**
+	 * @param layout 为null时使用默认的组成方式，前缀只编码一次
+	 */
+	private static void assertLongKeys(KeyLayout<Long> layout)
+	{
+		DefaultStringOpreation<Long, Integer> operation = new DefaultStringOpreation<>("用户", REDIS_TEMPLATE, Long.class, Integer.class);
+		if(layout != null)
+		{
+			operation.setKeyLayout(layout);
+		}
+		for(Long key : LONG_KEYS)
+		{
+			assertEncoded(operation, key);
+			assertArrayEquals(String.valueOf(key), operation.keyToBytes(key), operation.longKeyToBytes(key));
+			assertEquals(String.valueOf(key), operation.deserializeKey(operation.keyToBytes(key)));
+		}
+	}
+
+	private static void assertStringKeys(KeyLayout<String> layout)
+	{
+		DefaultStringOpreation<String, Integer> operation = new DefaultStringOpreation<>("用户", REDIS_TEMPLATE, String.class, Integer.class);
+		if(layout != null)
+		{
+			operation.setKeyLayout(layout);
+		}
+		for(String key : STRING_KEYS)
+		{
+			assertEncoded(operation, key);
+			// 不成对的surrogate编码时已经丢失，无法还原
+			if(!key.startsWith("bad") && !key.endsWith("bad"))
+			{
+				assertEquals(key, operation.deserializeKey(operation.keyToBytes(key)));
+			}
+		}
+	}
+
+	private static <K> void assertEncoded(AbstractOperation<K, ?> operation, K key)
+	{
+		assertArrayEquals(String.valueOf(key), StringSerializer.UTF_8.serialize(operation.makeKey(key)), operation.keyToBytes(key));
+	}
+}
@@ -0,0 +1,108 @@
+package core;
+
+import connection.DefaultJedisClientConfiguration;
+import connection.JedisConnectionFactory;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import serializer.GenericJackson2JsonRedisSerializer;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 异步线程池队列满时，任务不能在调用线程中执行
+ *
+ * @since 2019/5/15
+ */
+public class AsyncExecutorTest
+{
+
+	private RespStubServer server;
+
+	private RedisTemplate redisTemplate;
+
+	private DefaultStringOpreation<Integer, Integer> operation;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		server = new RespStubServer();
+		int port = server.getPort();
+		GenericObjectPoolConfig poolConfig = new GenericObjectPoolConfig();
+		// 异步线程池只有一个线程
+		poolConfig.setMaxTotal(1);
+		JedisConnectionFactory factory = new JedisConnectionFactory(new DefaultJedisClientConfiguration(poolConfig)
+		{
+			@Override
+			public int getPort()
+			{
+				return port;
+			}
+		});
+		factory.init();
+		redisTemplate = new RedisTemplate(factory);
+		operation = new DefaultStringOpreation<>("test", redisTemplate, Integer.class, Integer.class);
+		server.put("test_1", GenericJackson2JsonRedisSerializer.jsonSerializer.serialize(1));
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		server.close();
+	}
+
+	@Test(timeout = 10000)
+	public void asyncCallInPipelineWithFullQueueStillReturnsTheValue() throws Exception
+	{
+		ExecutorService executor = redisTemplate.getAsyncExecutor();
+		CountDownLatch blocker = new CountDownLatch(1);
+		executor.execute(() -> {
+			try
+			{
+				blocker.await();
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		});
+		// 填满队列
+		while(((ThreadPoolExecutor) executor).getQueue().remainingCapacity() > 0)
+		{
+			executor.execute(() -> {});
+		}
+
+		Thread releaser = new Thread(() -> {
+			try
+			{
+				Thread.sleep(200);
+			}
+			catch(InterruptedException e)
+			{
+				return;
+			}
+			blocker.countDown();
+		});
+		releaser.start();
+
+		Thread caller = Thread.currentThread();
+		Thread[] runner = new Thread[1];
+		@SuppressWarnings("unchecked")
+		CompletableFuture<Integer>[] future = new CompletableFuture[1];
+		redisTemplate.executePipelined(conn -> {
+			future[0] = operation.async().get(1).whenComplete((v, e) -> runner[0] = Thread.currentThread());
+			return null;
+		});
+		assertEquals(Integer.valueOf(1), future[0].get(5, TimeUnit.SECONDS));
+		assertNotSame(caller, runner[0]);
+		releaser.join();
+	}
+}
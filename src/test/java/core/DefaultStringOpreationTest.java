@@ -0,0 +1,291 @@
+package core;
+
+import connection.DefaultJedisClientConfiguration;
+import connection.JedisConnectionFactory;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import serializer.GenericJackson2JsonRedisSerializer;
+import support.Expiration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * getOrLoad的加载锁、等待其他调用方加载和提前刷新
+ *
+ * @since 2019/5/15
+ */
+public class DefaultStringOpreationTest
+{
+
+	private static final String KEY = "test_1";
+
+	private static final String LOCK_KEY = "test_1:loading";
+
+	private static final byte[] OTHER_TOKEN = "other".getBytes(StandardCharsets.US_ASCII);
+
+	private static final Expiration TTL = Expiration.seconds(60);
+
+	private RespStubServer server;
+
+	private DefaultStringOpreation<Integer, Integer> operation;
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		server = new RespStubServer();
+		int port = server.getPort();
+		JedisConnectionFactory factory = new JedisConnectionFactory(new DefaultJedisClientConfiguration(new GenericObjectPoolConfig())
+		{
+			@Override
+			public int getPort()
+			{
+				return port;
+			}
+		});
+		factory.init();
+		operation = new DefaultStringOpreation<>("test", new RedisTemplate(factory), Integer.class, Integer.class);
+		// 释放锁的脚本：token相同时才删除
+		server.setScriptHandler((keys, args) -> {
+			if(Arrays.equals(server.get(keys.get(0)), args.get(0)))
+			{
+				server.remove(keys.get(0));
+				return 1L;
+			}
+			return 0L;
+		});
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		executor.shutdownNow();
+		server.close();
+	}
+
+	@Test
+	public void missLoadsUnderLock()
+	{
+		assertEquals(Integer.valueOf(10), operation.getOrLoad(1, loader(10), TTL));
+		assertEquals(1, loads.get());
+		assertEquals(Integer.valueOf(10), stored());
+		// 加锁和写入各一次SET，锁通过脚本释放
+		assertEquals(2, server.getCommandCount("SET"));
+		assertEquals(1, server.getCommandCount("EVAL"));
+		assertNull(server.get(LOCK_KEY));
+	}
+
+	@Test
+	public void hitDoesNotLoad()
+	{
+		server.put(KEY, serialize(5), 60000);
+		assertEquals(Integer.valueOf(5), operation.getOrLoad(1, loader(10), TTL));
+		assertEquals(0, loads.get());
+		assertEquals(0, server.getCommandCount("SET"));
+	}
+
+	@Test
+	public void nullIsNotStored()
+	{
+		assertNull(operation.getOrLoad(1, key -> null, TTL));
+		assertNull(server.get(KEY));
+		assertNull(server.get(LOCK_KEY));
+	}
+
+	@Test(timeout = 5000)
+	public void concurrentMissesLoadOnce() throws Exception
+	{
+		CountDownLatch start = new CountDownLatch(1);
+		Function<Integer, Integer> slowLoader = key -> {
+			sleep(100);
+			return loader(10).apply(key);
+		};
+		List<Future<Integer>> results = new ArrayList<>();
+		for(int i = 0; i < 6; i++)
+		{
+			results.add(executor.submit(() -> {
+				start.await();
+				return operation.getOrLoad(1, slowLoader, TTL);
+			}));
+		}
+		start.countDown();
+		for(Future<Integer> result : results)
+		{
+			assertEquals(Integer.valueOf(10), result.get());
+		}
+		assertEquals(1, loads.get());
+	}
+
+	@Test(timeout = 5000)
+	public void waitsForValueLoadedByLockHolder() throws Exception
+	{
+		server.put(LOCK_KEY, OTHER_TOKEN, 60000);
+		Future<Integer> result = executor.submit(() -> operation.getOrLoad(1, loader(10), TTL));
+		sleep(50);
+		server.put(KEY, serialize(7), 60000);
+
+		assertEquals(Integer.valueOf(7), result.get());
+		assertEquals(0, loads.get());
+	}
+
+	@Test(timeout = 5000)
+	public void loadsWhenLockIsReleasedWithoutValue() throws Exception
+	{
+		server.put(LOCK_KEY, OTHER_TOKEN, 60000);
+		Future<Integer> result = executor.submit(() -> operation.getOrLoad(1, loader(10), TTL));
+		sleep(50);
+		// 持有锁的调用方加载失败，释放了锁
+		server.remove(LOCK_KEY);
+
+		assertEquals(Integer.valueOf(10), result.get());
+		assertEquals(1, loads.get());
+		assertNull(server.get(LOCK_KEY));
+	}
+
+	@Test(timeout = 5000)
+	public void loadsWithoutLockAfterLockTimeout()
+	{
+		operation.setLoadLockTimeout(100, TimeUnit.MILLISECONDS);
+		server.put(LOCK_KEY, OTHER_TOKEN, 60000);
+		long start = System.nanoTime();
+
+		assertEquals(Integer.valueOf(10), operation.getOrLoad(1, loader(10), TTL));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+		assertEquals(1, loads.get());
+		// 没有拿到锁，不释放其他调用方的锁
+		assertArrayEquals(OTHER_TOKEN, server.get(LOCK_KEY));
+		assertEquals(0, server.getCommandCount("EVAL"));
+	}
+
+	@Test
+	public void releaseKeepsLockTakenByOthers()
+	{
+		// loader执行期间锁过期并被其他调用方获取
+		Integer value = operation.getOrLoad(1, key -> {
+			server.put(LOCK_KEY, OTHER_TOKEN, 60000);
+			return loader(10).apply(key);
+		}, TTL);
+
+		assertEquals(Integer.valueOf(10), value);
+		assertEquals(1, server.getCommandCount("EVAL"));
+		assertArrayEquals(OTHER_TOKEN, server.get(LOCK_KEY));
+	}
+
+	@Test
+	public void loaderFailureReleasesLock()
+	{
+		IllegalStateException error = new IllegalStateException("load failed");
+		try
+		{
+			operation.getOrLoad(1, key -> {
+				throw error;
+			}, TTL);
+			fail("exception expected");
+		}
+		catch(IllegalStateException e)
+		{
+			assertSame(error, e);
+		}
+		assertNull(server.get(LOCK_KEY));
+		assertNull(server.get(KEY));
+	}
+
+	@Test
+	public void refreshesEarlyBeforeExpiry()
+	{
+		// 第一次加载记录loader的耗时
+		operation.getOrLoad(1, key -> {
+			sleep(20);
+			return loader(10).apply(key);
+		}, TTL);
+		operation.setEarlyRefreshBeta(0);
+		assertEquals(Integer.valueOf(10), operation.getOrLoad(1, loader(11), TTL));
+		assertEquals(1, loads.get());
+
+		// 系数足够大时，60秒的剩余过期时间也会提前刷新
+		operation.setEarlyRefreshBeta(1e9);
+		assertEquals(Integer.valueOf(11), operation.getOrLoad(1, loader(11), TTL));
+		assertEquals(2, loads.get());
+		assertEquals(Integer.valueOf(11), stored());
+		assertNull(server.get(LOCK_KEY));
+	}
+
+	@Test
+	public void earlyRefreshReturnsOldValueWhileOthersRefresh()
+	{
+		operation.getOrLoad(1, key -> {
+			sleep(20);
+			return loader(10).apply(key);
+		}, TTL);
+		operation.setEarlyRefreshBeta(1e9);
+		server.put(LOCK_KEY, OTHER_TOKEN, 60000);
+
+		assertEquals(Integer.valueOf(10), operation.getOrLoad(1, loader(11), TTL));
+		assertEquals(1, loads.get());
+		assertArrayEquals(OTHER_TOKEN, server.get(LOCK_KEY));
+	}
+
+	@Test
+	public void persistentValueIsNotRefreshed()
+	{
+		operation.getOrLoad(1, key -> {
+			sleep(20);
+			return loader(10).apply(key);
+		}, TTL);
+		operation.setEarlyRefreshBeta(1e9);
+		// PTTL为-1的值不提前刷新
+		server.put(KEY, serialize(10));
+
+		assertEquals(Integer.valueOf(10), operation.getOrLoad(1, loader(11), TTL));
+		assertEquals(1, loads.get());
+	}
+
+	private Function<Integer, Integer> loader(int value)
+	{
+		return key -> {
+			loads.incrementAndGet();
+			return value;
+		};
+	}
+
+	private Integer stored()
+	{
+		return operation.deserializeValue(server.get(KEY));
+	}
+
+	private static byte[] serialize(int value)
+	{
+		return GenericJackson2JsonRedisSerializer.jsonSerializer.serialize(value);
+	}
+
+	private static void sleep(long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+		}
+		catch(InterruptedException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package core;
+
+import connection.DefaultJedisClientConfiguration;
+import connection.JedisConnectionFactory;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import serializer.GenericJackson2JsonRedisSerializer;
+import support.TypedTuple;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * zRangeStream和按score分页的zRangeByScoreStream，分页边界上score相同的元素不能重复或遗漏
+ *
+ * @since 2019/5/15
+ */
+public class DefaultZSetOperationTest
+{
+
+	private static final String KEY = "rank_1";
+
+	private RespStubServer server;
+
+	private DefaultZSetOperation<Integer, String> operation;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		server = new RespStubServer();
+		int port = server.getPort();
+		JedisConnectionFactory factory = new JedisConnectionFactory(new DefaultJedisClientConfiguration(new GenericObjectPoolConfig())
+		{
+			@Override
+			public int getPort()
+			{
+				return port;
+			}
+		});
+		factory.init();
+		operation = new DefaultZSetOperation<>("rank", new RedisTemplate(factory), Integer.class, String.class);
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		server.close();
+	}
+
+	@Test(timeout = 5000)
+	public void tiesSpanSeveralPages()
+	{
+		// 10个score相同的元素跨越4页，之后是另一个score
+		List<String> expected = new ArrayList<>();
+		expected.addAll(add(1.0, "a", 10));
+		expected.addAll(add(2.0, "b", 3));
+
+		assertEquals(expected, byScore(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 3));
+		// 13个元素，每页3个，最后一页不满
+		assertEquals(5, server.getCommandCount("ZRANGEBYSCORE"));
+	}
+
+	@Test(timeout = 5000)
+	public void scoreChangesAtPageBoundary()
+	{
+		List<String> expected = new ArrayList<>();
+		expected.addAll(add(1.0, "a", 3));
+		expected.addAll(add(2.0, "b", 3));
+		expected.addAll(add(3.0, "c", 3));
+
+		assertEquals(expected, byScore(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 3));
+		// 元素数量是页大小的整数倍，需要多读一个空页才知道结束
+		assertEquals(4, server.getCommandCount("ZRANGEBYSCORE"));
+	}
+
+	@Test(timeout = 5000)
+	public void allElementsTied()
+	{
+		List<String> expected = add(5.0, "a", 7);
+		for(int pageSize = 1; pageSize <= 8; pageSize++)
+		{
+			assertEquals("page size " + pageSize, expected, byScore(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, pageSize));
+		}
+	}
+
+	@Test(timeout = 5000)
+	public void adjacentScoresAreNotMerged()
+	{
+		// 只差一个ulp的score，下一页的起始score必须精确
+		List<String> expected = new ArrayList<>();
+		expected.addAll(add(0.1 + 0.2, "a", 2));
+		expected.addAll(add(Math.nextUp(0.1 + 0.2), "b", 2));
+		add(1e-300, "c", 2);
+
+		for(int pageSize = 1; pageSize <= 5; pageSize++)
+		{
+			assertEquals("page size " + pageSize, expected, byScore(0.1, 1.0, pageSize));
+		}
+	}
+
+	@Test(timeout = 5000)
+	public void scoresOutsideRangeAreExcluded()
+	{
+		add(-1.0, "low", 2);
+		List<String> expected = new ArrayList<>();
+		expected.addAll(add(0.0, "a", 2));
+		expected.addAll(add(1.0, "b", 2));
+		add(1.5, "high", 2);
+
+		assertEquals(expected, byScore(0.0, 1.0, 3));
+		List<Double> scores = operation.zRangeByScoreWithScoresStream(1, 0.0, 1.0, 3)
+				.map(TypedTuple::getScore).collect(Collectors.toList());
+		assertEquals(Arrays.asList(0.0, 0.0, 1.0, 1.0), scores);
+	}
+
+	@Test(timeout = 5000)
+	public void emptyScoreRange()
+	{
+		add(1.0, "a", 3);
+		assertEquals(Collections.emptyList(), byScore(2.0, 3.0, 2));
+		assertEquals(Collections.emptyList(), operation.zRangeByScoreStream(2, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 2).collect(Collectors.toList()));
+	}
+
+	@Test(timeout = 5000)
+	public void rangeStreamPages()
+	{
+		List<String> all = new ArrayList<>();
+		all.addAll(add(1.0, "a", 5));
+		all.addAll(add(2.0, "b", 5));
+
+		assertEquals(all, byRank(0, -1, 3));
+		assertEquals(all.subList(2, 8), byRank(2, 7, 4));
+		assertEquals(all.subList(7, 10), byRank(-3, -1, 2));
+		assertEquals(all.subList(0, 2), byRank(-100, 1, 5));
+		assertEquals(all.subList(8, 10), byRank(8, 100, 5));
+		assertEquals(Collections.emptyList(), byRank(5, 4, 5));
+		assertEquals(Collections.emptyList(), byRank(20, 30, 5));
+	}
+
+	@Test(timeout = 5000)
+	public void rangeStreamFetchesLazily()
+	{
+		add(1.0, "a", 10);
+		assertEquals("a00", operation.zRangeStream(1, 0, -1, 4).findFirst().orElse(null));
+		assertEquals(1, server.getCommandCount("ZRANGE"));
+
+		// 正数下标不需要ZCARD
+		operation.zRangeStream(1, 0, 5, 4).count();
+		assertEquals(1, server.getCommandCount("ZCARD"));
+	}
+
+	/**
+	 * @return 按member排序的count个元素：prefix00, prefix01...
+	 */
+	private List<String> add(double score, String prefix, int count)
+	{
+		List<String> ret = new ArrayList<>();
+		for(int i = 0; i < count; i++)
+		{
+			String member = String.format("%s%02d", prefix, i);
+			server.zAdd(KEY, score, GenericJackson2JsonRedisSerializer.jsonSerializer.serialize(member));
+			ret.add(member);
+		}
+		return ret;
+	}
+
+	private List<String> byScore(double min, double max, int pageSize)
+	{
+		return operation.zRangeByScoreStream(1, min, max, pageSize).collect(Collectors.toList());
+	}
+
+	private List<String> byRank(long start, long end, int pageSize)
+	{
+		return operation.zRangeStream(1, start, end, pageSize).collect(Collectors.toList());
+	}
+}
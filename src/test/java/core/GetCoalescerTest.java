@@ -0,0 +1,202 @@
+package core;
+
+import connection.DefaultJedisClientConfiguration;
+import connection.JedisConnectionFactory;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.exceptions.JedisDataException;
+import serializer.GenericJackson2JsonRedisSerializer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 并发的get合并为一次MGET
+ *
+ * @since 2019/5/15
+ */
+public class GetCoalescerTest
+{
+
+	private RespStubServer server;
+
+	private RedisTemplate redisTemplate;
+
+	private DefaultStringOpreation<Integer, Integer> operation;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		server = new RespStubServer();
+		int port = server.getPort();
+		JedisConnectionFactory factory = new JedisConnectionFactory(new DefaultJedisClientConfiguration(new GenericObjectPoolConfig())
+		{
+			@Override
+			public int getPort()
+			{
+				return port;
+			}
+		});
+		factory.init();
+		redisTemplate = new RedisTemplate(factory);
+		operation = new DefaultStringOpreation<>("test", redisTemplate, Integer.class, Integer.class);
+		for(int i = 0; i < 4; i++)
+		{
+			server.put("test_" + i, GenericJackson2JsonRedisSerializer.jsonSerializer.serialize(i));
+		}
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		executor.shutdownNow();
+		server.close();
+	}
+
+	@Test(timeout = 5000)
+	public void fullBatchFlushesBeforeWindow() throws Exception
+	{
+		// window足够长，只有批次满才会在超时之前返回
+		GetCoalescer coalescer = new GetCoalescer(operation, 4, TimeUnit.SECONDS.toNanos(30));
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<byte[]>> results = new ArrayList<>();
+		for(int i = 0; i < 4; i++)
+		{
+			byte[] rawKey = operation.keyToBytes(i);
+			results.add(executor.submit(() -> {
+				start.await();
+				return coalescer.get(rawKey);
+			}));
+		}
+		start.countDown();
+		for(int i = 0; i < 4; i++)
+		{
+			assertEquals(Integer.valueOf(i), operation.deserializeValue(results.get(i).get()));
+		}
+		assertEquals(1, server.getCommandCount("MGET"));
+		assertEquals(0, server.getCommandCount("GET"));
+	}
+
+	@Test(timeout = 5000)
+	public void partialBatchFlushesAfterWindow()
+	{
+		long window = TimeUnit.MILLISECONDS.toNanos(50);
+		GetCoalescer coalescer = new GetCoalescer(operation, 100, window);
+		long start = System.nanoTime();
+		assertEquals(Integer.valueOf(1), operation.deserializeValue(coalescer.get(operation.keyToBytes(1))));
+		assertTrue(System.nanoTime() - start >= window);
+		assertNull(coalescer.get(operation.keyToBytes(100)));
+		assertEquals(2, server.getCommandCount("MGET"));
+	}
+
+	@Test(timeout = 5000)
+	public void interruptedLeaderFlushesForFollowers() throws Exception
+	{
+		GetCoalescer coalescer = new GetCoalescer(operation, 100, TimeUnit.SECONDS.toNanos(30));
+		Future<byte[]> leader = executor.submit(() -> coalescer.get(operation.keyToBytes(1)));
+		waitForParked(1);
+		Future<byte[]> follower = executor.submit(() -> coalescer.get(operation.keyToBytes(2)));
+		// follower加入批次之后在结果上等待，然后中断leader的window
+		waitForParked(2);
+		executor.shutdownNow();
+
+		assertEquals(Integer.valueOf(1), operation.deserializeValue(leader.get()));
+		assertEquals(Integer.valueOf(2), operation.deserializeValue(follower.get()));
+		assertEquals(1, server.getCommandCount("MGET"));
+	}
+
+	@Test(timeout = 5000)
+	public void failureIsSharedByBatch() throws Exception
+	{
+		redisTemplate.setFailurePolicy(FailurePolicy.THROW);
+		server.setError("MGET", "ERR mget failed");
+		GetCoalescer coalescer = new GetCoalescer(operation, 2, TimeUnit.SECONDS.toNanos(30));
+		Future<byte[]> first = executor.submit(() -> coalescer.get(operation.keyToBytes(1)));
+		Future<byte[]> second = executor.submit(() -> coalescer.get(operation.keyToBytes(2)));
+
+		Throwable firstError = causeOf(first);
+		assertTrue(firstError instanceof JedisDataException);
+		assertEquals("ERR mget failed", firstError.getMessage());
+		assertSame(firstError, causeOf(second));
+		assertEquals(1, server.getCommandCount("MGET"));
+	}
+
+	@Test(timeout = 5000)
+	public void failureReturnsNullWithDefaultPolicy()
+	{
+		server.setError("MGET", "ERR mget failed");
+		GetCoalescer coalescer = new GetCoalescer(operation, 1, 0);
+		assertNull(coalescer.get(operation.keyToBytes(1)));
+
+		server.setError("MGET", null);
+		assertEquals(Integer.valueOf(1), operation.deserializeValue(coalescer.get(operation.keyToBytes(1))));
+	}
+
+	@Test(timeout = 5000)
+	public void getUsesCoalescerWhenEnabled()
+	{
+		operation.enableGetCoalescing(8, 1, TimeUnit.MILLISECONDS);
+		assertEquals(Integer.valueOf(3), operation.get(3));
+		assertEquals(1, server.getCommandCount("MGET"));
+		assertEquals(0, server.getCommandCount("GET"));
+	}
+
+	private static Throwable causeOf(Future<?> future) throws InterruptedException
+	{
+		try
+		{
+			future.get();
+		}
+		catch(ExecutionException e)
+		{
+			return e.getCause();
+		}
+		fail("exception expected");
+		return null;
+	}
+
+	/**
+	 * 等待count个线程在GetCoalescer中阻塞
+	 */
+	private static void waitForParked(int count) throws InterruptedException
+	{
+		while(parkedThreads() < count)
+		{
+			Thread.sleep(1);
+		}
+	}
+
+	private static int parkedThreads()
+	{
+		int count = 0;
+		for(Thread thread : Thread.getAllStackTraces().keySet())
+		{
+			if(thread.getState() == Thread.State.TIMED_WAITING || thread.getState() == Thread.State.WAITING)
+			{
+				for(StackTraceElement element : thread.getStackTrace())
+				{
+					if(element.getClassName().equals(GetCoalescer.class.getName()))
+					{
+						count++;
+						break;
+					}
+				}
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,100 @@
+package core;
+
+import connection.DefaultJedisClientConfiguration;
+import connection.JedisConnectionFactory;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * 三种key组成方式的makeKey与parseKey互为逆过程
+ *
+ * @since 2019/5/15
+ */
+public class KeyLayoutTest
+{
+
+	private static final KeyLayout<String> PLAIN = KeyLayout.plain();
+
+	private static final KeyLayout<String> PREFIX_HASH_TAG = KeyLayout.prefixHashTag();
+
+	private static final KeyLayout<String> HASH_TAG = KeyLayout.hashTag(key -> key.substring(0, key.indexOf(':')));
+
+	private static void assertRoundTrip(KeyLayout<String> layout, String key)
+	{
+		String redisKey = layout.makeKey("user", key);
+		assertEquals(redisKey, key, layout.parseKey("user", redisKey));
+	}
+
+	@Test
+	public void plain()
+	{
+		assertEquals("user_42", PLAIN.makeKey("user", "42"));
+		assertEquals("user_*", PLAIN.keyPattern("user"));
+		assertRoundTrip(PLAIN, "42");
+		assertRoundTrip(PLAIN, "a_b_{c}");
+		assertNull(PLAIN.parseKey("user", "order_42"));
+		assertNull(PLAIN.parseKey("user", "user"));
+	}
+
+	@Test
+	public void prefixHashTag()
+	{
+		assertEquals("{user}_42", PREFIX_HASH_TAG.makeKey("user", "42"));
+		assertEquals("{user}_*", PREFIX_HASH_TAG.keyPattern("user"));
+		assertRoundTrip(PREFIX_HASH_TAG, "42");
+		assertNull(PREFIX_HASH_TAG.parseKey("user", "user_42"));
+	}
+
+	@Test
+	public void hashTag()
+	{
+		assertEquals("user_{tenant}_tenant:42", HASH_TAG.makeKey("user", "tenant:42"));
+		assertEquals("user_{*", HASH_TAG.keyPattern("user"));
+		assertRoundTrip(HASH_TAG, "tenant:42");
+		assertRoundTrip(HASH_TAG, "t:a}_b");
+		assertNull(HASH_TAG.parseKey("user", "user_42"));
+		assertNull(HASH_TAG.parseKey("user", "user_{tenant"));
+	}
+
+	@Test
+	public void customLayoutCannotParseByDefault()
+	{
+		KeyLayout<String> custom = new KeyLayout<String>()
+		{
+			@Override
+			public String makeKey(String keyPrefix, String key)
+			{
+				return key + "@" + keyPrefix;
+			}
+
+			@Override
+			public String keyPattern(String keyPrefix)
+			{
+				return "*@" + keyPrefix;
+			}
+		};
+		assertNull(custom.parseKey("user", custom.makeKey("user", "42")));
+	}
+
+	@Test
+	public void scannedKeysAreParsedByTheOperationLayout()
+	{
+		DefaultStringOpreation<String, Integer> operation = new DefaultStringOpreation<>("user", new RedisTemplate(new JedisConnectionFactory(new DefaultJedisClientConfiguration(new GenericObjectPoolConfig()))), String.class, Integer.class);
+		operation.setKeyLayout(HASH_TAG);
+		assertEquals("tenant:42", operation.deserializeKey(bytes("user_{tenant}_tenant:42")));
+		// 不属于该operation的key原样返回
+		assertEquals("order_1", operation.deserializeKey(bytes("order_1")));
+
+		operation.setKeyLayout(KeyLayout.plain());
+		assertEquals("42", operation.deserializeKey(bytes("user_42")));
+	}
+
+	private static byte[] bytes(String source)
+	{
+		return source.getBytes(StandardCharsets.UTF_8);
+	}
+}
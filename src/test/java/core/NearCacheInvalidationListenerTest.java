@@ -0,0 +1,156 @@
+package core;
+
+import connection.DefaultJedisClientConfiguration;
+import connection.JedisConnectionFactory;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import serializer.GenericJackson2JsonRedisSerializer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * keyspace notification驱动的本地缓存失效，服务端为进程内的{@link RespStubServer}
+ *
+ * @since 2019/5/15
+ */
+public class NearCacheInvalidationListenerTest
+{
+
+	private RespStubServer server;
+
+	private JedisConnectionFactory factory;
+
+	private DefaultStringOpreation<Integer, Integer> operation;
+
+	private NearCacheInvalidationListener listener;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		server = new RespStubServer();
+		factory = connectionFactory(server.getPort());
+		operation = new DefaultStringOpreation<>("test", new RedisTemplate(factory), Integer.class, Integer.class);
+		operation.enableNearCache(100, 1, TimeUnit.MINUTES);
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		if(listener != null)
+		{
+			listener.close();
+		}
+		server.close();
+	}
+
+	private static JedisConnectionFactory connectionFactory(int port)
+	{
+		JedisConnectionFactory ret = new JedisConnectionFactory(new DefaultJedisClientConfiguration(new GenericObjectPoolConfig())
+		{
+			@Override
+			public int getPort()
+			{
+				return port;
+			}
+		});
+		ret.init();
+		return ret;
+	}
+
+	private void store(int key, int value)
+	{
+		server.put("test_" + key, GenericJackson2JsonRedisSerializer.jsonSerializer.serialize(value));
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException
+	{
+		long deadline = System.currentTimeMillis() + 5000;
+		while(!condition.getAsBoolean())
+		{
+			assertTrue("timed out", System.currentTimeMillis() < deadline);
+			Thread.sleep(10);
+		}
+	}
+
+	private void startListener() throws InterruptedException
+	{
+		listener = new NearCacheInvalidationListener(factory);
+		listener.register(operation);
+		listener.start();
+		await(listener::isSubscribed);
+	}
+
+	@Test
+	public void notificationEvictsOnlyTheChangedKey() throws Exception
+	{
+		store(1, 10);
+		store(2, 20);
+		startListener();
+		assertEquals(Integer.valueOf(10), operation.get(1));
+		assertEquals(Integer.valueOf(20), operation.get(2));
+		assertEquals(2, operation.getNearCache().size());
+
+		// 其他进程修改了key，通知到达之前仍然读取本地缓存
+		store(1, 11);
+		assertEquals(Integer.valueOf(10), operation.get(1));
+
+		assertEquals(1, server.publish("__keyspace@0__:test_1", "set"));
+		await(() -> operation.getNearCache().size() == 1);
+		assertEquals(Integer.valueOf(11), operation.get(1));
+		assertEquals(Integer.valueOf(20), operation.get(2));
+	}
+
+	@Test
+	public void notificationForOtherPrefixIsIgnored() throws Exception
+	{
+		store(1, 10);
+		startListener();
+		operation.get(1);
+		assertEquals(0, server.publish("__keyspace@0__:other_1", "set"));
+		assertEquals(1, operation.getNearCache().size());
+	}
+
+	@Test
+	public void invalidationOnlyDiscardsLoadsOfTheSameKey()
+	{
+		NearCache<Integer> cache = new NearCache<>(1000, 1, TimeUnit.MINUTES);
+		long stampA = cache.getInvalidationStamp("a");
+		long stampB = cache.getInvalidationStamp("b");
+		cache.invalidate("b");
+
+		cache.putIfNotInvalidated("a", 1, -1, stampA);
+		cache.putIfNotInvalidated("b", 2, -1, stampB);
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+		assertNull(cache.get("b"));
+
+		long stamp = cache.getInvalidationStamp("a");
+		cache.clear();
+		cache.putIfNotInvalidated("a", 1, -1, stamp);
+		assertNull(cache.get("a"));
+	}
+
+	@Test
+	public void subscriptionFailuresAreCounted() throws Exception
+	{
+		int closedPort;
+		try(ServerSocket socket = new ServerSocket(0))
+		{
+			closedPort = socket.getLocalPort();
+		}
+		JedisConnectionFactory unreachable = connectionFactory(closedPort);
+		listener = new NearCacheInvalidationListener(unreachable);
+		listener.register("test_*", new NearCache<Integer>(10, 1, TimeUnit.MINUTES));
+		listener.start();
+
+		await(() -> unreachable.getMetrics().snapshot().getSubscriptionFailureCount() > 0);
+		assertNotNull(listener.getLastError());
+		assertFalse(listener.isSubscribed());
+	}
+}
@@ -0,0 +1,103 @@
+package core;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 从redis加载与本进程写入、失效交错时，本地缓存不能保留旧value
+ *
+ * @since 2019/5/15
+ */
+public class NearCacheTest
+{
+
+	private final NearCache<String> cache = new NearCache<>(1000, 1, TimeUnit.MINUTES);
+
+	@Test
+	public void loadStartedBeforeSetDoesNotOverwriteIt()
+	{
+		// 加载读取到v0之后、写入本地缓存之前，本进程set了v1
+		long stamp = cache.getInvalidationStamp("k");
+		cache.put("k", "v1", -1);
+		cache.putIfNotInvalidated("k", "v0", -1, stamp);
+		assertEquals("v1", cache.get("k"));
+	}
+
+	@Test
+	public void loadStartedAfterSetIsKept()
+	{
+		cache.put("k", "v1", -1);
+		long stamp = cache.getInvalidationStamp("k");
+		cache.putIfNotInvalidated("k", "v1", -1, stamp);
+		assertEquals("v1", cache.get("k"));
+	}
+
+	@Test
+	public void loadFinishedBeforeSetIsReplaced()
+	{
+		long stamp = cache.getInvalidationStamp("k");
+		cache.putIfNotInvalidated("k", "v0", -1, stamp);
+		cache.put("k", "v1", -1);
+		assertEquals("v1", cache.get("k"));
+	}
+
+	@Test
+	public void loadStartedBeforeInvalidateIsDiscarded()
+	{
+		long stamp = cache.getInvalidationStamp("k");
+		cache.invalidate("k");
+		cache.putIfNotInvalidated("k", "v0", -1, stamp);
+		assertNull(cache.get("k"));
+	}
+
+	@Test
+	public void setOfOneKeyKeepsLoadsOfOthers()
+	{
+		// "a"与"b"的hashCode相邻，落在不同的段
+		long stamp = cache.getInvalidationStamp("a");
+		cache.put("b", "v1", -1);
+		cache.putIfNotInvalidated("a", "v0", -1, stamp);
+		assertEquals("v0", cache.get("a"));
+	}
+
+	@Test
+	public void concurrentLoadsNeverLeaveAnOlderValue() throws InterruptedException
+	{
+		for(int round = 0; round < 200; round++)
+		{
+			NearCache<Integer> shared = new NearCache<>(16, 1, TimeUnit.MINUTES);
+			int[] redis = {0};
+			Thread writer = new Thread(() -> {
+				for(int v = 1; v <= 50; v++)
+				{
+					synchronized(redis)
+					{
+						redis[0] = v;
+					}
+					shared.put("k", v, -1);
+				}
+			});
+			Thread loader = new Thread(() -> {
+				for(int i = 0; i < 50; i++)
+				{
+					long stamp = shared.getInvalidationStamp("k");
+					int value;
+					synchronized(redis)
+					{
+						value = redis[0];
+					}
+					shared.putIfNotInvalidated("k", value, -1, stamp);
+				}
+			});
+			writer.start();
+			loader.start();
+			writer.join();
+			loader.join();
+			Integer cached = shared.get("k");
+			assertTrue("stale " + cached, cached == null || cached == 50);
+		}
+	}
+}
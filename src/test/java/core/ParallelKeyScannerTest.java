@@ -0,0 +1,93 @@
+package core;
+
+import connection.DefaultJedisClientConfiguration;
+import connection.JedisConnectionFactory;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+/**
+ * 分片执行失败时，消费者不能一直阻塞，需要抛出失败的异常
+ * {@link RespStubServer}不支持SCAN，每一页都返回错误
+ *
+ * @since 2019/5/15
+ */
+public class ParallelKeyScannerTest
+{
+
+	private RespStubServer server;
+
+	private ForkJoinPool pool;
+
+	private DefaultStringOpreation<Integer, Integer> operation;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		server = new RespStubServer();
+		pool = new ForkJoinPool(4);
+		int port = server.getPort();
+		JedisConnectionFactory factory = new JedisConnectionFactory(new DefaultJedisClientConfiguration(new GenericObjectPoolConfig())
+		{
+			@Override
+			public int getPort()
+			{
+				return port;
+			}
+		});
+		factory.init();
+		operation = new DefaultStringOpreation<>("test", new RedisTemplate(factory), Integer.class, Integer.class);
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		pool.shutdownNow();
+		server.close();
+	}
+
+	@Test(timeout = 5000)
+	public void failedPageIsThrownFromHasNext()
+	{
+		try(ParallelKeyScanner scanner = operation.parallelScan(10, 1, 4, pool))
+		{
+			scanner.hasNext();
+			fail("failed page must be thrown");
+		}
+		catch(JedisDataException e)
+		{
+			assertTrue(e.getMessage(), e.getMessage().contains("SCAN"));
+		}
+	}
+
+	@Test(timeout = 5000)
+	public void failedPageStopsAllShards()
+	{
+		ParallelKeyScanner scanner = operation.parallelScan(10, 8, 1, pool);
+		try
+		{
+			scanner.forEachRemaining(key -> fail("no key expected"));
+			fail("failed page must be thrown");
+		}
+		catch(JedisDataException e)
+		{
+			// 之后的调用同样抛出，不会被当作正常结束
+			try
+			{
+				scanner.hasNext();
+				fail("failure must not be reported as completion");
+			}
+			catch(JedisDataException again)
+			{
+				assertSame(e, again);
+			}
+		}
+	}
+}
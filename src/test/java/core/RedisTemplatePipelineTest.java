@@ -0,0 +1,137 @@
+package core;
+
+import connection.DefaultJedisClientConfiguration;
+import connection.JedisConnectionFactory;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import serializer.GenericJackson2JsonRedisSerializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * pipeline中只有operation返回value的命令才反序列化，一个结果反序列化失败不影响其他结果
+ *
+ * @since 2019/5/15
+ */
+public class RedisTemplatePipelineTest
+{
+
+	private RespStubServer server;
+
+	private RedisTemplate redisTemplate;
+
+	private DefaultStringOpreation<Integer, Integer> operation;
+
+	@Before
+	public void setUp() throws IOException
+	{
+		server = new RespStubServer();
+		int port = server.getPort();
+		JedisConnectionFactory factory = new JedisConnectionFactory(new DefaultJedisClientConfiguration(new GenericObjectPoolConfig())
+		{
+			@Override
+			public int getPort()
+			{
+				return port;
+			}
+		});
+		factory.init();
+		redisTemplate = new RedisTemplate(factory);
+		operation = new DefaultStringOpreation<>("test", redisTemplate, Integer.class, Integer.class);
+		server.put("test_1", GenericJackson2JsonRedisSerializer.jsonSerializer.serialize(1));
+		server.put("test_2", bytes("not json"));
+		server.put("test_3", GenericJackson2JsonRedisSerializer.jsonSerializer.serialize(3));
+	}
+
+	@After
+	public void tearDown() throws IOException
+	{
+		server.close();
+	}
+
+	private static byte[] bytes(String source)
+	{
+		return source.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void onlyValueRepliesAreDeserialized()
+	{
+		List<Object> results = operation.executePipelined(conn -> {
+			operation.get(1);
+			conn.stringCommands().get(bytes("test_1"));
+			operation.mGet(Arrays.asList(1, 3));
+			return null;
+		});
+		assertEquals(3, results.size());
+		assertEquals(1, results.get(0));
+		assertArrayEquals(GenericJackson2JsonRedisSerializer.jsonSerializer.serialize(1), (byte[]) results.get(1));
+		assertEquals(Arrays.asList(1, 3), results.get(2));
+	}
+
+	@Test
+	public void deserializationFailureOnlyAffectsItsOwnReply()
+	{
+		List<Object> results = operation.executePipelined(conn -> {
+			operation.get(1);
+			operation.get(2);
+			operation.get(3);
+			return null;
+		});
+		assertEquals(3, results.size());
+		assertEquals(1, results.get(0));
+		assertTrue(String.valueOf(results.get(1)), results.get(1) instanceof RuntimeException);
+		assertEquals(3, results.get(2));
+	}
+
+	private long unsupportedFailures()
+	{
+		Long ret = redisTemplate.getMetrics().snapshot().getFailureCounts().get(UnsupportedOperationException.class.getName());
+		return ret != null ? ret : 0L;
+	}
+
+	/**
+	 * pipeline中不支持SCRIPT LOAD，排队时抛出异常
+	 */
+	private String queueUnsupportedCommand()
+	{
+		return redisTemplate.execute(conn -> conn.scriptingCommands().scriptLoad(bytes("return 1")), "default");
+	}
+
+	@Test
+	public void queueFailureIsRecordedAndReturnsDefault()
+	{
+		String[] ret = new String[1];
+		List<Object> results = redisTemplate.executePipelined(conn -> {
+			ret[0] = queueUnsupportedCommand();
+			operation.get(1);
+			return null;
+		});
+		assertEquals("default", ret[0]);
+		assertEquals(Arrays.<Object>asList(1), results);
+		assertEquals(1L, unsupportedFailures());
+	}
+
+	@Test
+	public void queueFailureIsThrownWithThrowPolicy()
+	{
+		redisTemplate.setFailurePolicy(FailurePolicy.THROW);
+		try
+		{
+			redisTemplate.executePipelined(conn -> queueUnsupportedCommand());
+			fail("THROW policy must apply inside executePipelined");
+		}
+		catch(UnsupportedOperationException e)
+		{
+			// 只记录一次
+			assertEquals(1L, unsupportedFailures());
+		}
+	}
+}
@@ -0,0 +1,729 @@
+package core;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * 进程内的RESP协议服务端，用于不依赖redis的测试，基准测试也复用它
+ * 只支持用到的少量命令（PING、SELECT、GET、SET、MGET、DEL、EXISTS、PTTL、EVAL、EVALSHA、ZCARD、ZRANGE、ZRANGEBYSCORE、PSUBSCRIBE、PUNSUBSCRIBE），数据保存在内存中
+ * 过期时间在读取时检查，EVAL不执行lua，由{@link #setScriptHandler(BiFunction)}模拟脚本的结果
+ * 与真实的redis server相比没有网络抖动和服务端负载，测到的是客户端请求路径本身的开销
+ * 不会自动发布keyspace notification，测试中通过{@link #publish(String, String)}模拟其他进程的修改
+ *
+ * @since 2019/5/7
+ */
+public class RespStubServer implements Closeable
+{
+
+	private static final byte[] CRLF = {'\r', '\n'};
+	private static final byte[] OK = "+OK\r\n".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] PONG = "+PONG\r\n".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] NIL = "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+
+	private final Map<String, byte[]> data = new ConcurrentHashMap<>();
+
+	/**
+	 * 有序集合，按score和member排序，与data中的key互相独立，不支持过期
+	 */
+	private final Map<String, List<ScoredMember>> sortedSets = new ConcurrentHashMap<>();
+
+	/**
+	 * key的过期时间点，毫秒
+	 */
+	private final Map<String, Long> expires = new ConcurrentHashMap<>();
+
+	/**
+	 * 每个命令收到的次数
+	 */
+	private final Map<String, AtomicInteger> commandCounts = new ConcurrentHashMap<>();
+
+	/**
+	 * 设置之后该命令直接回复错误
+	 */
+	private final Map<String, String> errors = new ConcurrentHashMap<>();
+
+	private volatile BiFunction<List<String>, List<byte[]>, Long> scriptHandler;
+
+	/**
+	 * 所有连接的pattern订阅
+	 */
+	private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+	private final ServerSocket serverSocket;
+
+	private final Thread acceptor;
+
+	private volatile boolean running = true;
+
+	public RespStubServer() throws IOException
+	{
+		this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		this.acceptor = new Thread(this::accept, "resp-stub-acceptor");
+		this.acceptor.setDaemon(true);
+		this.acceptor.start();
+	}
+
+	public int getPort()
+	{
+		return serverSocket.getLocalPort();
+	}
+
+	public void put(String key, byte[] value)
+	{
+		expires.remove(key);
+		data.put(key, value);
+	}
+
+	/**
+	 * @param key
+	 * @param value
+	 * @param pTtl  过期时间，毫秒
+	 */
+	public void put(String key, byte[] value, long pTtl)
+	{
+		data.put(key, value);
+		expires.put(key, System.currentTimeMillis() + pTtl);
+	}
+
+	public byte[] get(String key)
+	{
+		return lookup(key);
+	}
+
+	public void remove(String key)
+	{
+		expires.remove(key);
+		data.remove(key);
+	}
+
+	/**
+	 * 向有序集合中添加member，member已经存在时更新score
+	 *
+	 * @param key
+	 * @param score
+	 * @param member
+	 */
+	public void zAdd(String key, double score, byte[] member)
+	{
+		List<ScoredMember> members = sortedSets.computeIfAbsent(key, k -> new ArrayList<>());
+		synchronized(members)
+		{
+			members.removeIf(scored -> Arrays.equals(scored.member, member));
+			members.add(new ScoredMember(score, member));
+			members.sort(ScoredMember.ORDER);
+		}
+	}
+
+	/**
+	 * @param command 命令名，大写
+	 * @return 收到该命令的次数，pipeline中的命令也逐条计数
+	 */
+	public int getCommandCount(String command)
+	{
+		AtomicInteger count = commandCounts.get(command);
+		return count != null ? count.get() : 0;
+	}
+
+	/**
+	 * 之后收到该命令时回复错误，error为null时恢复正常
+	 *
+	 * @param command 命令名，大写
+	 * @param error   例如"ERR something wrong"
+	 */
+	public void setError(String command, String error)
+	{
+		if(error == null)
+		{
+			errors.remove(command);
+		}
+		else
+		{
+			errors.put(command, error);
+		}
+	}
+
+	/**
+	 * EVALSHA总是回复NOSCRIPT，EVAL的结果由handler计算
+	 *
+	 * @param scriptHandler 参数为KEYS和ARGV，返回整数结果
+	 */
+	public void setScriptHandler(BiFunction<List<String>, List<byte[]>, Long> scriptHandler)
+	{
+		this.scriptHandler = scriptHandler;
+	}
+
+	/**
+	 * 向匹配channel的pattern订阅发送消息
+	 *
+	 * @param channel
+	 * @param message
+	 * @return 收到消息的订阅数量
+	 */
+	public int publish(String channel, String message) throws IOException
+	{
+		int count = 0;
+		for(Subscription subscription : subscriptions)
+		{
+			if(globMatches(subscription.pattern, 0, channel, 0))
+			{
+				synchronized(subscription.out)
+				{
+					writeHeader(subscription.out, '*', 4);
+					writeBulk(subscription.out, "pmessage".getBytes(StandardCharsets.US_ASCII));
+					writeBulk(subscription.out, subscription.pattern.getBytes(StandardCharsets.ISO_8859_1));
+					writeBulk(subscription.out, channel.getBytes(StandardCharsets.ISO_8859_1));
+					writeBulk(subscription.out, message.getBytes(StandardCharsets.ISO_8859_1));
+					subscription.out.flush();
+				}
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return 当前的pattern订阅数量
+	 */
+	public int getSubscriptionCount()
+	{
+		return subscriptions.size();
+	}
+
+	private void accept()
+	{
+		while(running)
+		{
+			try
+			{
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				Thread worker = new Thread(() -> serve(socket), "resp-stub-worker");
+				worker.setDaemon(true);
+				worker.start();
+			}
+			catch(IOException e)
+			{
+				// server closed
+			}
+		}
+	}
+
+	private void serve(Socket socket)
+	{
+		try(Socket s = socket;
+		    InputStream in = new BufferedInputStream(s.getInputStream());
+		    OutputStream out = new BufferedOutputStream(s.getOutputStream()))
+		{
+			List<byte[]> command;
+			try
+			{
+				while((command = readCommand(in)) != null)
+				{
+					// 订阅的连接上publish可能同时写入
+					synchronized(out)
+					{
+						reply(command, out);
+						// 客户端使用pipeline时，攒够一批回复再flush
+						if(in.available() == 0)
+						{
+							out.flush();
+						}
+					}
+				}
+			}
+			finally
+			{
+				subscriptions.removeIf(subscription -> subscription.out == out);
+			}
+		}
+		catch(SocketException e)
+		{
+			// client disconnected
+		}
+		catch(IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void reply(List<byte[]> command, OutputStream out) throws IOException
+	{
+		String name = new String(command.get(0), StandardCharsets.US_ASCII).toUpperCase();
+		commandCounts.computeIfAbsent(name, k -> new AtomicInteger()).incrementAndGet();
+		String error = errors.get(name);
+		if(error != null)
+		{
+			out.write(("-" + error + "\r\n").getBytes(StandardCharsets.US_ASCII));
+			return;
+		}
+		switch(name)
+		{
+			case "PSUBSCRIBE":
+				for(int i = 1; i < command.size(); i++)
+				{
+					subscriptions.add(new Subscription(key(command.get(i)), out));
+					writeSubscriptionReply(out, "psubscribe", command.get(i), countSubscriptions(out));
+				}
+				break;
+			case "PUNSUBSCRIBE":
+			{
+				List<byte[]> patterns = new ArrayList<>(command.subList(1, command.size()));
+				if(patterns.isEmpty())
+				{
+					for(Subscription subscription : subscriptions)
+					{
+						if(subscription.out == out)
+						{
+							patterns.add(subscription.pattern.getBytes(StandardCharsets.ISO_8859_1));
+						}
+					}
+				}
+				if(patterns.isEmpty())
+				{
+					writeSubscriptionReply(out, "punsubscribe", null, 0);
+				}
+				for(byte[] pattern : patterns)
+				{
+					String unsubscribed = key(pattern);
+					subscriptions.removeIf(subscription -> subscription.out == out && subscription.pattern.equals(unsubscribed));
+					writeSubscriptionReply(out, "punsubscribe", pattern, countSubscriptions(out));
+				}
+				break;
+			}
+			case "PTTL":
+			{
+				String key = key(command.get(1));
+				Long expireAt = expires.get(key);
+				writeHeader(out, ':', lookup(key) == null ? -2 : expireAt == null ? -1 : Math.max(expireAt - System.currentTimeMillis(), 0));
+				break;
+			}
+			case "PING":
+				out.write(PONG);
+				break;
+			case "SELECT":
+			case "QUIT":
+				out.write(OK);
+				break;
+			case "GET":
+				writeBulk(out, lookup(key(command.get(1))));
+				break;
+			case "SET":
+				out.write(set(command) ? OK : NIL);
+				break;
+			case "MGET":
+				writeHeader(out, '*', command.size() - 1);
+				for(int i = 1; i < command.size(); i++)
+				{
+					writeBulk(out, lookup(key(command.get(i))));
+				}
+				break;
+			case "EVALSHA":
+				out.write("-NOSCRIPT No matching script. Please use EVAL.\r\n".getBytes(StandardCharsets.US_ASCII));
+				break;
+			case "EVAL":
+			{
+				BiFunction<List<String>, List<byte[]>, Long> handler = scriptHandler;
+				if(handler == null)
+				{
+					out.write("-ERR no script handler\r\n".getBytes(StandardCharsets.US_ASCII));
+					break;
+				}
+				int numKeys = Integer.parseInt(key(command.get(2)));
+				List<String> keys = new ArrayList<>(numKeys);
+				for(int i = 0; i < numKeys; i++)
+				{
+					keys.add(key(command.get(3 + i)));
+				}
+				writeHeader(out, ':', handler.apply(keys, command.subList(3 + numKeys, command.size())));
+				break;
+			}
+			case "ZCARD":
+				writeHeader(out, ':', zRange(key(command.get(1))).size());
+				break;
+			case "ZRANGE":
+			{
+				List<ScoredMember> members = zRange(key(command.get(1)));
+				int size = members.size();
+				int start = (int) Long.parseLong(key(command.get(2)));
+				int stop = (int) Long.parseLong(key(command.get(3)));
+				start = Math.max(start < 0 ? size + start : start, 0);
+				stop = Math.min(stop < 0 ? size + stop : stop, size - 1);
+				writeMembers(out, start <= stop ? members.subList(start, stop + 1) : new ArrayList<>(), false);
+				break;
+			}
+			case "ZRANGEBYSCORE":
+				zRangeByScore(command, out);
+				break;
+			case "DEL":
+			case "EXISTS":
+				int count = 0;
+				for(int i = 1; i < command.size(); i++)
+				{
+					String key = key(command.get(i));
+					if("DEL".equals(name) ? lookup(key) != null && data.remove(key) != null : lookup(key) != null)
+					{
+						count++;
+					}
+				}
+				writeHeader(out, ':', count);
+				break;
+			default:
+				out.write(("-ERR unknown command '" + name + "'\r\n").getBytes(StandardCharsets.US_ASCII));
+		}
+	}
+
+	private List<ScoredMember> zRange(String key)
+	{
+		List<ScoredMember> members = sortedSets.get(key);
+		if(members == null)
+		{
+			return new ArrayList<>();
+		}
+		synchronized(members)
+		{
+			return new ArrayList<>(members);
+		}
+	}
+
+	/**
+	 * ZRANGEBYSCORE key min max [WITHSCORES] [LIMIT offset count]，min和max支持(、-inf、+inf
+	 */
+	private void zRangeByScore(List<byte[]> command, OutputStream out) throws IOException
+	{
+		String min = key(command.get(2));
+		String max = key(command.get(3));
+		boolean withScores = false;
+		int offset = 0;
+		int count = -1;
+		for(int i = 4; i < command.size(); i++)
+		{
+			String option = key(command.get(i)).toUpperCase();
+			if("WITHSCORES".equals(option))
+			{
+				withScores = true;
+			}
+			else if("LIMIT".equals(option))
+			{
+				offset = Integer.parseInt(key(command.get(++i)));
+				count = Integer.parseInt(key(command.get(++i)));
+			}
+		}
+
+		List<ScoredMember> ret = new ArrayList<>();
+		for(ScoredMember member : zRange(key(command.get(1))))
+		{
+			if(aboveMin(member.score, min) && belowMax(member.score, max))
+			{
+				ret.add(member);
+			}
+		}
+		int from = Math.min(offset, ret.size());
+		int to = count < 0 ? ret.size() : Math.min(from + count, ret.size());
+		writeMembers(out, ret.subList(from, to), withScores);
+	}
+
+	private static boolean aboveMin(double score, String min)
+	{
+		return min.startsWith("(") ? score > parseScore(min.substring(1)) : score >= parseScore(min);
+	}
+
+	private static boolean belowMax(double score, String max)
+	{
+		return max.startsWith("(") ? score < parseScore(max.substring(1)) : score <= parseScore(max);
+	}
+
+	private static double parseScore(String score)
+	{
+		switch(score.toLowerCase())
+		{
+			case "-inf":
+				return Double.NEGATIVE_INFINITY;
+			case "inf":
+			case "+inf":
+				return Double.POSITIVE_INFINITY;
+			default:
+				return Double.parseDouble(score);
+		}
+	}
+
+	private static void writeMembers(OutputStream out, List<ScoredMember> members, boolean withScores) throws IOException
+	{
+		writeHeader(out, '*', withScores ? members.size() * 2 : members.size());
+		for(ScoredMember member : members)
+		{
+			writeBulk(out, member.member);
+			if(withScores)
+			{
+				String score = Double.isInfinite(member.score) ? (member.score > 0 ? "inf" : "-inf") : Double.toString(member.score);
+				writeBulk(out, score.getBytes(StandardCharsets.US_ASCII));
+			}
+		}
+	}
+
+	/**
+	 * SET key value [EX seconds|PX milliseconds] [NX|XX]
+	 *
+	 * @return NX/XX条件不满足时返回false
+	 */
+	private boolean set(List<byte[]> command)
+	{
+		String key = key(command.get(1));
+		long pTtl = -1;
+		boolean nx = false;
+		boolean xx = false;
+		for(int i = 3; i < command.size(); i++)
+		{
+			String option = key(command.get(i)).toUpperCase();
+			if("NX".equals(option))
+			{
+				nx = true;
+			}
+			else if("XX".equals(option))
+			{
+				xx = true;
+			}
+			else if("PX".equals(option) || "EX".equals(option))
+			{
+				pTtl = Long.parseLong(key(command.get(++i))) * ("EX".equals(option) ? 1000 : 1);
+			}
+		}
+		// 并发的SET NX只能有一个成功
+		synchronized(data)
+		{
+			boolean exists = lookup(key) != null;
+			if((nx && exists) || (xx && !exists))
+			{
+				return false;
+			}
+			if(pTtl > 0)
+			{
+				put(key, command.get(2), pTtl);
+			}
+			else
+			{
+				put(key, command.get(2));
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * 读取时删除已经过期的key
+	 */
+	private byte[] lookup(String key)
+	{
+		Long expireAt = expires.get(key);
+		if(expireAt != null && expireAt <= System.currentTimeMillis())
+		{
+			remove(key);
+			return null;
+		}
+		return data.get(key);
+	}
+
+	private int countSubscriptions(OutputStream out)
+	{
+		int count = 0;
+		for(Subscription subscription : subscriptions)
+		{
+			if(subscription.out == out)
+			{
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static void writeSubscriptionReply(OutputStream out, String kind, byte[] pattern, int count) throws IOException
+	{
+		writeHeader(out, '*', 3);
+		writeBulk(out, kind.getBytes(StandardCharsets.US_ASCII));
+		writeBulk(out, pattern);
+		writeHeader(out, ':', count);
+	}
+
+	/**
+	 * 只支持*和?
+	 */
+	private static boolean globMatches(String pattern, int p, String text, int t)
+	{
+		while(p < pattern.length())
+		{
+			char c = pattern.charAt(p);
+			if(c == '*')
+			{
+				for(int i = t; i <= text.length(); i++)
+				{
+					if(globMatches(pattern, p + 1, text, i))
+					{
+						return true;
+					}
+				}
+				return false;
+			}
+			if(t >= text.length() || (c != '?' && c != text.charAt(t)))
+			{
+				return false;
+			}
+			p++;
+			t++;
+		}
+		return t == text.length();
+	}
+
+	private static String key(byte[] raw)
+	{
+		return new String(raw, StandardCharsets.ISO_8859_1);
+	}
+
+	private static void writeHeader(OutputStream out, char type, long value) throws IOException
+	{
+		out.write(type);
+		out.write(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+		out.write(CRLF);
+	}
+
+	private static void writeBulk(OutputStream out, byte[] value) throws IOException
+	{
+		if(value == null)
+		{
+			out.write(NIL);
+			return;
+		}
+		writeHeader(out, '$', value.length);
+		out.write(value);
+		out.write(CRLF);
+	}
+
+	/**
+	 * 读取一条命令：*<argc>\r\n 之后跟 argc 个 $<len>\r\n<bytes>\r\n
+	 *
+	 * @return 连接关闭时返回null
+	 */
+	private static List<byte[]> readCommand(InputStream in) throws IOException
+	{
+		int type = in.read();
+		if(type == -1)
+		{
+			return null;
+		}
+		if(type != '*')
+		{
+			throw new IOException("only multi bulk requests are supported");
+		}
+		int argc = (int) readLong(in);
+		List<byte[]> args = new ArrayList<>(argc);
+		for(int i = 0; i < argc; i++)
+		{
+			if(in.read() != '$')
+			{
+				throw new IOException("bulk string expected");
+			}
+			byte[] arg = new byte[(int) readLong(in)];
+			int offset = 0;
+			while(offset < arg.length)
+			{
+				int read = in.read(arg, offset, arg.length - offset);
+				if(read == -1)
+				{
+					throw new EOFException();
+				}
+				offset += read;
+			}
+			in.read();
+			in.read();
+			args.add(arg);
+		}
+		return args;
+	}
+
+	private static long readLong(InputStream in) throws IOException
+	{
+		long value = 0;
+		boolean negative = false;
+		int b;
+		while((b = in.read()) != '\r')
+		{
+			if(b == -1)
+			{
+				throw new EOFException();
+			}
+			if(b == '-')
+			{
+				negative = true;
+			}
+			else
+			{
+				value = value * 10 + (b - '0');
+			}
+		}
+		in.read();
+		return negative ? -value : value;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		running = false;
+		serverSocket.close();
+	}
+
+
+	private static final class ScoredMember
+	{
+		/**
+		 * 与redis相同，score相同时按member的字节序排列
+		 */
+		static final Comparator<ScoredMember> ORDER = Comparator.<ScoredMember>comparingDouble(scored -> scored.score)
+				.thenComparing((a, b) -> compareBytes(a.member, b.member));
+
+		final double score;
+
+		final byte[] member;
+
+		ScoredMember(double score, byte[] member)
+		{
+			this.score = score;
+			this.member = member;
+		}
+
+		private static int compareBytes(byte[] a, byte[] b)
+		{
+			for(int i = 0; i < Math.min(a.length, b.length); i++)
+			{
+				int diff = (a[i] & 0xff) - (b[i] & 0xff);
+				if(diff != 0)
+				{
+					return diff;
+				}
+			}
+			return a.length - b.length;
+		}
+	}
+
+	private static final class Subscription
+	{
+		final String pattern;
+
+		final OutputStream out;
+
+		Subscription(String pattern, OutputStream out)
+		{
+			this.pattern = pattern;
+			this.out = out;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package core;
+
+import org.junit.Test;
+import redis.clients.jedis.ScanResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * SCAN可能连续返回空页，cursor为0时才结束
+ *
+ * @since 2019/5/15
+ */
+public class ScanIteratorTest
+{
+
+	/**
+	 * 按顺序返回预先设定的页，记录每次请求的cursor
+	 */
+	private static final class Pages implements Function<byte[], ScanResult<String>>
+	{
+		final List<String> cursors = new ArrayList<>();
+
+		private final List<ScanResult<String>> pages = new ArrayList<>();
+
+		Pages page(String nextCursor, String... elements)
+		{
+			pages.add(new ScanResult<>(nextCursor, Arrays.asList(elements)));
+			return this;
+		}
+
+		@Override
+		public ScanResult<String> apply(byte[] cursor)
+		{
+			cursors.add(new String(cursor, StandardCharsets.US_ASCII));
+			assertTrue("scan continued after cursor 0", cursors.size() <= pages.size());
+			return pages.get(cursors.size() - 1);
+		}
+
+		ScanIterator<String, String> iterator()
+		{
+			return new ScanIterator<>(this, Function.identity());
+		}
+	}
+
+	@Test
+	public void skipsEmptyPages()
+	{
+		Pages pages = new Pages().page("5").page("9", "a").page("3").page("7").page("0", "b", "c");
+		assertEquals(Arrays.asList("a", "b", "c"), pages.iterator().stream().collect(Collectors.toList()));
+		assertEquals(Arrays.asList("0", "5", "9", "3", "7"), pages.cursors);
+	}
+
+	@Test
+	public void stopsOnEmptyLastPage()
+	{
+		Pages pages = new Pages().page("5", "a").page("8").page("0");
+		ScanIterator<String, String> iterator = pages.iterator();
+		assertEquals("a", iterator.next());
+		assertFalse(iterator.hasNext());
+		assertFalse(iterator.hasNext());
+		assertEquals(3, pages.cursors.size());
+		try
+		{
+			iterator.next();
+			fail("NoSuchElementException expected");
+		}
+		catch(NoSuchElementException e)
+		{
+			// expected
+		}
+	}
+
+	@Test
+	public void emptyKeyspace()
+	{
+		Pages pages = new Pages().page("0");
+		assertFalse(pages.iterator().hasNext());
+		assertEquals(Collections.singletonList("0"), pages.cursors);
+	}
+
+	@Test
+	public void fetchesLazily()
+	{
+		Pages pages = new Pages().page("4", "a", "b").page("0", "c");
+		ScanIterator<String, String> iterator = pages.iterator();
+		assertTrue(pages.cursors.isEmpty());
+		assertEquals("a", iterator.stream().findFirst().orElse(null));
+		assertEquals(1, pages.cursors.size());
+	}
+
+	@Test
+	public void convertsElements()
+	{
+		Pages pages = new Pages().page("0", "a", "bb");
+		List<Integer> lengths = new ArrayList<>();
+		new ScanIterator<>(pages, String::length).forEachRemaining(lengths::add);
+		assertEquals(Arrays.asList(1, 2), lengths);
+	}
+
+	@Test
+	public void pageFailureIsThrown()
+	{
+		IllegalStateException error = new IllegalStateException("scan failed");
+		ScanIterator<String, String> iterator = new ScanIterator<>(cursor -> {
+			throw error;
+		}, Function.identity());
+		try
+		{
+			iterator.hasNext();
+			fail("exception expected");
+		}
+		catch(IllegalStateException e)
+		{
+			assertSame(error, e);
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package core;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.*;
+
+/**
+ * 同一个key并发的读取只执行一次
+ *
+ * @since 2019/5/15
+ */
+public class SingleFlightTest
+{
+
+	private static final int WAITERS = 4;
+
+	private final SingleFlight<String> singleFlight = new SingleFlight<>();
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp()
+	{
+		executor = Executors.newCachedThreadPool();
+	}
+
+	@After
+	public void tearDown()
+	{
+		executor.shutdownNow();
+	}
+
+	@Test(timeout = 5000)
+	public void concurrentCallsShareOneLoad() throws Exception
+	{
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch release = new CountDownLatch(1);
+		List<Future<String>> results = startWaiters(() -> {
+			loads.incrementAndGet();
+			await(release);
+			return "value";
+		});
+		release.countDown();
+
+		for(Future<String> result : results)
+		{
+			assertEquals("value", result.get());
+		}
+		assertEquals(1, loads.get());
+	}
+
+	@Test(timeout = 5000)
+	public void exceptionIsSharedByWaiters() throws Exception
+	{
+		CountDownLatch release = new CountDownLatch(1);
+		IllegalStateException error = new IllegalStateException("load failed");
+		List<Future<String>> results = startWaiters(() -> {
+			await(release);
+			throw error;
+		});
+		release.countDown();
+
+		for(Future<String> result : results)
+		{
+			try
+			{
+				result.get();
+				fail("exception expected");
+			}
+			catch(ExecutionException e)
+			{
+				assertSame(error, e.getCause());
+			}
+		}
+		// 失败的结果不保留，下一次读取重新执行
+		assertEquals("retry", singleFlight.execute(key("a"), () -> "retry"));
+	}
+
+	@Test
+	public void completedCallIsNotCached()
+	{
+		AtomicInteger loads = new AtomicInteger();
+		assertEquals("1", singleFlight.execute(key("a"), () -> String.valueOf(loads.incrementAndGet())));
+		assertEquals("2", singleFlight.execute(key("a"), () -> String.valueOf(loads.incrementAndGet())));
+	}
+
+	@Test(timeout = 5000)
+	public void differentKeysAreNotMerged() throws Exception
+	{
+		CountDownLatch release = new CountDownLatch(1);
+		Future<String> blocked = executor.submit(() -> singleFlight.execute(key("a"), () -> {
+			await(release);
+			return "a";
+		}));
+		// a的读取还在执行时，b不需要等待它
+		assertEquals("b", singleFlight.execute(key("b"), () -> "b"));
+		release.countDown();
+		assertEquals("a", blocked.get());
+	}
+
+	/**
+	 * 第一个线程开始执行loader之后，其他线程用内容相同的另一个数组作为key读取
+	 */
+	private List<Future<String>> startWaiters(Supplier<String> loader) throws InterruptedException
+	{
+		CountDownLatch started = new CountDownLatch(1);
+		List<Future<String>> results = new ArrayList<>();
+		results.add(executor.submit(() -> singleFlight.execute(key("a"), () -> {
+			started.countDown();
+			return loader.get();
+		})));
+		started.await();
+		for(int i = 1; i < WAITERS; i++)
+		{
+			results.add(executor.submit(() -> singleFlight.execute(key("a"), () -> {
+				throw new AssertionError("loader should run once");
+			})));
+		}
+		waitForJoined(WAITERS - 1);
+		return results;
+	}
+
+	private static byte[] key(String key)
+	{
+		return key.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private static void await(CountDownLatch latch)
+	{
+		try
+		{
+			latch.await();
+		}
+		catch(InterruptedException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 等待count个线程在共享的结果上阻塞
+	 */
+	private static void waitForJoined(int count) throws InterruptedException
+	{
+		while(joinedThreads() < count)
+		{
+			Thread.sleep(1);
+		}
+	}
+
+	private static int joinedThreads()
+	{
+		int count = 0;
+		for(Thread thread : Thread.getAllStackTraces().keySet())
+		{
+			if(thread.getState() != Thread.State.WAITING)
+			{
+				continue;
+			}
+			StackTraceElement[] stack = thread.getStackTrace();
+			boolean joining = false;
+			for(StackTraceElement element : stack)
+			{
+				if(element.getMethodName().equals("join") && element.getClassName().equals("java.util.concurrent.CompletableFuture"))
+				{
+					joining = true;
+				}
+				else if(joining && element.getClassName().equals(SingleFlight.class.getName()))
+				{
+					count++;
+					break;
+				}
+			}
+		}
+		return count;
+	}
+}
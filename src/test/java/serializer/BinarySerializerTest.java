@@ -0,0 +1,266 @@
+package serializer;
+
+import exception.SerializationException;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * BinarySerializer的读写往返，不需要redis
+ *
+ * @since 2019/5/15
+ */
+public class BinarySerializerTest
+{
+
+	enum Color
+	{
+		RED, GREEN
+	}
+
+	static class Child
+	{
+		String name;
+
+		int age;
+	}
+
+	static class Fields
+	{
+		int i;
+		long l;
+		double d;
+		float f;
+		short s;
+		byte b;
+		char c;
+		boolean z;
+
+		Integer boxed;
+		String string;
+		byte[] bytes;
+		Date date;
+		Color color;
+		Child child;
+		Object any;
+
+		Collection<Integer> collection;
+		List<Integer> list;
+		ArrayList<Integer> arrayList;
+		LinkedList<Integer> linkedList;
+		Queue<Integer> queue;
+		Deque<Integer> deque;
+		ArrayDeque<Integer> arrayDeque;
+		CopyOnWriteArrayList<Integer> copyOnWriteList;
+
+		Set<String> set;
+		HashSet<String> hashSet;
+		LinkedHashSet<String> linkedHashSet;
+		SortedSet<String> sortedSet;
+		NavigableSet<String> navigableSet;
+		TreeSet<String> treeSet;
+		ConcurrentSkipListSet<String> skipListSet;
+
+		Map<String, Integer> map;
+		HashMap<String, Integer> hashMap;
+		LinkedHashMap<String, Integer> linkedHashMap;
+		SortedMap<String, Integer> sortedMap;
+		TreeMap<String, Integer> treeMap;
+		ConcurrentMap<String, Integer> concurrentMap;
+		ConcurrentHashMap<String, Integer> concurrentHashMap;
+		ConcurrentSkipListMap<String, Integer> skipListMap;
+		Map<String, List<Child>> nested;
+	}
+
+	static class StackField
+	{
+		Stack<Integer> stack;
+	}
+
+	static class LinkedListField
+	{
+		LinkedList<Integer> list;
+	}
+
+	private BinarySerializer serializer()
+	{
+		return new BinarySerializer().register(1, Color.class).register(2, Child.class).register(3, Fields.class);
+	}
+
+	private Object roundTrip(BinarySerializer serializer, Object value)
+	{
+		return serializer.deserialize(serializer.serialize(value));
+	}
+
+	private static Child child(String name, int age)
+	{
+		Child ret = new Child();
+		ret.name = name;
+		ret.age = age;
+		return ret;
+	}
+
+	@Test
+	public void allFieldShapes()
+	{
+		Fields source = new Fields();
+		source.i = -7;
+		source.l = Long.MIN_VALUE;
+		source.d = 0.1;
+		source.f = -1.5f;
+		source.s = Short.MAX_VALUE;
+		source.b = -3;
+		source.c = '中';
+		source.z = true;
+		source.boxed = 42;
+		source.string = "字符串";
+		source.bytes = new byte[]{1, 2, 3};
+		source.date = new Date(1557900000000L);
+		source.color = Color.GREEN;
+		source.child = child("a", 3);
+		source.any = new TreeMap<>(Collections.singletonMap("k", 1));
+
+		List<Integer> ints = Arrays.asList(3, 1, 2);
+		source.collection = new ArrayList<>(ints);
+		source.list = Collections.unmodifiableList(ints);
+		source.arrayList = new ArrayList<>(ints);
+		source.linkedList = new LinkedList<>(ints);
+		source.queue = new ArrayDeque<>(ints);
+		source.deque = new LinkedList<>(ints);
+		source.arrayDeque = new ArrayDeque<>(ints);
+		source.copyOnWriteList = new CopyOnWriteArrayList<>(ints);
+
+		List<String> strings = Arrays.asList("c", "a", "b");
+		source.set = new HashSet<>(strings);
+		source.hashSet = new HashSet<>(strings);
+		source.linkedHashSet = new LinkedHashSet<>(strings);
+		source.sortedSet = new TreeSet<>(strings);
+		source.navigableSet = new ConcurrentSkipListSet<>(strings);
+		source.treeSet = new TreeSet<>(strings);
+		source.skipListSet = new ConcurrentSkipListSet<>(strings);
+
+		Map<String, Integer> entries = new LinkedHashMap<>();
+		entries.put("c", 3);
+		entries.put("a", 1);
+		entries.put("b", 2);
+		source.map = new HashMap<>(entries);
+		source.hashMap = new HashMap<>(entries);
+		source.linkedHashMap = new LinkedHashMap<>(entries);
+		source.sortedMap = new TreeMap<>(entries);
+		source.treeMap = new TreeMap<>(entries);
+		source.concurrentMap = new ConcurrentSkipListMap<>(entries);
+		source.concurrentHashMap = new ConcurrentHashMap<>(entries);
+		source.skipListMap = new ConcurrentSkipListMap<>(entries);
+		source.nested = Collections.singletonMap("x", Collections.singletonList(child("b", 4)));
+
+		Fields ret = (Fields) roundTrip(serializer(), source);
+
+		assertEquals(source.i, ret.i);
+		assertEquals(source.l, ret.l);
+		assertEquals(source.d, ret.d, 0);
+		assertEquals(source.f, ret.f, 0);
+		assertEquals(source.s, ret.s);
+		assertEquals(source.b, ret.b);
+		assertEquals(source.c, ret.c);
+		assertEquals(source.z, ret.z);
+		assertEquals(source.boxed, ret.boxed);
+		assertEquals(source.string, ret.string);
+		assertArrayEquals(source.bytes, ret.bytes);
+		assertEquals(source.date, ret.date);
+		assertSame(Color.GREEN, ret.color);
+		assertEquals("a", ret.child.name);
+		assertEquals(3, ret.child.age);
+		assertEquals(TreeMap.class, ret.any.getClass());
+		assertEquals(source.any, ret.any);
+
+		assertEquals(ints, new ArrayList<>(ret.collection));
+		assertEquals(ints, ret.list);
+		assertEquals(ints, ret.arrayList);
+		assertEquals(LinkedList.class, ret.linkedList.getClass());
+		assertEquals(ints, ret.linkedList);
+		assertEquals(ArrayDeque.class, ret.queue.getClass());
+		assertEquals(ints, new ArrayList<>(ret.queue));
+		assertEquals(LinkedList.class, ret.deque.getClass());
+		assertEquals(ints, new ArrayList<>(ret.arrayDeque));
+		assertEquals(ints, ret.copyOnWriteList);
+
+		assertEquals(source.set, ret.set);
+		assertEquals(source.hashSet, ret.hashSet);
+		assertEquals(strings, new ArrayList<>(ret.linkedHashSet));
+		assertEquals(TreeSet.class, ret.sortedSet.getClass());
+		assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(ret.sortedSet));
+		assertEquals(ConcurrentSkipListSet.class, ret.navigableSet.getClass());
+		assertEquals(source.treeSet, ret.treeSet);
+		assertEquals(source.skipListSet, ret.skipListSet);
+
+		assertEquals(entries, ret.map);
+		assertEquals(entries, ret.hashMap);
+		assertEquals(new ArrayList<>(entries.keySet()), new ArrayList<>(ret.linkedHashMap.keySet()));
+		assertEquals(TreeMap.class, ret.sortedMap.getClass());
+		assertEquals(Arrays.asList("a", "b", "c"), new ArrayList<>(ret.treeMap.keySet()));
+		assertEquals(ConcurrentSkipListMap.class, ret.concurrentMap.getClass());
+		assertEquals(entries, ret.concurrentHashMap);
+		assertEquals(entries, ret.skipListMap);
+		assertEquals("b", ret.nested.get("x").get(0).name);
+	}
+
+	@Test
+	public void nullFields()
+	{
+		Fields ret = (Fields) roundTrip(serializer(), new Fields());
+		assertNull(ret.string);
+		assertNull(ret.treeMap);
+		assertNull(ret.child);
+	}
+
+	@Test
+	public void topLevelCollectionsKeepTheirType()
+	{
+		BinarySerializer serializer = new BinarySerializer();
+		TreeMap<String, Integer> treeMap = new TreeMap<>();
+		treeMap.put("b", 2);
+		treeMap.put("a", 1);
+		Object ret = roundTrip(serializer, treeMap);
+		assertEquals(TreeMap.class, ret.getClass());
+		assertEquals(treeMap, ret);
+
+		assertEquals(LinkedList.class, roundTrip(serializer, new LinkedList<>(Arrays.asList(1, 2))).getClass());
+		assertEquals(ArrayDeque.class, roundTrip(serializer, new ArrayDeque<>(Arrays.asList(1, 2))).getClass());
+		assertEquals(ConcurrentHashMap.class, roundTrip(serializer, new ConcurrentHashMap<>(treeMap)).getClass());
+		assertEquals(ArrayList.class, roundTrip(serializer, Arrays.asList(1, 2)).getClass());
+		assertEquals(LinkedHashSet.class, roundTrip(serializer, new HashSet<>(Arrays.asList(1, 2))).getClass());
+		assertEquals(LinkedHashMap.class, roundTrip(serializer, new HashMap<>(treeMap)).getClass());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsUnreadableFieldTypeOnRegister()
+	{
+		new BinarySerializer().register(1, StackField.class);
+	}
+
+	@Test(expected = SerializationException.class)
+	public void rejectsValueThatCanNotBeReadBackIntoField()
+	{
+		LinkedListField source = new LinkedListField();
+		// LinkedList的子类会被读取为ArrayList
+		source.list = new LinkedList<Integer>()
+		{
+		};
+		new BinarySerializer().register(1, LinkedListField.class).serialize(source);
+	}
+
+	@Test(expected = SerializationException.class)
+	public void rejectsComparator()
+	{
+		TreeSet<String> set = new TreeSet<>(Comparator.reverseOrder());
+		set.add("a");
+		new BinarySerializer().serialize(set);
+	}
+}